@@ -0,0 +1,105 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.benchmarks;
+
+import fr.onsiea.ludani.tests.Camera;
+import fr.onsiea.ludani.tests.Render;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matrices computed every frame : model transformations, projections and camera view, the camera view rebuilt after a turn
+ * or read back unchanged from its cache
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class CameraMathBenchmark
+{
+	private Vector3f offset;
+	private Vector3f rotation;
+	private Matrix4f matrix;
+	private Matrix4f model;
+	private Camera   camera;
+
+	@Setup
+	public void setup()
+	{
+		offset   = new Vector3f(12.0f, 4.0f, -7.0f);
+		rotation = new Vector3f(15.0f, 30.0f, 45.0f);
+		matrix   = new Matrix4f();
+		model    = Render.transformations(offset, rotation, 1.5f, new Matrix4f());
+		camera   = new Camera(6.0D, 0.4D);
+		camera.position(3.0f, 40.0f, -8.0f).projection(Render.projections(90.0f, 0.1f, 1000.0f, 1920, 1080, new Matrix4f()));
+	}
+
+	@Benchmark
+	public Matrix4f transformations()
+	{
+		return Render.transformations(offset, rotation, 1.5f, matrix);
+	}
+
+	@Benchmark
+	public Matrix4f projections()
+	{
+		return Render.projections(90.0f, 0.1f, 1000.0f, 1920, 1080, matrix);
+	}
+
+	@Benchmark
+	public Matrix4fc view()
+	{
+		return camera.rotate(0.0f, 0.25f).view();
+	}
+
+	@Benchmark
+	public Matrix4fc cachedView()
+	{
+		return camera.view();
+	}
+
+	@Benchmark
+	public Matrix4f modelViewProjection()
+	{
+		return camera.rotate(0.0f, 0.25f).modelViewProjection(model, matrix);
+	}
+}
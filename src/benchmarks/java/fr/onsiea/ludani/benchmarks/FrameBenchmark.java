@@ -0,0 +1,225 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.benchmarks;
+
+import fr.onsiea.ludani.culling.ChunkGrid;
+import fr.onsiea.ludani.culling.Frustum;
+import fr.onsiea.ludani.gl.GLFences;
+import fr.onsiea.ludani.gl.GLState;
+import fr.onsiea.ludani.gl.HeadlessGL;
+import fr.onsiea.ludani.gl.RecordingGL;
+import fr.onsiea.ludani.mesh.IndexType;
+import fr.onsiea.ludani.mesh.VertexFormat;
+import fr.onsiea.ludani.render.ArenaMesh;
+import fr.onsiea.ludani.render.MeshArena;
+import fr.onsiea.ludani.render.RenderQueue;
+import fr.onsiea.ludani.render.StreamBuffer;
+import fr.onsiea.ludani.terrain.VoxelChunk;
+import fr.onsiea.ludani.terrain.noise.FractalNoiseGenerator;
+import fr.onsiea.ludani.terrain.streaming.ChunkStreamer;
+import fr.onsiea.ludani.terrain.streaming.HeightmapTerrainGenerator;
+import fr.onsiea.ludani.terrain.streaming.IChunkStreamListener;
+import fr.onsiea.ludani.terrain.streaming.StreamedColumn;
+import org.joml.Matrix4f;
+import org.lwjgl.opengl.GL32;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole frames of the engine without window nor GPU, the work done by each framework iteration : streaming uploads into a
+ * mesh arena, frustum culling of the chunk grid and submission of the visible meshes through a render queue, recorded over
+ * a {@link HeadlessGL}. The terrain around the start is streamed before measuring, then the camera circles over it so that
+ * every frame draws the same amount of terrain. Only engine classes are used, the test renderer and its framework stay out
+ * of the benchmarks.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class FrameBenchmark implements IChunkStreamListener
+{
+	private final static int   STREAMING_RADIUS  = 8;
+	private final static int   UPLOADS_PER_FRAME = 4;
+	private final static int   ARENA_VERTICES    = 1 << 20;
+	private final static int   ARENA_INDICES     = 1 << 21;
+	private final static int   STREAM_BYTES      = 1 << 18;
+	private final static int   STREAM_FRAMES     = 3;
+	private final static float CAMERA_HEIGHT     = 60.0f;
+	// Radius of the circle in voxels and radians turned per frame
+	private final static float CAMERA_ORBIT      = 48.0f;
+	private final static float CAMERA_TURN       = 0.01f;
+
+	private RecordingGL           gl;
+	private GLState               state;
+	private StreamBuffer          stream;
+	private MeshArena             arena;
+	private ChunkStreamer         streamer;
+	private ChunkGrid<Mesh>       chunkGrid;
+	private Map<Long, List<Mesh>> columnMeshes;
+	private List<Mesh>            visibleMeshes;
+	private Frustum               frustum;
+	private Matrix4f              viewProjection;
+	private RenderQueue           queue;
+	private int                   program;
+	private int                   uniform;
+	private float                 cameraAngle;
+
+	@Setup
+	public void setup() throws InterruptedException
+	{
+		gl             = new RecordingGL(new HeadlessGL(true, true));
+		state          = new GLState(gl);
+		stream         = new StreamBuffer(state, new GLFences(gl), GL32.GL_ARRAY_BUFFER, STREAM_BYTES, STREAM_FRAMES);
+		arena          = new MeshArena(state, stream, VertexFormat.BYTE_POSITIONS_NORMALS, IndexType.UNSIGNED_INT, ARENA_VERTICES, ARENA_INDICES);
+		streamer       = new ChunkStreamer(new HeightmapTerrainGenerator(new FractalNoiseGenerator(6, 0.75f, 0.024f), 0x5EEDL, 25), VertexFormat.BYTE_POSITIONS_NORMALS, 1, STREAMING_RADIUS, 8 * STREAMING_RADIUS * STREAMING_RADIUS);
+		chunkGrid      = new ChunkGrid<>(VoxelChunk.SIZE * 4);
+		columnMeshes   = new HashMap<>();
+		visibleMeshes  = new ArrayList<>();
+		frustum        = new Frustum();
+		viewProjection = new Matrix4f();
+		queue          = new RenderQueue(16);
+		program        = gl.glCreateProgram();
+		uniform        = gl.glGetUniformLocation(program, "modelViewProjection");
+
+		// Columns are generated on the streamer threads
+		while (streamer.update(0.0f, 0.0f).pendingCount() > 0 || streamer.loadedCount() == 0)
+		{
+			streamer.drain(this, Integer.MAX_VALUE);
+			Thread.sleep(1L);
+		}
+		gl.endFrame();
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		streamer.unloadAll(this);
+		streamer.close();
+		arena.cleanup();
+		stream.cleanup();
+	}
+
+	@Override
+	public void load(StreamedColumn columnIn)
+	{
+		var meshes = new ArrayList<Mesh>();
+		for (var i = 0; i < columnIn.chunks().size(); i++)
+		{
+			var packedMesh = columnIn.meshes().get(i);
+			if (packedMesh == null)
+			{
+				continue;
+			}
+
+			var chunk = columnIn.chunks().get(i);
+			var mesh  = new Mesh(arena.add(packedMesh), chunk.x() * VoxelChunk.SIZE, chunk.y() * VoxelChunk.SIZE, chunk.z() * VoxelChunk.SIZE);
+			chunkGrid.add(mesh, mesh.x, mesh.y, mesh.z, mesh.x + VoxelChunk.SIZE, mesh.y + VoxelChunk.SIZE, mesh.z + VoxelChunk.SIZE);
+			meshes.add(mesh);
+		}
+		columnMeshes.put(columnIn.key(), meshes);
+	}
+
+	@Override
+	public void unload(StreamedColumn columnIn)
+	{
+		var meshes = columnMeshes.remove(columnIn.key());
+		if (meshes == null)
+		{
+			return;
+		}
+
+		for (var mesh : meshes)
+		{
+			chunkGrid.remove(mesh);
+			arena.remove(mesh.mesh);
+		}
+	}
+
+	@Benchmark
+	public long frame()
+	{
+		cameraAngle += CAMERA_TURN;
+		var cos = (float) Math.cos(cameraAngle);
+		var sin = (float) Math.sin(cameraAngle);
+		var x   = CAMERA_ORBIT * cos;
+		var z   = CAMERA_ORBIT * sin;
+		streamer.update(x, z);
+		streamer.drain(this, UPLOADS_PER_FRAME);
+
+		// Looking ahead along the circle and slightly down
+		viewProjection.setPerspective((float) Math.toRadians(90.0f), 16.0f / 9.0f, 0.1f, 1000.0f).lookAt(x, CAMERA_HEIGHT, z, x - 40.0f * sin, CAMERA_HEIGHT - 10.0f, z + 40.0f * cos, 0.0f, 1.0f, 0.0f);
+		frustum.update(viewProjection);
+		visibleMeshes.clear();
+		chunkGrid.visible(frustum, visibleMeshes);
+
+		for (var mesh : visibleMeshes)
+		{
+			arena.draw(mesh.mesh, mesh.x, mesh.y, mesh.z);
+		}
+		queue.add(program, arena.vertexArray(), uniform, viewProjection, 0.0f, () -> arena.submit(GL32.GL_TRIANGLES));
+		queue.submit(state);
+		stream.endFrame();
+
+		return gl.endFrame().drawCalls();
+	}
+
+	/**
+	 * Arena mesh of a chunk drawn at its voxel origin
+	 */
+	private final static class Mesh
+	{
+		private final ArenaMesh mesh;
+		private final int       x;
+		private final int       y;
+		private final int       z;
+
+		private Mesh(ArenaMesh meshIn, int xIn, int yIn, int zIn)
+		{
+			mesh = meshIn;
+			x    = xIn;
+			y    = yIn;
+			z    = zIn;
+		}
+	}
+}
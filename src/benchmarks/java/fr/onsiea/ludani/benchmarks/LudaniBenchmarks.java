@@ -0,0 +1,162 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Run the benchmarks once per thread count with the GC profiler, then compare each score to the baseline of the machine.
+ * System properties : benchmarks.threads, thread counts separated by commas (1,2,4 and the available processors by default),
+ * benchmarks.include, regex of the benchmarks to run, and benchmarks.record to store the scores as the new baseline.
+ * Each benchmark runs in one fork, 3 warmup and 5 measured iterations of one second. The baseline keeps the machine it was
+ * recorded on, scores are only comparable on the same one, so it is not versioned : each machine records its own.
+ * JSON results go to target/benchmarks.
+ */
+public class LudaniBenchmarks
+{
+	private final static Path   RESULTS_DIRECTORY = Path.of("target", "benchmarks");
+	private final static Path   BASELINE          = Path.of("src", "benchmarks", "resources", "baseline.properties");
+	private final static String ALLOCATION        = "gc.alloc.rate.norm";
+	// Baseline key of the machine description, benchmark keys always hold a '@'
+	private final static String MACHINE           = "machine";
+	private final static int    WARMUPS           = 3;
+	private final static int    MEASUREMENTS      = 5;
+
+	public static void main(final String[] args) throws IOException, RunnerException
+	{
+		var threadsProperty = System.getProperty("benchmarks.threads", "");
+		var includeProperty = System.getProperty("benchmarks.include", "");
+		var threads         = threadsProperty.isBlank() ? defaultThreads() : parseThreads(threadsProperty);
+		var include         = includeProperty.isBlank() ? LudaniBenchmarks.class.getPackageName() + ".*" : includeProperty;
+		var record          = Boolean.getBoolean("benchmarks.record");
+		var baseline        = new Properties();
+		if (Files.exists(BASELINE))
+		{
+			try (Reader reader = Files.newBufferedReader(BASELINE))
+			{
+				baseline.load(reader);
+			}
+			System.out.println("Baseline recorded on " + baseline.getProperty(MACHINE, "an unknown machine") + ", running on " + machine());
+		}
+		else
+		{
+			System.out.println("No baseline in " + BASELINE + ", record one with -Dbenchmarks.record=true");
+		}
+		Files.createDirectories(RESULTS_DIRECTORY);
+
+		var scores = new Properties();
+		scores.setProperty(MACHINE, machine());
+		for (var threadCount : threads)
+		{
+			var options = new OptionsBuilder().include(include).threads(threadCount).forks(1).warmupIterations(WARMUPS).warmupTime(TimeValue.seconds(1)).measurementIterations(MEASUREMENTS).measurementTime(TimeValue.seconds(1)).addProfiler(GCProfiler.class).resultFormat(ResultFormatType.JSON).result(RESULTS_DIRECTORY.resolve("threads-" + threadCount + ".json").toString()).build();
+
+			System.out.println("Threads " + threadCount + " :");
+			for (var result : new Runner(options).run())
+			{
+				var key        = key(result, threadCount);
+				var score      = result.getPrimaryResult().getScore();
+				var allocation = result.getSecondaryResults().get(ALLOCATION);
+				var previous   = baseline.getProperty(key);
+				System.out.printf("  %-72s %14.1f %s %12s B/op%s%n", key, score, result.getPrimaryResult().getScoreUnit(), allocation != null ? String.format("%.1f", allocation.getScore()) : "-", previous != null ? String.format("  x%.3f of baseline", score / Double.parseDouble(previous)) : "");
+				scores.setProperty(key, Double.toString(score));
+			}
+		}
+
+		if (record)
+		{
+			Files.createDirectories(BASELINE.getParent());
+			try (Writer writer = Files.newBufferedWriter(BASELINE))
+			{
+				scores.store(writer, "Ludani benchmark baseline, ops/s");
+			}
+			System.out.println("Baseline recorded : " + BASELINE);
+		}
+	}
+
+	/**
+	 * @return processors, operating system and virtual machine running the benchmarks
+	 */
+	private static String machine()
+	{
+		return Runtime.getRuntime().availableProcessors() + " processors " + System.getProperty("os.arch") + ", " + System.getProperty("os.name") + " " + System.getProperty("os.version") + ", " + System.getProperty("java.vm.name") + " " + System.getProperty("java.vm.version") + ", " + Runtime.getRuntime().maxMemory() / (1024 * 1024) + " MiB heap";
+	}
+
+	private static List<Integer> parseThreads(String threadsIn)
+	{
+		var threads = new ArrayList<Integer>();
+		for (var count : threadsIn.split(","))
+		{
+			threads.add(Integer.parseInt(count.trim()));
+		}
+
+		return threads;
+	}
+
+	private static List<Integer> defaultThreads()
+	{
+		var threads = new TreeSet<>(List.of(1, 2, 4, Runtime.getRuntime().availableProcessors()));
+
+		return new ArrayList<>(threads);
+	}
+
+	/**
+	 * @return benchmark name, parameters and thread count, the same on every run
+	 */
+	private static String key(RunResult resultIn, int threadsIn)
+	{
+		var params = resultIn.getParams();
+		var key    = new StringBuilder(params.getBenchmark().substring(LudaniBenchmarks.class.getPackageName().length() + 1));
+		for (var name : params.getParamsKeys())
+		{
+			key.append(':').append(name).append('=').append(params.getParam(name));
+		}
+
+		return key.append('@').append(threadsIn).toString();
+	}
+}
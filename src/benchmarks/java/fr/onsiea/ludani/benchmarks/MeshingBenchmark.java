@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.benchmarks;
+
+import fr.onsiea.ludani.mesh.MeshBuilder;
+import fr.onsiea.ludani.mesh.VertexFormat;
+import fr.onsiea.ludani.terrain.VoxelChunk;
+import fr.onsiea.ludani.terrain.VoxelWorld;
+import fr.onsiea.ludani.terrain.meshing.GreedyMesher;
+import fr.onsiea.ludani.terrain.noise.FractalNoiseGenerator;
+import fr.onsiea.ludani.terrain.streaming.HeightmapTerrainGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Greedy meshing and packing of a generated terrain column, each benchmark thread with its own mesher
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class MeshingBenchmark
+{
+	private VoxelWorld       world;
+	private List<VoxelChunk> column;
+	private GreedyMesher     mesher;
+
+	@Setup
+	public void setup()
+	{
+		world = new VoxelWorld();
+		new HeightmapTerrainGenerator(new FractalNoiseGenerator(6, 0.75f, 0.024f), 0x5EEDL, 25).generate(0, 0, world);
+		column = new ArrayList<>();
+		for (var chunk : world.chunks())
+		{
+			if (chunk.x() == 0 && chunk.z() == 0)
+			{
+				column.add(chunk);
+			}
+		}
+		column.sort(Comparator.comparingInt(VoxelChunk::y));
+		mesher = new GreedyMesher();
+	}
+
+	@Benchmark
+	public void column(Blackhole blackholeIn)
+	{
+		for (var chunk : column)
+		{
+			var builder = new MeshBuilder(VertexFormat.BYTE_POSITIONS_NORMALS, chunk.x() * VoxelChunk.SIZE, chunk.y() * VoxelChunk.SIZE, chunk.z() * VoxelChunk.SIZE, null);
+			if (mesher.mesh(world, chunk, builder) > 0)
+			{
+				blackholeIn.consume(builder.build());
+			}
+		}
+	}
+}
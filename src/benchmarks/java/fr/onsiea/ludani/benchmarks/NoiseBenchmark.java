@@ -0,0 +1,111 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.benchmarks;
+
+import fr.onsiea.ludani.terrain.VoxelWorld;
+import fr.onsiea.ludani.terrain.noise.FractalNoiseGenerator;
+import fr.onsiea.ludani.terrain.noise.NoiseKernels;
+import fr.onsiea.ludani.terrain.noise.NoiseMap;
+import fr.onsiea.ludani.terrain.streaming.HeightmapTerrainGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fractal noise maps as generated for the terrain, with the tiles spread over pools of growing parallelism
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class NoiseBenchmark
+{
+	private final static long SEED = 0x5EEDL;
+
+	@Param({"1", "2", "4"})
+	private int    parallelism;
+	@Param({"scalar", "preferred"})
+	private String kernels;
+	@Param({"256"})
+	private int    size;
+
+	private ForkJoinPool              pool;
+	private FractalNoiseGenerator     generator;
+	private HeightmapTerrainGenerator terrainGenerator;
+
+	@Setup
+	public void setup()
+	{
+		pool             = new ForkJoinPool(parallelism);
+		generator        = new FractalNoiseGenerator(6, 0.75f, 0.024f, FractalNoiseGenerator.DEFAULT_TILE_SIZE, pool, "scalar".equals(kernels) ? NoiseKernels.scalar() : NoiseKernels.preferred());
+		terrainGenerator = new HeightmapTerrainGenerator(generator, NoiseBenchmark.SEED, 25);
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public NoiseMap fractal()
+	{
+		return generator.generate(NoiseBenchmark.SEED, size, size);
+	}
+
+	@Benchmark
+	public NoiseMap simplex()
+	{
+		return generator.generateSimplex(NoiseBenchmark.SEED, size, size);
+	}
+
+	/**
+	 * Noise and voxels of one terrain column
+	 */
+	@Benchmark
+	public VoxelWorld column()
+	{
+		var world = new VoxelWorld();
+		terrainGenerator.generate(0, 0, world);
+
+		return world;
+	}
+}
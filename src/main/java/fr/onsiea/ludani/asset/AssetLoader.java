@@ -0,0 +1,247 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.asset;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Reads and decodes assets on background threads so that the thread owning the GL context never waits on files. Results
+ * come back as futures completed on the loader threads, the GL objects are then created by their owner.
+ * Shaders go through it today, meshes and textures are meant to follow the same way : read and decode here, upload on the
+ * GL thread.
+ */
+public class AssetLoader implements AutoCloseable
+{
+	private final @Getter IAssetSource    source;
+	private final @Getter ExecutorService executor;
+	private final         boolean         ownsExecutor;
+	private final         AtomicLong      readCount;
+	private final         AtomicLong      readBytes;
+
+	/**
+	 * Load on two daemon threads, reading mostly waits on the disk
+	 */
+	public AssetLoader(IAssetSource sourceIn)
+	{
+		this(sourceIn, AssetLoader.workers(2), true);
+	}
+
+	/**
+	 * @param executorIn any executor, e.g. a virtual thread per task one, it is not shut down by {@link #close()}
+	 */
+	public AssetLoader(IAssetSource sourceIn, ExecutorService executorIn)
+	{
+		this(sourceIn, executorIn, false);
+	}
+
+	private AssetLoader(IAssetSource sourceIn, ExecutorService executorIn, boolean ownsExecutorIn)
+	{
+		source       = sourceIn;
+		executor     = executorIn;
+		ownsExecutor = ownsExecutorIn;
+		readCount    = new AtomicLong();
+		readBytes    = new AtomicLong();
+	}
+
+	private static ExecutorService workers(int countIn)
+	{
+		var counter = new AtomicInteger();
+
+		return Executors.newFixedThreadPool(countIn, runnableIn ->
+		{
+			var thread = new Thread(runnableIn, "ludani-asset-loader-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+
+			return thread;
+		});
+	}
+
+	/**
+	 * @return pathIn relative to the directory of fromIn, "." and ".." segments removed, or pathIn itself when it starts
+	 * with '/'
+	 *
+	 * @throws IllegalArgumentException when the path goes above the root of the source
+	 */
+	public static String resolve(String fromIn, String pathIn)
+	{
+		var segments = new ArrayDeque<String>();
+		var path     = pathIn;
+		if (path.startsWith("/"))
+		{
+			path = path.substring(1);
+		}
+		else
+		{
+			var directoryEnd = fromIn.lastIndexOf('/');
+			if (directoryEnd >= 0)
+			{
+				path = fromIn.substring(0, directoryEnd + 1) + path;
+			}
+		}
+
+		for (var segment : path.split("/"))
+		{
+			if (segment.isEmpty() || segment.equals("."))
+			{
+				continue;
+			}
+			if (segment.equals(".."))
+			{
+				if (segments.pollLast() == null)
+				{
+					throw new IllegalArgumentException(pathIn + " from " + fromIn + " is above the root of the assets");
+				}
+				continue;
+			}
+			segments.addLast(segment);
+		}
+
+		return String.join("/", segments);
+	}
+
+	/**
+	 * Read on the calling thread, for work already running on the loader threads
+	 *
+	 * @throws NoSuchFileException when the source has no asset at pathIn
+	 */
+	public byte[] read(String pathIn) throws IOException
+	{
+		var bytes = source.read(pathIn);
+		if (bytes == null)
+		{
+			throw new NoSuchFileException(pathIn);
+		}
+		readCount.incrementAndGet();
+		readBytes.addAndGet(bytes.length);
+
+		return bytes;
+	}
+
+	/**
+	 * {@link #read(String)} decoded from UTF-8
+	 */
+	public String readText(String pathIn) throws IOException
+	{
+		return new String(read(pathIn), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Run taskIn on the loader threads, checked exceptions complete the future exceptionally
+	 */
+	public <T> CompletableFuture<T> submit(Callable<T> taskIn)
+	{
+		return CompletableFuture.supplyAsync(() ->
+		{
+			try
+			{
+				return taskIn.call();
+			}
+			catch (IOException eIn)
+			{
+				throw new UncheckedIOException(eIn);
+			}
+			catch (RuntimeException eIn)
+			{
+				throw eIn;
+			}
+			catch (Exception eIn)
+			{
+				throw new CompletionException(eIn);
+			}
+		}, executor);
+	}
+
+	/**
+	 * Read then decode the asset on the loader threads
+	 */
+	public <T> CompletableFuture<T> load(String pathIn, Function<byte[], T> decoderIn)
+	{
+		return submit(() -> decoderIn.apply(read(pathIn)));
+	}
+
+	public CompletableFuture<String> text(String pathIn)
+	{
+		return submit(() -> readText(pathIn));
+	}
+
+	public long readCount()
+	{
+		return readCount.get();
+	}
+
+	public long readBytes()
+	{
+		return readBytes.get();
+	}
+
+	/**
+	 * Wait for the running loads, the queued ones still run
+	 */
+	@Override
+	public void close()
+	{
+		if (!ownsExecutor)
+		{
+			return;
+		}
+
+		executor.shutdown();
+		try
+		{
+			if (!executor.awaitTermination(10, TimeUnit.SECONDS))
+			{
+				executor.shutdownNow();
+			}
+		}
+		catch (InterruptedException eIn)
+		{
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+}
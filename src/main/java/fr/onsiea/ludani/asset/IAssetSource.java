@@ -0,0 +1,91 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.asset;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Where assets are read from, paths are relative and separated by '/' whatever the platform.
+ * Implementations are called from the {@link AssetLoader} threads, possibly several at once.
+ */
+@FunctionalInterface
+public interface IAssetSource
+{
+	/**
+	 * Files of a directory, paths leaving it are refused
+	 */
+	static IAssetSource directory(Path rootIn)
+	{
+		var root = rootIn.toAbsolutePath().normalize();
+
+		return pathIn ->
+		{
+			var path = root.resolve(pathIn).normalize();
+			if (!path.startsWith(root))
+			{
+				throw new IOException("Asset " + pathIn + " is outside of " + root);
+			}
+
+			try
+			{
+				return Files.readAllBytes(path);
+			}
+			catch (NoSuchFileException eIn)
+			{
+				return null;
+			}
+		};
+	}
+
+	/**
+	 * Resources of a class loader, e.g. the assets packed in the jar of the game
+	 */
+	static IAssetSource classpath(ClassLoader loaderIn)
+	{
+		return pathIn ->
+		{
+			try (var stream = loaderIn.getResourceAsStream(pathIn))
+			{
+				return stream == null ? null : stream.readAllBytes();
+			}
+		};
+	}
+
+	/**
+	 * @return bytes of the asset at pathIn, null if there is none
+	 */
+	byte[] read(String pathIn) throws IOException;
+}
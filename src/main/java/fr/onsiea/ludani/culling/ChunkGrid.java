@@ -0,0 +1,300 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.culling;
+
+import lombok.Getter;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loose grid of chunk bounding boxes on the x, z plane. Each box goes in the cell containing its center and every cell keeps
+ * the union of its boxes, so a query tests the cells first and only tests the boxes of the cells crossing the frustum.
+ *
+ * @param <T> value returned by visibility queries, typically the chunk mesh
+ */
+public class ChunkGrid<T>
+{
+	private final   float              cellSize;
+	private final   Map<Long, Cell<T>> cells;
+	private final   List<Cell<T>>      cellList;
+	private final   Map<T, Cell<T>>    cellsByValue;
+	// Number of box tests (cells and chunks) of the last query
+	private @Getter int                testedCount;
+
+	/**
+	 * @param cellSizeIn world size of a cell on x and z, a few chunks wide
+	 */
+	public ChunkGrid(float cellSizeIn)
+	{
+		if (cellSizeIn <= 0)
+		{
+			throw new IllegalArgumentException("Cell size must be positive : " + cellSizeIn);
+		}
+
+		cellSize     = cellSizeIn;
+		cells        = new HashMap<>();
+		cellList     = new ArrayList<>();
+		cellsByValue = new HashMap<>();
+	}
+
+	private static long key(int cellXIn, int cellZIn)
+	{
+		return (long) cellXIn << 32 | cellZIn & 0xFFFFFFFFL;
+	}
+
+	public ChunkGrid<T> add(T valueIn, float minXIn, float minYIn, float minZIn, float maxXIn, float maxYIn, float maxZIn)
+	{
+		if (cellsByValue.containsKey(valueIn))
+		{
+			remove(valueIn);
+		}
+
+		var cellX = (int) Math.floor((minXIn + maxXIn) * 0.5f / cellSize);
+		var cellZ = (int) Math.floor((minZIn + maxZIn) * 0.5f / cellSize);
+		var cell  = cells.get(ChunkGrid.key(cellX, cellZ));
+		if (cell == null)
+		{
+			cell = new Cell<>(ChunkGrid.key(cellX, cellZ));
+			cells.put(cell.key, cell);
+			cellList.add(cell);
+		}
+		cell.add(valueIn, minXIn, minYIn, minZIn, maxXIn, maxYIn, maxZIn);
+		cellsByValue.put(valueIn, cell);
+
+		return this;
+	}
+
+	public boolean remove(T valueIn)
+	{
+		var cell = cellsByValue.remove(valueIn);
+		if (cell == null)
+		{
+			return false;
+		}
+
+		cell.remove(valueIn);
+		if (cell.count == 0)
+		{
+			cells.remove(cell.key);
+			cellList.remove(cell);
+		}
+
+		return true;
+	}
+
+	public boolean contains(T valueIn)
+	{
+		return cellsByValue.containsKey(valueIn);
+	}
+
+	public int size()
+	{
+		return cellsByValue.size();
+	}
+
+	public int cellCount()
+	{
+		return cellList.size();
+	}
+
+	public void clear()
+	{
+		cells.clear();
+		cellList.clear();
+		cellsByValue.clear();
+	}
+
+	/**
+	 * Append the values whose box is at least partially inside the frustum
+	 *
+	 * @return number of visible values
+	 */
+	public int visible(Frustum frustumIn, List<T> visibleOut)
+	{
+		var visibleCount = 0;
+		testedCount = 0;
+		for (var i = 0; i < cellList.size(); i++)
+		{
+			var cell = cellList.get(i);
+			if (cell.dirty)
+			{
+				cell.bounds();
+			}
+
+			testedCount++;
+			var crossed = frustumIn.crossedPlanes(cell.minX, cell.minY, cell.minZ, cell.maxX, cell.maxY, cell.maxZ);
+			if (crossed == Frustum.OUTSIDE_MASK)
+			{
+				continue;
+			}
+
+			if (crossed == 0)
+			{
+				// Copied at once, far views keep most cells whole
+				visibleOut.addAll(cell.view);
+				visibleCount += cell.count;
+				continue;
+			}
+
+			for (var entry = 0; entry < cell.count; entry++)
+			{
+				// The boxes are on the inner side of every plane not crossing the cell
+				if (cell.test(frustumIn, entry, crossed))
+				{
+					visibleOut.add(cell.value(entry));
+					visibleCount++;
+				}
+			}
+			testedCount += cell.count;
+		}
+
+		return visibleCount;
+	}
+
+	private final static class Cell<T>
+	{
+		private final long     key;
+		// minX, minY, minZ, maxX, maxY, maxZ per entry
+		private       float[]  boxes;
+		private       Object[] values;
+		private final List<T>  view;
+		private       int      count;
+		private       boolean  dirty;
+		private       float    minX;
+		private       float    minY;
+		private       float    minZ;
+		private       float    maxX;
+		private       float    maxY;
+		private       float    maxZ;
+
+		private Cell(long keyIn)
+		{
+			key    = keyIn;
+			boxes  = new float[6 * 8];
+			values = new Object[8];
+			view   = new AbstractList<>()
+			{
+				@Override
+				public T get(int indexIn)
+				{
+					return value(indexIn);
+				}
+
+				@Override
+				public int size()
+				{
+					return count;
+				}
+
+				// Read by ArrayList.addAll, a single array copy instead of an add per value
+				@Override
+				public Object[] toArray()
+				{
+					return Arrays.copyOf(values, count);
+				}
+			};
+		}
+
+		private void add(Object valueIn, float minXIn, float minYIn, float minZIn, float maxXIn, float maxYIn, float maxZIn)
+		{
+			if (count == values.length)
+			{
+				values = Arrays.copyOf(values, count * 2);
+				boxes  = Arrays.copyOf(boxes, count * 2 * 6);
+			}
+
+			var offset = count * 6;
+			boxes[offset]     = minXIn;
+			boxes[offset + 1] = minYIn;
+			boxes[offset + 2] = minZIn;
+			boxes[offset + 3] = maxXIn;
+			boxes[offset + 4] = maxYIn;
+			boxes[offset + 5] = maxZIn;
+			values[count]     = valueIn;
+			count++;
+			dirty = true;
+		}
+
+		private void remove(Object valueIn)
+		{
+			for (var entry = 0; entry < count; entry++)
+			{
+				if (values[entry].equals(valueIn))
+				{
+					// Swap with the last entry, order does not matter
+					count--;
+					values[entry] = values[count];
+					values[count] = null;
+					System.arraycopy(boxes, count * 6, boxes, entry * 6, 6);
+					dirty = true;
+
+					return;
+				}
+			}
+		}
+
+		private void bounds()
+		{
+			minX = minY = minZ = Float.POSITIVE_INFINITY;
+			maxX = maxY = maxZ = Float.NEGATIVE_INFINITY;
+			for (var offset = 0; offset < count * 6; offset += 6)
+			{
+				minX = Math.min(minX, boxes[offset]);
+				minY = Math.min(minY, boxes[offset + 1]);
+				minZ = Math.min(minZ, boxes[offset + 2]);
+				maxX = Math.max(maxX, boxes[offset + 3]);
+				maxY = Math.max(maxY, boxes[offset + 4]);
+				maxZ = Math.max(maxZ, boxes[offset + 5]);
+			}
+			dirty = false;
+		}
+
+		private boolean test(Frustum frustumIn, int entryIn, int planesIn)
+		{
+			var offset = entryIn * 6;
+
+			return frustumIn.testAabb(boxes[offset], boxes[offset + 1], boxes[offset + 2], boxes[offset + 3], boxes[offset + 4], boxes[offset + 5], planesIn);
+		}
+
+		@SuppressWarnings("unchecked")
+		private T value(int entryIn)
+		{
+			return (T) values[entryIn];
+		}
+	}
+}
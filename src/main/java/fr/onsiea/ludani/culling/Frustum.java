@@ -0,0 +1,190 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.culling;
+
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+
+/**
+ * Six world space planes extracted from projections * view (Gribb and Hartmann), normals point inside the frustum
+ */
+public class Frustum
+{
+	public final static int OUTSIDE      = 0;
+	public final static int INTERSECT    = 1;
+	public final static int INSIDE       = 2;
+	// Plane mask of a box outside the frustum, the other masks only have the bits of the six planes
+	public final static int OUTSIDE_MASK = -1;
+
+	private final static int PLANE_COUNT = 6;
+	private final static int ALL_PLANES  = (1 << Frustum.PLANE_COUNT) - 1;
+
+	// a, b, c, d per plane : left, right, bottom, top, near, far
+	private final float[]  planes;
+	private final Matrix4f projectionsView;
+
+	public Frustum()
+	{
+		planes          = new float[Frustum.PLANE_COUNT * 4];
+		projectionsView = new Matrix4f();
+	}
+
+	public Frustum update(Matrix4fc projectionsIn, Matrix4fc viewIn)
+	{
+		return update(projectionsIn.mul(viewIn, projectionsView));
+	}
+
+	public Frustum update(Matrix4fc projectionsViewIn)
+	{
+		var m = projectionsViewIn;
+		plane(0, m.m03() + m.m00(), m.m13() + m.m10(), m.m23() + m.m20(), m.m33() + m.m30());
+		plane(1, m.m03() - m.m00(), m.m13() - m.m10(), m.m23() - m.m20(), m.m33() - m.m30());
+		plane(2, m.m03() + m.m01(), m.m13() + m.m11(), m.m23() + m.m21(), m.m33() + m.m31());
+		plane(3, m.m03() - m.m01(), m.m13() - m.m11(), m.m23() - m.m21(), m.m33() - m.m31());
+		plane(4, m.m03() + m.m02(), m.m13() + m.m12(), m.m23() + m.m22(), m.m33() + m.m32());
+		plane(5, m.m03() - m.m02(), m.m13() - m.m12(), m.m23() - m.m22(), m.m33() - m.m32());
+
+		return this;
+	}
+
+	private void plane(int planeIn, float aIn, float bIn, float cIn, float dIn)
+	{
+		var inverseLength = (float) (1.0D / Math.sqrt(aIn * aIn + bIn * bIn + cIn * cIn));
+		var offset        = planeIn * 4;
+		planes[offset]     = aIn * inverseLength;
+		planes[offset + 1] = bIn * inverseLength;
+		planes[offset + 2] = cIn * inverseLength;
+		planes[offset + 3] = dIn * inverseLength;
+	}
+
+	/**
+	 * @return {@link Frustum#OUTSIDE}, {@link Frustum#INTERSECT} or {@link Frustum#INSIDE} when the whole box is visible
+	 */
+	public int intersectAabb(float minXIn, float minYIn, float minZIn, float maxXIn, float maxYIn, float maxZIn)
+	{
+		var result = Frustum.INSIDE;
+		for (var offset = 0; offset < planes.length; offset += 4)
+		{
+			var a = planes[offset];
+			var b = planes[offset + 1];
+			var c = planes[offset + 2];
+			var d = planes[offset + 3];
+
+			// Corner the furthest along the normal, if it is behind the plane the whole box is
+			if (a * (a > 0 ? maxXIn : minXIn) + b * (b > 0 ? maxYIn : minYIn) + c * (c > 0 ? maxZIn : minZIn) + d < 0)
+			{
+				return Frustum.OUTSIDE;
+			}
+			if (a * (a > 0 ? minXIn : maxXIn) + b * (b > 0 ? minYIn : maxYIn) + c * (c > 0 ? minZIn : maxZIn) + d < 0)
+			{
+				result = Frustum.INTERSECT;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Same test as {@link #intersectAabb(float, float, float, float, float, float)} keeping which planes cross the box. A
+	 * box inside another one is on the inner side of every plane the outer box is, so only the crossed planes need testing.
+	 *
+	 * @return a bit per plane crossing the box, 0 when the whole box is visible, {@link Frustum#OUTSIDE_MASK} when none of it is
+	 */
+	public int crossedPlanes(float minXIn, float minYIn, float minZIn, float maxXIn, float maxYIn, float maxZIn)
+	{
+		var crossed = 0;
+		for (var offset = 0; offset < planes.length; offset += 4)
+		{
+			var a = planes[offset];
+			var b = planes[offset + 1];
+			var c = planes[offset + 2];
+			var d = planes[offset + 3];
+			if (a * (a > 0 ? maxXIn : minXIn) + b * (b > 0 ? maxYIn : minYIn) + c * (c > 0 ? maxZIn : minZIn) + d < 0)
+			{
+				return Frustum.OUTSIDE_MASK;
+			}
+			if (a * (a > 0 ? minXIn : maxXIn) + b * (b > 0 ? minYIn : maxYIn) + c * (c > 0 ? minZIn : maxZIn) + d < 0)
+			{
+				crossed |= 1 << (offset >> 2);
+			}
+		}
+
+		return crossed;
+	}
+
+	/**
+	 * Conservative test, may accept boxes close to the frustum corners
+	 */
+	public boolean testAabb(float minXIn, float minYIn, float minZIn, float maxXIn, float maxYIn, float maxZIn)
+	{
+		return testAabb(minXIn, minYIn, minZIn, maxXIn, maxYIn, maxZIn, Frustum.ALL_PLANES);
+	}
+
+	/**
+	 * {@link #testAabb(float, float, float, float, float, float)} against the planes of planesIn only
+	 *
+	 * @param planesIn plane mask given by {@link #crossedPlanes(float, float, float, float, float, float)} for a box around this one
+	 */
+	public boolean testAabb(float minXIn, float minYIn, float minZIn, float maxXIn, float maxYIn, float maxZIn, int planesIn)
+	{
+		for (var offset = 0; offset < planes.length; offset += 4)
+		{
+			if ((planesIn & 1 << (offset >> 2)) == 0)
+			{
+				continue;
+			}
+			var a = planes[offset];
+			var b = planes[offset + 1];
+			var c = planes[offset + 2];
+			if (a * (a > 0 ? maxXIn : minXIn) + b * (b > 0 ? maxYIn : minYIn) + c * (c > 0 ? maxZIn : minZIn) + planes[offset + 3] < 0)
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	public boolean testPoint(float xIn, float yIn, float zIn)
+	{
+		for (var offset = 0; offset < planes.length; offset += 4)
+		{
+			if (planes[offset] * xIn + planes[offset + 1] * yIn + planes[offset + 2] * zIn + planes[offset + 3] < 0)
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+}
@@ -0,0 +1,704 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.entity;
+
+import lombok.Getter;
+import org.joml.Matrix4f;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Transforms of entities in parallel primitive arrays : position, unit rotation quaternion and scale per axis, plus the
+ * parent of each entity. World matrices are written in one direct buffer, 16 floats per entity in column major order,
+ * which is the layout of an instanced mat4 attribute or of a std140 mat4 array.
+ * An entity is an index in these arrays. Indices of destroyed entities are reused by later creations. Their matrix is
+ * zeroed, so an instanced draw of the whole buffer collapses them.
+ * Changing a transform marks the entity dirty. {@link TransformSystem} then rewrites the world matrix of every dirty entity
+ * and of its descendants. Only one thread changes the store, and never while the system updates it.
+ */
+public class TransformStore
+{
+	public final static int NONE          = -1;
+	public final static int MATRIX_FLOATS = 16;
+	public final static int MATRIX_BYTES  = TransformStore.MATRIX_FLOATS * Float.BYTES;
+
+	private         float[]     positionX;
+	private         float[]     positionY;
+	private         float[]     positionZ;
+	private         float[]     rotationX;
+	private         float[]     rotationY;
+	private         float[]     rotationZ;
+	private         float[]     rotationW;
+	private         float[]     scaleX;
+	private         float[]     scaleY;
+	private         float[]     scaleZ;
+	private         int[]       parents;
+	private         int[]       firstChildren;
+	private         int[]       nextSiblings;
+	private         boolean[]   alive;
+	// Local transform changed since the last update
+	private         boolean[]   dirty;
+	// World matrix written by the current update, read by the children on the next level
+	private         boolean[]   changed;
+	private         ByteBuffer  matrixBytes;
+	private         FloatBuffer matrices;
+	private         int[]       freeEntities;
+	private         int         freeCount;
+	private @Getter int         capacity;
+	// Highest entity ever created + 1, the matrices to draw or upload
+	private @Getter int         end;
+	private @Getter int         count;
+	private @Getter int         dirtyCount;
+	// Entities in breadth first order of the hierarchy and the start of each level in it, sorted again after hierarchy changes
+	private         int[]       order;
+	private         int[]       levelStarts;
+	private         int         levelCount;
+	private         boolean     hierarchyChanged;
+	// Entities whose matrix changed since the last clearChanged(), empty when changedStart >= changedEnd
+	private @Getter int         changedStart;
+	private @Getter int         changedEnd;
+
+	/**
+	 * @param capacityIn initial number of entities, arrays and buffer double when full
+	 */
+	public TransformStore(int capacityIn)
+	{
+		if (capacityIn <= 0)
+		{
+			throw new IllegalArgumentException("Capacity must be positive : " + capacityIn);
+		}
+
+		positionX     = new float[capacityIn];
+		positionY     = new float[capacityIn];
+		positionZ     = new float[capacityIn];
+		rotationX     = new float[capacityIn];
+		rotationY     = new float[capacityIn];
+		rotationZ     = new float[capacityIn];
+		rotationW     = new float[capacityIn];
+		scaleX        = new float[capacityIn];
+		scaleY        = new float[capacityIn];
+		scaleZ        = new float[capacityIn];
+		parents       = new int[capacityIn];
+		firstChildren = new int[capacityIn];
+		nextSiblings  = new int[capacityIn];
+		alive         = new boolean[capacityIn];
+		dirty         = new boolean[capacityIn];
+		changed       = new boolean[capacityIn];
+		matrixBytes   = ByteBuffer.allocateDirect(capacityIn * TransformStore.MATRIX_BYTES).order(ByteOrder.nativeOrder());
+		matrices      = matrixBytes.asFloatBuffer();
+		freeEntities  = new int[capacityIn];
+		order         = new int[capacityIn];
+		levelStarts   = new int[8];
+		capacity      = capacityIn;
+		changedStart  = Integer.MAX_VALUE;
+	}
+
+	private void grow()
+	{
+		var newCapacity = capacity * 2;
+		positionX     = Arrays.copyOf(positionX, newCapacity);
+		positionY     = Arrays.copyOf(positionY, newCapacity);
+		positionZ     = Arrays.copyOf(positionZ, newCapacity);
+		rotationX     = Arrays.copyOf(rotationX, newCapacity);
+		rotationY     = Arrays.copyOf(rotationY, newCapacity);
+		rotationZ     = Arrays.copyOf(rotationZ, newCapacity);
+		rotationW     = Arrays.copyOf(rotationW, newCapacity);
+		scaleX        = Arrays.copyOf(scaleX, newCapacity);
+		scaleY        = Arrays.copyOf(scaleY, newCapacity);
+		scaleZ        = Arrays.copyOf(scaleZ, newCapacity);
+		parents       = Arrays.copyOf(parents, newCapacity);
+		firstChildren = Arrays.copyOf(firstChildren, newCapacity);
+		nextSiblings  = Arrays.copyOf(nextSiblings, newCapacity);
+		alive         = Arrays.copyOf(alive, newCapacity);
+		dirty         = Arrays.copyOf(dirty, newCapacity);
+		changed       = Arrays.copyOf(changed, newCapacity);
+		freeEntities  = Arrays.copyOf(freeEntities, newCapacity);
+		order         = Arrays.copyOf(order, newCapacity);
+		matrixBytes   = ByteBuffer.allocateDirect(newCapacity * TransformStore.MATRIX_BYTES).order(ByteOrder.nativeOrder()).put(matrixBytes.clear()).clear();
+		matrices      = matrixBytes.asFloatBuffer();
+		capacity      = newCapacity;
+	}
+
+	/**
+	 * @return a root entity at the origin, without rotation and of scale 1
+	 */
+	public int create()
+	{
+		return create(TransformStore.NONE);
+	}
+
+	/**
+	 * @param parentIn entity the new one is relative to, {@link #NONE} for a root
+	 *
+	 * @return an entity at the origin of its parent, without rotation and of scale 1
+	 */
+	public int create(int parentIn)
+	{
+		if (parentIn != TransformStore.NONE)
+		{
+			check(parentIn);
+		}
+
+		int entity;
+		if (freeCount > 0)
+		{
+			freeCount--;
+			entity = freeEntities[freeCount];
+		}
+		else
+		{
+			if (end == capacity)
+			{
+				grow();
+			}
+			entity = end;
+			end++;
+		}
+		count++;
+
+		positionX[entity]     = 0.0f;
+		positionY[entity]     = 0.0f;
+		positionZ[entity]     = 0.0f;
+		rotationX[entity]     = 0.0f;
+		rotationY[entity]     = 0.0f;
+		rotationZ[entity]     = 0.0f;
+		rotationW[entity]     = 1.0f;
+		scaleX[entity]        = 1.0f;
+		scaleY[entity]        = 1.0f;
+		scaleZ[entity]        = 1.0f;
+		parents[entity]       = TransformStore.NONE;
+		firstChildren[entity] = TransformStore.NONE;
+		nextSiblings[entity]  = TransformStore.NONE;
+		alive[entity]         = true;
+		link(entity, parentIn);
+		mark(entity);
+
+		return entity;
+	}
+
+	/**
+	 * Destroy an entity and its descendants, their matrices are zeroed
+	 *
+	 * @return number of destroyed entities
+	 */
+	public int destroy(int entityIn)
+	{
+		check(entityIn);
+		unlink(entityIn);
+
+		return destroyTree(entityIn);
+	}
+
+	private int destroyTree(int entityIn)
+	{
+		var destroyed = 1;
+		for (var child = firstChildren[entityIn]; child != TransformStore.NONE; )
+		{
+			var next = nextSiblings[child];
+			destroyed += destroyTree(child);
+			child = next;
+		}
+
+		if (dirty[entityIn])
+		{
+			dirty[entityIn] = false;
+			dirtyCount--;
+		}
+		alive[entityIn]         = false;
+		parents[entityIn]       = TransformStore.NONE;
+		firstChildren[entityIn] = TransformStore.NONE;
+		nextSiblings[entityIn]  = TransformStore.NONE;
+		freeEntities[freeCount] = entityIn;
+		freeCount++;
+		count--;
+		var offset = entityIn * TransformStore.MATRIX_FLOATS;
+		for (var i = 0; i < TransformStore.MATRIX_FLOATS; i++)
+		{
+			matrices.put(offset + i, 0.0f);
+		}
+		changed(entityIn, entityIn + 1);
+
+		return destroyed;
+	}
+
+	private void link(int entityIn, int parentIn)
+	{
+		parents[entityIn] = parentIn;
+		if (parentIn != TransformStore.NONE)
+		{
+			nextSiblings[entityIn]  = firstChildren[parentIn];
+			firstChildren[parentIn] = entityIn;
+		}
+		hierarchyChanged = true;
+	}
+
+	private void unlink(int entityIn)
+	{
+		var parent = parents[entityIn];
+		if (parent != TransformStore.NONE)
+		{
+			if (firstChildren[parent] == entityIn)
+			{
+				firstChildren[parent] = nextSiblings[entityIn];
+			}
+			else
+			{
+				var previous = firstChildren[parent];
+				while (nextSiblings[previous] != entityIn)
+				{
+					previous = nextSiblings[previous];
+				}
+				nextSiblings[previous] = nextSiblings[entityIn];
+			}
+		}
+		parents[entityIn]      = TransformStore.NONE;
+		nextSiblings[entityIn] = TransformStore.NONE;
+		hierarchyChanged       = true;
+	}
+
+	private void check(int entityIn)
+	{
+		if (entityIn < 0 || entityIn >= end || !alive[entityIn])
+		{
+			throw new IllegalArgumentException("No entity " + entityIn);
+		}
+	}
+
+	private void mark(int entityIn)
+	{
+		if (!dirty[entityIn])
+		{
+			dirty[entityIn] = true;
+			dirtyCount++;
+		}
+	}
+
+	public boolean alive(int entityIn)
+	{
+		return entityIn >= 0 && entityIn < end && alive[entityIn];
+	}
+
+	/**
+	 * @return parent of the entity, {@link #NONE} for a root
+	 */
+	public int parent(int entityIn)
+	{
+		check(entityIn);
+
+		return parents[entityIn];
+	}
+
+	/**
+	 * Move the entity and its descendants under another parent, its local transform is kept
+	 *
+	 * @param parentIn {@link #NONE} to make it a root
+	 *
+	 * @throws IllegalArgumentException if parentIn is the entity or one of its descendants
+	 */
+	public TransformStore parent(int entityIn, int parentIn)
+	{
+		check(entityIn);
+		if (parentIn != TransformStore.NONE)
+		{
+			check(parentIn);
+			for (var ancestor = parentIn; ancestor != TransformStore.NONE; ancestor = parents[ancestor])
+			{
+				if (ancestor == entityIn)
+				{
+					throw new IllegalArgumentException("Entity " + parentIn + " is " + entityIn + " or one of its descendants");
+				}
+			}
+		}
+		if (parents[entityIn] == parentIn)
+		{
+			return this;
+		}
+
+		unlink(entityIn);
+		link(entityIn, parentIn);
+		mark(entityIn);
+
+		return this;
+	}
+
+	/**
+	 * Position relative to the parent, nothing is marked if it already has these values
+	 */
+	public TransformStore position(int entityIn, float xIn, float yIn, float zIn)
+	{
+		check(entityIn);
+		if (positionX[entityIn] == xIn && positionY[entityIn] == yIn && positionZ[entityIn] == zIn)
+		{
+			return this;
+		}
+
+		positionX[entityIn] = xIn;
+		positionY[entityIn] = yIn;
+		positionZ[entityIn] = zIn;
+		mark(entityIn);
+
+		return this;
+	}
+
+	public TransformStore translate(int entityIn, float xIn, float yIn, float zIn)
+	{
+		check(entityIn);
+
+		return position(entityIn, positionX[entityIn] + xIn, positionY[entityIn] + yIn, positionZ[entityIn] + zIn);
+	}
+
+	/**
+	 * Rotation relative to the parent, the quaternion is normalized
+	 */
+	public TransformStore rotation(int entityIn, float xIn, float yIn, float zIn, float wIn)
+	{
+		check(entityIn);
+		var inverseLength = (float) (1.0D / Math.sqrt(xIn * xIn + yIn * yIn + zIn * zIn + wIn * wIn));
+		var x             = xIn * inverseLength;
+		var y             = yIn * inverseLength;
+		var z             = zIn * inverseLength;
+		var w             = wIn * inverseLength;
+		if (rotationX[entityIn] == x && rotationY[entityIn] == y && rotationZ[entityIn] == z && rotationW[entityIn] == w)
+		{
+			return this;
+		}
+
+		rotationX[entityIn] = x;
+		rotationY[entityIn] = y;
+		rotationZ[entityIn] = z;
+		rotationW[entityIn] = w;
+		mark(entityIn);
+
+		return this;
+	}
+
+	/**
+	 * Rotation of angleX radians around x, then angleY around y, then angleZ around z, as rotateX(angleX).rotateY(angleY)
+	 * .rotateZ(angleZ) on a matrix
+	 */
+	public TransformStore rotationXYZ(int entityIn, float angleXIn, float angleYIn, float angleZIn)
+	{
+		var sinX = (float) Math.sin(angleXIn * 0.5f);
+		var cosX = (float) Math.cos(angleXIn * 0.5f);
+		var sinY = (float) Math.sin(angleYIn * 0.5f);
+		var cosY = (float) Math.cos(angleYIn * 0.5f);
+		var sinZ = (float) Math.sin(angleZIn * 0.5f);
+		var cosZ = (float) Math.cos(angleZIn * 0.5f);
+
+		return rotation(entityIn,
+				sinX * cosY * cosZ + cosX * sinY * sinZ,
+				cosX * sinY * cosZ - sinX * cosY * sinZ,
+				cosX * cosY * sinZ + sinX * sinY * cosZ,
+				cosX * cosY * cosZ - sinX * sinY * sinZ);
+	}
+
+	/**
+	 * Scale relative to the parent
+	 */
+	public TransformStore scale(int entityIn, float xIn, float yIn, float zIn)
+	{
+		check(entityIn);
+		if (scaleX[entityIn] == xIn && scaleY[entityIn] == yIn && scaleZ[entityIn] == zIn)
+		{
+			return this;
+		}
+
+		scaleX[entityIn] = xIn;
+		scaleY[entityIn] = yIn;
+		scaleZ[entityIn] = zIn;
+		mark(entityIn);
+
+		return this;
+	}
+
+	public TransformStore scale(int entityIn, float scaleIn)
+	{
+		return scale(entityIn, scaleIn, scaleIn, scaleIn);
+	}
+
+	public float positionX(int entityIn)
+	{
+		return positionX[entityIn];
+	}
+
+	public float positionY(int entityIn)
+	{
+		return positionY[entityIn];
+	}
+
+	public float positionZ(int entityIn)
+	{
+		return positionZ[entityIn];
+	}
+
+	/**
+	 * @return world matrix of the entity as computed by the last update
+	 */
+	public Matrix4f world(int entityIn, Matrix4f worldOut)
+	{
+		check(entityIn);
+
+		return worldOut.set(entityIn * TransformStore.MATRIX_FLOATS, matrices);
+	}
+
+	/**
+	 * World matrices of entities [0, {@link #end()}[, {@link #MATRIX_BYTES} per entity. A new buffer replaces it when the
+	 * store grows.
+	 */
+	public ByteBuffer matrices()
+	{
+		return matrixBytes;
+	}
+
+	/**
+	 * Forget the changed range, once the matrices in it were uploaded
+	 */
+	public void clearChanged()
+	{
+		changedStart = Integer.MAX_VALUE;
+		changedEnd   = 0;
+	}
+
+	private void changed(int fromIn, int toIn)
+	{
+		changedStart = Math.min(changedStart, fromIn);
+		changedEnd   = Math.max(changedEnd, toIn);
+	}
+
+	/**
+	 * Sort entities by level of the hierarchy if it changed, roots first
+	 *
+	 * @return number of levels
+	 */
+	int sort()
+	{
+		if (!hierarchyChanged)
+		{
+			return levelCount;
+		}
+
+		var size = 0;
+		for (var entity = 0; entity < end; entity++)
+		{
+			if (alive[entity] && parents[entity] == TransformStore.NONE)
+			{
+				order[size] = entity;
+				size++;
+			}
+		}
+
+		levelCount = 0;
+		var levelStart = 0;
+		while (levelStart < size)
+		{
+			if (levelCount + 2 > levelStarts.length)
+			{
+				levelStarts = Arrays.copyOf(levelStarts, levelStarts.length * 2);
+			}
+			levelStarts[levelCount] = levelStart;
+			levelCount++;
+
+			var levelEnd = size;
+			for (var i = levelStart; i < levelEnd; i++)
+			{
+				for (var child = firstChildren[order[i]]; child != TransformStore.NONE; child = nextSiblings[child])
+				{
+					order[size] = child;
+					size++;
+				}
+			}
+			levelStart = levelEnd;
+		}
+		levelStarts[levelCount] = size;
+		hierarchyChanged        = false;
+
+		return levelCount;
+	}
+
+	/**
+	 * @return start in the sorted order of levelIn, levelIn = level count gives the end of the last level
+	 */
+	int levelStart(int levelIn)
+	{
+		return levelStarts[levelIn];
+	}
+
+	/**
+	 * Write the world matrices of the entities at [fromIn, toIn[ of the sorted order that are dirty or whose parent matrix
+	 * was just written. Parents must be done, ranges of a same level can run at the same time.
+	 *
+	 * @param rangeOut lowest and highest + 1 written entity, left as is when none is written
+	 *
+	 * @return number of written matrices
+	 */
+	int update(int fromIn, int toIn, int[] rangeOut)
+	{
+		var written = 0;
+		var low     = rangeOut[0];
+		var high    = rangeOut[1];
+		for (var i = fromIn; i < toIn; i++)
+		{
+			var entity = order[i];
+			var parent = parents[entity];
+			if (!dirty[entity] && (parent == TransformStore.NONE || !changed[parent]))
+			{
+				changed[entity] = false;
+				continue;
+			}
+
+			dirty[entity]   = false;
+			changed[entity] = true;
+			write(entity, parent);
+			written++;
+			low  = Math.min(low, entity);
+			high = Math.max(high, entity + 1);
+		}
+		rangeOut[0] = low;
+		rangeOut[1] = high;
+
+		return written;
+	}
+
+	/**
+	 * End of an update that went through every level
+	 */
+	void updated(int changedStartIn, int changedEndIn)
+	{
+		dirtyCount = 0;
+		if (changedStartIn < changedEndIn)
+		{
+			changed(changedStartIn, changedEndIn);
+		}
+	}
+
+	/**
+	 * Translation * rotation * scale, multiplied by the world matrix of the parent. Every matrix is affine, the last row is
+	 * never read.
+	 */
+	private void write(int entityIn, int parentIn)
+	{
+		var x  = rotationX[entityIn];
+		var y  = rotationY[entityIn];
+		var z  = rotationZ[entityIn];
+		var w  = rotationW[entityIn];
+		var sx = scaleX[entityIn];
+		var sy = scaleY[entityIn];
+		var sz = scaleZ[entityIn];
+		var xx = x * x;
+		var yy = y * y;
+		var zz = z * z;
+		var xy = x * y;
+		var xz = x * z;
+		var yz = y * z;
+		var xw = x * w;
+		var yw = y * w;
+		var zw = z * w;
+
+		var m00 = (1.0f - 2.0f * (yy + zz)) * sx;
+		var m01 = 2.0f * (xy + zw) * sx;
+		var m02 = 2.0f * (xz - yw) * sx;
+		var m10 = 2.0f * (xy - zw) * sy;
+		var m11 = (1.0f - 2.0f * (xx + zz)) * sy;
+		var m12 = 2.0f * (yz + xw) * sy;
+		var m20 = 2.0f * (xz + yw) * sz;
+		var m21 = 2.0f * (yz - xw) * sz;
+		var m22 = (1.0f - 2.0f * (xx + yy)) * sz;
+		var m30 = positionX[entityIn];
+		var m31 = positionY[entityIn];
+		var m32 = positionZ[entityIn];
+
+		if (parentIn != TransformStore.NONE)
+		{
+			var parent = parentIn * TransformStore.MATRIX_FLOATS;
+			var p00    = matrices.get(parent);
+			var p01    = matrices.get(parent + 1);
+			var p02    = matrices.get(parent + 2);
+			var p10    = matrices.get(parent + 4);
+			var p11    = matrices.get(parent + 5);
+			var p12    = matrices.get(parent + 6);
+			var p20    = matrices.get(parent + 8);
+			var p21    = matrices.get(parent + 9);
+			var p22    = matrices.get(parent + 10);
+			var p30    = matrices.get(parent + 12);
+			var p31    = matrices.get(parent + 13);
+			var p32    = matrices.get(parent + 14);
+
+			var n00 = p00 * m00 + p10 * m01 + p20 * m02;
+			var n01 = p01 * m00 + p11 * m01 + p21 * m02;
+			var n02 = p02 * m00 + p12 * m01 + p22 * m02;
+			var n10 = p00 * m10 + p10 * m11 + p20 * m12;
+			var n11 = p01 * m10 + p11 * m11 + p21 * m12;
+			var n12 = p02 * m10 + p12 * m11 + p22 * m12;
+			var n20 = p00 * m20 + p10 * m21 + p20 * m22;
+			var n21 = p01 * m20 + p11 * m21 + p21 * m22;
+			var n22 = p02 * m20 + p12 * m21 + p22 * m22;
+			var n30 = p00 * m30 + p10 * m31 + p20 * m32 + p30;
+			var n31 = p01 * m30 + p11 * m31 + p21 * m32 + p31;
+			var n32 = p02 * m30 + p12 * m31 + p22 * m32 + p32;
+
+			m00 = n00;
+			m01 = n01;
+			m02 = n02;
+			m10 = n10;
+			m11 = n11;
+			m12 = n12;
+			m20 = n20;
+			m21 = n21;
+			m22 = n22;
+			m30 = n30;
+			m31 = n31;
+			m32 = n32;
+		}
+
+		var offset = entityIn * TransformStore.MATRIX_FLOATS;
+		matrices.put(offset, m00);
+		matrices.put(offset + 1, m01);
+		matrices.put(offset + 2, m02);
+		matrices.put(offset + 3, 0.0f);
+		matrices.put(offset + 4, m10);
+		matrices.put(offset + 5, m11);
+		matrices.put(offset + 6, m12);
+		matrices.put(offset + 7, 0.0f);
+		matrices.put(offset + 8, m20);
+		matrices.put(offset + 9, m21);
+		matrices.put(offset + 10, m22);
+		matrices.put(offset + 11, 0.0f);
+		matrices.put(offset + 12, m30);
+		matrices.put(offset + 13, m31);
+		matrices.put(offset + 14, m32);
+		matrices.put(offset + 15, 1.0f);
+	}
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.entity;
+
+import lombok.Getter;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes the world matrices of a {@link TransformStore} one level of the hierarchy at a time, roots first. A level
+ * only reads the matrices of the level above it, so its entities are split in batches run on a fork join pool. Levels
+ * smaller than a batch run on the calling thread.
+ * Nothing is done while no entity is dirty. Otherwise every entity is visited but only dirty ones and the descendants of
+ * changed ones are computed.
+ */
+public class TransformSystem
+{
+	public final static int DEFAULT_BATCH_SIZE = 4096;
+
+	private final         ForkJoinPool pool;
+	private final @Getter int          batchSize;
+	// Matrices written and time spent by the last update
+	private @Getter       int          lastUpdateCount;
+	private @Getter       long         lastUpdateNanos;
+
+	public TransformSystem()
+	{
+		this(ForkJoinPool.commonPool(), TransformSystem.DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * @param batchSizeIn entities computed by a task, each one costs about a hundred float operations
+	 */
+	public TransformSystem(ForkJoinPool poolIn, int batchSizeIn)
+	{
+		if (batchSizeIn <= 0)
+		{
+			throw new IllegalArgumentException("Batch size must be positive : " + batchSizeIn);
+		}
+
+		pool      = poolIn;
+		batchSize = batchSizeIn;
+	}
+
+	/**
+	 * Write the world matrices of the dirty entities of storeIn and of their descendants, the changed range of the store
+	 * grows to cover them
+	 *
+	 * @return number of written matrices
+	 */
+	public int update(TransformStore storeIn)
+	{
+		var start = System.nanoTime();
+		if (storeIn.dirtyCount() == 0)
+		{
+			lastUpdateCount = 0;
+			lastUpdateNanos = System.nanoTime() - start;
+
+			return 0;
+		}
+
+		var levelCount = storeIn.sort();
+		var range      = new int[]{Integer.MAX_VALUE, 0};
+		var written    = 0;
+		for (var level = 0; level < levelCount; level++)
+		{
+			var from = storeIn.levelStart(level);
+			var to   = storeIn.levelStart(level + 1);
+			if (to - from <= batchSize)
+			{
+				written += storeIn.update(from, to, range);
+				continue;
+			}
+
+			var action = new BatchAction(storeIn, from, to, batchSize);
+			pool.invoke(action);
+			written += action.written;
+			range[0] = Math.min(range[0], action.range[0]);
+			range[1] = Math.max(range[1], action.range[1]);
+		}
+		storeIn.updated(range[0], range[1]);
+
+		lastUpdateCount = written;
+		lastUpdateNanos = System.nanoTime() - start;
+
+		return written;
+	}
+
+	/**
+	 * Splits a level in halves down to batches, results are merged on the way back
+	 */
+	private final static class BatchAction extends RecursiveAction
+	{
+		private final TransformStore store;
+		private final int            from;
+		private final int            to;
+		private final int            batchSize;
+		private final int[]          range;
+		private       int            written;
+
+		private BatchAction(TransformStore storeIn, int fromIn, int toIn, int batchSizeIn)
+		{
+			store     = storeIn;
+			from      = fromIn;
+			to        = toIn;
+			batchSize = batchSizeIn;
+			range     = new int[]{Integer.MAX_VALUE, 0};
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (to - from <= batchSize)
+			{
+				written = store.update(from, to, range);
+
+				return;
+			}
+
+			var middle = (from + to) >>> 1;
+			var left   = new BatchAction(store, from, middle, batchSize);
+			var right  = new BatchAction(store, middle, to, batchSize);
+			RecursiveAction.invokeAll(left, right);
+			written  = left.written + right.written;
+			range[0] = Math.min(left.range[0], right.range[0]);
+			range[1] = Math.max(left.range[1], right.range[1]);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.gl;
+
+import org.lwjgl.opengl.GL32;
+
+/**
+ * {@link IFenceProvider} over OpenGL sync objects
+ */
+public class GLFences implements IFenceProvider
+{
+	// Timeout of each client wait, waits are repeated until the fence is signaled
+	private final static long WAIT_NANOSECONDS = 1_000_000_000L;
+
+	private final IGL gl;
+
+	public GLFences(IGL glIn)
+	{
+		gl = glIn;
+	}
+
+	@Override
+	public long fence()
+	{
+		return gl.glFenceSync(GL32.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+	}
+
+	@Override
+	public boolean signaled(long fenceIn)
+	{
+		var status = gl.glClientWaitSync(fenceIn, 0, 0L);
+		if (status == GL32.GL_WAIT_FAILED)
+		{
+			throw new IllegalStateException("Could not query fence " + fenceIn);
+		}
+
+		return status == GL32.GL_ALREADY_SIGNALED || status == GL32.GL_CONDITION_SATISFIED;
+	}
+
+	@Override
+	public void await(long fenceIn)
+	{
+		while (true)
+		{
+			// Flush so that the fence reaches the GPU, otherwise the wait could never end
+			var status = gl.glClientWaitSync(fenceIn, GL32.GL_SYNC_FLUSH_COMMANDS_BIT, GLFences.WAIT_NANOSECONDS);
+			if (status == GL32.GL_ALREADY_SIGNALED || status == GL32.GL_CONDITION_SATISFIED)
+			{
+				return;
+			}
+			if (status == GL32.GL_WAIT_FAILED)
+			{
+				throw new IllegalStateException("Could not wait for fence " + fenceIn);
+			}
+		}
+	}
+
+	@Override
+	public void delete(long fenceIn)
+	{
+		gl.glDeleteSync(fenceIn);
+	}
+}
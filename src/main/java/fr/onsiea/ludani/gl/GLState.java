@@ -0,0 +1,185 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.gl;
+
+import lombok.Getter;
+import org.lwjgl.opengl.GL32;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shadow of the bindings, binding the object already bound does not reach OpenGL.
+ * Only valid while every bind of the tracked kinds goes through it, {@link #invalidate()} forgets everything after outside
+ * code changed them.
+ */
+public class GLState
+{
+	private final @Getter IGL                        gl;
+	private final         Map<Integer, Integer>      boundBuffers;
+	private final         Map<Long, Integer>         boundBufferBases;
+	private final         Map<Integer, UniformCache> uniformCaches;
+	private @Getter       int                        program;
+	private @Getter       int                        vertexArray;
+
+	public GLState(IGL glIn)
+	{
+		gl               = glIn;
+		boundBuffers     = new HashMap<>();
+		boundBufferBases = new HashMap<>();
+		uniformCaches    = new HashMap<>();
+		invalidate();
+	}
+
+	private static long key(int targetIn, int indexIn)
+	{
+		return (long) targetIn << 32 | indexIn & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * Forget the known bindings, the next bind of each kind reaches OpenGL
+	 */
+	public GLState invalidate()
+	{
+		boundBuffers.clear();
+		boundBufferBases.clear();
+		program     = -1;
+		vertexArray = -1;
+
+		return this;
+	}
+
+	/**
+	 * @return uniform values of programIn, shared by every code setting its uniforms through this state
+	 */
+	public UniformCache uniforms(int programIn)
+	{
+		return uniformCaches.computeIfAbsent(programIn, programKeyIn -> new UniformCache(gl));
+	}
+
+	/**
+	 * @return true if glUseProgram was called
+	 */
+	public boolean useProgram(int programIn)
+	{
+		if (program == programIn)
+		{
+			return false;
+		}
+
+		program = programIn;
+		gl.glUseProgram(programIn);
+
+		return true;
+	}
+
+	/**
+	 * @return true if glBindVertexArray was called
+	 */
+	public boolean bindVertexArray(int vertexArrayIn)
+	{
+		if (vertexArray == vertexArrayIn)
+		{
+			return false;
+		}
+
+		vertexArray = vertexArrayIn;
+		// The element array binding belongs to the vertex array
+		boundBuffers.remove(GL32.GL_ELEMENT_ARRAY_BUFFER);
+		gl.glBindVertexArray(vertexArrayIn);
+
+		return true;
+	}
+
+	/**
+	 * @return true if glBindBuffer was called
+	 */
+	public boolean bindBuffer(int targetIn, int bufferIn)
+	{
+		var previous = boundBuffers.put(targetIn, bufferIn);
+		if (previous != null && previous == bufferIn)
+		{
+			return false;
+		}
+
+		gl.glBindBuffer(targetIn, bufferIn);
+
+		return true;
+	}
+
+	/**
+	 * @return true if glBindBufferBase was called
+	 */
+	public boolean bindBufferBase(int targetIn, int indexIn, int bufferIn)
+	{
+		var previous = boundBufferBases.put(GLState.key(targetIn, indexIn), bufferIn);
+		if (previous != null && previous == bufferIn)
+		{
+			return false;
+		}
+
+		// Also binds the buffer to the generic target
+		boundBuffers.put(targetIn, bufferIn);
+		gl.glBindBufferBase(targetIn, indexIn, bufferIn);
+
+		return true;
+	}
+
+	public void deleteProgram(int programIn)
+	{
+		if (program == programIn)
+		{
+			program = 0;
+		}
+		uniformCaches.remove(programIn);
+		gl.glDeleteProgram(programIn);
+	}
+
+	public void deleteVertexArray(int vertexArrayIn)
+	{
+		if (vertexArray == vertexArrayIn)
+		{
+			vertexArray = 0;
+			boundBuffers.remove(GL32.GL_ELEMENT_ARRAY_BUFFER);
+		}
+		gl.glDeleteVertexArrays(vertexArrayIn);
+	}
+
+	public void deleteBuffer(int bufferIn)
+	{
+		// Deleted buffers are unbound from every target
+		boundBuffers.values().removeIf(bufferValueIn -> bufferValueIn == bufferIn);
+		boundBufferBases.values().removeIf(bufferValueIn -> bufferValueIn == bufferIn);
+		gl.glDeleteBuffers(bufferIn);
+	}
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.gl;
+
+import lombok.Getter;
+
+/**
+ * Counters of the calls submitted to an {@link IGL}, kept per frame by {@link RecordingGL}
+ */
+@Getter
+public class GLStatistics
+{
+	private long drawCalls;
+	// Vertices or indices submitted by the direct draw calls, indirect ones are read by the GPU
+	private long elements;
+	// Draws issued by the multi draw indirect calls, each counted once in drawCalls
+	private long indirectCommands;
+	// Instances drawn by the instanced draw calls, their vertices are counted in elements
+	private long instances;
+	// Binds, program switches, capabilities and vertex attribute setup
+	private long stateChanges;
+	// State changes setting the value already current
+	private long redundantStateChanges;
+	private long uniformUploads;
+	private long uniformBytes;
+	private long bufferUploads;
+	private long bytesUploaded;
+	// Buffer to buffer copies done by the GPU
+	private long bytesCopied;
+	// Buffer ranges mapped to be written in place
+	private long bufferMaps;
+	private long bytesMapped;
+
+	void draw(long elementsIn)
+	{
+		drawCalls++;
+		elements += elementsIn;
+	}
+
+	void drawInstanced(long elementsIn, long instancesIn)
+	{
+		drawCalls++;
+		elements += elementsIn * instancesIn;
+		instances += instancesIn;
+	}
+
+	void multiDraw(long commandsIn)
+	{
+		drawCalls++;
+		indirectCommands += commandsIn;
+	}
+
+	void stateChange(boolean redundantIn)
+	{
+		stateChanges++;
+		if (redundantIn)
+		{
+			redundantStateChanges++;
+		}
+	}
+
+	void uniform(long bytesIn)
+	{
+		uniformUploads++;
+		uniformBytes += bytesIn;
+	}
+
+	void upload(long bytesIn)
+	{
+		bufferUploads++;
+		bytesUploaded += bytesIn;
+	}
+
+	void copy(long bytesIn)
+	{
+		bytesCopied += bytesIn;
+	}
+
+	void map(long bytesIn)
+	{
+		bufferMaps++;
+		bytesMapped += bytesIn;
+	}
+
+	public GLStatistics add(GLStatistics statisticsIn)
+	{
+		drawCalls += statisticsIn.drawCalls;
+		elements += statisticsIn.elements;
+		indirectCommands += statisticsIn.indirectCommands;
+		instances += statisticsIn.instances;
+		stateChanges += statisticsIn.stateChanges;
+		redundantStateChanges += statisticsIn.redundantStateChanges;
+		uniformUploads += statisticsIn.uniformUploads;
+		uniformBytes += statisticsIn.uniformBytes;
+		bufferUploads += statisticsIn.bufferUploads;
+		bytesUploaded += statisticsIn.bytesUploaded;
+		bytesCopied += statisticsIn.bytesCopied;
+		bufferMaps += statisticsIn.bufferMaps;
+		bytesMapped += statisticsIn.bytesMapped;
+
+		return this;
+	}
+
+	public GLStatistics set(GLStatistics statisticsIn)
+	{
+		return reset().add(statisticsIn);
+	}
+
+	public GLStatistics reset()
+	{
+		drawCalls             = 0;
+		elements              = 0;
+		indirectCommands      = 0;
+		instances             = 0;
+		stateChanges          = 0;
+		redundantStateChanges = 0;
+		uniformUploads        = 0;
+		uniformBytes          = 0;
+		bufferUploads         = 0;
+		bytesUploaded         = 0;
+		bytesCopied           = 0;
+		bufferMaps            = 0;
+		bytesMapped           = 0;
+
+		return this;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "draw calls : " + drawCalls + " (" + indirectCommands + " indirect commands, " + instances + " instances), elements : " + elements + ", state changes : " + stateChanges + " (" + redundantStateChanges + " redundant), uniform uploads : " + uniformUploads + " (" + uniformBytes + " bytes), buffer uploads : " + bufferUploads + " (" + bytesUploaded + " bytes), bytes copied : " + bytesCopied + ", buffer maps : " + bufferMaps + " (" + bytesMapped + " bytes)";
+	}
+}
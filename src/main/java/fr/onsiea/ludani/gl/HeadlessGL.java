@@ -0,0 +1,689 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.gl;
+
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.opengl.GL41;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * No-op OpenGL without any context : objects get increasing names, uniforms get a location per program and name, fences
+ * are signaled as soon as created and mappings all share the same scratch memory. Used with {@link RecordingGL} to run
+ * rendering code on machines without GPU.
+ * Programs keep the sources of their shaders : compilation only fails on an #error directive, the link fails without
+ * shaders, and the declared uniforms and vertex inputs are reported as active. The program binary is the sources in
+ * {@link #BINARY_FORMAT}, loading a binary of another format or a truncated one fails the link.
+ */
+public class HeadlessGL implements IGL
+{
+	public final static int BINARY_FORMAT = 0x4C444E49;
+
+	private final static Pattern             COMMENTS   = Pattern.compile("//[^\\n]*|/\\*.*?\\*/", Pattern.DOTALL);
+	private final static Pattern             ERROR      = Pattern.compile("^\\s*#\\s*error\\b.*$", Pattern.MULTILINE);
+	private final static Pattern             UNIFORM    = Pattern.compile("\\buniform\\s+(\\w+)\\s+(\\w+)\\s*(?:\\[\\s*(\\d+)\\s*])?\\s*;");
+	private final static Pattern             ATTRIBUTE  = Pattern.compile("(?:\\blayout\\s*\\(\\s*location\\s*=\\s*(\\d+)\\s*\\)\\s*)?\\bin\\s+(\\w+)\\s+(\\w+)\\s*;");
+	private final static Map<String, Integer> GLSL_TYPES = Map.ofEntries(Map.entry("float", GL32.GL_FLOAT), Map.entry("vec2", GL32.GL_FLOAT_VEC2), Map.entry("vec3", GL32.GL_FLOAT_VEC3), Map.entry("vec4", GL32.GL_FLOAT_VEC4),
+			Map.entry("int", GL32.GL_INT), Map.entry("ivec2", GL32.GL_INT_VEC2), Map.entry("ivec3", GL32.GL_INT_VEC3), Map.entry("ivec4", GL32.GL_INT_VEC4), Map.entry("uint", GL32.GL_UNSIGNED_INT),
+			Map.entry("bool", GL32.GL_BOOL), Map.entry("mat2", GL32.GL_FLOAT_MAT2), Map.entry("mat3", GL32.GL_FLOAT_MAT3), Map.entry("mat4", GL32.GL_FLOAT_MAT4),
+			Map.entry("sampler2D", GL32.GL_SAMPLER_2D), Map.entry("sampler2DArray", GL32.GL_SAMPLER_2D_ARRAY), Map.entry("samplerCube", GL32.GL_SAMPLER_CUBE));
+
+	private final Map<Integer, Map<String, Integer>> uniformLocations;
+	private final Map<Integer, Integer>              shaderTypes;
+	private final Map<Integer, String>               shaderSources;
+	private final Map<Integer, List<Integer>>        attachedShaders;
+	private final Map<Integer, LinkedProgram>        linkedPrograms;
+	private final Set<Integer>                       failedShaders;
+	private final Set<Integer>                       failedPrograms;
+	private final boolean                            multiDrawIndirect;
+	private final boolean                            persistentMapping;
+	private final boolean                            programBinary;
+	private       int                                lastName;
+	private       long                               lastSync;
+	// Written data is dropped, every mapping returns the start of this buffer
+	private       ByteBuffer                         mapping;
+
+	public HeadlessGL()
+	{
+		this(true, true);
+	}
+
+	/**
+	 * @param multiDrawIndirectIn whether the stand-in reports multi draw indirect support, to run the fallback paths
+	 * @param persistentMappingIn whether the stand-in reports persistent mapping support
+	 */
+	public HeadlessGL(boolean multiDrawIndirectIn, boolean persistentMappingIn)
+	{
+		this(multiDrawIndirectIn, persistentMappingIn, true);
+	}
+
+	/**
+	 * @param programBinaryIn whether the stand-in reports program binary support
+	 */
+	public HeadlessGL(boolean multiDrawIndirectIn, boolean persistentMappingIn, boolean programBinaryIn)
+	{
+		uniformLocations  = new HashMap<>();
+		shaderTypes       = new HashMap<>();
+		shaderSources     = new HashMap<>();
+		attachedShaders   = new HashMap<>();
+		linkedPrograms    = new HashMap<>();
+		failedShaders     = new HashSet<>();
+		failedPrograms    = new HashSet<>();
+		multiDrawIndirect = multiDrawIndirectIn;
+		persistentMapping = persistentMappingIn;
+		programBinary     = programBinaryIn;
+	}
+
+	private int name()
+	{
+		return ++lastName;
+	}
+
+	private static int type(String glslTypeIn)
+	{
+		return HeadlessGL.GLSL_TYPES.getOrDefault(glslTypeIn, 0);
+	}
+
+	@Override
+	public boolean multiDrawIndirect()
+	{
+		return multiDrawIndirect;
+	}
+
+	@Override
+	public boolean persistentMapping()
+	{
+		return persistentMapping;
+	}
+
+	@Override
+	public boolean programBinary()
+	{
+		return programBinary;
+	}
+
+	@Override
+	public boolean parallelShaderCompile()
+	{
+		return false;
+	}
+
+	@Override
+	public String glGetString(int nameIn)
+	{
+		return switch (nameIn)
+		{
+			case GL32.GL_VENDOR -> "Onsiea Studio";
+			case GL32.GL_RENDERER -> "Ludani HeadlessGL";
+			case GL32.GL_VERSION -> "4.6 headless";
+			case GL32.GL_SHADING_LANGUAGE_VERSION -> "4.60";
+			default -> null;
+		};
+	}
+
+	@Override
+	public int glGetInteger(int nameIn)
+	{
+		return nameIn == GL41.GL_NUM_PROGRAM_BINARY_FORMATS && programBinary ? 1 : 0;
+	}
+
+	@Override
+	public void glEnable(int capabilityIn)
+	{
+	}
+
+	@Override
+	public void glDisable(int capabilityIn)
+	{
+	}
+
+	@Override
+	public void glBlendFunc(int sourceFactorIn, int destinationFactorIn)
+	{
+	}
+
+	@Override
+	public void glDepthMask(boolean flagIn)
+	{
+	}
+
+	@Override
+	public int glGenVertexArrays()
+	{
+		return name();
+	}
+
+	@Override
+	public void glBindVertexArray(int vertexArrayIn)
+	{
+	}
+
+	@Override
+	public void glDeleteVertexArrays(int vertexArrayIn)
+	{
+	}
+
+	@Override
+	public int glGenBuffers()
+	{
+		return name();
+	}
+
+	@Override
+	public void glBindBuffer(int targetIn, int bufferIn)
+	{
+	}
+
+	@Override
+	public void glBufferData(int targetIn, ByteBuffer dataIn, int usageIn)
+	{
+	}
+
+	@Override
+	public void glBufferData(int targetIn, long sizeIn, int usageIn)
+	{
+	}
+
+	@Override
+	public void glBufferSubData(int targetIn, long offsetIn, ByteBuffer dataIn)
+	{
+	}
+
+	@Override
+	public void glDeleteBuffers(int bufferIn)
+	{
+	}
+
+	@Override
+	public void glBindBufferBase(int targetIn, int indexIn, int bufferIn)
+	{
+	}
+
+	@Override
+	public void glCopyBufferSubData(int readTargetIn, int writeTargetIn, long readOffsetIn, long writeOffsetIn, long sizeIn)
+	{
+	}
+
+	@Override
+	public void glBufferStorage(int targetIn, long sizeIn, int flagsIn)
+	{
+	}
+
+	@Override
+	public ByteBuffer glMapBufferRange(int targetIn, long offsetIn, long lengthIn, int accessIn)
+	{
+		if (mapping == null || mapping.capacity() < lengthIn)
+		{
+			mapping = ByteBuffer.allocateDirect((int) lengthIn).order(ByteOrder.nativeOrder());
+		}
+
+		return mapping.slice(0, (int) lengthIn).order(ByteOrder.nativeOrder());
+	}
+
+	@Override
+	public boolean glUnmapBuffer(int targetIn)
+	{
+		return true;
+	}
+
+	@Override
+	public void glEnableVertexAttribArray(int indexIn)
+	{
+	}
+
+	@Override
+	public void glVertexAttribPointer(int indexIn, int sizeIn, int typeIn, boolean normalizedIn, int strideIn, long pointerIn)
+	{
+	}
+
+	@Override
+	public void glDisableVertexAttribArray(int indexIn)
+	{
+	}
+
+	@Override
+	public void glVertexAttribDivisor(int indexIn, int divisorIn)
+	{
+	}
+
+	@Override
+	public void glVertexAttrib4f(int indexIn, float xIn, float yIn, float zIn, float wIn)
+	{
+	}
+
+	@Override
+	public void glDrawArrays(int modeIn, int firstIn, int countIn)
+	{
+	}
+
+	@Override
+	public void glDrawArraysInstanced(int modeIn, int firstIn, int countIn, int instanceCountIn)
+	{
+	}
+
+	@Override
+	public void glDrawElements(int modeIn, int countIn, int typeIn, long indicesIn)
+	{
+	}
+
+	@Override
+	public void glDrawElementsBaseVertex(int modeIn, int countIn, int typeIn, long indicesIn, int baseVertexIn)
+	{
+	}
+
+	@Override
+	public void glMultiDrawElementsIndirect(int modeIn, int typeIn, long indirectIn, int drawCountIn, int strideIn)
+	{
+	}
+
+	@Override
+	public long glFenceSync(int conditionIn, int flagsIn)
+	{
+		return ++lastSync;
+	}
+
+	@Override
+	public int glClientWaitSync(long syncIn, int flagsIn, long timeoutIn)
+	{
+		return GL32.GL_ALREADY_SIGNALED;
+	}
+
+	@Override
+	public void glDeleteSync(long syncIn)
+	{
+	}
+
+	@Override
+	public int glCreateProgram()
+	{
+		var program = name();
+		attachedShaders.put(program, new ArrayList<>());
+
+		return program;
+	}
+
+	@Override
+	public int glCreateShader(int typeIn)
+	{
+		var shader = name();
+		shaderTypes.put(shader, typeIn);
+
+		return shader;
+	}
+
+	@Override
+	public void glShaderSource(int shaderIn, CharSequence sourceIn)
+	{
+		shaderSources.put(shaderIn, sourceIn.toString());
+	}
+
+	@Override
+	public void glCompileShader(int shaderIn)
+	{
+		var source = shaderSources.getOrDefault(shaderIn, "");
+		if (HeadlessGL.ERROR.matcher(HeadlessGL.COMMENTS.matcher(source).replaceAll("")).find())
+		{
+			failedShaders.add(shaderIn);
+		}
+		else
+		{
+			failedShaders.remove(shaderIn);
+		}
+	}
+
+	@Override
+	public int glGetShaderi(int shaderIn, int parameterIn)
+	{
+		return parameterIn == GL32.GL_COMPILE_STATUS && failedShaders.contains(shaderIn) ? 0 : 1;
+	}
+
+	@Override
+	public String glGetShaderInfoLog(int shaderIn, int maxLengthIn)
+	{
+		if (!failedShaders.contains(shaderIn))
+		{
+			return "";
+		}
+		var matcher = HeadlessGL.ERROR.matcher(HeadlessGL.COMMENTS.matcher(shaderSources.get(shaderIn)).replaceAll(""));
+		var log     = matcher.find() ? "ERROR: " + matcher.group().trim() : "ERROR";
+
+		return log.length() > maxLengthIn ? log.substring(0, maxLengthIn) : log;
+	}
+
+	@Override
+	public void glAttachShader(int programIn, int shaderIn)
+	{
+		attachedShaders.computeIfAbsent(programIn, programKeyIn -> new ArrayList<>()).add(shaderIn);
+	}
+
+	@Override
+	public void glDetachShader(int programIn, int shaderIn)
+	{
+		var shaders = attachedShaders.get(programIn);
+		if (shaders != null)
+		{
+			shaders.remove((Integer) shaderIn);
+		}
+	}
+
+	@Override
+	public void glDeleteShader(int shaderIn)
+	{
+		shaderTypes.remove(shaderIn);
+		shaderSources.remove(shaderIn);
+		failedShaders.remove(shaderIn);
+	}
+
+	@Override
+	public void glLinkProgram(int programIn)
+	{
+		var shaders = attachedShaders.getOrDefault(programIn, List.of());
+		var types   = new int[shaders.size()];
+		var sources = new String[shaders.size()];
+		for (var i = 0; i < shaders.size(); i++)
+		{
+			types[i]   = shaderTypes.getOrDefault(shaders.get(i), 0);
+			sources[i] = shaderSources.getOrDefault(shaders.get(i), "");
+		}
+		link(programIn, shaders.isEmpty() || shaders.stream().anyMatch(failedShaders::contains) ? null : new LinkedProgram(types, sources));
+	}
+
+	private void link(int programIn, LinkedProgram linkedIn)
+	{
+		uniformLocations.remove(programIn);
+		if (linkedIn == null)
+		{
+			linkedPrograms.remove(programIn);
+			failedPrograms.add(programIn);
+
+			return;
+		}
+
+		linkedPrograms.put(programIn, linkedIn);
+		failedPrograms.remove(programIn);
+	}
+
+	@Override
+	public void glValidateProgram(int programIn)
+	{
+	}
+
+	@Override
+	public int glGetProgrami(int programIn, int parameterIn)
+	{
+		var linked = linkedPrograms.get(programIn);
+
+		return switch (parameterIn)
+		{
+			case GL32.GL_LINK_STATUS -> failedPrograms.contains(programIn) ? 0 : 1;
+			case GL32.GL_ACTIVE_UNIFORMS -> linked == null ? 0 : linked.uniforms.size();
+			case GL32.GL_ACTIVE_ATTRIBUTES -> linked == null ? 0 : linked.attributes.size();
+			case GL41.GL_PROGRAM_BINARY_LENGTH -> linked == null ? 0 : linked.binary().length;
+			// Also reports compilation and link as complete
+			default -> 1;
+		};
+	}
+
+	@Override
+	public String glGetProgramInfoLog(int programIn, int maxLengthIn)
+	{
+		return failedPrograms.contains(programIn) ? "ERROR: program not linked" : "";
+	}
+
+	@Override
+	public void glProgramParameteri(int programIn, int parameterIn, int valueIn)
+	{
+	}
+
+	@Override
+	public void glGetProgramBinary(int programIn, int[] lengthOut, int[] binaryFormatOut, ByteBuffer binaryOut)
+	{
+		var linked = linkedPrograms.get(programIn);
+		var binary = linked == null ? new byte[0] : linked.binary();
+		binaryOut.put(binaryOut.position(), binary);
+		lengthOut[0]       = binary.length;
+		binaryFormatOut[0] = HeadlessGL.BINARY_FORMAT;
+	}
+
+	@Override
+	public void glProgramBinary(int programIn, int binaryFormatIn, ByteBuffer binaryIn)
+	{
+		link(programIn, binaryFormatIn == HeadlessGL.BINARY_FORMAT ? LinkedProgram.read(binaryIn.duplicate().order(ByteOrder.LITTLE_ENDIAN)) : null);
+	}
+
+	@Override
+	public String glGetActiveUniform(int programIn, int indexIn, int[] sizeOut, int[] typeOut)
+	{
+		var uniform = linkedPrograms.get(programIn).uniforms.get(indexIn);
+		sizeOut[0] = uniform.size;
+		typeOut[0] = uniform.type;
+
+		// Arrays are reported by their first element, as drivers do
+		return uniform.size > 1 ? uniform.name + "[0]" : uniform.name;
+	}
+
+	@Override
+	public String glGetActiveAttrib(int programIn, int indexIn, int[] sizeOut, int[] typeOut)
+	{
+		var attribute = linkedPrograms.get(programIn).attributes.get(indexIn);
+		sizeOut[0] = 1;
+		typeOut[0] = attribute.type;
+
+		return attribute.name;
+	}
+
+	@Override
+	public int glGetAttribLocation(int programIn, CharSequence nameIn)
+	{
+		var linked = linkedPrograms.get(programIn);
+		if (linked != null)
+		{
+			for (var attribute : linked.attributes)
+			{
+				if (attribute.name.contentEquals(nameIn))
+				{
+					return attribute.location;
+				}
+			}
+		}
+
+		return -1;
+	}
+
+	@Override
+	public void glUseProgram(int programIn)
+	{
+	}
+
+	@Override
+	public void glDeleteProgram(int programIn)
+	{
+		uniformLocations.remove(programIn);
+		attachedShaders.remove(programIn);
+		linkedPrograms.remove(programIn);
+		failedPrograms.remove(programIn);
+	}
+
+	@Override
+	public int glGetUniformLocation(int programIn, CharSequence nameIn)
+	{
+		var locations = uniformLocations.computeIfAbsent(programIn, programKeyIn -> new HashMap<>());
+
+		return locations.computeIfAbsent(nameIn.toString(), nameKeyIn -> locations.size());
+	}
+
+	@Override
+	public void glUniformMatrix4fv(int locationIn, boolean transposeIn, float[] valuesIn)
+	{
+	}
+
+	@Override
+	public int glGetUniformBlockIndex(int programIn, CharSequence nameIn)
+	{
+		return glGetUniformLocation(programIn, nameIn);
+	}
+
+	@Override
+	public void glUniformBlockBinding(int programIn, int blockIndexIn, int bindingIn)
+	{
+	}
+
+	private final static class Variable
+	{
+		private final String name;
+		private final int    type;
+		private final int    size;
+		private final int    location;
+
+		private Variable(String nameIn, int typeIn, int sizeIn, int locationIn)
+		{
+			name     = nameIn;
+			type     = typeIn;
+			size     = sizeIn;
+			location = locationIn;
+		}
+	}
+
+	/**
+	 * Sources of the linked stages and the variables they declare, uniforms of every stage and inputs of the vertex stage
+	 */
+	private final static class LinkedProgram
+	{
+		private final int[]          types;
+		private final String[]       sources;
+		private final List<Variable> uniforms;
+		private final List<Variable> attributes;
+
+		private LinkedProgram(int[] typesIn, String[] sourcesIn)
+		{
+			types      = typesIn;
+			sources    = sourcesIn;
+			uniforms   = new ArrayList<>();
+			attributes = new ArrayList<>();
+
+			var uniformNames  = new HashSet<String>();
+			var nextAttribute = 0;
+			for (var i = 0; i < sourcesIn.length; i++)
+			{
+				var source  = HeadlessGL.COMMENTS.matcher(sourcesIn[i]).replaceAll("");
+				var matcher = HeadlessGL.UNIFORM.matcher(source);
+				while (matcher.find())
+				{
+					if (uniformNames.add(matcher.group(2)))
+					{
+						uniforms.add(new Variable(matcher.group(2), HeadlessGL.type(matcher.group(1)), matcher.group(3) == null ? 1 : Integer.parseInt(matcher.group(3)), -1));
+					}
+				}
+				if (typesIn[i] != GL32.GL_VERTEX_SHADER)
+				{
+					continue;
+				}
+				matcher = HeadlessGL.ATTRIBUTE.matcher(source);
+				while (matcher.find())
+				{
+					var location = matcher.group(1) == null ? nextAttribute : Integer.parseInt(matcher.group(1));
+					nextAttribute = Math.max(nextAttribute, location + 1);
+					attributes.add(new Variable(matcher.group(3), HeadlessGL.type(matcher.group(2)), 1, location));
+				}
+			}
+		}
+
+		/**
+		 * @return the program read back from {@link #binary()}, null if the bytes are not one
+		 */
+		private static LinkedProgram read(ByteBuffer binaryIn)
+		{
+			if (binaryIn.remaining() < Integer.BYTES)
+			{
+				return null;
+			}
+			var count = binaryIn.getInt();
+			if (count <= 0 || count > binaryIn.remaining() / (Integer.BYTES * 2))
+			{
+				return null;
+			}
+
+			var types   = new int[count];
+			var sources = new String[count];
+			for (var i = 0; i < count; i++)
+			{
+				if (binaryIn.remaining() < Integer.BYTES * 2)
+				{
+					return null;
+				}
+				types[i] = binaryIn.getInt();
+				var length = binaryIn.getInt();
+				if (length < 0 || length > binaryIn.remaining())
+				{
+					return null;
+				}
+				var bytes = new byte[length];
+				binaryIn.get(bytes);
+				sources[i] = new String(bytes, StandardCharsets.UTF_8);
+			}
+
+			return new LinkedProgram(types, sources);
+		}
+
+		/**
+		 * @return count of stages, then the type, length and UTF-8 source of each, little endian
+		 */
+		private byte[] binary()
+		{
+			var encoded = new byte[sources.length][];
+			var length  = Integer.BYTES;
+			for (var i = 0; i < sources.length; i++)
+			{
+				encoded[i] = sources[i].getBytes(StandardCharsets.UTF_8);
+				length += Integer.BYTES * 2 + encoded[i].length;
+			}
+
+			var binary = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN).putInt(sources.length);
+			for (var i = 0; i < sources.length; i++)
+			{
+				binary.putInt(types[i]).putInt(encoded[i].length).put(encoded[i]);
+			}
+
+			return binary.array();
+		}
+	}
+}
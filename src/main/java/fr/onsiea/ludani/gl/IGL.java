@@ -0,0 +1,208 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.gl;
+
+import java.nio.ByteBuffer;
+
+/**
+ * OpenGL calls used by the engine, same names and parameters as the LWJGL bindings so that call sites read like plain GL.
+ * Rendering code goes through this facade to run on {@link OpenGL}, on {@link HeadlessGL} without any GPU, or through a
+ * {@link RecordingGL} to measure what it submits.
+ */
+public interface IGL
+{
+	/**
+	 * @return true if glMultiDrawElementsIndirect is available (OpenGL 4.3 or ARB_multi_draw_indirect)
+	 */
+	boolean multiDrawIndirect();
+
+	/**
+	 * @return true if buffers may stay mapped while drawn (OpenGL 4.4 or ARB_buffer_storage)
+	 */
+	boolean persistentMapping();
+
+	/**
+	 * @return true if linked programs can be read back and loaded on a later run (OpenGL 4.1 or ARB_get_program_binary,
+	 * with at least one binary format)
+	 */
+	boolean programBinary();
+
+	/**
+	 * @return true if the driver compiles and links on its own threads, GL_COMPLETION_STATUS_KHR then tells without waiting
+	 * whether a shader or a program is done (KHR_parallel_shader_compile or ARB_parallel_shader_compile)
+	 */
+	boolean parallelShaderCompile();
+
+	// Queries
+
+	String glGetString(int nameIn);
+
+	int glGetInteger(int nameIn);
+
+	// Capabilities
+
+	void glEnable(int capabilityIn);
+
+	void glDisable(int capabilityIn);
+
+	void glBlendFunc(int sourceFactorIn, int destinationFactorIn);
+
+	void glDepthMask(boolean flagIn);
+
+	// Vertex arrays and buffers
+
+	int glGenVertexArrays();
+
+	void glBindVertexArray(int vertexArrayIn);
+
+	void glDeleteVertexArrays(int vertexArrayIn);
+
+	int glGenBuffers();
+
+	void glBindBuffer(int targetIn, int bufferIn);
+
+	void glBufferData(int targetIn, ByteBuffer dataIn, int usageIn);
+
+	void glBufferData(int targetIn, long sizeIn, int usageIn);
+
+	void glBufferSubData(int targetIn, long offsetIn, ByteBuffer dataIn);
+
+	void glDeleteBuffers(int bufferIn);
+
+	void glBindBufferBase(int targetIn, int indexIn, int bufferIn);
+
+	void glCopyBufferSubData(int readTargetIn, int writeTargetIn, long readOffsetIn, long writeOffsetIn, long sizeIn);
+
+	void glBufferStorage(int targetIn, long sizeIn, int flagsIn);
+
+	/**
+	 * @return the mapped range, written in place by the caller
+	 */
+	ByteBuffer glMapBufferRange(int targetIn, long offsetIn, long lengthIn, int accessIn);
+
+	boolean glUnmapBuffer(int targetIn);
+
+	void glEnableVertexAttribArray(int indexIn);
+
+	void glVertexAttribPointer(int indexIn, int sizeIn, int typeIn, boolean normalizedIn, int strideIn, long pointerIn);
+
+	void glDisableVertexAttribArray(int indexIn);
+
+	void glVertexAttribDivisor(int indexIn, int divisorIn);
+
+	void glVertexAttrib4f(int indexIn, float xIn, float yIn, float zIn, float wIn);
+
+	// Draws
+
+	void glDrawArrays(int modeIn, int firstIn, int countIn);
+
+	void glDrawArraysInstanced(int modeIn, int firstIn, int countIn, int instanceCountIn);
+
+	void glDrawElements(int modeIn, int countIn, int typeIn, long indicesIn);
+
+	void glDrawElementsBaseVertex(int modeIn, int countIn, int typeIn, long indicesIn, int baseVertexIn);
+
+	void glMultiDrawElementsIndirect(int modeIn, int typeIn, long indirectIn, int drawCountIn, int strideIn);
+
+	// Synchronization
+
+	long glFenceSync(int conditionIn, int flagsIn);
+
+	int glClientWaitSync(long syncIn, int flagsIn, long timeoutIn);
+
+	void glDeleteSync(long syncIn);
+
+	// Programs
+
+	int glCreateProgram();
+
+	int glCreateShader(int typeIn);
+
+	void glShaderSource(int shaderIn, CharSequence sourceIn);
+
+	void glCompileShader(int shaderIn);
+
+	int glGetShaderi(int shaderIn, int parameterIn);
+
+	String glGetShaderInfoLog(int shaderIn, int maxLengthIn);
+
+	void glAttachShader(int programIn, int shaderIn);
+
+	void glDetachShader(int programIn, int shaderIn);
+
+	void glDeleteShader(int shaderIn);
+
+	void glLinkProgram(int programIn);
+
+	void glValidateProgram(int programIn);
+
+	int glGetProgrami(int programIn, int parameterIn);
+
+	void glProgramParameteri(int programIn, int parameterIn, int valueIn);
+
+	/**
+	 * @param binaryOut direct buffer of at least GL_PROGRAM_BINARY_LENGTH bytes
+	 */
+	void glGetProgramBinary(int programIn, int[] lengthOut, int[] binaryFormatOut, ByteBuffer binaryOut);
+
+	/**
+	 * @param binaryIn direct buffer, the link status tells whether the driver accepted it
+	 */
+	void glProgramBinary(int programIn, int binaryFormatIn, ByteBuffer binaryIn);
+
+	/**
+	 * @return name of the active uniform at indexIn, in [0, GL_ACTIVE_UNIFORMS[
+	 */
+	String glGetActiveUniform(int programIn, int indexIn, int[] sizeOut, int[] typeOut);
+
+	/**
+	 * @return name of the active attribute at indexIn, in [0, GL_ACTIVE_ATTRIBUTES[
+	 */
+	String glGetActiveAttrib(int programIn, int indexIn, int[] sizeOut, int[] typeOut);
+
+	int glGetAttribLocation(int programIn, CharSequence nameIn);
+
+	String glGetProgramInfoLog(int programIn, int maxLengthIn);
+
+	void glUseProgram(int programIn);
+
+	void glDeleteProgram(int programIn);
+
+	int glGetUniformLocation(int programIn, CharSequence nameIn);
+
+	void glUniformMatrix4fv(int locationIn, boolean transposeIn, float[] valuesIn);
+
+	int glGetUniformBlockIndex(int programIn, CharSequence nameIn);
+
+	void glUniformBlockBinding(int programIn, int blockIndexIn, int bindingIn);
+}
@@ -0,0 +1,447 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.gl;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.opengl.GL33;
+import org.lwjgl.opengl.GL41;
+import org.lwjgl.opengl.GL43;
+import org.lwjgl.opengl.GL44;
+import org.lwjgl.system.MemoryStack;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Forward every call to LWJGL, needs a current OpenGL context
+ */
+public class OpenGL implements IGL
+{
+	@Override
+	public boolean multiDrawIndirect()
+	{
+		var capabilities = GL.getCapabilities();
+
+		return capabilities.OpenGL43 || capabilities.GL_ARB_multi_draw_indirect;
+	}
+
+	@Override
+	public boolean persistentMapping()
+	{
+		var capabilities = GL.getCapabilities();
+
+		return capabilities.OpenGL44 || capabilities.GL_ARB_buffer_storage;
+	}
+
+	@Override
+	public boolean programBinary()
+	{
+		var capabilities = GL.getCapabilities();
+
+		return (capabilities.OpenGL41 || capabilities.GL_ARB_get_program_binary) && GL32.glGetInteger(GL41.GL_NUM_PROGRAM_BINARY_FORMATS) > 0;
+	}
+
+	@Override
+	public boolean parallelShaderCompile()
+	{
+		var capabilities = GL.getCapabilities();
+
+		return capabilities.GL_KHR_parallel_shader_compile || capabilities.GL_ARB_parallel_shader_compile;
+	}
+
+	@Override
+	public String glGetString(int nameIn)
+	{
+		return GL32.glGetString(nameIn);
+	}
+
+	@Override
+	public int glGetInteger(int nameIn)
+	{
+		return GL32.glGetInteger(nameIn);
+	}
+
+	@Override
+	public void glEnable(int capabilityIn)
+	{
+		GL32.glEnable(capabilityIn);
+	}
+
+	@Override
+	public void glDisable(int capabilityIn)
+	{
+		GL32.glDisable(capabilityIn);
+	}
+
+	@Override
+	public void glBlendFunc(int sourceFactorIn, int destinationFactorIn)
+	{
+		GL32.glBlendFunc(sourceFactorIn, destinationFactorIn);
+	}
+
+	@Override
+	public void glDepthMask(boolean flagIn)
+	{
+		GL32.glDepthMask(flagIn);
+	}
+
+	@Override
+	public int glGenVertexArrays()
+	{
+		return GL32.glGenVertexArrays();
+	}
+
+	@Override
+	public void glBindVertexArray(int vertexArrayIn)
+	{
+		GL32.glBindVertexArray(vertexArrayIn);
+	}
+
+	@Override
+	public void glDeleteVertexArrays(int vertexArrayIn)
+	{
+		GL32.glDeleteVertexArrays(vertexArrayIn);
+	}
+
+	@Override
+	public int glGenBuffers()
+	{
+		return GL32.glGenBuffers();
+	}
+
+	@Override
+	public void glBindBuffer(int targetIn, int bufferIn)
+	{
+		GL32.glBindBuffer(targetIn, bufferIn);
+	}
+
+	@Override
+	public void glBufferData(int targetIn, ByteBuffer dataIn, int usageIn)
+	{
+		GL32.glBufferData(targetIn, dataIn, usageIn);
+	}
+
+	@Override
+	public void glBufferData(int targetIn, long sizeIn, int usageIn)
+	{
+		GL32.glBufferData(targetIn, sizeIn, usageIn);
+	}
+
+	@Override
+	public void glBufferSubData(int targetIn, long offsetIn, ByteBuffer dataIn)
+	{
+		GL32.glBufferSubData(targetIn, offsetIn, dataIn);
+	}
+
+	@Override
+	public void glDeleteBuffers(int bufferIn)
+	{
+		GL32.glDeleteBuffers(bufferIn);
+	}
+
+	@Override
+	public void glBindBufferBase(int targetIn, int indexIn, int bufferIn)
+	{
+		GL32.glBindBufferBase(targetIn, indexIn, bufferIn);
+	}
+
+	@Override
+	public void glCopyBufferSubData(int readTargetIn, int writeTargetIn, long readOffsetIn, long writeOffsetIn, long sizeIn)
+	{
+		GL32.glCopyBufferSubData(readTargetIn, writeTargetIn, readOffsetIn, writeOffsetIn, sizeIn);
+	}
+
+	@Override
+	public void glBufferStorage(int targetIn, long sizeIn, int flagsIn)
+	{
+		GL44.glBufferStorage(targetIn, sizeIn, flagsIn);
+	}
+
+	@Override
+	public ByteBuffer glMapBufferRange(int targetIn, long offsetIn, long lengthIn, int accessIn)
+	{
+		return GL32.glMapBufferRange(targetIn, offsetIn, lengthIn, accessIn);
+	}
+
+	@Override
+	public boolean glUnmapBuffer(int targetIn)
+	{
+		return GL32.glUnmapBuffer(targetIn);
+	}
+
+	@Override
+	public void glEnableVertexAttribArray(int indexIn)
+	{
+		GL32.glEnableVertexAttribArray(indexIn);
+	}
+
+	@Override
+	public void glVertexAttribPointer(int indexIn, int sizeIn, int typeIn, boolean normalizedIn, int strideIn, long pointerIn)
+	{
+		GL32.glVertexAttribPointer(indexIn, sizeIn, typeIn, normalizedIn, strideIn, pointerIn);
+	}
+
+	@Override
+	public void glDisableVertexAttribArray(int indexIn)
+	{
+		GL32.glDisableVertexAttribArray(indexIn);
+	}
+
+	@Override
+	public void glVertexAttribDivisor(int indexIn, int divisorIn)
+	{
+		GL33.glVertexAttribDivisor(indexIn, divisorIn);
+	}
+
+	@Override
+	public void glVertexAttrib4f(int indexIn, float xIn, float yIn, float zIn, float wIn)
+	{
+		GL32.glVertexAttrib4f(indexIn, xIn, yIn, zIn, wIn);
+	}
+
+	@Override
+	public void glDrawArrays(int modeIn, int firstIn, int countIn)
+	{
+		GL32.glDrawArrays(modeIn, firstIn, countIn);
+	}
+
+	@Override
+	public void glDrawArraysInstanced(int modeIn, int firstIn, int countIn, int instanceCountIn)
+	{
+		GL32.glDrawArraysInstanced(modeIn, firstIn, countIn, instanceCountIn);
+	}
+
+	@Override
+	public void glDrawElements(int modeIn, int countIn, int typeIn, long indicesIn)
+	{
+		GL32.glDrawElements(modeIn, countIn, typeIn, indicesIn);
+	}
+
+	@Override
+	public void glDrawElementsBaseVertex(int modeIn, int countIn, int typeIn, long indicesIn, int baseVertexIn)
+	{
+		GL32.glDrawElementsBaseVertex(modeIn, countIn, typeIn, indicesIn, baseVertexIn);
+	}
+
+	@Override
+	public void glMultiDrawElementsIndirect(int modeIn, int typeIn, long indirectIn, int drawCountIn, int strideIn)
+	{
+		GL43.glMultiDrawElementsIndirect(modeIn, typeIn, indirectIn, drawCountIn, strideIn);
+	}
+
+	@Override
+	public long glFenceSync(int conditionIn, int flagsIn)
+	{
+		return GL32.glFenceSync(conditionIn, flagsIn);
+	}
+
+	@Override
+	public int glClientWaitSync(long syncIn, int flagsIn, long timeoutIn)
+	{
+		return GL32.glClientWaitSync(syncIn, flagsIn, timeoutIn);
+	}
+
+	@Override
+	public void glDeleteSync(long syncIn)
+	{
+		GL32.glDeleteSync(syncIn);
+	}
+
+	@Override
+	public int glCreateProgram()
+	{
+		return GL32.glCreateProgram();
+	}
+
+	@Override
+	public int glCreateShader(int typeIn)
+	{
+		return GL32.glCreateShader(typeIn);
+	}
+
+	@Override
+	public void glShaderSource(int shaderIn, CharSequence sourceIn)
+	{
+		GL32.glShaderSource(shaderIn, sourceIn);
+	}
+
+	@Override
+	public void glCompileShader(int shaderIn)
+	{
+		GL32.glCompileShader(shaderIn);
+	}
+
+	@Override
+	public int glGetShaderi(int shaderIn, int parameterIn)
+	{
+		return GL32.glGetShaderi(shaderIn, parameterIn);
+	}
+
+	@Override
+	public String glGetShaderInfoLog(int shaderIn, int maxLengthIn)
+	{
+		return GL32.glGetShaderInfoLog(shaderIn, maxLengthIn);
+	}
+
+	@Override
+	public void glAttachShader(int programIn, int shaderIn)
+	{
+		GL32.glAttachShader(programIn, shaderIn);
+	}
+
+	@Override
+	public void glDetachShader(int programIn, int shaderIn)
+	{
+		GL32.glDetachShader(programIn, shaderIn);
+	}
+
+	@Override
+	public void glDeleteShader(int shaderIn)
+	{
+		GL32.glDeleteShader(shaderIn);
+	}
+
+	@Override
+	public void glLinkProgram(int programIn)
+	{
+		GL32.glLinkProgram(programIn);
+	}
+
+	@Override
+	public void glValidateProgram(int programIn)
+	{
+		GL32.glValidateProgram(programIn);
+	}
+
+	@Override
+	public int glGetProgrami(int programIn, int parameterIn)
+	{
+		return GL32.glGetProgrami(programIn, parameterIn);
+	}
+
+	@Override
+	public void glProgramParameteri(int programIn, int parameterIn, int valueIn)
+	{
+		GL41.glProgramParameteri(programIn, parameterIn, valueIn);
+	}
+
+	@Override
+	public void glGetProgramBinary(int programIn, int[] lengthOut, int[] binaryFormatOut, ByteBuffer binaryOut)
+	{
+		GL41.glGetProgramBinary(programIn, lengthOut, binaryFormatOut, binaryOut);
+	}
+
+	@Override
+	public void glProgramBinary(int programIn, int binaryFormatIn, ByteBuffer binaryIn)
+	{
+		GL41.glProgramBinary(programIn, binaryFormatIn, binaryIn);
+	}
+
+	@Override
+	public String glGetActiveUniform(int programIn, int indexIn, int[] sizeOut, int[] typeOut)
+	{
+		try (var stack = MemoryStack.stackPush())
+		{
+			var size = stack.mallocInt(1);
+			var type = stack.mallocInt(1);
+			var name = GL32.glGetActiveUniform(programIn, indexIn, size, type);
+			sizeOut[0] = size.get(0);
+			typeOut[0] = type.get(0);
+
+			return name;
+		}
+	}
+
+	@Override
+	public String glGetActiveAttrib(int programIn, int indexIn, int[] sizeOut, int[] typeOut)
+	{
+		try (var stack = MemoryStack.stackPush())
+		{
+			var size = stack.mallocInt(1);
+			var type = stack.mallocInt(1);
+			var name = GL32.glGetActiveAttrib(programIn, indexIn, size, type);
+			sizeOut[0] = size.get(0);
+			typeOut[0] = type.get(0);
+
+			return name;
+		}
+	}
+
+	@Override
+	public int glGetAttribLocation(int programIn, CharSequence nameIn)
+	{
+		return GL32.glGetAttribLocation(programIn, nameIn);
+	}
+
+	@Override
+	public String glGetProgramInfoLog(int programIn, int maxLengthIn)
+	{
+		return GL32.glGetProgramInfoLog(programIn, maxLengthIn);
+	}
+
+	@Override
+	public void glUseProgram(int programIn)
+	{
+		GL32.glUseProgram(programIn);
+	}
+
+	@Override
+	public void glDeleteProgram(int programIn)
+	{
+		GL32.glDeleteProgram(programIn);
+	}
+
+	@Override
+	public int glGetUniformLocation(int programIn, CharSequence nameIn)
+	{
+		return GL32.glGetUniformLocation(programIn, nameIn);
+	}
+
+	@Override
+	public void glUniformMatrix4fv(int locationIn, boolean transposeIn, float[] valuesIn)
+	{
+		GL32.glUniformMatrix4fv(locationIn, transposeIn, valuesIn);
+	}
+
+	@Override
+	public int glGetUniformBlockIndex(int programIn, CharSequence nameIn)
+	{
+		return GL32.glGetUniformBlockIndex(programIn, nameIn);
+	}
+
+	@Override
+	public void glUniformBlockBinding(int programIn, int blockIndexIn, int bindingIn)
+	{
+		GL32.glUniformBlockBinding(programIn, blockIndexIn, bindingIn);
+	}
+}
@@ -0,0 +1,527 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.gl;
+
+import lombok.Getter;
+import org.lwjgl.opengl.GL32;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Forward every call to another {@link IGL} and count draw calls, state changes, uniform uploads and uploaded bytes.
+ * Bindings are tracked to tell redundant state changes apart, the element array binding is forgotten when the vertex
+ * array changes since it belongs to the vertex array.
+ * Wrapping a {@link HeadlessGL} gives the numbers of a frame without GPU, {@link #endFrame()} closes the current frame.
+ */
+public class RecordingGL implements IGL
+{
+	private final         IGL                   gl;
+	// Counters of the frame in progress
+	private final @Getter GLStatistics          frame;
+	private final @Getter GLStatistics          lastFrame;
+	private final @Getter GLStatistics          total;
+	private final         Map<Integer, Integer> boundBuffers;
+	// Indexed bindings, target in the high bits and index in the low bits
+	private final         Map<Long, Integer>    boundBufferBases;
+	private final         Set<Integer>          enabledCapabilities;
+	private final         Set<Integer>          enabledAttributes;
+	private @Getter       long                  frameCount;
+	private               int                   program;
+	private               int                   vertexArray;
+	// Source factor in the high bits and destination factor in the low bits
+	private               long                  blendFunction;
+	private               boolean               depthMask;
+
+	public RecordingGL(IGL glIn)
+	{
+		gl                  = glIn;
+		frame               = new GLStatistics();
+		lastFrame           = new GLStatistics();
+		total               = new GLStatistics();
+		boundBuffers        = new HashMap<>();
+		boundBufferBases    = new HashMap<>();
+		enabledCapabilities = new HashSet<>();
+		enabledAttributes   = new HashSet<>();
+		blendFunction       = RecordingGL.blendFunction(GL32.GL_ONE, GL32.GL_ZERO);
+		depthMask           = true;
+	}
+
+	private static long blendFunction(int sourceFactorIn, int destinationFactorIn)
+	{
+		return (long) sourceFactorIn << 32 | destinationFactorIn & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * Keep the counters of the current frame in {@link #lastFrame()}, add them to {@link #total()} and start a new frame
+	 *
+	 * @return counters of the frame just ended
+	 */
+	public GLStatistics endFrame()
+	{
+		lastFrame.set(frame);
+		total.add(frame);
+		frame.reset();
+		frameCount++;
+
+		return lastFrame;
+	}
+
+	@Override
+	public boolean multiDrawIndirect()
+	{
+		return gl.multiDrawIndirect();
+	}
+
+	@Override
+	public boolean persistentMapping()
+	{
+		return gl.persistentMapping();
+	}
+
+	@Override
+	public boolean programBinary()
+	{
+		return gl.programBinary();
+	}
+
+	@Override
+	public boolean parallelShaderCompile()
+	{
+		return gl.parallelShaderCompile();
+	}
+
+	@Override
+	public String glGetString(int nameIn)
+	{
+		return gl.glGetString(nameIn);
+	}
+
+	@Override
+	public int glGetInteger(int nameIn)
+	{
+		return gl.glGetInteger(nameIn);
+	}
+
+	@Override
+	public void glEnable(int capabilityIn)
+	{
+		frame.stateChange(!enabledCapabilities.add(capabilityIn));
+		gl.glEnable(capabilityIn);
+	}
+
+	@Override
+	public void glDisable(int capabilityIn)
+	{
+		frame.stateChange(!enabledCapabilities.remove(capabilityIn));
+		gl.glDisable(capabilityIn);
+	}
+
+	@Override
+	public void glBlendFunc(int sourceFactorIn, int destinationFactorIn)
+	{
+		var function = RecordingGL.blendFunction(sourceFactorIn, destinationFactorIn);
+		frame.stateChange(blendFunction == function);
+		blendFunction = function;
+		gl.glBlendFunc(sourceFactorIn, destinationFactorIn);
+	}
+
+	@Override
+	public void glDepthMask(boolean flagIn)
+	{
+		frame.stateChange(depthMask == flagIn);
+		depthMask = flagIn;
+		gl.glDepthMask(flagIn);
+	}
+
+	@Override
+	public int glGenVertexArrays()
+	{
+		return gl.glGenVertexArrays();
+	}
+
+	@Override
+	public void glBindVertexArray(int vertexArrayIn)
+	{
+		frame.stateChange(vertexArray == vertexArrayIn);
+		if (vertexArray != vertexArrayIn)
+		{
+			boundBuffers.remove(GL32.GL_ELEMENT_ARRAY_BUFFER);
+			enabledAttributes.clear();
+		}
+		vertexArray = vertexArrayIn;
+		gl.glBindVertexArray(vertexArrayIn);
+	}
+
+	@Override
+	public void glDeleteVertexArrays(int vertexArrayIn)
+	{
+		if (vertexArray == vertexArrayIn)
+		{
+			vertexArray = 0;
+		}
+		gl.glDeleteVertexArrays(vertexArrayIn);
+	}
+
+	@Override
+	public int glGenBuffers()
+	{
+		return gl.glGenBuffers();
+	}
+
+	@Override
+	public void glBindBuffer(int targetIn, int bufferIn)
+	{
+		var previous = boundBuffers.put(targetIn, bufferIn);
+		frame.stateChange(previous != null && previous == bufferIn);
+		gl.glBindBuffer(targetIn, bufferIn);
+	}
+
+	@Override
+	public void glBufferData(int targetIn, ByteBuffer dataIn, int usageIn)
+	{
+		frame.upload(dataIn.remaining());
+		gl.glBufferData(targetIn, dataIn, usageIn);
+	}
+
+	@Override
+	public void glBufferData(int targetIn, long sizeIn, int usageIn)
+	{
+		// Allocation only, nothing is sent
+		frame.upload(0);
+		gl.glBufferData(targetIn, sizeIn, usageIn);
+	}
+
+	@Override
+	public void glBufferSubData(int targetIn, long offsetIn, ByteBuffer dataIn)
+	{
+		frame.upload(dataIn.remaining());
+		gl.glBufferSubData(targetIn, offsetIn, dataIn);
+	}
+
+	@Override
+	public void glDeleteBuffers(int bufferIn)
+	{
+		boundBuffers.values().removeIf(bufferValueIn -> bufferValueIn == bufferIn);
+		boundBufferBases.values().removeIf(bufferValueIn -> bufferValueIn == bufferIn);
+		gl.glDeleteBuffers(bufferIn);
+	}
+
+	@Override
+	public void glBindBufferBase(int targetIn, int indexIn, int bufferIn)
+	{
+		// Also binds the buffer to the generic target
+		var previous = boundBufferBases.put((long) targetIn << 32 | indexIn & 0xFFFFFFFFL, bufferIn);
+		boundBuffers.put(targetIn, bufferIn);
+		frame.stateChange(previous != null && previous == bufferIn);
+		gl.glBindBufferBase(targetIn, indexIn, bufferIn);
+	}
+
+	@Override
+	public void glCopyBufferSubData(int readTargetIn, int writeTargetIn, long readOffsetIn, long writeOffsetIn, long sizeIn)
+	{
+		frame.copy(sizeIn);
+		gl.glCopyBufferSubData(readTargetIn, writeTargetIn, readOffsetIn, writeOffsetIn, sizeIn);
+	}
+
+	@Override
+	public void glBufferStorage(int targetIn, long sizeIn, int flagsIn)
+	{
+		// Allocation only, nothing is sent
+		frame.upload(0);
+		gl.glBufferStorage(targetIn, sizeIn, flagsIn);
+	}
+
+	@Override
+	public ByteBuffer glMapBufferRange(int targetIn, long offsetIn, long lengthIn, int accessIn)
+	{
+		frame.map(lengthIn);
+
+		return gl.glMapBufferRange(targetIn, offsetIn, lengthIn, accessIn);
+	}
+
+	@Override
+	public boolean glUnmapBuffer(int targetIn)
+	{
+		return gl.glUnmapBuffer(targetIn);
+	}
+
+	@Override
+	public void glEnableVertexAttribArray(int indexIn)
+	{
+		frame.stateChange(!enabledAttributes.add(indexIn));
+		gl.glEnableVertexAttribArray(indexIn);
+	}
+
+	@Override
+	public void glVertexAttribPointer(int indexIn, int sizeIn, int typeIn, boolean normalizedIn, int strideIn, long pointerIn)
+	{
+		frame.stateChange(false);
+		gl.glVertexAttribPointer(indexIn, sizeIn, typeIn, normalizedIn, strideIn, pointerIn);
+	}
+
+	@Override
+	public void glDisableVertexAttribArray(int indexIn)
+	{
+		frame.stateChange(!enabledAttributes.remove(indexIn));
+		gl.glDisableVertexAttribArray(indexIn);
+	}
+
+	@Override
+	public void glVertexAttribDivisor(int indexIn, int divisorIn)
+	{
+		frame.stateChange(false);
+		gl.glVertexAttribDivisor(indexIn, divisorIn);
+	}
+
+	@Override
+	public void glVertexAttrib4f(int indexIn, float xIn, float yIn, float zIn, float wIn)
+	{
+		frame.stateChange(false);
+		gl.glVertexAttrib4f(indexIn, xIn, yIn, zIn, wIn);
+	}
+
+	@Override
+	public void glDrawArrays(int modeIn, int firstIn, int countIn)
+	{
+		frame.draw(countIn);
+		gl.glDrawArrays(modeIn, firstIn, countIn);
+	}
+
+	@Override
+	public void glDrawArraysInstanced(int modeIn, int firstIn, int countIn, int instanceCountIn)
+	{
+		frame.drawInstanced(countIn, instanceCountIn);
+		gl.glDrawArraysInstanced(modeIn, firstIn, countIn, instanceCountIn);
+	}
+
+	@Override
+	public void glDrawElements(int modeIn, int countIn, int typeIn, long indicesIn)
+	{
+		frame.draw(countIn);
+		gl.glDrawElements(modeIn, countIn, typeIn, indicesIn);
+	}
+
+	@Override
+	public void glDrawElementsBaseVertex(int modeIn, int countIn, int typeIn, long indicesIn, int baseVertexIn)
+	{
+		frame.draw(countIn);
+		gl.glDrawElementsBaseVertex(modeIn, countIn, typeIn, indicesIn, baseVertexIn);
+	}
+
+	@Override
+	public void glMultiDrawElementsIndirect(int modeIn, int typeIn, long indirectIn, int drawCountIn, int strideIn)
+	{
+		frame.multiDraw(drawCountIn);
+		gl.glMultiDrawElementsIndirect(modeIn, typeIn, indirectIn, drawCountIn, strideIn);
+	}
+
+	@Override
+	public long glFenceSync(int conditionIn, int flagsIn)
+	{
+		return gl.glFenceSync(conditionIn, flagsIn);
+	}
+
+	@Override
+	public int glClientWaitSync(long syncIn, int flagsIn, long timeoutIn)
+	{
+		return gl.glClientWaitSync(syncIn, flagsIn, timeoutIn);
+	}
+
+	@Override
+	public void glDeleteSync(long syncIn)
+	{
+		gl.glDeleteSync(syncIn);
+	}
+
+	@Override
+	public int glCreateProgram()
+	{
+		return gl.glCreateProgram();
+	}
+
+	@Override
+	public int glCreateShader(int typeIn)
+	{
+		return gl.glCreateShader(typeIn);
+	}
+
+	@Override
+	public void glShaderSource(int shaderIn, CharSequence sourceIn)
+	{
+		gl.glShaderSource(shaderIn, sourceIn);
+	}
+
+	@Override
+	public void glCompileShader(int shaderIn)
+	{
+		gl.glCompileShader(shaderIn);
+	}
+
+	@Override
+	public int glGetShaderi(int shaderIn, int parameterIn)
+	{
+		return gl.glGetShaderi(shaderIn, parameterIn);
+	}
+
+	@Override
+	public String glGetShaderInfoLog(int shaderIn, int maxLengthIn)
+	{
+		return gl.glGetShaderInfoLog(shaderIn, maxLengthIn);
+	}
+
+	@Override
+	public void glAttachShader(int programIn, int shaderIn)
+	{
+		gl.glAttachShader(programIn, shaderIn);
+	}
+
+	@Override
+	public void glDetachShader(int programIn, int shaderIn)
+	{
+		gl.glDetachShader(programIn, shaderIn);
+	}
+
+	@Override
+	public void glDeleteShader(int shaderIn)
+	{
+		gl.glDeleteShader(shaderIn);
+	}
+
+	@Override
+	public void glLinkProgram(int programIn)
+	{
+		gl.glLinkProgram(programIn);
+	}
+
+	@Override
+	public void glValidateProgram(int programIn)
+	{
+		gl.glValidateProgram(programIn);
+	}
+
+	@Override
+	public int glGetProgrami(int programIn, int parameterIn)
+	{
+		return gl.glGetProgrami(programIn, parameterIn);
+	}
+
+	@Override
+	public void glProgramParameteri(int programIn, int parameterIn, int valueIn)
+	{
+		gl.glProgramParameteri(programIn, parameterIn, valueIn);
+	}
+
+	@Override
+	public void glGetProgramBinary(int programIn, int[] lengthOut, int[] binaryFormatOut, ByteBuffer binaryOut)
+	{
+		gl.glGetProgramBinary(programIn, lengthOut, binaryFormatOut, binaryOut);
+	}
+
+	@Override
+	public void glProgramBinary(int programIn, int binaryFormatIn, ByteBuffer binaryIn)
+	{
+		gl.glProgramBinary(programIn, binaryFormatIn, binaryIn);
+	}
+
+	@Override
+	public String glGetActiveUniform(int programIn, int indexIn, int[] sizeOut, int[] typeOut)
+	{
+		return gl.glGetActiveUniform(programIn, indexIn, sizeOut, typeOut);
+	}
+
+	@Override
+	public String glGetActiveAttrib(int programIn, int indexIn, int[] sizeOut, int[] typeOut)
+	{
+		return gl.glGetActiveAttrib(programIn, indexIn, sizeOut, typeOut);
+	}
+
+	@Override
+	public int glGetAttribLocation(int programIn, CharSequence nameIn)
+	{
+		return gl.glGetAttribLocation(programIn, nameIn);
+	}
+
+	@Override
+	public String glGetProgramInfoLog(int programIn, int maxLengthIn)
+	{
+		return gl.glGetProgramInfoLog(programIn, maxLengthIn);
+	}
+
+	@Override
+	public void glUseProgram(int programIn)
+	{
+		frame.stateChange(program == programIn);
+		program = programIn;
+		gl.glUseProgram(programIn);
+	}
+
+	@Override
+	public void glDeleteProgram(int programIn)
+	{
+		if (program == programIn)
+		{
+			program = 0;
+		}
+		gl.glDeleteProgram(programIn);
+	}
+
+	@Override
+	public int glGetUniformLocation(int programIn, CharSequence nameIn)
+	{
+		return gl.glGetUniformLocation(programIn, nameIn);
+	}
+
+	@Override
+	public void glUniformMatrix4fv(int locationIn, boolean transposeIn, float[] valuesIn)
+	{
+		frame.uniform((long) valuesIn.length * Float.BYTES);
+		gl.glUniformMatrix4fv(locationIn, transposeIn, valuesIn);
+	}
+
+	@Override
+	public int glGetUniformBlockIndex(int programIn, CharSequence nameIn)
+	{
+		return gl.glGetUniformBlockIndex(programIn, nameIn);
+	}
+
+	@Override
+	public void glUniformBlockBinding(int programIn, int blockIndexIn, int bindingIn)
+	{
+		frame.stateChange(false);
+		gl.glUniformBlockBinding(programIn, blockIndexIn, bindingIn);
+	}
+}
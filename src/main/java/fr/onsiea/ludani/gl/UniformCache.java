@@ -0,0 +1,99 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.gl;
+
+import org.joml.Matrix4fc;
+
+import java.util.Arrays;
+
+/**
+ * Last values uploaded to the uniforms of one program, an upload of the value already held by the uniform is skipped.
+ * Uniform values belong to the program so the program must be current when setting them.
+ */
+public class UniformCache
+{
+	private final static int MATRIX4_FLOATS = 16;
+
+	private final IGL       gl;
+	private final float[]   values;
+	// 16 floats per location
+	private       float[]   cachedValues;
+	private       boolean[] cached;
+
+	public UniformCache(IGL glIn)
+	{
+		gl           = glIn;
+		values       = new float[UniformCache.MATRIX4_FLOATS];
+		cachedValues = new float[UniformCache.MATRIX4_FLOATS * 8];
+		cached       = new boolean[8];
+	}
+
+	/**
+	 * @return true if the value was uploaded
+	 */
+	public boolean matrix4(int locationIn, Matrix4fc valueIn)
+	{
+		if (locationIn < 0)
+		{
+			// Inactive uniform, OpenGL ignores it
+			return false;
+		}
+		if (locationIn >= cached.length)
+		{
+			var length = Math.max(locationIn + 1, cached.length * 2);
+			cached       = Arrays.copyOf(cached, length);
+			cachedValues = Arrays.copyOf(cachedValues, length * UniformCache.MATRIX4_FLOATS);
+		}
+
+		valueIn.get(values);
+		var offset = locationIn * UniformCache.MATRIX4_FLOATS;
+		if (cached[locationIn] && Arrays.equals(values, 0, UniformCache.MATRIX4_FLOATS, cachedValues, offset, offset + UniformCache.MATRIX4_FLOATS))
+		{
+			return false;
+		}
+
+		System.arraycopy(values, 0, cachedValues, offset, UniformCache.MATRIX4_FLOATS);
+		cached[locationIn] = true;
+		gl.glUniformMatrix4fv(locationIn, false, values);
+
+		return true;
+	}
+
+	/**
+	 * Forget the cached values, for example after the program was linked again
+	 */
+	public void invalidate()
+	{
+		Arrays.fill(cached, false);
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.input;
+
+import org.lwjgl.glfw.GLFW;
+import org.lwjgl.glfw.GLFWCursorPosCallback;
+import org.lwjgl.glfw.GLFWKeyCallback;
+import org.lwjgl.glfw.GLFWMouseButtonCallback;
+import org.lwjgl.glfw.GLFWScrollCallback;
+
+/**
+ * Pushes the events of a GLFW window into an {@link IInputEvents} from the window callbacks, called while the window
+ * polls its events, so nothing is polled per frame. The cursor is captured : hidden, unbounded and raw when supported.
+ */
+public class GLFWInputSource implements AutoCloseable
+{
+	private final long                    window;
+	private final GLFWKeyCallback         keyCallback;
+	private final GLFWMouseButtonCallback buttonCallback;
+	private final GLFWCursorPosCallback   cursorCallback;
+	private final GLFWScrollCallback      scrollCallback;
+
+	/**
+	 * Must be called on the thread of the window
+	 */
+	public GLFWInputSource(long windowIn, IInputEvents eventsIn)
+	{
+		window         = windowIn;
+		keyCallback    = GLFWKeyCallback.create((windowHandleIn, keyIn, scancodeIn, actionIn, modsIn) -> eventsIn.key(keyIn, actionIn));
+		buttonCallback = GLFWMouseButtonCallback.create((windowHandleIn, buttonIn, actionIn, modsIn) -> eventsIn.button(buttonIn, actionIn));
+		cursorCallback = GLFWCursorPosCallback.create((windowHandleIn, xIn, yIn) -> eventsIn.cursor(xIn, yIn));
+		scrollCallback = GLFWScrollCallback.create((windowHandleIn, xOffsetIn, yOffsetIn) -> eventsIn.scroll(xOffsetIn, yOffsetIn));
+
+		GLFW.glfwSetInputMode(windowIn, GLFW.GLFW_CURSOR, GLFW.GLFW_CURSOR_DISABLED);
+		if (GLFW.glfwRawMouseMotionSupported())
+		{
+			GLFW.glfwSetInputMode(windowIn, GLFW.GLFW_RAW_MOUSE_MOTION, GLFW.GLFW_TRUE);
+		}
+		GLFW.glfwSetKeyCallback(windowIn, keyCallback);
+		GLFW.glfwSetMouseButtonCallback(windowIn, buttonCallback);
+		GLFW.glfwSetCursorPosCallback(windowIn, cursorCallback);
+		GLFW.glfwSetScrollCallback(windowIn, scrollCallback);
+	}
+
+	/**
+	 * Remove the callbacks and release the cursor
+	 */
+	@Override
+	public void close()
+	{
+		GLFW.glfwSetKeyCallback(window, null);
+		GLFW.glfwSetMouseButtonCallback(window, null);
+		GLFW.glfwSetCursorPosCallback(window, null);
+		GLFW.glfwSetScrollCallback(window, null);
+		GLFW.glfwSetInputMode(window, GLFW.GLFW_CURSOR, GLFW.GLFW_CURSOR_NORMAL);
+		keyCallback.free();
+		buttonCallback.free();
+		cursorCallback.free();
+		scrollCallback.free();
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.input;
+
+import java.util.Arrays;
+
+/**
+ * Events stored in parallel primitive arrays, an event is a type, a code, an action and two coordinates
+ */
+class InputEvents
+{
+	final static int KEY    = 0;
+	final static int BUTTON = 1;
+	final static int CURSOR = 2;
+	final static int SCROLL = 3;
+
+	private int[]    types;
+	private int[]    codes;
+	private int[]    actions;
+	private double[] xs;
+	private double[] ys;
+
+	InputEvents(int capacityIn)
+	{
+		types   = new int[capacityIn];
+		codes   = new int[capacityIn];
+		actions = new int[capacityIn];
+		xs      = new double[capacityIn];
+		ys      = new double[capacityIn];
+	}
+
+	int capacity()
+	{
+		return types.length;
+	}
+
+	void grow(int capacityIn)
+	{
+		types   = Arrays.copyOf(types, capacityIn);
+		codes   = Arrays.copyOf(codes, capacityIn);
+		actions = Arrays.copyOf(actions, capacityIn);
+		xs      = Arrays.copyOf(xs, capacityIn);
+		ys      = Arrays.copyOf(ys, capacityIn);
+	}
+
+	void set(int indexIn, int typeIn, int codeIn, int actionIn, double xIn, double yIn)
+	{
+		types[indexIn]   = typeIn;
+		codes[indexIn]   = codeIn;
+		actions[indexIn] = actionIn;
+		xs[indexIn]      = xIn;
+		ys[indexIn]      = yIn;
+	}
+
+	void dispatch(int indexIn, IInputEvents eventsOut)
+	{
+		switch (types[indexIn])
+		{
+			case InputEvents.KEY -> eventsOut.key(codes[indexIn], actions[indexIn]);
+			case InputEvents.BUTTON -> eventsOut.button(codes[indexIn], actions[indexIn]);
+			case InputEvents.CURSOR -> eventsOut.cursor(xs[indexIn], ys[indexIn]);
+			case InputEvents.SCROLL -> eventsOut.scroll(xs[indexIn], ys[indexIn]);
+			default -> throw new IllegalStateException("Unknown input event type " + types[indexIn]);
+		}
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.input;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Preallocated ring of input events between one producer, the window callbacks or an {@link InputScript}, and one consumer
+ * draining it on the update tick, possibly on another thread. Neither side locks nor allocates. Events pushed while the
+ * ring is full are dropped and counted.
+ */
+public class InputRing implements IInputEvents
+{
+	public final static int DEFAULT_CAPACITY = 1024;
+
+	private final            InputEvents events;
+	private final            int         mask;
+	// Positions grow forever, the slot of a position is position & mask
+	private final            AtomicLong  head;
+	private final            AtomicLong  tail;
+	private volatile @Getter long        droppedCount;
+
+	public InputRing()
+	{
+		this(InputRing.DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacityIn power of two
+	 */
+	public InputRing(int capacityIn)
+	{
+		if (capacityIn <= 0 || Integer.bitCount(capacityIn) != 1)
+		{
+			throw new IllegalArgumentException("Capacity must be a power of two : " + capacityIn);
+		}
+
+		events = new InputEvents(capacityIn);
+		mask   = capacityIn - 1;
+		head   = new AtomicLong();
+		tail   = new AtomicLong();
+	}
+
+	private void push(int typeIn, int codeIn, int actionIn, double xIn, double yIn)
+	{
+		var position = head.getPlain();
+		if (position - tail.getAcquire() > mask)
+		{
+			droppedCount++;
+			return;
+		}
+
+		events.set((int) (position & mask), typeIn, codeIn, actionIn, xIn, yIn);
+		head.setRelease(position + 1);
+	}
+
+	@Override
+	public void key(int keyIn, int actionIn)
+	{
+		push(InputEvents.KEY, keyIn, actionIn, 0.0D, 0.0D);
+	}
+
+	@Override
+	public void button(int buttonIn, int actionIn)
+	{
+		push(InputEvents.BUTTON, buttonIn, actionIn, 0.0D, 0.0D);
+	}
+
+	@Override
+	public void cursor(double xIn, double yIn)
+	{
+		push(InputEvents.CURSOR, 0, 0, xIn, yIn);
+	}
+
+	@Override
+	public void scroll(double xOffsetIn, double yOffsetIn)
+	{
+		push(InputEvents.SCROLL, 0, 0, xOffsetIn, yOffsetIn);
+	}
+
+	/**
+	 * Give every pending event to eventsOut in push order, consumer only
+	 *
+	 * @return number of events drained
+	 */
+	public int drain(IInputEvents eventsOut)
+	{
+		var position = tail.getPlain();
+		var end      = head.getAcquire();
+		for (var current = position; current < end; current++)
+		{
+			events.dispatch((int) (current & mask), eventsOut);
+		}
+		tail.setRelease(end);
+
+		return (int) (end - position);
+	}
+
+	public int size()
+	{
+		return (int) (head.get() - tail.get());
+	}
+}
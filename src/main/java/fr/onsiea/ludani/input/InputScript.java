@@ -0,0 +1,136 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.input;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Input events tied to update ticks, written by hand or recorded from a live source, then played back into an
+ * {@link InputRing} in place of the window. Events are added at the tick set by {@link #at(long)}, which never goes back.
+ */
+public class InputScript implements IInputEvents
+{
+	private final   InputEvents events;
+	private         long[]      ticks;
+	private @Getter int         size;
+	private         long        tick;
+	// Next event played
+	private         int         next;
+
+	public InputScript()
+	{
+		events = new InputEvents(64);
+		ticks  = new long[64];
+	}
+
+	/**
+	 * Tick of the events added next
+	 */
+	public InputScript at(long tickIn)
+	{
+		if (tickIn < tick)
+		{
+			throw new IllegalArgumentException("Ticks must be added in order : " + tickIn + " after " + tick);
+		}
+		tick = tickIn;
+
+		return this;
+	}
+
+	private void add(int typeIn, int codeIn, int actionIn, double xIn, double yIn)
+	{
+		if (size == ticks.length)
+		{
+			events.grow(size * 2);
+			ticks = Arrays.copyOf(ticks, size * 2);
+		}
+		events.set(size, typeIn, codeIn, actionIn, xIn, yIn);
+		ticks[size] = tick;
+		size++;
+	}
+
+	@Override
+	public void key(int keyIn, int actionIn)
+	{
+		add(InputEvents.KEY, keyIn, actionIn, 0.0D, 0.0D);
+	}
+
+	@Override
+	public void button(int buttonIn, int actionIn)
+	{
+		add(InputEvents.BUTTON, buttonIn, actionIn, 0.0D, 0.0D);
+	}
+
+	@Override
+	public void cursor(double xIn, double yIn)
+	{
+		add(InputEvents.CURSOR, 0, 0, xIn, yIn);
+	}
+
+	@Override
+	public void scroll(double xOffsetIn, double yOffsetIn)
+	{
+		add(InputEvents.SCROLL, 0, 0, xOffsetIn, yOffsetIn);
+	}
+
+	/**
+	 * Give eventsOut the events up to tickIn not played yet
+	 *
+	 * @return number of events played
+	 */
+	public int play(long tickIn, IInputEvents eventsOut)
+	{
+		var first = next;
+		while (next < size && ticks[next] <= tickIn)
+		{
+			events.dispatch(next, eventsOut);
+			next++;
+		}
+
+		return next - first;
+	}
+
+	public boolean finished()
+	{
+		return next == size;
+	}
+
+	public InputScript rewind()
+	{
+		next = 0;
+
+		return this;
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.input;
+
+import lombok.Getter;
+import org.lwjgl.glfw.GLFW;
+
+/**
+ * Input of one update tick : keys and buttons held, pressed or released during the tick in bitsets, cursor and scroll
+ * movement accumulated since the previous tick. {@link #update(InputRing)} starts a tick then drains the pending events.
+ * A key pressed and released within a tick is seen as pressed and released but not held, repeats are ignored.
+ */
+public class InputState implements IInputEvents
+{
+	// GLFW key codes are below 512
+	public final static int KEY_COUNT    = 512;
+	public final static int BUTTON_COUNT = 8;
+
+	private final   long[]  keysDown;
+	private final   long[]  keysPressed;
+	private final   long[]  keysReleased;
+	private         long    buttonsDown;
+	private         long    buttonsPressed;
+	private         long    buttonsReleased;
+	private         boolean cursorKnown;
+	private @Getter double  cursorX;
+	private @Getter double  cursorY;
+	private @Getter double  deltaX;
+	private @Getter double  deltaY;
+	private @Getter double  scrollX;
+	private @Getter double  scrollY;
+	private @Getter long    tick;
+
+	public InputState()
+	{
+		keysDown     = new long[InputState.KEY_COUNT / Long.SIZE];
+		keysPressed  = new long[InputState.KEY_COUNT / Long.SIZE];
+		keysReleased = new long[InputState.KEY_COUNT / Long.SIZE];
+	}
+
+	/**
+	 * Start the next tick with the events pushed since the previous one
+	 */
+	public InputState update(InputRing ringIn)
+	{
+		begin();
+		ringIn.drain(this);
+
+		return this;
+	}
+
+	/**
+	 * Start the next tick, the events are then given directly
+	 */
+	public InputState begin()
+	{
+		for (var index = 0; index < keysPressed.length; index++)
+		{
+			keysPressed[index]  = 0L;
+			keysReleased[index] = 0L;
+		}
+		buttonsPressed  = 0L;
+		buttonsReleased = 0L;
+		deltaX          = 0.0D;
+		deltaY          = 0.0D;
+		scrollX         = 0.0D;
+		scrollY         = 0.0D;
+		tick++;
+
+		return this;
+	}
+
+	@Override
+	public void key(int keyIn, int actionIn)
+	{
+		if (keyIn < 0 || keyIn >= InputState.KEY_COUNT)
+		{
+			return;
+		}
+
+		var word = keyIn >>> 6;
+		var bit  = 1L << keyIn;
+		if (actionIn == GLFW.GLFW_PRESS)
+		{
+			keysDown[word] |= bit;
+			keysPressed[word] |= bit;
+		}
+		else if (actionIn == GLFW.GLFW_RELEASE)
+		{
+			keysDown[word] &= ~bit;
+			keysReleased[word] |= bit;
+		}
+	}
+
+	@Override
+	public void button(int buttonIn, int actionIn)
+	{
+		if (buttonIn < 0 || buttonIn >= InputState.BUTTON_COUNT)
+		{
+			return;
+		}
+
+		var bit = 1L << buttonIn;
+		if (actionIn == GLFW.GLFW_PRESS)
+		{
+			buttonsDown |= bit;
+			buttonsPressed |= bit;
+		}
+		else if (actionIn == GLFW.GLFW_RELEASE)
+		{
+			buttonsDown &= ~bit;
+			buttonsReleased |= bit;
+		}
+	}
+
+	@Override
+	public void cursor(double xIn, double yIn)
+	{
+		// The first position only places the cursor
+		if (cursorKnown)
+		{
+			deltaX += xIn - cursorX;
+			deltaY += yIn - cursorY;
+		}
+		cursorKnown = true;
+		cursorX     = xIn;
+		cursorY     = yIn;
+	}
+
+	@Override
+	public void scroll(double xOffsetIn, double yOffsetIn)
+	{
+		scrollX += xOffsetIn;
+		scrollY += yOffsetIn;
+	}
+
+	public boolean down(int keyIn)
+	{
+		return (keysDown[keyIn >>> 6] & 1L << keyIn) != 0L;
+	}
+
+	public boolean pressed(int keyIn)
+	{
+		return (keysPressed[keyIn >>> 6] & 1L << keyIn) != 0L;
+	}
+
+	public boolean released(int keyIn)
+	{
+		return (keysReleased[keyIn >>> 6] & 1L << keyIn) != 0L;
+	}
+
+	public boolean buttonDown(int buttonIn)
+	{
+		return (buttonsDown & 1L << buttonIn) != 0L;
+	}
+
+	public boolean buttonPressed(int buttonIn)
+	{
+		return (buttonsPressed & 1L << buttonIn) != 0L;
+	}
+
+	public boolean buttonReleased(int buttonIn)
+	{
+		return (buttonsReleased & 1L << buttonIn) != 0L;
+	}
+}
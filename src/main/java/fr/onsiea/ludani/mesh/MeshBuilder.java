@@ -0,0 +1,267 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.mesh;
+
+import fr.onsiea.ludani.terrain.meshing.IQuadSink;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Build an indexed mesh in a {@link VertexFormat}, identical vertices (position, normal and color) are stored once.
+ * Quads received as {@link IQuadSink} are made relative to the origin given at construction.
+ */
+public class MeshBuilder implements IQuadSink
+{
+	private final static int EMPTY = -1;
+
+	private final @Getter VertexFormat  format;
+	private final         int           originX;
+	private final         int           originY;
+	private final         int           originZ;
+	private final         IVertexColors vertexColors;
+
+	// Vertex attributes, one entry per unique vertex
+	private         long[] keys;
+	private         int[]  colors;
+	private         int[]  indices;
+	private @Getter int    vertexCount;
+	private @Getter int    indexCount;
+	private @Getter int    submittedVertexCount;
+
+	// Open addressing table from vertex key to vertex index
+	private int[] table;
+	private int   tableMask;
+
+	public MeshBuilder(VertexFormat formatIn)
+	{
+		this(formatIn, 0, 0, 0, null);
+	}
+
+	/**
+	 * @param vertexColorsIn optional, only used when the format stores colors
+	 */
+	public MeshBuilder(VertexFormat formatIn, int originXIn, int originYIn, int originZIn, IVertexColors vertexColorsIn)
+	{
+		format       = formatIn;
+		originX      = originXIn;
+		originY      = originYIn;
+		originZ      = originZIn;
+		vertexColors = vertexColorsIn;
+
+		keys    = new long[1024];
+		colors  = new int[1024];
+		indices = new int[1536];
+		table   = new int[2048];
+		Arrays.fill(table, MeshBuilder.EMPTY);
+		tableMask = table.length - 1;
+	}
+
+	private static int hash(long keyIn, int colorIn)
+	{
+		var hash = keyIn * 0x9E3779B97F4A7C15L ^ colorIn * 0xC2B2AE3D27D4EB4FL;
+
+		return (int) (hash ^ hash >>> 32);
+	}
+
+	private long key(int xIn, int yIn, int zIn, int normalIn)
+	{
+		var max = format.maxCoordinate();
+		if (xIn < 0 || yIn < 0 || zIn < 0 || xIn > max || yIn > max || zIn > max)
+		{
+			throw new IllegalArgumentException("Vertex (" + xIn + ", " + yIn + ", " + zIn + ") out of format range [0, " + max + "]");
+		}
+
+		return (long) xIn << 48 | (long) yIn << 32 | (long) zIn << 16 | (format.normals() ? normalIn & 0xFFFF : 0);
+	}
+
+	/**
+	 * @param normalIn face ordinal, ignored when the format has no normal
+	 * @param colorIn  RGBA8 (red in the highest byte), ignored when the format has no color
+	 * @return index of the vertex, existing one if the same vertex was already added
+	 */
+	public int vertex(int xIn, int yIn, int zIn, int normalIn, int colorIn)
+	{
+		submittedVertexCount++;
+
+		var key   = key(xIn, yIn, zIn, normalIn);
+		var color = format.colors() ? colorIn : 0;
+		var slot  = MeshBuilder.hash(key, color) & tableMask;
+		while (table[slot] != MeshBuilder.EMPTY)
+		{
+			var index = table[slot];
+			if (keys[index] == key && colors[index] == color)
+			{
+				return index;
+			}
+			slot = slot + 1 & tableMask;
+		}
+
+		if (vertexCount == keys.length)
+		{
+			keys   = Arrays.copyOf(keys, keys.length * 2);
+			colors = Arrays.copyOf(colors, colors.length * 2);
+		}
+		var index = vertexCount++;
+		keys[index]   = key;
+		colors[index] = color;
+		table[slot]   = index;
+
+		// Keep the table at most half full
+		if (vertexCount * 2 > table.length)
+		{
+			rehash();
+		}
+
+		return index;
+	}
+
+	private void rehash()
+	{
+		table = new int[table.length * 2];
+		Arrays.fill(table, MeshBuilder.EMPTY);
+		tableMask = table.length - 1;
+
+		for (var index = 0; index < vertexCount; index++)
+		{
+			var slot = MeshBuilder.hash(keys[index], colors[index]) & tableMask;
+			while (table[slot] != MeshBuilder.EMPTY)
+			{
+				slot = slot + 1 & tableMask;
+			}
+			table[slot] = index;
+		}
+	}
+
+	public MeshBuilder triangle(int aIn, int bIn, int cIn)
+	{
+		if (indexCount + 3 > indices.length)
+		{
+			indices = Arrays.copyOf(indices, indices.length * 2);
+		}
+		indices[indexCount++] = aIn;
+		indices[indexCount++] = bIn;
+		indices[indexCount++] = cIn;
+
+		return this;
+	}
+
+	@Override
+	public void quad(int faceIn, int x0In, int y0In, int z0In, int x1In, int y1In, int z1In, int x2In, int y2In, int z2In, int x3In, int y3In, int z3In)
+	{
+		var color0 = 0;
+		var color1 = 0;
+		var color2 = 0;
+		var color3 = 0;
+		if (format.colors() && vertexColors != null)
+		{
+			color0 = vertexColors.color(faceIn, x0In, y0In, z0In);
+			color1 = vertexColors.color(faceIn, x1In, y1In, z1In);
+			color2 = vertexColors.color(faceIn, x2In, y2In, z2In);
+			color3 = vertexColors.color(faceIn, x3In, y3In, z3In);
+		}
+
+		var a = vertex(x0In - originX, y0In - originY, z0In - originZ, faceIn, color0);
+		var b = vertex(x1In - originX, y1In - originY, z1In - originZ, faceIn, color1);
+		var c = vertex(x2In - originX, y2In - originY, z2In - originZ, faceIn, color2);
+		var d = vertex(x3In - originX, y3In - originY, z3In - originZ, faceIn, color3);
+		triangle(a, b, c);
+		triangle(c, d, a);
+	}
+
+	public int bytesPerVertex()
+	{
+		return format.bytesPerVertex();
+	}
+
+	public PackedMesh build()
+	{
+		var bytesPerVertex = format.bytesPerVertex();
+		var vertices       = ByteBuffer.allocateDirect(Math.max(1, vertexCount * bytesPerVertex)).order(ByteOrder.nativeOrder());
+		for (var index = 0; index < vertexCount; index++)
+		{
+			var key    = keys[index];
+			var offset = index * bytesPerVertex;
+			for (var component = 0; component < 4; component++)
+			{
+				var value = (int) (key >>> 48 - component * 16) & 0xFFFF;
+				if (format.positionBytes() == 1)
+				{
+					vertices.put(offset + component, (byte) value);
+				}
+				else
+				{
+					vertices.putShort(offset + component * 2, (short) value);
+				}
+			}
+			if (format.colors())
+			{
+				var color = colors[index];
+				vertices.put(offset + format.colorOffset(), (byte) (color >>> 24));
+				vertices.put(offset + format.colorOffset() + 1, (byte) (color >>> 16));
+				vertices.put(offset + format.colorOffset() + 2, (byte) (color >>> 8));
+				vertices.put(offset + format.colorOffset() + 3, (byte) color);
+			}
+		}
+		vertices.limit(vertexCount * bytesPerVertex);
+
+		var indexType = IndexType.of(vertexCount);
+		var buffer    = ByteBuffer.allocateDirect(Math.max(1, indexCount * indexType.bytes())).order(ByteOrder.nativeOrder());
+		for (var i = 0; i < indexCount; i++)
+		{
+			if (indexType == IndexType.UNSIGNED_SHORT)
+			{
+				buffer.putShort(i * Short.BYTES, (short) indices[i]);
+			}
+			else
+			{
+				buffer.putInt(i * Integer.BYTES, indices[i]);
+			}
+		}
+		buffer.limit(indexCount * indexType.bytes());
+
+		return new PackedMesh(format, indexType, vertices, buffer, vertexCount, indexCount);
+	}
+
+	public MeshBuilder clear()
+	{
+		vertexCount          = 0;
+		indexCount           = 0;
+		submittedVertexCount = 0;
+		Arrays.fill(table, MeshBuilder.EMPTY);
+
+		return this;
+	}
+}
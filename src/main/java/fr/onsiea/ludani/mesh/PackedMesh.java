@@ -0,0 +1,128 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.mesh;
+
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Result of {@link MeshBuilder}, native ordered direct buffers ready to be uploaded
+ */
+@Getter
+public class PackedMesh
+{
+	private final VertexFormat format;
+	private final IndexType    indexType;
+	private final ByteBuffer   vertices;
+	private final ByteBuffer   indices;
+	private final int          vertexCount;
+	private final int          indexCount;
+
+	public PackedMesh(VertexFormat formatIn, IndexType indexTypeIn, ByteBuffer verticesIn, ByteBuffer indicesIn, int vertexCountIn, int indexCountIn)
+	{
+		format      = formatIn;
+		indexType   = indexTypeIn;
+		vertices    = verticesIn;
+		indices     = indicesIn;
+		vertexCount = vertexCountIn;
+		indexCount  = indexCountIn;
+	}
+
+	public int bytesPerVertex()
+	{
+		return format.bytesPerVertex();
+	}
+
+	public int vertexBytes()
+	{
+		return vertexCount * format.bytesPerVertex();
+	}
+
+	public int indexBytes()
+	{
+		return indexCount * indexType.bytes();
+	}
+
+	public int totalBytes()
+	{
+		return vertexBytes() + indexBytes();
+	}
+
+	private int component(int offsetIn)
+	{
+		return format.positionBytes() == 1 ? vertices.get(offsetIn) & 0xFF : vertices.getShort(offsetIn) & 0xFFFF;
+	}
+
+	/**
+	 * Decode chunk relative position of vertex vertexIndexIn into positionOut (x, y, z)
+	 */
+	public int[] position(int vertexIndexIn, int[] positionOut)
+	{
+		var offset = vertexIndexIn * format.bytesPerVertex();
+		for (var i = 0; i < 3; i++)
+		{
+			positionOut[i] = component(offset + i * format.positionBytes());
+		}
+
+		return positionOut;
+	}
+
+	/**
+	 * @return face ordinal stored with the vertex, -1 when the format has no normal
+	 */
+	public int normal(int vertexIndexIn)
+	{
+		return format.normals() ? component(vertexIndexIn * format.bytesPerVertex() + 3 * format.positionBytes()) : -1;
+	}
+
+	/**
+	 * @return RGBA8 packed color (red in the highest byte), 0 when the format has no color
+	 */
+	public int color(int vertexIndexIn)
+	{
+		if (!format.colors())
+		{
+			return 0;
+		}
+
+		var offset = vertexIndexIn * format.bytesPerVertex() + format.colorOffset();
+
+		return (vertices.get(offset) & 0xFF) << 24 | (vertices.get(offset + 1) & 0xFF) << 16 | (vertices.get(offset + 2) & 0xFF) << 8 | vertices.get(offset + 3) & 0xFF;
+	}
+
+	public int index(int iIn)
+	{
+		return indexType == IndexType.UNSIGNED_SHORT ? indices.getShort(iIn * Short.BYTES) & 0xFFFF : indices.getInt(iIn * Integer.BYTES);
+	}
+}
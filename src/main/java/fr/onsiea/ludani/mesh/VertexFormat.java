@@ -0,0 +1,84 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.mesh;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Packed vertex layout :
+ * - position : x, y, z unsigned integers (chunk relative) of positionBytes each, the fourth component holds the normal index
+ * (face ordinal) when normals are enabled, padding otherwise
+ * - color (optional) : r, g, b, a unsigned bytes
+ * Formats with the same layout are equal.
+ */
+@Getter
+@EqualsAndHashCode
+public class VertexFormat
+{
+	public final static VertexFormat BYTE_POSITIONS                = new VertexFormat(1, false, false);
+	public final static VertexFormat BYTE_POSITIONS_NORMALS        = new VertexFormat(1, true, false);
+	public final static VertexFormat BYTE_POSITIONS_NORMALS_COLORS = new VertexFormat(1, true, true);
+	public final static VertexFormat SHORT_POSITIONS               = new VertexFormat(2, false, false);
+	public final static VertexFormat SHORT_POSITIONS_NORMALS       = new VertexFormat(2, true, false);
+
+	private final int     positionBytes;
+	private final boolean normals;
+	private final boolean colors;
+	private final int     colorOffset;
+	private final int     bytesPerVertex;
+	private final int     maxCoordinate;
+
+	public VertexFormat(int positionBytesIn, boolean normalsIn, boolean colorsIn)
+	{
+		if (positionBytesIn != 1 && positionBytesIn != 2)
+		{
+			throw new IllegalArgumentException("Position components must be 1 or 2 bytes : " + positionBytesIn);
+		}
+
+		positionBytes  = positionBytesIn;
+		normals        = normalsIn;
+		colors         = colorsIn;
+		colorOffset    = 4 * positionBytesIn;
+		bytesPerVertex = colorOffset + (colorsIn ? 4 : 0);
+		maxCoordinate  = (1 << 8 * positionBytesIn) - 1;
+	}
+
+	/**
+	 * @return bytes used by the unpacked equivalent (3 floats position, 3 floats normal and 4 floats color when enabled)
+	 */
+	public int unpackedBytesPerVertex()
+	{
+		return (3 + (normals ? 3 : 0) + (colors ? 4 : 0)) * Float.BYTES;
+	}
+}
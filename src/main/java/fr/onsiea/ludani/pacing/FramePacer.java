@@ -0,0 +1,196 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.pacing;
+
+import fr.onsiea.ludani.profiling.LatencyHistogram;
+import lombok.Getter;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Frame rate limiter, {@link #sync()} is called once per frame after its work, for example at the end of
+ * IPrototypeImpl.render with the prototype sync disabled.
+ * The wait parks the thread, then spins for the last microseconds since a park may wake late. The spin lasts as long as
+ * the recent park overshoots, so the CPU is mostly left to the other threads.
+ * The duration of the frame work is estimated over the last frames, in {@link PacingMode#ADAPTIVE} the next frame starts
+ * that long before its deadline instead of at the start of its period.
+ */
+public class FramePacer
+{
+	// Weight of the last frame in the rolling estimates
+	private final static double SMOOTHING        = 0.1D;
+	// Standard deviations added to the estimates, bounds how often a frame or a park is longer than expected
+	private final static double DEVIATIONS       = 3.0D;
+	private final static long   MIN_SPIN_NANOS   = 20_000L;
+	private final static long   MAX_SPIN_NANOS   = 2_000_000L;
+	private final static long   FIRST_SPIN_NANOS = 200_000L;
+
+	private @Getter       PacingMode       mode;
+	private @Getter       long             periodNanos;
+	// Start of the next frame on the grid of the frame rate
+	private               long             next;
+	private               long             frameStart;
+	private               double           workMean;
+	private               double           workDeviation;
+	private               double           overshootMean;
+	private               double           overshootDeviation;
+	// Time between two frame starts and distance between each wake up and its target
+	private final @Getter LatencyHistogram frameTimes;
+	private final @Getter LatencyHistogram wakeErrors;
+	// Frames that ended more than a period after their deadline, the grid is then restarted
+	private @Getter       long             missedFrames;
+
+	public FramePacer(PacingMode modeIn, int frameRateIn)
+	{
+		mode               = modeIn;
+		frameTimes         = new LatencyHistogram();
+		wakeErrors         = new LatencyHistogram();
+		overshootMean      = FramePacer.FIRST_SPIN_NANOS;
+		overshootDeviation = 0.0D;
+		frameRate(frameRateIn);
+	}
+
+	public FramePacer mode(PacingMode modeIn)
+	{
+		mode = modeIn;
+
+		return this;
+	}
+
+	public FramePacer frameRate(int frameRateIn)
+	{
+		if (frameRateIn <= 0)
+		{
+			throw new IllegalArgumentException("Frame rate must be positive : " + frameRateIn);
+		}
+		periodNanos = 1_000_000_000L / frameRateIn;
+
+		return this;
+	}
+
+	/**
+	 * Wait for the start of the next frame
+	 *
+	 * @return nanoseconds waited
+	 */
+	public long sync()
+	{
+		var now = System.nanoTime();
+		if (frameStart == 0L)
+		{
+			frameStart = now;
+			next       = now + periodNanos;
+
+			return 0L;
+		}
+
+		var work = now - frameStart;
+		workDeviation += FramePacer.SMOOTHING * (Math.abs(work - workMean) - workDeviation);
+		workMean += FramePacer.SMOOTHING * (work - workMean);
+
+		if (now - next > periodNanos)
+		{
+			missedFrames++;
+			next = now;
+		}
+		var target = switch (mode)
+		{
+			case FIXED -> next;
+			case ADAPTIVE -> Math.max(next, next + periodNanos - predictedWorkNanos());
+			case UNLIMITED -> now;
+		};
+
+		if (target > now)
+		{
+			waitUntil(target);
+		}
+		var start = System.nanoTime();
+		wakeErrors.record(Math.abs(start - Math.max(target, now)));
+		frameTimes.record(start - frameStart);
+		frameStart = start;
+		next += periodNanos;
+		if (mode == PacingMode.UNLIMITED)
+		{
+			next = start + periodNanos;
+		}
+
+		return start - now;
+	}
+
+	private void waitUntil(long targetIn)
+	{
+		var parkEnd = targetIn - spinNanos();
+		var now     = System.nanoTime();
+		if (parkEnd > now)
+		{
+			while (parkEnd - now > 0L)
+			{
+				LockSupport.parkNanos(parkEnd - now);
+				now = System.nanoTime();
+			}
+			var overshoot = now - parkEnd;
+			overshootDeviation += FramePacer.SMOOTHING * (Math.abs(overshoot - overshootMean) - overshootDeviation);
+			overshootMean += FramePacer.SMOOTHING * (overshoot - overshootMean);
+		}
+
+		while (System.nanoTime() < targetIn)
+		{
+			Thread.onSpinWait();
+		}
+	}
+
+	/**
+	 * @return duration of the next frame work, rarely exceeded
+	 */
+	public long predictedWorkNanos()
+	{
+		return (long) (workMean + FramePacer.DEVIATIONS * workDeviation);
+	}
+
+	/**
+	 * @return time spun before each frame, the expected park overshoot
+	 */
+	public long spinNanos()
+	{
+		return Math.min(Math.max((long) (overshootMean + FramePacer.DEVIATIONS * overshootDeviation), FramePacer.MIN_SPIN_NANOS), FramePacer.MAX_SPIN_NANOS);
+	}
+
+	public FramePacer resetStatistics()
+	{
+		frameTimes.reset();
+		wakeErrors.reset();
+		missedFrames = 0L;
+
+		return this;
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.profiling;
+
+import lombok.Getter;
+
+/**
+ * Parts of a frame timed by {@link FrameProfiler}
+ */
+@Getter
+public enum FramePhase
+{
+	// Whole iteration of every module
+	FRAME("frame"),
+	// Window events read by the camera and the controls
+	INPUT("input"),
+	// Streaming uploads, level of detail and simulation
+	UPDATE("update"),
+	CULLING("culling"),
+	// Draw calls and buffer writes issued by the render
+	SUBMISSION("submission"),
+	// From the end of a draw to the start of the next one : buffer swap, event polling and the other modules
+	SWAP("swap");
+
+	private final String label;
+
+	FramePhase(String labelIn)
+	{
+		label = labelIn;
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.profiling;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Durations of every {@link FramePhase} at a point in time, merged over the recording threads
+ */
+public class FrameProfile
+{
+	private final Map<FramePhase, LatencyHistogram> histograms;
+
+	FrameProfile()
+	{
+		histograms = new EnumMap<>(FramePhase.class);
+		for (var phase : FramePhase.values())
+		{
+			histograms.put(phase, new LatencyHistogram());
+		}
+	}
+
+	public LatencyHistogram histogram(FramePhase phaseIn)
+	{
+		return histograms.get(phaseIn);
+	}
+
+	public long percentile(FramePhase phaseIn, double percentileIn)
+	{
+		return histograms.get(phaseIn).percentile(percentileIn);
+	}
+
+	/**
+	 * @return this profile without the durations of previousIn, taken earlier from the same profiler
+	 */
+	public FrameProfile since(FrameProfile previousIn)
+	{
+		var profile = new FrameProfile();
+		for (var phase : FramePhase.values())
+		{
+			profile.histograms.get(phase).add(histograms.get(phase)).subtract(previousIn.histograms.get(phase));
+		}
+
+		return profile;
+	}
+
+	/**
+	 * @return a line per phase : label, count, mean, p50, p99, p99.9 and max in nanoseconds
+	 */
+	public String csv()
+	{
+		var csv = new StringBuilder("phase,count,mean_ns,p50_ns,p99_ns,p99.9_ns,max_ns\n");
+		for (var phase : FramePhase.values())
+		{
+			var histogram = histograms.get(phase);
+			csv.append(phase.label()).append(',').append(histogram.count()).append(',').append(String.format(Locale.ROOT, "%.1f", histogram.mean())).append(',').append(histogram.percentile(50.0D)).append(',').append(histogram.percentile(99.0D)).append(',').append(histogram.percentile(99.9D)).append(',').append(histogram.max()).append('\n');
+		}
+
+		return csv.toString();
+	}
+
+	/**
+	 * @return the same values as {@link #csv()}, an object per phase
+	 */
+	public String json()
+	{
+		var json = new StringBuilder("{\"phases\":[");
+		for (var phase : FramePhase.values())
+		{
+			var histogram = histograms.get(phase);
+			if (phase.ordinal() > 0)
+			{
+				json.append(',');
+			}
+			json.append("{\"phase\":\"").append(phase.label()).append("\",\"count\":").append(histogram.count()).append(",\"meanNanos\":").append(String.format(Locale.ROOT, "%.1f", histogram.mean())).append(",\"p50Nanos\":").append(histogram.percentile(50.0D)).append(",\"p99Nanos\":").append(histogram.percentile(99.0D)).append(",\"p999Nanos\":").append(histogram.percentile(99.9D)).append(",\"maxNanos\":").append(histogram.max()).append('}');
+		}
+
+		return json.append("]}").toString();
+	}
+
+	/**
+	 * @return a line per recorded phase, durations in milliseconds
+	 */
+	@Override
+	public String toString()
+	{
+		var string = new StringBuilder();
+		for (var phase : FramePhase.values())
+		{
+			var histogram = histograms.get(phase);
+			if (histogram.count() == 0)
+			{
+				continue;
+			}
+			string.append(String.format(Locale.ROOT, "%-10s %8d x  mean %8.3f  p50 %8.3f  p99 %8.3f  p99.9 %8.3f  max %8.3f ms%n", phase.label(), histogram.count(), histogram.mean() / 1.0E6D, histogram.percentile(50.0D) / 1.0E6D, histogram.percentile(99.0D) / 1.0E6D, histogram.percentile(99.9D) / 1.0E6D, histogram.max() / 1.0E6D));
+		}
+
+		return string.toString();
+	}
+}
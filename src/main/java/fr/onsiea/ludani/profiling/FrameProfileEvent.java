@@ -0,0 +1,85 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Percentiles of a phase over the last period, one event per recorded phase
+ */
+@Name("fr.onsiea.ludani.FrameProfile")
+@Label("Frame Profile")
+@Category({"Ludani", "Frame"})
+@Description("Duration percentiles of a frame phase since the previous period")
+@Period("1 s")
+@StackTrace(false)
+class FrameProfileEvent extends Event
+{
+	@Label("Phase")
+	private final String phase;
+	@Label("Count")
+	private final long   count;
+	@Label("Mean")
+	@Timespan(Timespan.NANOSECONDS)
+	private final long   mean;
+	@Label("P50")
+	@Timespan(Timespan.NANOSECONDS)
+	private final long   p50;
+	@Label("P99")
+	@Timespan(Timespan.NANOSECONDS)
+	private final long   p99;
+	@Label("P99.9")
+	@Timespan(Timespan.NANOSECONDS)
+	private final long   p999;
+	@Label("Max")
+	@Timespan(Timespan.NANOSECONDS)
+	private final long   max;
+
+	FrameProfileEvent(FramePhase phaseIn, LatencyHistogram histogramIn)
+	{
+		phase = phaseIn.label();
+		count = histogramIn.count();
+		mean  = (long) histogramIn.mean();
+		p50   = histogramIn.percentile(50.0D);
+		p99   = histogramIn.percentile(99.0D);
+		p999  = histogramIn.percentile(99.9D);
+		max   = histogramIn.max();
+	}
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.profiling;
+
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Always on timing of the {@link FramePhase}s. Each thread records in its own histograms without lock, the durations are
+ * only merged when a profile is queried with {@link #snapshot()} or {@link #interval()}.
+ * Phases are timed with a single nanoTime per boundary, {@link #record(FramePhase, long)} returns the end of a phase which
+ * is the start of the next one.
+ * Phases are also sent to Flight Recorder : the percentiles of each phase every period, and every phase when the
+ * fr.onsiea.ludani.FramePhase event is enabled.
+ * The recorders of terminated threads are folded into a single profile when a new thread records or a profile is queried,
+ * short-lived worker threads do not accumulate recorders.
+ */
+public class FrameProfiler
+{
+	private final static EventType PHASE_EVENT = EventType.getEventType(FramePhaseEvent.class);
+
+	private final ThreadLocal<PhaseRecorder> recorder;
+	private final List<PhaseRecorder>        recorders;
+	private final Runnable                   periodicEvents;
+	// Durations of the terminated threads
+	private final FrameProfile               retired;
+	// Profiles of the previous interval query and of the previous Flight Recorder period
+	private       FrameProfile               lastInterval;
+	private       FrameProfile               lastPeriod;
+
+	public FrameProfiler()
+	{
+		recorders      = new CopyOnWriteArrayList<>();
+		recorder       = ThreadLocal.withInitial(this::newRecorder);
+		retired        = new FrameProfile();
+		lastInterval   = new FrameProfile();
+		lastPeriod     = new FrameProfile();
+		periodicEvents = this::periodicEvents;
+		FlightRecorder.addPeriodicEvent(FrameProfileEvent.class, periodicEvents);
+	}
+
+	private synchronized PhaseRecorder newRecorder()
+	{
+		retire();
+		var threadRecorder = new PhaseRecorder(Thread.currentThread());
+		recorders.add(threadRecorder);
+
+		return threadRecorder;
+	}
+
+	/**
+	 * Fold the recorders of terminated threads into {@link #retired} and drop them, their durations are final
+	 */
+	private void retire()
+	{
+		for (var threadRecorder : recorders)
+		{
+			if (!threadRecorder.retired())
+			{
+				continue;
+			}
+
+			for (var phase : FramePhase.values())
+			{
+				threadRecorder.addTo(phase, retired.histogram(phase));
+			}
+			recorders.remove(threadRecorder);
+		}
+	}
+
+	/**
+	 * Record the time elapsed since startNanosIn, a {@link System#nanoTime()} of the calling thread
+	 *
+	 * @return the current {@link System#nanoTime()}, start of the next phase
+	 */
+	public long record(FramePhase phaseIn, long startNanosIn)
+	{
+		var now     = System.nanoTime();
+		var elapsed = now - startNanosIn;
+		recorder.get().record(phaseIn, elapsed);
+
+		if (FrameProfiler.PHASE_EVENT.isEnabled())
+		{
+			new FramePhaseEvent(phaseIn, elapsed).commit();
+		}
+
+		return now;
+	}
+
+	/**
+	 * @return every duration recorded since the profiler was created
+	 */
+	public synchronized FrameProfile snapshot()
+	{
+		retire();
+		var profile = new FrameProfile();
+		for (var phase : FramePhase.values())
+		{
+			profile.histogram(phase).add(retired.histogram(phase));
+		}
+		for (var threadRecorder : recorders)
+		{
+			for (var phase : FramePhase.values())
+			{
+				threadRecorder.addTo(phase, profile.histogram(phase));
+			}
+		}
+
+		return profile;
+	}
+
+	/**
+	 * @return durations recorded since the previous call
+	 */
+	public synchronized FrameProfile interval()
+	{
+		var snapshot = snapshot();
+		var profile  = snapshot.since(lastInterval);
+		lastInterval = snapshot;
+
+		return profile;
+	}
+
+	private synchronized void periodicEvents()
+	{
+		var snapshot = snapshot();
+		var profile  = snapshot.since(lastPeriod);
+		lastPeriod = snapshot;
+
+		for (var phase : FramePhase.values())
+		{
+			var histogram = profile.histogram(phase);
+			if (histogram.count() == 0)
+			{
+				continue;
+			}
+
+			new FrameProfileEvent(phase, histogram).commit();
+		}
+	}
+
+	/**
+	 * @return the number of recorders held, one per thread that recorded and was still alive at the last fold
+	 */
+	public int recorders()
+	{
+		return recorders.size();
+	}
+
+	/**
+	 * Stop the Flight Recorder periodic events, the recorded durations stay queryable
+	 */
+	public void cleanup()
+	{
+		FlightRecorder.removePeriodicEvent(periodicEvents);
+	}
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.profiling;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Durations in nanoseconds counted in log linear buckets : exact below {@link LatencyHistogram#EXACT_BELOW}, then each
+ * power of two is split in {@link LatencyHistogram#SUB_BUCKETS} buckets, a value is known within 1.6 % up to about 18
+ * minutes. Percentiles give the highest value of their bucket, never more than the largest recorded value.
+ * Not thread safe, threads record through a {@link FrameProfiler}.
+ */
+public class LatencyHistogram
+{
+	public final static  int  SUB_BUCKET_BITS = 6;
+	public final static  int  SUB_BUCKETS     = 1 << LatencyHistogram.SUB_BUCKET_BITS;
+	public final static  int  EXACT_BELOW     = 2 * LatencyHistogram.SUB_BUCKETS;
+	// Larger values are counted in the last bucket
+	public final static  long MAX_VALUE       = (1L << 40) - 1;
+	public final static  int  BUCKET_COUNT    = LatencyHistogram.index(LatencyHistogram.MAX_VALUE) + 1;
+
+	private final   long[] counts;
+	private @Getter long   count;
+	private @Getter long   sum;
+	private         long   max;
+
+	public LatencyHistogram()
+	{
+		counts = new long[LatencyHistogram.BUCKET_COUNT];
+	}
+
+	/**
+	 * @return bucket of a duration, negative durations go in the first one
+	 */
+	public static int index(long nanosIn)
+	{
+		var value = Math.min(Math.max(nanosIn, 0L), LatencyHistogram.MAX_VALUE);
+		if (value < LatencyHistogram.EXACT_BELOW)
+		{
+			return (int) value;
+		}
+		var shift = 63 - Long.numberOfLeadingZeros(value) - LatencyHistogram.SUB_BUCKET_BITS;
+
+		return (shift << LatencyHistogram.SUB_BUCKET_BITS) + (int) (value >>> shift);
+	}
+
+	public static long lowest(int indexIn)
+	{
+		if (indexIn < LatencyHistogram.EXACT_BELOW)
+		{
+			return indexIn;
+		}
+		var shift = (indexIn >>> LatencyHistogram.SUB_BUCKET_BITS) - 1;
+
+		return (long) (indexIn - (shift << LatencyHistogram.SUB_BUCKET_BITS)) << shift;
+	}
+
+	public static long highest(int indexIn)
+	{
+		return indexIn + 1 < LatencyHistogram.BUCKET_COUNT ? LatencyHistogram.lowest(indexIn + 1) - 1 : LatencyHistogram.MAX_VALUE;
+	}
+
+	public LatencyHistogram record(long nanosIn)
+	{
+		var nanos = Math.max(nanosIn, 0L);
+		counts[LatencyHistogram.index(nanos)]++;
+		count++;
+		sum += nanos;
+		max = Math.max(max, nanos);
+
+		return this;
+	}
+
+	void add(int indexIn, long countIn)
+	{
+		counts[indexIn] += countIn;
+		count += countIn;
+	}
+
+	void addTotals(long sumIn, long maxIn)
+	{
+		sum += sumIn;
+		max = Math.max(max, maxIn);
+	}
+
+	public long count(int indexIn)
+	{
+		return counts[indexIn];
+	}
+
+	/**
+	 * @return largest recorded duration
+	 */
+	public long max()
+	{
+		return max;
+	}
+
+	public double mean()
+	{
+		return count == 0 ? 0.0D : (double) sum / count;
+	}
+
+	/**
+	 * @param percentileIn between 0 and 100
+	 * @return duration under which percentileIn percents of the recorded durations are, 0 when empty
+	 */
+	public long percentile(double percentileIn)
+	{
+		if (percentileIn < 0.0D || percentileIn > 100.0D)
+		{
+			throw new IllegalArgumentException("Percentile must be between 0 and 100 : " + percentileIn);
+		}
+		if (count == 0)
+		{
+			return 0L;
+		}
+
+		var target     = Math.max(1L, (long) Math.ceil(percentileIn / 100.0D * count));
+		var cumulative = 0L;
+		for (var index = 0; index < counts.length; index++)
+		{
+			cumulative += counts[index];
+			if (cumulative >= target)
+			{
+				return Math.min(LatencyHistogram.highest(index), max);
+			}
+		}
+
+		return max;
+	}
+
+	public LatencyHistogram add(LatencyHistogram histogramIn)
+	{
+		for (var index = 0; index < counts.length; index++)
+		{
+			counts[index] += histogramIn.counts[index];
+		}
+		count += histogramIn.count;
+		sum += histogramIn.sum;
+		max = Math.max(max, histogramIn.max);
+
+		return this;
+	}
+
+	/**
+	 * Keep what was recorded after previousIn, an earlier state of the same durations. The largest duration is then only
+	 * known within its bucket.
+	 */
+	public LatencyHistogram subtract(LatencyHistogram previousIn)
+	{
+		var highest = -1;
+		for (var index = 0; index < counts.length; index++)
+		{
+			counts[index] -= previousIn.counts[index];
+			if (counts[index] > 0)
+			{
+				highest = index;
+			}
+		}
+		count -= previousIn.count;
+		sum -= previousIn.sum;
+		max = highest < 0 ? 0L : Math.min(max, LatencyHistogram.highest(highest));
+
+		return this;
+	}
+
+	public LatencyHistogram reset()
+	{
+		Arrays.fill(counts, 0L);
+		count = 0L;
+		sum   = 0L;
+		max   = 0L;
+
+		return this;
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.profiling;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Durations recorded by one thread, a bucket array per {@link FramePhase} followed by the sum and the largest duration.
+ * Only the owning thread writes, with release stores and without lock nor atomic instruction, any thread may read.
+ * Once the owner has terminated, its durations are final and can be folded into a profile.
+ */
+class PhaseRecorder
+{
+	private final static int SUM    = LatencyHistogram.BUCKET_COUNT;
+	private final static int MAX    = LatencyHistogram.BUCKET_COUNT + 1;
+	private final static int STRIDE = LatencyHistogram.BUCKET_COUNT + 2;
+
+	private final Thread          owner;
+	private final AtomicLongArray values;
+
+	PhaseRecorder(Thread ownerIn)
+	{
+		owner  = ownerIn;
+		values = new AtomicLongArray(FramePhase.values().length * PhaseRecorder.STRIDE);
+	}
+
+	/**
+	 * @return true when the owner has terminated, it will never record again
+	 */
+	boolean retired()
+	{
+		return !owner.isAlive();
+	}
+
+	void record(FramePhase phaseIn, long nanosIn)
+	{
+		var nanos  = Math.max(nanosIn, 0L);
+		var base   = phaseIn.ordinal() * PhaseRecorder.STRIDE;
+		var bucket = base + LatencyHistogram.index(nanos);
+		values.setRelease(bucket, values.getPlain(bucket) + 1L);
+		values.setRelease(base + PhaseRecorder.SUM, values.getPlain(base + PhaseRecorder.SUM) + nanos);
+		if (nanos > values.getPlain(base + PhaseRecorder.MAX))
+		{
+			values.setRelease(base + PhaseRecorder.MAX, nanos);
+		}
+	}
+
+	/**
+	 * Add the durations of phaseIn recorded so far, a record in progress may only be partly seen
+	 */
+	void addTo(FramePhase phaseIn, LatencyHistogram histogramOut)
+	{
+		var base = phaseIn.ordinal() * PhaseRecorder.STRIDE;
+		for (var index = 0; index < LatencyHistogram.BUCKET_COUNT; index++)
+		{
+			var count = values.getAcquire(base + index);
+			if (count != 0L)
+			{
+				histogramOut.add(index, count);
+			}
+		}
+		histogramOut.addTotals(values.getAcquire(base + PhaseRecorder.SUM), values.getAcquire(base + PhaseRecorder.MAX));
+	}
+}
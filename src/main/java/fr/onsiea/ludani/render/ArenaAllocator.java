@@ -0,0 +1,296 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.render;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.TreeMap;
+
+/**
+ * Sub-allocator of a linear range of units (vertices, indices...) of a shared buffer. Free blocks are kept by offset and
+ * merged with their neighbours when freed, allocations take the first block large enough so that data stays packed at the
+ * start of the arena. Allocations may be relocated by {@link #defragment(int, IArenaMove)} and {@link #compact(IArenaMove)},
+ * users read {@link Allocation#offset()} when they draw instead of keeping it.
+ */
+public class ArenaAllocator
+{
+	// Offset to size
+	private final   TreeMap<Integer, Integer>    freeBlocks;
+	private final   TreeMap<Integer, Allocation> allocations;
+	private @Getter int                          capacity;
+	private @Getter int                          used;
+
+	public ArenaAllocator(int capacityIn)
+	{
+		if (capacityIn <= 0)
+		{
+			throw new IllegalArgumentException("Arena capacity must be positive : " + capacityIn);
+		}
+
+		freeBlocks  = new TreeMap<>();
+		allocations = new TreeMap<>();
+		capacity    = capacityIn;
+		freeBlocks.put(0, capacityIn);
+	}
+
+	/**
+	 * @return the allocation, null when no free block is large enough
+	 */
+	public Allocation allocate(int sizeIn)
+	{
+		if (sizeIn <= 0)
+		{
+			throw new IllegalArgumentException("Allocation size must be positive : " + sizeIn);
+		}
+
+		for (var block : freeBlocks.entrySet())
+		{
+			if (block.getValue() >= sizeIn)
+			{
+				var allocation = new Allocation(block.getKey(), sizeIn);
+				take(block.getKey(), block.getValue(), sizeIn);
+				allocations.put(allocation.offset, allocation);
+				used += sizeIn;
+
+				return allocation;
+			}
+		}
+
+		return null;
+	}
+
+	private void take(int blockOffsetIn, int blockSizeIn, int sizeIn)
+	{
+		freeBlocks.remove(blockOffsetIn);
+		if (blockSizeIn > sizeIn)
+		{
+			freeBlocks.put(blockOffsetIn + sizeIn, blockSizeIn - sizeIn);
+		}
+	}
+
+	public void free(Allocation allocationIn)
+	{
+		if (allocations.get(allocationIn.offset) != allocationIn)
+		{
+			throw new IllegalArgumentException("Allocation does not belong to this arena or was already freed");
+		}
+
+		allocations.remove(allocationIn.offset);
+		used -= allocationIn.size;
+		release(allocationIn.offset, allocationIn.size);
+	}
+
+	private void release(int offsetIn, int sizeIn)
+	{
+		var offset   = offsetIn;
+		var size     = sizeIn;
+		var previous = freeBlocks.floorEntry(offset);
+		if (previous != null && previous.getKey() + previous.getValue() == offset)
+		{
+			offset = previous.getKey();
+			size += previous.getValue();
+			freeBlocks.remove(previous.getKey());
+		}
+		var next = freeBlocks.get(offset + size);
+		if (next != null)
+		{
+			freeBlocks.remove(offset + size);
+			size += next;
+		}
+		freeBlocks.put(offset, size);
+	}
+
+	/**
+	 * Extend the arena, the new units are appended to the free space
+	 */
+	public void grow(int capacityIn)
+	{
+		if (capacityIn < capacity)
+		{
+			throw new IllegalArgumentException("Arena can not shrink from " + capacity + " to " + capacityIn);
+		}
+		if (capacityIn > capacity)
+		{
+			release(capacity, capacityIn - capacity);
+			capacity = capacityIn;
+		}
+	}
+
+	/**
+	 * Move allocations from the end of the arena into the lowest free block able to hold them, which never overlaps the
+	 * source so the copies may happen inside the same buffer
+	 *
+	 * @param maxUnitsIn units that may be copied by this call
+	 * @return units copied
+	 */
+	public int defragment(int maxUnitsIn, IArenaMove moveIn)
+	{
+		var moved = 0;
+		for (var allocation : new ArrayList<>(allocations.descendingMap().values()))
+		{
+			var lowest = freeBlocks.isEmpty() ? null : freeBlocks.firstEntry();
+			if (lowest == null || lowest.getKey() > allocation.offset)
+			{
+				// Every allocation below is already packed
+				break;
+			}
+			if (moved + allocation.size > maxUnitsIn)
+			{
+				continue;
+			}
+
+			// Key and size are copied, entries of a TreeMap may be reused once removed
+			var targetOffset = -1;
+			var targetSize   = 0;
+			for (var block : freeBlocks.headMap(allocation.offset).entrySet())
+			{
+				if (block.getValue() >= allocation.size)
+				{
+					targetOffset = block.getKey();
+					targetSize   = block.getValue();
+					break;
+				}
+			}
+			if (targetOffset < 0)
+			{
+				continue;
+			}
+
+			moveIn.move(allocation.offset, targetOffset, allocation.size);
+			take(targetOffset, targetSize, allocation.size);
+			allocations.remove(allocation.offset);
+			release(allocation.offset, allocation.size);
+			allocation.offset = targetOffset;
+			allocations.put(allocation.offset, allocation);
+			moved += allocation.size;
+		}
+
+		return moved;
+	}
+
+	/**
+	 * Pack every allocation at the start of the arena in offset order. moveIn is called for every run of contiguous
+	 * allocations, including the ones staying in place, so that it may copy them into another buffer; runs never move up
+	 * but may overlap their source when copied in place.
+	 *
+	 * @return number of moves
+	 */
+	public int compact(IArenaMove moveIn)
+	{
+		var packed   = new ArrayList<>(allocations.values());
+		var moves    = 0;
+		var offset   = 0;
+		var runFrom  = -1;
+		var runTo    = 0;
+		var runSize  = 0;
+		allocations.clear();
+		for (var allocation : packed)
+		{
+			if (runFrom >= 0 && allocation.offset != runFrom + runSize)
+			{
+				moveIn.move(runFrom, runTo, runSize);
+				moves++;
+				runFrom = -1;
+			}
+			if (runFrom < 0)
+			{
+				runFrom = allocation.offset;
+				runTo   = offset;
+				runSize = 0;
+			}
+			runSize += allocation.size;
+
+			allocation.offset = offset;
+			allocations.put(offset, allocation);
+			offset += allocation.size;
+		}
+		if (runFrom >= 0)
+		{
+			moveIn.move(runFrom, runTo, runSize);
+			moves++;
+		}
+
+		freeBlocks.clear();
+		if (offset < capacity)
+		{
+			freeBlocks.put(offset, capacity - offset);
+		}
+
+		return moves;
+	}
+
+	public int allocationCount()
+	{
+		return allocations.size();
+	}
+
+	public int freeBlockCount()
+	{
+		return freeBlocks.size();
+	}
+
+	public int largestFreeBlock()
+	{
+		var largest = 0;
+		for (var size : freeBlocks.values())
+		{
+			largest = Math.max(largest, size);
+		}
+
+		return largest;
+	}
+
+	/**
+	 * @return share of the free units outside the largest free block, 0 when the free space is in one block
+	 */
+	public float fragmentation()
+	{
+		var free = capacity - used;
+
+		return free == 0 ? 0.0f : 1.0f - (float) largestFreeBlock() / free;
+	}
+
+	@Getter
+	public final static class Allocation
+	{
+		private final int size;
+		private       int offset;
+
+		private Allocation(int offsetIn, int sizeIn)
+		{
+			offset = offsetIn;
+			size   = sizeIn;
+		}
+	}
+}
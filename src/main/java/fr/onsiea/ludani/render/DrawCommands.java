@@ -0,0 +1,187 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.render;
+
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * DrawElementsIndirectCommand list (count, instanceCount, firstIndex, baseVertex, baseInstance, 5 unsigned ints each) with
+ * one origin (x, y, z and a scale of 1, floats laid out like {@link InstanceBatch} instances) per command. Each command
+ * draws a single instance whose baseInstance is its own index, so an instanced attribute read from the origins gives every
+ * draw of a multi draw its own position.
+ * Commands are kept in buffers owned by the list, or written straight into mapped memory after
+ * {@link #clear(ByteBuffer, ByteBuffer, int)}.
+ */
+public class DrawCommands
+{
+	public final static int COMMAND_BYTES = 5 * Integer.BYTES;
+	public final static int ORIGIN_BYTES  = 4 * Float.BYTES;
+
+	private         ByteBuffer ownedCommands;
+	private         ByteBuffer ownedOrigins;
+	private         ByteBuffer commands;
+	private         ByteBuffer origins;
+	// Added to the index of each command to give its baseInstance
+	private         int        baseInstance;
+	private         boolean    external;
+	private @Getter int        count;
+
+	public DrawCommands(int capacityIn)
+	{
+		var capacity = Math.max(capacityIn, 16);
+		ownedCommands = ByteBuffer.allocateDirect(capacity * DrawCommands.COMMAND_BYTES).order(ByteOrder.nativeOrder());
+		ownedOrigins  = ByteBuffer.allocateDirect(capacity * DrawCommands.ORIGIN_BYTES).order(ByteOrder.nativeOrder());
+		commands      = ownedCommands;
+		origins       = ownedOrigins;
+	}
+
+	private static ByteBuffer grow(ByteBuffer bufferIn)
+	{
+		return ByteBuffer.allocateDirect(bufferIn.capacity() * 2).order(ByteOrder.nativeOrder()).put(bufferIn.clear());
+	}
+
+	/**
+	 * @param firstIndexIn first index, in indices from the start of the element array buffer
+	 * @param baseVertexIn added to every index, in vertices from the start of the vertex buffer
+	 */
+	public DrawCommands add(int countIn, int firstIndexIn, int baseVertexIn, float originXIn, float originYIn, float originZIn)
+	{
+		if ((count + 1) * DrawCommands.COMMAND_BYTES > commands.capacity() || (count + 1) * DrawCommands.ORIGIN_BYTES > origins.capacity())
+		{
+			if (external)
+			{
+				throw new IllegalStateException("Draw commands do not fit in the " + commands.capacity() / DrawCommands.COMMAND_BYTES + " given");
+			}
+			ownedCommands = DrawCommands.grow(ownedCommands);
+			ownedOrigins  = DrawCommands.grow(ownedOrigins);
+			commands      = ownedCommands;
+			origins       = ownedOrigins;
+		}
+
+		var offset = count * DrawCommands.COMMAND_BYTES;
+		commands.putInt(offset, countIn);
+		commands.putInt(offset + Integer.BYTES, 1);
+		commands.putInt(offset + 2 * Integer.BYTES, firstIndexIn);
+		commands.putInt(offset + 3 * Integer.BYTES, baseVertexIn);
+		commands.putInt(offset + 4 * Integer.BYTES, baseInstance + count);
+
+		offset = count * DrawCommands.ORIGIN_BYTES;
+		origins.putFloat(offset, originXIn);
+		origins.putFloat(offset + Float.BYTES, originYIn);
+		origins.putFloat(offset + 2 * Float.BYTES, originZIn);
+		origins.putFloat(offset + 3 * Float.BYTES, 1.0f);
+		count++;
+
+		return this;
+	}
+
+	/**
+	 * @return commands of the list, ready for a draw indirect buffer
+	 */
+	public ByteBuffer commands()
+	{
+		return commands.slice(0, count * DrawCommands.COMMAND_BYTES).order(ByteOrder.nativeOrder());
+	}
+
+	/**
+	 * @return origins of the list, one per command
+	 */
+	public ByteBuffer origins()
+	{
+		return origins.slice(0, count * DrawCommands.ORIGIN_BYTES).order(ByteOrder.nativeOrder());
+	}
+
+	public int indexCount(int commandIn)
+	{
+		return commands.getInt(commandIn * DrawCommands.COMMAND_BYTES);
+	}
+
+	public int firstIndex(int commandIn)
+	{
+		return commands.getInt(commandIn * DrawCommands.COMMAND_BYTES + 2 * Integer.BYTES);
+	}
+
+	public int baseVertex(int commandIn)
+	{
+		return commands.getInt(commandIn * DrawCommands.COMMAND_BYTES + 3 * Integer.BYTES);
+	}
+
+	/**
+	 * @param componentIn 0 for x, 1 for y, 2 for z
+	 */
+	public float origin(int commandIn, int componentIn)
+	{
+		return origins.getFloat(commandIn * DrawCommands.ORIGIN_BYTES + componentIn * Float.BYTES);
+	}
+
+	/**
+	 * @return indices drawn by every command
+	 */
+	public long indexCount()
+	{
+		var indices = 0L;
+		for (var command = 0; command < count; command++)
+		{
+			indices += indexCount(command);
+		}
+
+		return indices;
+	}
+
+	public void clear()
+	{
+		commands     = ownedCommands;
+		origins      = ownedOrigins;
+		baseInstance = 0;
+		external     = false;
+		count        = 0;
+	}
+
+	/**
+	 * Empty the list and write the next commands into commandsOut and originsOut, which must be large enough for all of them
+	 *
+	 * @param baseInstanceIn baseInstance of the first command, index of the first origin of originsOut in the instanced
+	 *                       attribute buffer
+	 */
+	public void clear(ByteBuffer commandsOut, ByteBuffer originsOut, int baseInstanceIn)
+	{
+		commands     = commandsOut.order(ByteOrder.nativeOrder());
+		origins      = originsOut.order(ByteOrder.nativeOrder());
+		baseInstance = baseInstanceIn;
+		external     = true;
+		count        = 0;
+	}
+}
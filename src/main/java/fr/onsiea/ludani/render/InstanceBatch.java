@@ -0,0 +1,277 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.render;
+
+import fr.onsiea.ludani.gl.GLState;
+import fr.onsiea.ludani.gl.IGL;
+import fr.onsiea.ludani.mesh.VertexFormat;
+import lombok.Getter;
+import org.lwjgl.opengl.GL32;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * One mesh drawn many times by a single glDrawArraysInstanced, each instance reading its own x, y, z offset and scale (4
+ * floats) from the instanced attribute {@link MeshArena#ORIGIN_ATTRIBUTE}, so shaders drawing arena meshes draw instances
+ * too. Memory is the mesh once plus 16 bytes per instance.
+ * Instances are kept in a client copy, {@link #upload()} only sends the range changed since the last one and the buffer
+ * doubles when full. Removing an instance moves the last one into its slot.
+ */
+public class InstanceBatch
+{
+	public final static int INSTANCE_BYTES = 4 * Float.BYTES;
+
+	private final         GLState      state;
+	private final         IGL          gl;
+	private final @Getter VertexFormat format;
+	private final @Getter int          vertexCount;
+	private final @Getter int          vertexArray;
+	private final         int          vertexBuffer;
+	private final         int          instanceBuffer;
+	private               ByteBuffer   instances;
+	private @Getter       int          count;
+	// Instances the buffer holds, it is specified again with the new capacity after a grow
+	private               int          bufferCapacity;
+	// Changed instance range, empty when dirtyStart >= dirtyEnd
+	private               int          dirtyStart;
+	private               int          dirtyEnd;
+
+	/**
+	 * @param verticesIn vertices of the mesh in formatIn, drawn as they are without indices
+	 * @param capacityIn initial number of instances
+	 */
+	public InstanceBatch(GLState stateIn, VertexFormat formatIn, ByteBuffer verticesIn, int vertexCountIn, int capacityIn)
+	{
+		if (verticesIn.remaining() != vertexCountIn * formatIn.bytesPerVertex())
+		{
+			throw new IllegalArgumentException("Expected " + vertexCountIn * formatIn.bytesPerVertex() + " bytes of vertices : " + verticesIn.remaining());
+		}
+
+		state          = stateIn;
+		gl             = stateIn.gl();
+		format         = formatIn;
+		vertexCount    = vertexCountIn;
+		bufferCapacity = Math.max(capacityIn, 16);
+		instances      = ByteBuffer.allocateDirect(bufferCapacity * InstanceBatch.INSTANCE_BYTES).order(ByteOrder.nativeOrder());
+		dirtyStart     = Integer.MAX_VALUE;
+
+		vertexArray = gl.glGenVertexArrays();
+		state.bindVertexArray(vertexArray);
+
+		vertexBuffer = gl.glGenBuffers();
+		state.bindBuffer(GL32.GL_ARRAY_BUFFER, vertexBuffer);
+		gl.glBufferData(GL32.GL_ARRAY_BUFFER, verticesIn, GL32.GL_STATIC_DRAW);
+		gl.glEnableVertexAttribArray(MeshArena.POSITION_ATTRIBUTE);
+		gl.glVertexAttribPointer(MeshArena.POSITION_ATTRIBUTE, 4, formatIn.positionBytes() == 1 ? GL32.GL_UNSIGNED_BYTE : GL32.GL_UNSIGNED_SHORT, false, formatIn.bytesPerVertex(), 0L);
+		if (formatIn.colors())
+		{
+			gl.glEnableVertexAttribArray(MeshArena.COLOR_ATTRIBUTE);
+			gl.glVertexAttribPointer(MeshArena.COLOR_ATTRIBUTE, 4, GL32.GL_UNSIGNED_BYTE, true, formatIn.bytesPerVertex(), formatIn.colorOffset());
+		}
+
+		// Respecifying the buffer when it grows keeps its name, the attribute stays valid
+		instanceBuffer = gl.glGenBuffers();
+		state.bindBuffer(GL32.GL_ARRAY_BUFFER, instanceBuffer);
+		gl.glBufferData(GL32.GL_ARRAY_BUFFER, (long) bufferCapacity * InstanceBatch.INSTANCE_BYTES, GL32.GL_DYNAMIC_DRAW);
+		gl.glEnableVertexAttribArray(MeshArena.ORIGIN_ATTRIBUTE);
+		gl.glVertexAttribPointer(MeshArena.ORIGIN_ATTRIBUTE, 4, GL32.GL_FLOAT, false, InstanceBatch.INSTANCE_BYTES, 0L);
+		gl.glVertexAttribDivisor(MeshArena.ORIGIN_ATTRIBUTE, 1);
+	}
+
+	private void dirty(int instanceIn)
+	{
+		dirtyStart = Math.min(dirtyStart, instanceIn);
+		dirtyEnd   = Math.max(dirtyEnd, instanceIn + 1);
+	}
+
+	/**
+	 * @return index of the new instance
+	 */
+	public int add(float xIn, float yIn, float zIn, float scaleIn)
+	{
+		if ((count + 1) * InstanceBatch.INSTANCE_BYTES > instances.capacity())
+		{
+			instances = ByteBuffer.allocateDirect(instances.capacity() * 2).order(ByteOrder.nativeOrder()).put(instances.clear());
+		}
+
+		var index = count;
+		count++;
+		write(index, xIn, yIn, zIn, scaleIn);
+		dirty(index);
+
+		return index;
+	}
+
+	private void write(int instanceIn, float xIn, float yIn, float zIn, float scaleIn)
+	{
+		var offset = instanceIn * InstanceBatch.INSTANCE_BYTES;
+		instances.putFloat(offset, xIn);
+		instances.putFloat(offset + Float.BYTES, yIn);
+		instances.putFloat(offset + 2 * Float.BYTES, zIn);
+		instances.putFloat(offset + 3 * Float.BYTES, scaleIn);
+	}
+
+	/**
+	 * Move an instance, nothing is sent if it already has these values
+	 */
+	public InstanceBatch set(int instanceIn, float xIn, float yIn, float zIn, float scaleIn)
+	{
+		if (instanceIn < 0 || instanceIn >= count)
+		{
+			throw new IllegalArgumentException("No instance " + instanceIn + " in a batch of " + count);
+		}
+		if (x(instanceIn) == xIn && y(instanceIn) == yIn && z(instanceIn) == zIn && scale(instanceIn) == scaleIn)
+		{
+			return this;
+		}
+
+		write(instanceIn, xIn, yIn, zIn, scaleIn);
+		dirty(instanceIn);
+
+		return this;
+	}
+
+	/**
+	 * Remove an instance, the last instance takes its index
+	 *
+	 * @return previous index of the instance moved to instanceIn, -1 if instanceIn was the last one
+	 */
+	public int remove(int instanceIn)
+	{
+		if (instanceIn < 0 || instanceIn >= count)
+		{
+			throw new IllegalArgumentException("No instance " + instanceIn + " in a batch of " + count);
+		}
+
+		count--;
+		if (instanceIn == count)
+		{
+			return -1;
+		}
+		var last = count * InstanceBatch.INSTANCE_BYTES;
+		instances.put(instanceIn * InstanceBatch.INSTANCE_BYTES, instances, last, InstanceBatch.INSTANCE_BYTES);
+		dirty(instanceIn);
+
+		return count;
+	}
+
+	public float x(int instanceIn)
+	{
+		return instances.getFloat(instanceIn * InstanceBatch.INSTANCE_BYTES);
+	}
+
+	public float y(int instanceIn)
+	{
+		return instances.getFloat(instanceIn * InstanceBatch.INSTANCE_BYTES + Float.BYTES);
+	}
+
+	public float z(int instanceIn)
+	{
+		return instances.getFloat(instanceIn * InstanceBatch.INSTANCE_BYTES + 2 * Float.BYTES);
+	}
+
+	public float scale(int instanceIn)
+	{
+		return instances.getFloat(instanceIn * InstanceBatch.INSTANCE_BYTES + 3 * Float.BYTES);
+	}
+
+	public void clear()
+	{
+		count = 0;
+	}
+
+	/**
+	 * Send the instances changed since the last upload, the whole list when the buffer had to grow
+	 *
+	 * @return number of bytes sent
+	 */
+	public int upload()
+	{
+		var end = Math.min(dirtyEnd, count);
+		if (dirtyStart >= end && bufferCapacity * InstanceBatch.INSTANCE_BYTES >= instances.capacity())
+		{
+			dirtyStart = Integer.MAX_VALUE;
+			dirtyEnd   = 0;
+
+			return 0;
+		}
+
+		state.bindBuffer(GL32.GL_ARRAY_BUFFER, instanceBuffer);
+		if (bufferCapacity * InstanceBatch.INSTANCE_BYTES < instances.capacity())
+		{
+			bufferCapacity = instances.capacity() / InstanceBatch.INSTANCE_BYTES;
+			gl.glBufferData(GL32.GL_ARRAY_BUFFER, instances.capacity(), GL32.GL_DYNAMIC_DRAW);
+			dirtyStart = 0;
+			end        = count;
+		}
+
+		var bytes = 0;
+		if (dirtyStart < end)
+		{
+			bytes = (end - dirtyStart) * InstanceBatch.INSTANCE_BYTES;
+			gl.glBufferSubData(GL32.GL_ARRAY_BUFFER, (long) dirtyStart * InstanceBatch.INSTANCE_BYTES, instances.slice(dirtyStart * InstanceBatch.INSTANCE_BYTES, bytes));
+		}
+		dirtyStart = Integer.MAX_VALUE;
+		dirtyEnd   = 0;
+
+		return bytes;
+	}
+
+	/**
+	 * Upload the changes then draw every instance, the program must be in use
+	 *
+	 * @return number of draw calls
+	 */
+	public int draw(int modeIn)
+	{
+		upload();
+		if (count == 0)
+		{
+			return 0;
+		}
+
+		state.bindVertexArray(vertexArray);
+		gl.glDrawArraysInstanced(modeIn, 0, vertexCount, count);
+
+		return 1;
+	}
+
+	public void cleanup()
+	{
+		state.bindVertexArray(0);
+		state.deleteBuffer(vertexBuffer);
+		state.deleteBuffer(instanceBuffer);
+		state.deleteVertexArray(vertexArray);
+	}
+}
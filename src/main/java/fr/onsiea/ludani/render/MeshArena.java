@@ -0,0 +1,376 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.render;
+
+import fr.onsiea.ludani.gl.GLState;
+import fr.onsiea.ludani.gl.IGL;
+import fr.onsiea.ludani.mesh.IndexType;
+import fr.onsiea.ludani.mesh.PackedMesh;
+import fr.onsiea.ludani.mesh.VertexFormat;
+import lombok.Getter;
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.opengl.GL43;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One vertex buffer and one element array buffer holding every mesh of a {@link VertexFormat}, behind a single vertex array.
+ * Meshes keep their own indices, draws add their first vertex as base vertex. Meshes queued by
+ * {@link #draw(ArenaMesh, float, float, float)} are submitted by one glMultiDrawElementsIndirect, or a loop of
+ * glDrawElementsBaseVertex when it is not available, each with its origin in the {@link MeshArena#ORIGIN_ATTRIBUTE} attribute.
+ * Indirect commands and origins are written in place into a {@link StreamBuffer} that may be shared by several arenas.
+ * Buffers grow (and are compacted) when full, {@link #defragment(int)} packs them a little at a time. Commands are built at
+ * submission so meshes may move while queued.
+ */
+public class MeshArena
+{
+	public final static int POSITION_ATTRIBUTE = 0;
+	public final static int COLOR_ATTRIBUTE    = 1;
+	public final static int ORIGIN_ATTRIBUTE   = 2;
+
+	private final         GLState         state;
+	private final         IGL             gl;
+	private final @Getter VertexFormat    format;
+	private final @Getter IndexType       indexType;
+	private final         int             glIndexType;
+	private final @Getter ArenaAllocator  vertexAllocator;
+	private final @Getter ArenaAllocator  indexAllocator;
+	private final         DrawCommands    commands;
+	private final         List<ArenaMesh> queued;
+	private final @Getter boolean         multiDrawIndirect;
+	private final @Getter int             vertexArray;
+	private final         StreamBuffer    stream;
+	private               int             vertexBuffer;
+	private               int             indexBuffer;
+	// x, y, z per queued mesh
+	private               float[]         queuedOrigins;
+	// Indices converted to the arena index type
+	private               ByteBuffer      conversion;
+
+	/**
+	 * @param streamIn    receives the commands and origins of each submit, only used with multi draw indirect
+	 * @param indexTypeIn index type of the arena, meshes using another one are converted when added
+	 */
+	public MeshArena(GLState stateIn, StreamBuffer streamIn, VertexFormat formatIn, IndexType indexTypeIn, int vertexCapacityIn, int indexCapacityIn)
+	{
+		state             = stateIn;
+		gl                = stateIn.gl();
+		format            = formatIn;
+		indexType         = indexTypeIn;
+		glIndexType       = indexTypeIn == IndexType.UNSIGNED_SHORT ? GL32.GL_UNSIGNED_SHORT : GL32.GL_UNSIGNED_INT;
+		vertexAllocator   = new ArenaAllocator(vertexCapacityIn);
+		indexAllocator    = new ArenaAllocator(indexCapacityIn);
+		commands          = new DrawCommands(256);
+		queued            = new ArrayList<>();
+		queuedOrigins     = new float[256 * 3];
+		multiDrawIndirect = gl.multiDrawIndirect();
+		stream            = streamIn;
+
+		vertexArray  = gl.glGenVertexArrays();
+		vertexBuffer = buffer(GL32.GL_ARRAY_BUFFER, (long) vertexCapacityIn * formatIn.bytesPerVertex());
+		state.bindVertexArray(vertexArray);
+		indexBuffer = buffer(GL32.GL_ELEMENT_ARRAY_BUFFER, (long) indexCapacityIn * indexTypeIn.bytes());
+		gl.glEnableVertexAttribArray(MeshArena.POSITION_ATTRIBUTE);
+		if (formatIn.colors())
+		{
+			gl.glEnableVertexAttribArray(MeshArena.COLOR_ATTRIBUTE);
+		}
+		attributes();
+		if (multiDrawIndirect)
+		{
+			// Origins are read at their ring offset through the baseInstance of the commands
+			state.bindBuffer(GL32.GL_ARRAY_BUFFER, streamIn.buffer());
+			gl.glEnableVertexAttribArray(MeshArena.ORIGIN_ATTRIBUTE);
+			gl.glVertexAttribPointer(MeshArena.ORIGIN_ATTRIBUTE, 4, GL32.GL_FLOAT, false, DrawCommands.ORIGIN_BYTES, 0L);
+			gl.glVertexAttribDivisor(MeshArena.ORIGIN_ATTRIBUTE, 1);
+		}
+	}
+
+	private int buffer(int targetIn, long bytesIn)
+	{
+		var buffer = gl.glGenBuffers();
+		state.bindBuffer(targetIn, buffer);
+		gl.glBufferData(targetIn, bytesIn, GL32.GL_STATIC_DRAW);
+
+		return buffer;
+	}
+
+	/**
+	 * Point the vertex attributes of the vertex array at the vertex buffer, again each time it is replaced
+	 */
+	private void attributes()
+	{
+		state.bindVertexArray(vertexArray);
+		state.bindBuffer(GL32.GL_ARRAY_BUFFER, vertexBuffer);
+		// Chunk relative position in xyz, face in w, converted to float without normalization
+		gl.glVertexAttribPointer(MeshArena.POSITION_ATTRIBUTE, 4, format.positionBytes() == 1 ? GL32.GL_UNSIGNED_BYTE : GL32.GL_UNSIGNED_SHORT, false, format.bytesPerVertex(), 0L);
+		if (format.colors())
+		{
+			gl.glVertexAttribPointer(MeshArena.COLOR_ATTRIBUTE, 4, GL32.GL_UNSIGNED_BYTE, true, format.bytesPerVertex(), format.colorOffset());
+		}
+	}
+
+	/**
+	 * Copy the live ranges of bufferIn into a new larger buffer, packed at its start
+	 *
+	 * @return the new buffer, bufferIn is deleted
+	 */
+	private int grow(int bufferIn, ArenaAllocator allocatorIn, int unitBytesIn, int neededIn)
+	{
+		var capacity = Math.max(allocatorIn.capacity() * 2, allocatorIn.used() + neededIn);
+		var buffer   = gl.glGenBuffers();
+		state.bindBuffer(GL32.GL_COPY_WRITE_BUFFER, buffer);
+		gl.glBufferData(GL32.GL_COPY_WRITE_BUFFER, (long) capacity * unitBytesIn, GL32.GL_STATIC_DRAW);
+		state.bindBuffer(GL32.GL_COPY_READ_BUFFER, bufferIn);
+		allocatorIn.compact((fromIn, toIn, sizeIn) -> gl.glCopyBufferSubData(GL32.GL_COPY_READ_BUFFER, GL32.GL_COPY_WRITE_BUFFER, (long) fromIn * unitBytesIn, (long) toIn * unitBytesIn, (long) sizeIn * unitBytesIn));
+		allocatorIn.grow(capacity);
+		state.deleteBuffer(bufferIn);
+
+		return buffer;
+	}
+
+	private ArenaAllocator.Allocation allocateVertices(int countIn)
+	{
+		var allocation = vertexAllocator.allocate(countIn);
+		if (allocation == null)
+		{
+			vertexBuffer = grow(vertexBuffer, vertexAllocator, format.bytesPerVertex(), countIn);
+			attributes();
+			allocation = vertexAllocator.allocate(countIn);
+		}
+
+		return allocation;
+	}
+
+	private ArenaAllocator.Allocation allocateIndices(int countIn)
+	{
+		var allocation = indexAllocator.allocate(countIn);
+		if (allocation == null)
+		{
+			indexBuffer = grow(indexBuffer, indexAllocator, indexType.bytes(), countIn);
+			state.bindVertexArray(vertexArray);
+			state.bindBuffer(GL32.GL_ELEMENT_ARRAY_BUFFER, indexBuffer);
+			allocation = indexAllocator.allocate(countIn);
+		}
+
+		return allocation;
+	}
+
+	private ByteBuffer indices(PackedMesh meshIn)
+	{
+		if (meshIn.indexType() == indexType)
+		{
+			return meshIn.indices();
+		}
+		if (meshIn.vertexCount() - 1 > indexType.maxVertexIndex())
+		{
+			throw new IllegalArgumentException("Mesh of " + meshIn.vertexCount() + " vertices does not fit " + indexType + " indices");
+		}
+
+		var bytes = meshIn.indexCount() * indexType.bytes();
+		if (conversion == null || conversion.capacity() < bytes)
+		{
+			conversion = ByteBuffer.allocateDirect(Math.max(bytes, conversion == null ? 0 : conversion.capacity() * 2)).order(ByteOrder.nativeOrder());
+		}
+		conversion.clear();
+		var source = meshIn.indices();
+		for (var i = 0; i < meshIn.indexCount(); i++)
+		{
+			var index = meshIn.indexType() == IndexType.UNSIGNED_SHORT ? source.getShort(i * Short.BYTES) & 0xFFFF : source.getInt(i * Integer.BYTES);
+			if (indexType == IndexType.UNSIGNED_SHORT)
+			{
+				conversion.putShort((short) index);
+			}
+			else
+			{
+				conversion.putInt(index);
+			}
+		}
+
+		return conversion.flip();
+	}
+
+	public ArenaMesh add(PackedMesh meshIn)
+	{
+		if (meshIn.format().bytesPerVertex() != format.bytesPerVertex() || meshIn.format().positionBytes() != format.positionBytes())
+		{
+			throw new IllegalArgumentException("Mesh vertex format does not match the arena one");
+		}
+
+		var indices  = indices(meshIn);
+		var vertices = allocateVertices(meshIn.vertexCount());
+		var elements = allocateIndices(meshIn.indexCount());
+
+		state.bindBuffer(GL32.GL_ARRAY_BUFFER, vertexBuffer);
+		gl.glBufferSubData(GL32.GL_ARRAY_BUFFER, (long) vertices.offset() * format.bytesPerVertex(), meshIn.vertices());
+		state.bindVertexArray(vertexArray);
+		gl.glBufferSubData(GL32.GL_ELEMENT_ARRAY_BUFFER, (long) elements.offset() * indexType.bytes(), indices);
+
+		return new ArenaMesh(this, vertices, elements);
+	}
+
+	public void remove(ArenaMesh meshIn)
+	{
+		if (meshIn.arena() != this)
+		{
+			throw new IllegalArgumentException("Mesh belongs to another arena");
+		}
+
+		vertexAllocator.free(meshIn.vertices());
+		indexAllocator.free(meshIn.indices());
+	}
+
+	/**
+	 * Queue meshIn for the next {@link #submit(int)}
+	 *
+	 * @param originXIn position added to the mesh vertices
+	 */
+	public MeshArena draw(ArenaMesh meshIn, float originXIn, float originYIn, float originZIn)
+	{
+		var offset = queued.size() * 3;
+		if (offset + 3 > queuedOrigins.length)
+		{
+			queuedOrigins = Arrays.copyOf(queuedOrigins, queuedOrigins.length * 2);
+		}
+		queuedOrigins[offset]     = originXIn;
+		queuedOrigins[offset + 1] = originYIn;
+		queuedOrigins[offset + 2] = originZIn;
+		queued.add(meshIn);
+
+		return this;
+	}
+
+	/**
+	 * @return meshes queued since the last submit
+	 */
+	public int queuedCount()
+	{
+		return queued.size();
+	}
+
+	/**
+	 * Draw every queued mesh then clear the queue, the program must be in use
+	 *
+	 * @return number of draw calls
+	 */
+	public int submit(int modeIn)
+	{
+		var count = queued.size();
+		if (count == 0)
+		{
+			return 0;
+		}
+
+		var indirect = 0L;
+		if (multiDrawIndirect)
+		{
+			// One slice, origins then commands, so that the ring never wraps between the two
+			var originBytes = count * DrawCommands.ORIGIN_BYTES;
+			var slice       = stream.allocate(originBytes + count * DrawCommands.COMMAND_BYTES, DrawCommands.ORIGIN_BYTES);
+			commands.clear(slice.slice(originBytes, count * DrawCommands.COMMAND_BYTES), slice.slice(0, originBytes), stream.offset() / DrawCommands.ORIGIN_BYTES);
+			indirect = stream.offset() + originBytes;
+		}
+		else
+		{
+			commands.clear();
+		}
+		for (var i = 0; i < count; i++)
+		{
+			var mesh = queued.get(i);
+			commands.add(mesh.indices().size(), mesh.indices().offset(), mesh.vertices().offset(), queuedOrigins[i * 3], queuedOrigins[i * 3 + 1], queuedOrigins[i * 3 + 2]);
+		}
+		queued.clear();
+
+		state.bindVertexArray(vertexArray);
+		var draws = 0;
+		if (multiDrawIndirect)
+		{
+			stream.flush();
+			state.bindBuffer(GL43.GL_DRAW_INDIRECT_BUFFER, stream.buffer());
+			gl.glMultiDrawElementsIndirect(modeIn, glIndexType, indirect, count, 0);
+			draws = 1;
+		}
+		else
+		{
+			for (var command = 0; command < count; command++)
+			{
+				gl.glVertexAttrib4f(MeshArena.ORIGIN_ATTRIBUTE, commands.origin(command, 0), commands.origin(command, 1), commands.origin(command, 2), 1.0f);
+				gl.glDrawElementsBaseVertex(modeIn, commands.indexCount(command), glIndexType, (long) commands.firstIndex(command) * indexType.bytes(), commands.baseVertex(command));
+				draws++;
+			}
+		}
+
+		return draws;
+	}
+
+	/**
+	 * @return highest fragmentation of the vertex and index buffers, see {@link ArenaAllocator#fragmentation()}
+	 */
+	public float fragmentation()
+	{
+		return Math.max(vertexAllocator.fragmentation(), indexAllocator.fragmentation());
+	}
+
+	/**
+	 * Move meshes from the end of the buffers into lower free ranges
+	 *
+	 * @param maxUnitsIn vertices and indices that may be copied by this call
+	 * @return vertices and indices copied
+	 */
+	public int defragment(int maxUnitsIn)
+	{
+		state.bindBuffer(GL32.GL_COPY_READ_BUFFER, vertexBuffer);
+		state.bindBuffer(GL32.GL_COPY_WRITE_BUFFER, vertexBuffer);
+		var vertexBytes = format.bytesPerVertex();
+		var moved       = vertexAllocator.defragment(maxUnitsIn, (fromIn, toIn, sizeIn) -> gl.glCopyBufferSubData(GL32.GL_COPY_READ_BUFFER, GL32.GL_COPY_WRITE_BUFFER, (long) fromIn * vertexBytes, (long) toIn * vertexBytes, (long) sizeIn * vertexBytes));
+
+		state.bindBuffer(GL32.GL_COPY_READ_BUFFER, indexBuffer);
+		state.bindBuffer(GL32.GL_COPY_WRITE_BUFFER, indexBuffer);
+		var indexBytes = indexType.bytes();
+		moved += indexAllocator.defragment(maxUnitsIn - moved, (fromIn, toIn, sizeIn) -> gl.glCopyBufferSubData(GL32.GL_COPY_READ_BUFFER, GL32.GL_COPY_WRITE_BUFFER, (long) fromIn * indexBytes, (long) toIn * indexBytes, (long) sizeIn * indexBytes));
+
+		return moved;
+	}
+
+	public void cleanup()
+	{
+		state.bindVertexArray(0);
+		state.deleteBuffer(vertexBuffer);
+		state.deleteBuffer(indexBuffer);
+		state.deleteVertexArray(vertexArray);
+	}
+}
@@ -0,0 +1,357 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.render;
+
+import fr.onsiea.ludani.gl.GLState;
+import lombok.Getter;
+import org.joml.Matrix4fc;
+import org.lwjgl.opengl.GL32;
+
+import java.util.Arrays;
+
+/**
+ * Draw items collected during a frame then submitted at once, opaque items first then transparent ones. Items are sorted by
+ * a 64 bits key whose high bit is the pass. Opaque keys hold the program in the next 15 bits, the vertex array in the next
+ * 16 bits and the depth (distance to the camera, front to back) in the 32 low bits, so that each program and each vertex
+ * array is bound once. Transparent keys hold the reversed depth first so that they are blended back to front whatever
+ * their program, then the program and the vertex array in 16 bits each. Neighbour items of the sorted order sharing pass,
+ * program, vertex array, primitive and uniform value whose index ranges follow each other are merged in one draw call.
+ * Batches ({@link IRenderBatch}) are sorted the same way but issue their own draws and are never merged.
+ * Object names above 15 or 16 bits share key values with smaller ones, which only costs extra binds.
+ */
+public class RenderQueue
+{
+	private final static int  SORT_BITS       = 8;
+	private final static int  BUCKETS         = 1 << RenderQueue.SORT_BITS;
+	private final static long TRANSPARENT_BIT = Long.MIN_VALUE;
+
+	private         long[]         keys;
+	private         int[]          programs;
+	private         int[]          vertexArrays;
+	private         int[]          modes;
+	private         int[]          indexTypes;
+	// Byte offset of the first index in the element array buffer
+	private         long[]         indexOffsets;
+	private         int[]          counts;
+	private         int[]          uniformLocations;
+	private         Matrix4fc[]    uniforms;
+	// Null for indexed draws
+	private         IRenderBatch[] batches;
+	// Item indices, sorted by key by submit
+	private         int[]          order;
+	private         int[]          sortBuffer;
+	private final   int[]          histogram;
+	private @Getter int            size;
+	// Draw calls and merged items of the last submit
+	private @Getter int            drawCount;
+	private @Getter int            mergedCount;
+
+	public RenderQueue(int capacityIn)
+	{
+		var capacity = Math.max(capacityIn, 16);
+		keys             = new long[capacity];
+		programs         = new int[capacity];
+		vertexArrays     = new int[capacity];
+		modes            = new int[capacity];
+		indexTypes       = new int[capacity];
+		indexOffsets     = new long[capacity];
+		counts           = new int[capacity];
+		uniformLocations = new int[capacity];
+		uniforms         = new Matrix4fc[capacity];
+		batches          = new IRenderBatch[capacity];
+		order            = new int[capacity];
+		sortBuffer       = new int[capacity];
+		histogram        = new int[RenderQueue.BUCKETS];
+	}
+
+	/**
+	 * @param depthIn distance to the camera, negative values are drawn first
+	 */
+	public static long key(int programIn, int vertexArrayIn, float depthIn)
+	{
+		// Bits of positive floats sort as unsigned integers
+		var depth = Float.floatToRawIntBits(Math.max(depthIn, 0.0f));
+
+		return (long) (programIn & 0x7FFF) << 48 | (long) (vertexArrayIn & 0xFFFF) << 32 | depth & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * @param depthIn distance to the camera, negative values are drawn last
+	 */
+	public static long transparentKey(int programIn, int vertexArrayIn, float depthIn)
+	{
+		// Bits of positive floats fit in 31 bits, reversed so that the farthest item comes first
+		var depth = ~Float.floatToRawIntBits(Math.max(depthIn, 0.0f)) & 0x7FFFFFFFL;
+
+		return RenderQueue.TRANSPARENT_BIT | depth << 32 | (long) (programIn & 0xFFFF) << 16 | vertexArrayIn & 0xFFFF;
+	}
+
+	private static int indexBytes(int indexTypeIn)
+	{
+		return switch (indexTypeIn)
+		{
+			case GL32.GL_UNSIGNED_BYTE -> 1;
+			case GL32.GL_UNSIGNED_SHORT -> 2;
+			case GL32.GL_UNSIGNED_INT -> 4;
+			default -> throw new IllegalArgumentException("Unknown index type " + indexTypeIn);
+		};
+	}
+
+	private static boolean mergeable(int modeIn)
+	{
+		// Strips and fans would connect the merged ranges
+		return modeIn == GL32.GL_TRIANGLES || modeIn == GL32.GL_LINES || modeIn == GL32.GL_POINTS;
+	}
+
+	private void grow()
+	{
+		var capacity = keys.length * 2;
+		keys             = Arrays.copyOf(keys, capacity);
+		programs         = Arrays.copyOf(programs, capacity);
+		vertexArrays     = Arrays.copyOf(vertexArrays, capacity);
+		modes            = Arrays.copyOf(modes, capacity);
+		indexTypes       = Arrays.copyOf(indexTypes, capacity);
+		indexOffsets     = Arrays.copyOf(indexOffsets, capacity);
+		counts           = Arrays.copyOf(counts, capacity);
+		uniformLocations = Arrays.copyOf(uniformLocations, capacity);
+		uniforms         = Arrays.copyOf(uniforms, capacity);
+		batches          = Arrays.copyOf(batches, capacity);
+		order            = new int[capacity];
+		sortBuffer       = new int[capacity];
+	}
+
+	private RenderQueue add(long keyIn, int programIn, int vertexArrayIn, int modeIn, int indexTypeIn, long indexOffsetIn, int countIn, int uniformLocationIn, Matrix4fc uniformIn, IRenderBatch batchIn)
+	{
+		if (size == keys.length)
+		{
+			grow();
+		}
+
+		keys[size]             = keyIn;
+		programs[size]         = programIn;
+		vertexArrays[size]     = vertexArrayIn;
+		modes[size]            = modeIn;
+		indexTypes[size]       = indexTypeIn;
+		indexOffsets[size]     = indexOffsetIn;
+		counts[size]           = countIn;
+		uniformLocations[size] = uniformLocationIn;
+		uniforms[size]         = uniformIn;
+		batches[size]          = batchIn;
+		size++;
+
+		return this;
+	}
+
+	/**
+	 * Queue an opaque indexed draw, uniformIn is read at submission and sent to uniformLocationIn of programIn before the draw
+	 *
+	 * @param indexOffsetIn byte offset of the first index in the element array buffer of vertexArrayIn
+	 * @param depthIn       distance to the camera
+	 */
+	public RenderQueue add(int programIn, int vertexArrayIn, int modeIn, int indexTypeIn, long indexOffsetIn, int countIn, int uniformLocationIn, Matrix4fc uniformIn, float depthIn)
+	{
+		if (countIn <= 0)
+		{
+			return this;
+		}
+
+		return add(RenderQueue.key(programIn, vertexArrayIn, depthIn), programIn, vertexArrayIn, modeIn, indexTypeIn, indexOffsetIn, countIn, uniformLocationIn, uniformIn, null);
+	}
+
+	/**
+	 * Queue an indexed draw blended over the opaque ones, see {@link #add(int, int, int, int, long, int, int, Matrix4fc, float)}
+	 */
+	public RenderQueue addTransparent(int programIn, int vertexArrayIn, int modeIn, int indexTypeIn, long indexOffsetIn, int countIn, int uniformLocationIn, Matrix4fc uniformIn, float depthIn)
+	{
+		if (countIn <= 0)
+		{
+			return this;
+		}
+
+		return add(RenderQueue.transparentKey(programIn, vertexArrayIn, depthIn), programIn, vertexArrayIn, modeIn, indexTypeIn, indexOffsetIn, countIn, uniformLocationIn, uniformIn, null);
+	}
+
+	/**
+	 * Queue an opaque batch, drawn once programIn is in use and uniformIn sent
+	 *
+	 * @param vertexArrayIn vertex array bound by the batch, only sorts it with the items drawing from it
+	 */
+	public RenderQueue add(int programIn, int vertexArrayIn, int uniformLocationIn, Matrix4fc uniformIn, float depthIn, IRenderBatch batchIn)
+	{
+		return add(RenderQueue.key(programIn, vertexArrayIn, depthIn), programIn, vertexArrayIn, 0, 0, 0L, 0, uniformLocationIn, uniformIn, batchIn);
+	}
+
+	/**
+	 * Queue a batch blended over the opaque items, see {@link #add(int, int, int, Matrix4fc, float, IRenderBatch)}
+	 */
+	public RenderQueue addTransparent(int programIn, int vertexArrayIn, int uniformLocationIn, Matrix4fc uniformIn, float depthIn, IRenderBatch batchIn)
+	{
+		return add(RenderQueue.transparentKey(programIn, vertexArrayIn, depthIn), programIn, vertexArrayIn, 0, 0, 0L, 0, uniformLocationIn, uniformIn, batchIn);
+	}
+
+	/**
+	 * Sort the item indices by key, least significant digit radix sort of 8 bits, skipping the digits shared by every key
+	 *
+	 * @return item indices in submission order, valid until the next add
+	 */
+	public int[] sort()
+	{
+		for (var i = 0; i < size; i++)
+		{
+			order[i] = i;
+		}
+
+		var source      = order;
+		var destination = sortBuffer;
+		for (var shift = 0; shift < Long.SIZE; shift += RenderQueue.SORT_BITS)
+		{
+			Arrays.fill(histogram, 0);
+			for (var i = 0; i < size; i++)
+			{
+				histogram[(int) (keys[source[i]] >>> shift) & RenderQueue.BUCKETS - 1]++;
+			}
+			if (size == 0 || histogram[(int) (keys[source[0]] >>> shift) & RenderQueue.BUCKETS - 1] == size)
+			{
+				continue;
+			}
+
+			var position = 0;
+			for (var bucket = 0; bucket < RenderQueue.BUCKETS; bucket++)
+			{
+				var count = histogram[bucket];
+				histogram[bucket] = position;
+				position += count;
+			}
+			for (var i = 0; i < size; i++)
+			{
+				var item = source[i];
+				destination[histogram[(int) (keys[item] >>> shift) & RenderQueue.BUCKETS - 1]++] = item;
+			}
+
+			var swap = source;
+			source      = destination;
+			destination = swap;
+		}
+		if (source != order)
+		{
+			sortBuffer = order;
+			order      = source;
+		}
+
+		return order;
+	}
+
+	/**
+	 * @return true if the item is drawn in the transparent pass
+	 */
+	public boolean transparent(int itemIn)
+	{
+		return keys[itemIn] < 0;
+	}
+
+	private boolean mergeable(int firstIn, long endIn, int itemIn)
+	{
+		return batches[itemIn] == null && transparent(itemIn) == transparent(firstIn) && programs[itemIn] == programs[firstIn] && vertexArrays[itemIn] == vertexArrays[firstIn] && modes[itemIn] == modes[firstIn] && RenderQueue.mergeable(modes[itemIn]) && indexTypes[itemIn] == indexTypes[firstIn] && indexOffsets[itemIn] == endIn && uniformLocations[itemIn] == uniformLocations[firstIn] && (uniforms[itemIn] == uniforms[firstIn] || uniforms[itemIn] != null && uniforms[itemIn].equals(uniforms[firstIn]));
+	}
+
+	/**
+	 * Sort, merge and draw every item then clear the queue. Programs, vertex arrays and uniforms go through stateIn, which
+	 * skips the ones already current. Blending is enabled and depth writes disabled during the transparent pass only.
+	 *
+	 * @return number of draw calls
+	 */
+	public int submit(GLState stateIn)
+	{
+		sort();
+
+		var gl       = stateIn.gl();
+		var blending = false;
+		drawCount   = 0;
+		mergedCount = 0;
+		for (var i = 0; i < size; )
+		{
+			var first = order[i];
+			i++;
+			if (!blending && transparent(first))
+			{
+				// Transparent items are blended over every opaque one and must not hide each other
+				blending = true;
+				gl.glEnable(GL32.GL_BLEND);
+				gl.glBlendFunc(GL32.GL_SRC_ALPHA, GL32.GL_ONE_MINUS_SRC_ALPHA);
+				gl.glDepthMask(false);
+			}
+
+			stateIn.useProgram(programs[first]);
+			if (uniforms[first] != null)
+			{
+				stateIn.uniforms(programs[first]).matrix4(uniformLocations[first], uniforms[first]);
+			}
+			if (batches[first] != null)
+			{
+				drawCount += batches[first].draw();
+				continue;
+			}
+
+			var indexBytes = RenderQueue.indexBytes(indexTypes[first]);
+			var count      = counts[first];
+			var end        = indexOffsets[first] + (long) count * indexBytes;
+			while (i < size && mergeable(first, end, order[i]))
+			{
+				count += counts[order[i]];
+				end += (long) counts[order[i]] * indexBytes;
+				mergedCount++;
+				i++;
+			}
+
+			stateIn.bindVertexArray(vertexArrays[first]);
+			gl.glDrawElements(modes[first], count, indexTypes[first], indexOffsets[first]);
+			drawCount++;
+		}
+		if (blending)
+		{
+			gl.glDepthMask(true);
+			gl.glDisable(GL32.GL_BLEND);
+		}
+		clear();
+
+		return drawCount;
+	}
+
+	public void clear()
+	{
+		// Drop the references to the uniforms and batches of the frame
+		Arrays.fill(uniforms, 0, size, null);
+		Arrays.fill(batches, 0, size, null);
+		size = 0;
+	}
+}
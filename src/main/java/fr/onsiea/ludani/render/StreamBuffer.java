@@ -0,0 +1,295 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.render;
+
+import fr.onsiea.ludani.gl.GLState;
+import fr.onsiea.ludani.gl.IFenceProvider;
+import fr.onsiea.ludani.gl.IGL;
+import lombok.Getter;
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.opengl.GL44;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Ring of GPU memory rewritten every frame, for data drawn once such as draw commands, particles or debug lines.
+ * {@link #allocate(int, int)} returns a slice of mapped memory filled in place, nothing is copied afterward.
+ * With persistent mapping the buffer stays mapped for its whole life, {@link #endFrame()} puts a fence after the draws of
+ * the frame and a range is only written again once the fence of the frame that used it is signaled, at most frames frames
+ * are in flight. Without it, the free range is mapped unsynchronized until {@link #flush()} and the buffer is orphaned when
+ * the ring wraps, the driver then gives new storage instead of waiting for the draws still reading the old one.
+ */
+public class StreamBuffer
+{
+	public final static  int MAX_ALIGNMENT    = 256;
+	private final static int PERSISTENT_FLAGS = GL32.GL_MAP_WRITE_BIT | GL44.GL_MAP_PERSISTENT_BIT | GL44.GL_MAP_COHERENT_BIT;
+	private final static int ORPHANING_FLAGS  = GL32.GL_MAP_WRITE_BIT | GL32.GL_MAP_UNSYNCHRONIZED_BIT | GL32.GL_MAP_INVALIDATE_RANGE_BIT;
+
+	private final         GLState        state;
+	private final         IGL            gl;
+	private final         IFenceProvider fences;
+	private final @Getter int            target;
+	private final @Getter int            buffer;
+	private final @Getter int            capacity;
+	private final @Getter int            frames;
+	private final @Getter boolean        persistent;
+	// Fences of the frames the GPU may still read and the ring position at their end, oldest first
+	private final         long[]         fenceHandles;
+	private final         long[]         fenceEnds;
+	private               int            firstFence;
+	private               int            fenceCount;
+	// Positions grow forever, wrap padding included, the buffer offset of a position is position % capacity
+	private               long           head;
+	// Bytes before tail are no longer read by the GPU
+	private               long           tail;
+	private               long           frameStart;
+	// End of the storage given by the last orphaning
+	private               long           storageEnd;
+	// Whole buffer when persistent, else the range mapped since the last flush
+	private               ByteBuffer     mapping;
+	private               int            mappingOffset;
+	// Buffer offset of the last slice
+	private @Getter       int            offset;
+	// Allocations or frame ends that had to wait for the GPU
+	private @Getter       int            stallCount;
+	private @Getter       int            wrapCount;
+
+	public StreamBuffer(GLState stateIn, IFenceProvider fencesIn, int targetIn, int frameBytesIn, int framesIn)
+	{
+		this(stateIn, fencesIn, targetIn, frameBytesIn, framesIn, stateIn.gl().persistentMapping());
+	}
+
+	/**
+	 * @param targetIn     target the buffer is bound to while mapped
+	 * @param frameBytesIn bytes written by a frame, the ring holds framesIn times this size
+	 * @param framesIn     frames the CPU may write ahead of the GPU
+	 * @param persistentIn persistent mapping with fences, orphaning otherwise
+	 */
+	public StreamBuffer(GLState stateIn, IFenceProvider fencesIn, int targetIn, int frameBytesIn, int framesIn, boolean persistentIn)
+	{
+		if (frameBytesIn <= 0 || framesIn <= 0)
+		{
+			throw new IllegalArgumentException("Frame size and frame count must be positive : " + frameBytesIn + ", " + framesIn);
+		}
+
+		state        = stateIn;
+		gl           = stateIn.gl();
+		fences       = fencesIn;
+		target       = targetIn;
+		capacity     = (int) StreamBuffer.align((long) frameBytesIn * framesIn, StreamBuffer.MAX_ALIGNMENT);
+		frames       = framesIn;
+		persistent   = persistentIn;
+		fenceHandles = new long[framesIn];
+		fenceEnds    = new long[framesIn];
+		storageEnd   = capacity;
+
+		buffer = gl.glGenBuffers();
+		state.bindBuffer(targetIn, buffer);
+		if (persistentIn)
+		{
+			gl.glBufferStorage(targetIn, capacity, StreamBuffer.PERSISTENT_FLAGS);
+			mapping = gl.glMapBufferRange(targetIn, 0L, capacity, StreamBuffer.PERSISTENT_FLAGS).order(ByteOrder.nativeOrder());
+		}
+		else
+		{
+			gl.glBufferData(targetIn, capacity, GL32.GL_STREAM_DRAW);
+		}
+	}
+
+	private static long align(long valueIn, int alignmentIn)
+	{
+		return (valueIn + alignmentIn - 1) & -alignmentIn;
+	}
+
+	/**
+	 * @param alignmentIn power of two up to {@link StreamBuffer#MAX_ALIGNMENT}, the buffer offset of the slice is a multiple of it
+	 * @return slice of sizeIn bytes to fill, in native order, its buffer offset is then given by {@link #offset()}
+	 */
+	public ByteBuffer allocate(int sizeIn, int alignmentIn)
+	{
+		if (sizeIn <= 0 || sizeIn > capacity)
+		{
+			throw new IllegalArgumentException("Slice size must be between 1 and " + capacity + " bytes : " + sizeIn);
+		}
+		if (Integer.bitCount(alignmentIn) != 1 || alignmentIn > StreamBuffer.MAX_ALIGNMENT)
+		{
+			throw new IllegalArgumentException("Alignment must be a power of two up to " + StreamBuffer.MAX_ALIGNMENT + " : " + alignmentIn);
+		}
+
+		var start = StreamBuffer.align(head, alignmentIn);
+		if (start % capacity + sizeIn > capacity)
+		{
+			start += capacity - start % capacity;
+		}
+		if (start > 0 && start % capacity == 0)
+		{
+			wrapCount++;
+		}
+
+		if (persistent)
+		{
+			while (start + sizeIn - tail > capacity)
+			{
+				if (fenceCount == 0)
+				{
+					throw new IllegalStateException("Frame writes more than the " + capacity + " bytes of the stream buffer");
+				}
+				retire(true);
+			}
+		}
+		else if (start >= storageEnd)
+		{
+			if (mapping != null)
+			{
+				throw new IllegalStateException("Slices written since the last flush do not fit in the " + capacity + " bytes of the stream buffer");
+			}
+			// Previous draws keep the old storage
+			state.bindBuffer(target, buffer);
+			gl.glBufferData(target, capacity, GL32.GL_STREAM_DRAW);
+			storageEnd = start + capacity;
+		}
+
+		head   = start + sizeIn;
+		offset = (int) (start % capacity);
+		if (mapping == null)
+		{
+			state.bindBuffer(target, buffer);
+			mapping       = gl.glMapBufferRange(target, offset, capacity - offset, StreamBuffer.ORPHANING_FLAGS).order(ByteOrder.nativeOrder());
+			mappingOffset = offset;
+		}
+
+		return mapping.slice(offset - mappingOffset, sizeIn).order(ByteOrder.nativeOrder());
+	}
+
+	/**
+	 * Make the slices written so far readable by the next GL commands, to call before drawing them
+	 */
+	public StreamBuffer flush()
+	{
+		// Persistent mappings are coherent, nothing to do
+		if (!persistent && mapping != null)
+		{
+			state.bindBuffer(target, buffer);
+			if (!gl.glUnmapBuffer(target))
+			{
+				throw new IllegalStateException("Stream buffer content was lost while mapped");
+			}
+			mapping = null;
+		}
+
+		return this;
+	}
+
+	/**
+	 * Close the frame after its draws were submitted, the range written by the frame is reused once the GPU is done with it
+	 */
+	public StreamBuffer endFrame()
+	{
+		flush();
+		if (persistent && head != frameStart)
+		{
+			if (fenceCount == frames)
+			{
+				retire(true);
+			}
+			var index = (firstFence + fenceCount) % frames;
+			fenceHandles[index] = fences.fence();
+			fenceEnds[index]    = head;
+			fenceCount++;
+		}
+		// Release what the GPU already finished without waiting
+		while (fenceCount > 0 && retire(false))
+		{
+			// Retire every signaled fence
+		}
+		frameStart = head;
+
+		return this;
+	}
+
+	/**
+	 * Release the range of the oldest frame in flight
+	 *
+	 * @return false if its fence is not signaled and waitIn is false
+	 */
+	private boolean retire(boolean waitIn)
+	{
+		var fence = fenceHandles[firstFence];
+		if (!fences.signaled(fence))
+		{
+			if (!waitIn)
+			{
+				return false;
+			}
+			stallCount++;
+			fences.await(fence);
+		}
+		fences.delete(fence);
+		tail       = fenceEnds[firstFence];
+		firstFence = (firstFence + 1) % frames;
+		fenceCount--;
+
+		return true;
+	}
+
+	/**
+	 * @return bytes the GPU may still read, wrap padding included
+	 */
+	public long inFlightBytes()
+	{
+		return persistent ? head - tail : 0L;
+	}
+
+	public int framesInFlight()
+	{
+		return fenceCount;
+	}
+
+	public void cleanup()
+	{
+		if (mapping != null)
+		{
+			state.bindBuffer(target, buffer);
+			gl.glUnmapBuffer(target);
+			mapping = null;
+		}
+		while (fenceCount > 0)
+		{
+			fences.delete(fenceHandles[firstFence]);
+			firstFence = (firstFence + 1) % frames;
+			fenceCount--;
+		}
+		state.deleteBuffer(buffer);
+	}
+}
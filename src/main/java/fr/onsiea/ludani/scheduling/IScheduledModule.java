@@ -0,0 +1,73 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.scheduling;
+
+import java.util.Set;
+
+/**
+ * Module iterated once per tick by a {@link ModuleScheduler}. The resources it reads and writes are keys compared with
+ * equals, such as a class or a string, two modules sharing a resource that one of them writes never run at the same time
+ * and run in the order they were added.
+ * By default the name, affinity and resources come from the {@link ScheduledModule} annotation of the class, through
+ * {@link ModuleFactories#schema(Class)}.
+ */
+public interface IScheduledModule
+{
+	default String name()
+	{
+		return ModuleFactories.schema(getClass()).name();
+	}
+
+	default ModuleAffinity affinity()
+	{
+		return ModuleFactories.schema(getClass()).affinity();
+	}
+
+	/**
+	 * @return resources only read during {@link #iterate()}, several modules may read one at the same time
+	 */
+	default Set<?> reads()
+	{
+		return ModuleFactories.schema(getClass()).reads();
+	}
+
+	/**
+	 * @return resources modified during {@link #iterate()}
+	 */
+	default Set<?> writes()
+	{
+		return ModuleFactories.schema(getClass()).writes();
+	}
+
+	void iterate();
+}
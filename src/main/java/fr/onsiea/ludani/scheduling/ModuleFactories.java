@@ -0,0 +1,187 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.scheduling;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Schemas and factories of the module classes. Schemas come from the generated {@link IModuleRegistry} implementations
+ * when the processor ran, their factories call the constructors directly. Other classes fall back on their
+ * {@link ScheduledModule} annotation, read through reflection, and a constructor {@link MethodHandle} resolved on the
+ * first creation. Either way each class is only looked up once.
+ */
+public final class ModuleFactories
+{
+	private final static ClassValue<ModuleSchema> SCHEMAS = new ClassValue<>()
+	{
+		@Override
+		protected ModuleSchema computeValue(Class<?> typeIn)
+		{
+			var schema = Generated.SCHEMAS.get(typeIn);
+
+			return schema != null ? schema : ModuleFactories.fallback(typeIn.asSubclass(IScheduledModule.class));
+		}
+	};
+
+	private ModuleFactories()
+	{
+	}
+
+	public static ModuleSchema schema(Class<? extends IScheduledModule> typeIn)
+	{
+		return ModuleFactories.SCHEMAS.get(typeIn);
+	}
+
+	/**
+	 * @throws IllegalArgumentException when the class has no constructor without parameters the factories can reach
+	 */
+	public static <T extends IScheduledModule> T create(Class<T> typeIn)
+	{
+		return typeIn.cast(ModuleFactories.schema(typeIn).create());
+	}
+
+	/**
+	 * @return true when the schema of typeIn was generated at build time
+	 */
+	public static boolean generated(Class<? extends IScheduledModule> typeIn)
+	{
+		return Generated.SCHEMAS.containsKey(typeIn);
+	}
+
+	/**
+	 * @return every generated schema
+	 */
+	public static Collection<ModuleSchema> generatedSchemas()
+	{
+		return Collections.unmodifiableCollection(Generated.SCHEMAS.values());
+	}
+
+	private static ModuleSchema fallback(Class<? extends IScheduledModule> typeIn)
+	{
+		var factory    = new HandleFactory(typeIn);
+		var annotation = typeIn.getAnnotation(ScheduledModule.class);
+		if (annotation == null)
+		{
+			return new ModuleSchema(typeIn, typeIn.getSimpleName(), ModuleAffinity.ANY_THREAD, Set.of(), Set.of(), factory);
+		}
+
+		return new ModuleSchema(typeIn, annotation.name().isEmpty() ? typeIn.getSimpleName() : annotation.name(), annotation.affinity(), Set.copyOf(Arrays.asList(annotation.reads())), Set.copyOf(Arrays.asList(annotation.writes())), factory);
+	}
+
+	/**
+	 * Generated registries, loaded with the first schema
+	 */
+	private final static class Generated
+	{
+		private final static Map<Class<?>, ModuleSchema> SCHEMAS = Generated.load();
+
+		private static Map<Class<?>, ModuleSchema> load()
+		{
+			var schemas = new HashMap<Class<?>, ModuleSchema>();
+			for (var registry : ServiceLoader.load(IModuleRegistry.class))
+			{
+				for (var schema : registry.schemas())
+				{
+					schemas.put(schema.type(), schema);
+				}
+			}
+
+			return schemas;
+		}
+	}
+
+	/**
+	 * Constructor without parameters called through a method handle, resolved on the first creation
+	 */
+	private final static class HandleFactory implements Supplier<IScheduledModule>
+	{
+		private final    Class<? extends IScheduledModule> type;
+		private volatile MethodHandle                      constructor;
+
+		private HandleFactory(Class<? extends IScheduledModule> typeIn)
+		{
+			type = typeIn;
+		}
+
+		private MethodHandle constructor()
+		{
+			var handle = constructor;
+			if (handle != null)
+			{
+				return handle;
+			}
+
+			try
+			{
+				// Package private modules are created too, the lookup needs to read their module
+				ModuleFactories.class.getModule().addReads(type.getModule());
+				handle      = MethodHandles.privateLookupIn(type, MethodHandles.lookup()).findConstructor(type, MethodType.methodType(void.class)).asType(MethodType.methodType(IScheduledModule.class));
+				constructor = handle;
+
+				return handle;
+			}
+			catch (NoSuchMethodException | IllegalAccessException eIn)
+			{
+				throw new IllegalArgumentException("Module " + type.getName() + " has no reachable constructor without parameters", eIn);
+			}
+		}
+
+		@Override
+		public IScheduledModule get()
+		{
+			var handle = constructor();
+			try
+			{
+				return (IScheduledModule) handle.invokeExact();
+			}
+			catch (RuntimeException | Error eIn)
+			{
+				throw eIn;
+			}
+			catch (Throwable eIn)
+			{
+				throw new IllegalStateException("Module " + type.getName() + " constructor failed", eIn);
+			}
+		}
+	}
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.scheduling;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Iterates modules once per tick following their dependencies instead of one after another. A module depends on every
+ * module added before it that writes a resource it reads or writes, or reads a resource it writes, the graph is rebuilt
+ * when modules are added or removed.
+ * Each tick every module waits for its dependencies, then {@link ModuleAffinity#ANY_THREAD} modules are forked on a work
+ * stealing pool while {@link ModuleAffinity#MAIN_THREAD} modules run on the thread calling {@link #iterate()}, which
+ * returns once every module ran.
+ */
+public class ModuleScheduler
+{
+	// Wakes the main thread at the end of the tick
+	private final static int DONE = -1;
+
+	private final    ForkJoinPool                pool;
+	private final    List<IScheduledModule>      modules;
+	private final    AtomicInteger               remaining;
+	private final    AtomicLong                  busyNanos;
+	private          boolean[]                   mainThread;
+	private          int[][]                     successors;
+	private          int[]                       predecessorCounts;
+	private          AtomicIntegerArray          pending;
+	private          ArrayBlockingQueue<Integer> mainReady;
+	private          boolean                     dirty;
+	// Modules on the longest dependency chain
+	private @Getter  int                         depth;
+	private @Getter  int                         edgeCount;
+	private @Getter  long                        tick;
+	// Wall and summed module time of the last tick, their ratio is the parallelism reached
+	private @Getter  long                        lastTickNanos;
+	private @Getter  long                        lastBusyNanos;
+	// Index of the first module that threw during the current tick, -1 if none
+	private volatile int                         failedModule;
+	private volatile Throwable                   failure;
+
+	public ModuleScheduler()
+	{
+		this(ForkJoinPool.commonPool());
+	}
+
+	public ModuleScheduler(ForkJoinPool poolIn)
+	{
+		pool      = poolIn;
+		modules   = new ArrayList<>();
+		remaining = new AtomicInteger();
+		busyNanos = new AtomicLong();
+		dirty     = true;
+	}
+
+	public ModuleScheduler add(IScheduledModule moduleIn)
+	{
+		modules.add(moduleIn);
+		dirty = true;
+
+		return this;
+	}
+
+	/**
+	 * Create the module with {@link ModuleFactories} then add it
+	 */
+	public ModuleScheduler add(Class<? extends IScheduledModule> typeIn)
+	{
+		return add(ModuleFactories.create(typeIn));
+	}
+
+	public boolean remove(IScheduledModule moduleIn)
+	{
+		if (!modules.remove(moduleIn))
+		{
+			return false;
+		}
+		dirty = true;
+
+		return true;
+	}
+
+	public int size()
+	{
+		return modules.size();
+	}
+
+	private static boolean conflict(IScheduledModule firstIn, IScheduledModule secondIn)
+	{
+		for (var resource : secondIn.writes())
+		{
+			if (firstIn.writes().contains(resource) || firstIn.reads().contains(resource))
+			{
+				return true;
+			}
+		}
+		for (var resource : secondIn.reads())
+		{
+			if (firstIn.writes().contains(resource))
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private void build()
+	{
+		var count  = modules.size();
+		var edges  = new ArrayList<List<Integer>>(count);
+		var levels = new int[count];
+		mainThread        = new boolean[count];
+		successors        = new int[count][];
+		predecessorCounts = new int[count];
+		pending           = new AtomicIntegerArray(count);
+		mainReady         = new ArrayBlockingQueue<>(count + 1);
+		edgeCount         = 0;
+		depth             = 0;
+
+		for (var second = 0; second < count; second++)
+		{
+			edges.add(new ArrayList<>());
+			mainThread[second] = modules.get(second).affinity() == ModuleAffinity.MAIN_THREAD;
+			levels[second]     = 1;
+			for (var first = 0; first < second; first++)
+			{
+				if (ModuleScheduler.conflict(modules.get(first), modules.get(second)))
+				{
+					edges.get(first).add(second);
+					predecessorCounts[second]++;
+					levels[second] = Math.max(levels[second], levels[first] + 1);
+					edgeCount++;
+				}
+			}
+			depth = Math.max(depth, levels[second]);
+		}
+		for (var index = 0; index < count; index++)
+		{
+			var list = edges.get(index);
+			successors[index] = new int[list.size()];
+			for (var successor = 0; successor < list.size(); successor++)
+			{
+				successors[index][successor] = list.get(successor);
+			}
+		}
+		dirty = false;
+	}
+
+	/**
+	 * @return indices of the modules that wait for the module at indexIn, in the order of {@link #add(IScheduledModule)}
+	 */
+	public int[] successors(int indexIn)
+	{
+		if (dirty)
+		{
+			build();
+		}
+
+		return successors[indexIn].clone();
+	}
+
+	/**
+	 * Iterate every module once, main thread modules run on the calling thread
+	 *
+	 * @throws IllegalStateException when a module threw, the modules not started yet are then skipped for this tick
+	 */
+	public ModuleScheduler iterate()
+	{
+		if (dirty)
+		{
+			build();
+		}
+		var count = modules.size();
+		if (count == 0)
+		{
+			return this;
+		}
+
+		var start = System.nanoTime();
+		failure      = null;
+		failedModule = -1;
+		busyNanos.set(0L);
+		remaining.set(count);
+		for (var index = 0; index < count; index++)
+		{
+			pending.set(index, predecessorCounts[index]);
+		}
+		for (var index = 0; index < count; index++)
+		{
+			if (predecessorCounts[index] == 0)
+			{
+				ready(index);
+			}
+		}
+
+		var interrupted = false;
+		while (true)
+		{
+			int index;
+			try
+			{
+				index = mainReady.take();
+			}
+			catch (InterruptedException eIn)
+			{
+				// The modules already forked must end before returning, the interruption is restored afterward
+				interrupted = true;
+				continue;
+			}
+			if (index == ModuleScheduler.DONE)
+			{
+				break;
+			}
+			run(index);
+		}
+		if (interrupted)
+		{
+			Thread.currentThread().interrupt();
+		}
+
+		tick++;
+		lastTickNanos = System.nanoTime() - start;
+		lastBusyNanos = busyNanos.get();
+		if (failure != null)
+		{
+			throw new IllegalStateException("Module " + modules.get(failedModule).name() + " failed during tick " + (tick - 1), failure);
+		}
+
+		return this;
+	}
+
+	private void ready(int indexIn)
+	{
+		if (mainThread[indexIn])
+		{
+			mainReady.add(indexIn);
+		}
+		// A task per run, the worker may still complete the task of the previous tick after the barrier
+		else if (ForkJoinTask.getPool() == pool)
+		{
+			// Pushed on the deque of this worker, idle workers steal it
+			new ModuleTask(indexIn).fork();
+		}
+		else
+		{
+			pool.execute(new ModuleTask(indexIn));
+		}
+	}
+
+	private void run(int indexIn)
+	{
+		if (failure == null)
+		{
+			var start = System.nanoTime();
+			try
+			{
+				modules.get(indexIn).iterate();
+			}
+			catch (Throwable eIn)
+			{
+				synchronized (this)
+				{
+					if (failure == null)
+					{
+						failedModule = indexIn;
+						failure      = eIn;
+					}
+				}
+			}
+			busyNanos.addAndGet(System.nanoTime() - start);
+		}
+
+		for (var successor : successors[indexIn])
+		{
+			if (pending.decrementAndGet(successor) == 0)
+			{
+				ready(successor);
+			}
+		}
+		if (remaining.decrementAndGet() == 0)
+		{
+			mainReady.add(ModuleScheduler.DONE);
+		}
+	}
+
+	/**
+	 * Parallelism reached by the last tick, the summed module time over the wall time
+	 */
+	public double parallelism()
+	{
+		return lastTickNanos == 0L ? 0.0D : (double) lastBusyNanos / lastTickNanos;
+	}
+
+	private final class ModuleTask extends RecursiveAction
+	{
+		private final int index;
+
+		private ModuleTask(int indexIn)
+		{
+			index = indexIn;
+		}
+
+		@Override
+		protected void compute()
+		{
+			run(index);
+		}
+	}
+}
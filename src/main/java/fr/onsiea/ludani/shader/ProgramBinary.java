@@ -0,0 +1,80 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.shader;
+
+import fr.onsiea.ludani.gl.IGL;
+import lombok.Getter;
+import org.lwjgl.opengl.GL41;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Linked program as given by glGetProgramBinary, only loadable by the driver that produced it
+ */
+@Getter
+public class ProgramBinary
+{
+	private final int        format;
+	// Direct buffer, the binary is between its position and its limit
+	private final ByteBuffer data;
+
+	public ProgramBinary(int formatIn, ByteBuffer dataIn)
+	{
+		if (!dataIn.isDirect())
+		{
+			throw new IllegalArgumentException("Program binaries are passed to OpenGL, they must be in a direct buffer");
+		}
+
+		format = formatIn;
+		data   = dataIn;
+	}
+
+	/**
+	 * Read back a program linked with GL_PROGRAM_BINARY_RETRIEVABLE_HINT, on the GL thread
+	 */
+	public static ProgramBinary get(IGL glIn, int programIn)
+	{
+		var length = new int[1];
+		var format = new int[1];
+		var data   = ByteBuffer.allocateDirect(glIn.glGetProgrami(programIn, GL41.GL_PROGRAM_BINARY_LENGTH));
+		glIn.glGetProgramBinary(programIn, length, format, data);
+		data.limit(length[0]);
+
+		return new ProgramBinary(format[0], data);
+	}
+
+	public int length()
+	{
+		return data.remaining();
+	}
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.shader;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Linked program binaries of earlier runs, one file per key in a directory. A key hashes the preprocessed sources with the
+ * driver identification, so a binary is only read back by the driver that produced it for the same sources. Drivers may
+ * still refuse it, e.g. after an update, the program is then linked from its sources and its file replaced.
+ * A file holds a magic number, the version of the layout, the binary format and length, then the binary. Files are written
+ * to a temporary file then moved, a crash never leaves a truncated binary. Safe to use from several threads.
+ */
+public class ProgramBinaryCache
+{
+	private final static int    MAGIC        = 0x4C505242;
+	private final static int    VERSION      = 1;
+	private final static int    HEADER_BYTES = 4 * Integer.BYTES;
+	private final static String EXTENSION    = ".bin";
+
+	private final @Getter Path       directory;
+	private final         AtomicLong hitCount;
+	private final         AtomicLong missCount;
+	private final         AtomicLong writeCount;
+
+	public ProgramBinaryCache(Path directoryIn) throws IOException
+	{
+		directory  = Files.createDirectories(directoryIn);
+		hitCount   = new AtomicLong();
+		missCount  = new AtomicLong();
+		writeCount = new AtomicLong();
+	}
+
+	/**
+	 * @param driverIn vendor, renderer and version strings of the driver
+	 *
+	 * @return SHA-256 of the driver and of the sources of every stage, in hexadecimal
+	 */
+	public static String key(String driverIn, Map<ShaderStage, ShaderSource> sourcesIn)
+	{
+		try
+		{
+			var digest = MessageDigest.getInstance("SHA-256");
+			digest.update(driverIn.getBytes(StandardCharsets.UTF_8));
+			for (var source : sourcesIn.entrySet())
+			{
+				digest.update((byte) 0);
+				digest.update(source.getKey().name().getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) 0);
+				digest.update(source.getValue().text().getBytes(StandardCharsets.UTF_8));
+			}
+
+			return HexFormat.of().formatHex(digest.digest());
+		}
+		catch (NoSuchAlgorithmException eIn)
+		{
+			throw new IllegalStateException("SHA-256 is required on every Java platform", eIn);
+		}
+	}
+
+	public Path path(String keyIn)
+	{
+		return directory.resolve(keyIn + ProgramBinaryCache.EXTENSION);
+	}
+
+	/**
+	 * @return binary stored for keyIn, null if there is none or if its file is damaged, a damaged file is deleted
+	 */
+	public ProgramBinary read(String keyIn) throws IOException
+	{
+		var path = path(keyIn);
+		try (var channel = FileChannel.open(path, StandardOpenOption.READ))
+		{
+			var header = ByteBuffer.allocate(ProgramBinaryCache.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			var length = channel.size() - ProgramBinaryCache.HEADER_BYTES;
+			if (length > 0 && channel.read(header) == ProgramBinaryCache.HEADER_BYTES && header.getInt(0) == ProgramBinaryCache.MAGIC && header.getInt(4) == ProgramBinaryCache.VERSION && header.getInt(12) == length)
+			{
+				var data = ByteBuffer.allocateDirect((int) length);
+				while (data.hasRemaining())
+				{
+					if (channel.read(data) < 0)
+					{
+						break;
+					}
+				}
+				if (!data.hasRemaining())
+				{
+					hitCount.incrementAndGet();
+
+					return new ProgramBinary(header.getInt(8), data.flip());
+				}
+			}
+		}
+		catch (NoSuchFileException eIn)
+		{
+			missCount.incrementAndGet();
+
+			return null;
+		}
+
+		Files.deleteIfExists(path);
+		missCount.incrementAndGet();
+
+		return null;
+	}
+
+	public void write(String keyIn, ProgramBinary binaryIn) throws IOException
+	{
+		var header = ByteBuffer.allocate(ProgramBinaryCache.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(ProgramBinaryCache.MAGIC).putInt(ProgramBinaryCache.VERSION).putInt(binaryIn.format()).putInt(binaryIn.length()).flip();
+
+		var temporary = Files.createTempFile(directory, keyIn, ".tmp");
+		try
+		{
+			try (var channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+			{
+				var buffers = new ByteBuffer[] {header, binaryIn.data().duplicate()};
+				while (buffers[0].hasRemaining() || buffers[1].hasRemaining())
+				{
+					channel.write(buffers);
+				}
+			}
+			try
+			{
+				Files.move(temporary, path(keyIn), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException eIn)
+			{
+				Files.move(temporary, path(keyIn), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally
+		{
+			Files.deleteIfExists(temporary);
+		}
+		writeCount.incrementAndGet();
+	}
+
+	public boolean delete(String keyIn) throws IOException
+	{
+		return Files.deleteIfExists(path(keyIn));
+	}
+
+	public long hitCount()
+	{
+		return hitCount.get();
+	}
+
+	public long missCount()
+	{
+		return missCount.get();
+	}
+
+	public long writeCount()
+	{
+		return writeCount.get();
+	}
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.shader;
+
+import fr.onsiea.ludani.gl.IGL;
+import lombok.Getter;
+import org.lwjgl.opengl.GL32;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Active uniforms and vertex attributes of a linked program, reflected once after the link instead of looking locations
+ * up by name at each use. Arrays are found by their name without the "[0]" drivers append, built-in variables are left
+ * out.
+ */
+public class ProgramLayout
+{
+	private final Map<String, Variable> uniforms;
+	private final Map<String, Variable> attributes;
+
+	private ProgramLayout(Map<String, Variable> uniformsIn, Map<String, Variable> attributesIn)
+	{
+		uniforms   = uniformsIn;
+		attributes = attributesIn;
+	}
+
+	/**
+	 * Query every active variable of programIn, on the GL thread
+	 */
+	public static ProgramLayout reflect(IGL glIn, int programIn)
+	{
+		var size       = new int[1];
+		var type       = new int[1];
+		var uniforms   = new LinkedHashMap<String, Variable>();
+		var attributes = new LinkedHashMap<String, Variable>();
+
+		var count = glIn.glGetProgrami(programIn, GL32.GL_ACTIVE_UNIFORMS);
+		for (var index = 0; index < count; index++)
+		{
+			var name = ProgramLayout.name(glIn.glGetActiveUniform(programIn, index, size, type));
+			if (!name.startsWith("gl_"))
+			{
+				// Members of uniform blocks have no location
+				uniforms.put(name, new Variable(name, glIn.glGetUniformLocation(programIn, name), type[0], size[0]));
+			}
+		}
+		count = glIn.glGetProgrami(programIn, GL32.GL_ACTIVE_ATTRIBUTES);
+		for (var index = 0; index < count; index++)
+		{
+			var name = ProgramLayout.name(glIn.glGetActiveAttrib(programIn, index, size, type));
+			if (!name.startsWith("gl_"))
+			{
+				attributes.put(name, new Variable(name, glIn.glGetAttribLocation(programIn, name), type[0], size[0]));
+			}
+		}
+
+		return new ProgramLayout(uniforms, attributes);
+	}
+
+	private static String name(String activeNameIn)
+	{
+		return activeNameIn.endsWith("[0]") ? activeNameIn.substring(0, activeNameIn.length() - 3) : activeNameIn;
+	}
+
+	/**
+	 * @return location of the uniform, -1 if the program has no such active uniform
+	 */
+	public int uniformLocation(String nameIn)
+	{
+		var uniform = uniforms.get(nameIn);
+
+		return uniform == null ? -1 : uniform.location;
+	}
+
+	/**
+	 * @return location of the vertex attribute, -1 if the program has no such active attribute
+	 */
+	public int attributeLocation(String nameIn)
+	{
+		var attribute = attributes.get(nameIn);
+
+		return attribute == null ? -1 : attribute.location;
+	}
+
+	public Variable uniform(String nameIn)
+	{
+		return uniforms.get(nameIn);
+	}
+
+	public Variable attribute(String nameIn)
+	{
+		return attributes.get(nameIn);
+	}
+
+	public Collection<Variable> uniforms()
+	{
+		return Collections.unmodifiableCollection(uniforms.values());
+	}
+
+	public Collection<Variable> attributes()
+	{
+		return Collections.unmodifiableCollection(attributes.values());
+	}
+
+	/**
+	 * Active uniform or attribute, type is the GL enum (GL_FLOAT_MAT4...) and size the number of array elements
+	 */
+	@Getter
+	public final static class Variable
+	{
+		private final String name;
+		private final int    location;
+		private final int    type;
+		private final int    size;
+
+		private Variable(String nameIn, int locationIn, int typeIn, int sizeIn)
+		{
+			name     = nameIn;
+			location = locationIn;
+			type     = typeIn;
+			size     = sizeIn;
+		}
+
+		@Override
+		public String toString()
+		{
+			return name + (size > 1 ? "[" + size + "]" : "") + " at " + location;
+		}
+	}
+}
@@ -0,0 +1,461 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.shader;
+
+import fr.onsiea.ludani.asset.AssetLoader;
+import fr.onsiea.ludani.gl.GLState;
+import fr.onsiea.ludani.gl.IGL;
+import lombok.Getter;
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.opengl.GL41;
+import org.lwjgl.opengl.KHRParallelShaderCompile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Loads shader programs without the GL thread waiting on files, and on the driver when it can. Sources are read and
+ * preprocessed on the loader threads, which also read the binary an earlier run cached for the same sources and driver.
+ * {@link #drain(int)} then creates the prepared programs on the GL thread : from the cached binary when the driver accepts
+ * it, otherwise by compiling and linking the sources, the new binary being written back by the loader threads.
+ * With parallel shader compilation the driver links on its own threads and programs become ready on a later drain.
+ * Each variant is loaded once, loading it again returns the same program.
+ * Apart from the loader threads, the pipeline must be used by the GL thread only.
+ */
+public class ShaderPipeline implements AutoCloseable
+{
+	// Characters of the logs read after a failure
+	private final static int LOG_LENGTH = 4096;
+
+	private final         GLState                           state;
+	private final         IGL                               gl;
+	private final @Getter AssetLoader                       loader;
+	private final         ShaderPreprocessor                preprocessor;
+	// Null when the driver cannot give binaries back
+	private final @Getter ProgramBinaryCache                cache;
+	// Vendor, renderer and version of the driver, hashed with the sources
+	private final @Getter String                            driver;
+	private final         boolean                           parallelCompile;
+	private final         Map<ShaderVariant, ShaderProgram> programs;
+	private final         Queue<Job>                        prepared;
+	private final         List<Job>                         linking;
+	private final         Queue<CompletableFuture<?>>       writes;
+	private @Getter       long                              compiledCount;
+	private @Getter       long                              binaryCount;
+	// Cached binaries the driver refused, compiled from the sources instead
+	private @Getter       long                              rejectedCount;
+	private @Getter       long                              failedCount;
+	// Time the GL thread spent in drain
+	private @Getter       long                              drainNanos;
+
+	/**
+	 * Always compile, without binary cache
+	 */
+	public ShaderPipeline(GLState stateIn, AssetLoader loaderIn)
+	{
+		this(stateIn, loaderIn, null);
+	}
+
+	/**
+	 * Must be created on the GL thread
+	 *
+	 * @param loaderIn reads the sources, it is not closed by {@link #close()}
+	 * @param cacheIn  binaries of earlier runs, null to always compile, unused when the driver has no binary format
+	 */
+	public ShaderPipeline(GLState stateIn, AssetLoader loaderIn, ProgramBinaryCache cacheIn)
+	{
+		state           = stateIn;
+		gl              = stateIn.gl();
+		loader          = loaderIn;
+		preprocessor    = new ShaderPreprocessor(loaderIn);
+		cache           = cacheIn != null && gl.programBinary() ? cacheIn : null;
+		driver          = gl.glGetString(GL32.GL_VENDOR) + "\n" + gl.glGetString(GL32.GL_RENDERER) + "\n" + gl.glGetString(GL32.GL_VERSION);
+		parallelCompile = gl.parallelShaderCompile();
+		programs        = new HashMap<>();
+		prepared        = new ConcurrentLinkedQueue<>();
+		linking         = new ArrayList<>();
+		writes          = new ConcurrentLinkedQueue<>();
+	}
+
+	/**
+	 * Start loading the variant unless it already was
+	 *
+	 * @return its program, ready after a later {@link #drain(int)} or {@link #await(ShaderProgram)}
+	 */
+	public ShaderProgram load(ShaderVariant variantIn)
+	{
+		var program = programs.get(variantIn);
+		if (program != null)
+		{
+			return program;
+		}
+
+		program = new ShaderProgram(variantIn);
+		programs.put(variantIn, program);
+		loader.executor().execute(new Job(program));
+
+		return program;
+	}
+
+	/**
+	 * Create at most maxProgramsIn prepared programs, then finish the links the driver completed
+	 *
+	 * @return number of programs that became ready or failed
+	 */
+	public int drain(int maxProgramsIn)
+	{
+		var start = System.nanoTime();
+		for (var started = 0; started < maxProgramsIn; started++)
+		{
+			var job = prepared.poll();
+			if (job == null)
+			{
+				break;
+			}
+			start(job);
+			linking.add(job);
+		}
+
+		var done     = 0;
+		var iterator = linking.iterator();
+		while (iterator.hasNext())
+		{
+			var job = iterator.next();
+			// Without parallel compilation the link status query below waits for the link
+			if (parallelCompile && job.programId != 0 && !job.fromBinary && gl.glGetProgrami(job.programId, KHRParallelShaderCompile.GL_COMPLETION_STATUS_KHR) == 0)
+			{
+				continue;
+			}
+			iterator.remove();
+			finish(job);
+			done++;
+		}
+		writes.removeIf(CompletableFuture::isDone);
+		drainNanos += System.nanoTime() - start;
+
+		return done;
+	}
+
+	/**
+	 * Drain until programIn is ready, for a program needed before the next frame
+	 *
+	 * @throws IllegalStateException when it could not be loaded
+	 */
+	public ShaderProgram await(ShaderProgram programIn)
+	{
+		while (!programIn.ready() && !programIn.failed())
+		{
+			if (drain(Integer.MAX_VALUE) == 0)
+			{
+				// Still read by the loader threads or linked by the driver
+				LockSupport.parkNanos(100_000L);
+			}
+		}
+		if (programIn.failed())
+		{
+			throw new IllegalStateException("Cannot load " + programIn.variant(), programIn.failure());
+		}
+
+		return programIn;
+	}
+
+	private void start(Job jobIn)
+	{
+		if (jobIn.failure != null)
+		{
+			return;
+		}
+		jobIn.programId = gl.glCreateProgram();
+		if (jobIn.programId == 0)
+		{
+			jobIn.failure = new IllegalStateException("Cannot create the program of " + jobIn.program.variant());
+
+			return;
+		}
+
+		if (jobIn.binary != null)
+		{
+			gl.glProgramBinary(jobIn.programId, jobIn.binary.format(), jobIn.binary.data());
+			if (gl.glGetProgrami(jobIn.programId, GL32.GL_LINK_STATUS) != 0)
+			{
+				jobIn.fromBinary = true;
+				binaryCount++;
+
+				return;
+			}
+
+			// Another driver version, linked from the sources and written again
+			rejectedCount++;
+			jobIn.binary = null;
+			gl.glDeleteProgram(jobIn.programId);
+			jobIn.programId = gl.glCreateProgram();
+		}
+
+		if (cache != null)
+		{
+			gl.glProgramParameteri(jobIn.programId, GL41.GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GL32.GL_TRUE);
+		}
+		// Statuses are only read once linked, reading them now would wait for each compilation
+		var index = 0;
+		jobIn.shaders = new int[jobIn.sources.size()];
+		for (var source : jobIn.sources.entrySet())
+		{
+			var shader = gl.glCreateShader(source.getKey().glType());
+			if (shader == 0)
+			{
+				jobIn.failure = new IllegalStateException("Cannot create the " + source.getKey() + " shader of " + jobIn.program.variant());
+
+				return;
+			}
+			jobIn.shaders[index++] = shader;
+			gl.glShaderSource(shader, source.getValue().text());
+			gl.glCompileShader(shader);
+			gl.glAttachShader(jobIn.programId, shader);
+		}
+		gl.glLinkProgram(jobIn.programId);
+		compiledCount++;
+	}
+
+	private void finish(Job jobIn)
+	{
+		if (jobIn.failure == null && !jobIn.fromBinary && gl.glGetProgrami(jobIn.programId, GL32.GL_LINK_STATUS) == 0)
+		{
+			jobIn.failure = new IllegalStateException(linkError(jobIn));
+		}
+		if (jobIn.shaders != null)
+		{
+			for (var shader : jobIn.shaders)
+			{
+				if (shader != 0)
+				{
+					gl.glDetachShader(jobIn.programId, shader);
+					gl.glDeleteShader(shader);
+				}
+			}
+			jobIn.shaders = null;
+		}
+
+		if (jobIn.failure != null)
+		{
+			if (jobIn.programId != 0)
+			{
+				state.deleteProgram(jobIn.programId);
+			}
+			failedCount++;
+			jobIn.program.fail(jobIn.failure);
+
+			return;
+		}
+
+		jobIn.program.ready(jobIn.programId, ProgramLayout.reflect(gl, jobIn.programId), jobIn.fromBinary);
+		if (cache != null && !jobIn.fromBinary)
+		{
+			var binary = ProgramBinary.get(gl, jobIn.programId);
+			var key    = jobIn.key;
+			writes.add(loader.submit(() ->
+			{
+				cache.write(key, binary);
+
+				return null;
+			}));
+		}
+	}
+
+	private String linkError(Job jobIn)
+	{
+		var message = new StringBuilder("Cannot link ").append(jobIn.program.variant());
+		var stages  = jobIn.sources.keySet().toArray(new ShaderStage[0]);
+		var failed  = false;
+		for (var i = 0; i < jobIn.shaders.length; i++)
+		{
+			if (gl.glGetShaderi(jobIn.shaders[i], GL32.GL_COMPILE_STATUS) == 0)
+			{
+				var source = jobIn.sources.get(stages[i]);
+				message.append("\n").append(stages[i]).append(" ").append(source.path()).append(" (source strings ").append(source.sourceStrings()).append(") : ").append(gl.glGetShaderInfoLog(jobIn.shaders[i], ShaderPipeline.LOG_LENGTH).strip());
+				failed = true;
+			}
+		}
+		if (!failed)
+		{
+			message.append(" : ").append(gl.glGetProgramInfoLog(jobIn.programId, ShaderPipeline.LOG_LENGTH).strip());
+		}
+
+		return message.toString();
+	}
+
+	/**
+	 * @return programs loaded and not ready nor failed yet
+	 */
+	public int pendingCount()
+	{
+		var count = 0;
+		for (var program : programs.values())
+		{
+			if (!program.ready() && !program.failed())
+			{
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	public int programCount()
+	{
+		return programs.size();
+	}
+
+	/**
+	 * Wait for the binaries being written then delete every program, loads in progress are dropped
+	 */
+	@Override
+	public void close()
+	{
+		for (var write : writes)
+		{
+			try
+			{
+				write.join();
+			}
+			catch (CompletionException eIn)
+			{
+				// Compiled again on the next run
+			}
+		}
+		writes.clear();
+
+		for (var job : linking)
+		{
+			discard(job);
+		}
+		linking.clear();
+		prepared.clear();
+		for (var program : programs.values())
+		{
+			if (program.ready())
+			{
+				state.deleteProgram(program.programId());
+				program.deleted();
+			}
+		}
+		programs.clear();
+	}
+
+	private void discard(Job jobIn)
+	{
+		if (jobIn.shaders != null)
+		{
+			for (var shader : jobIn.shaders)
+			{
+				if (shader != 0)
+				{
+					gl.glDeleteShader(shader);
+				}
+			}
+		}
+		if (jobIn.programId != 0)
+		{
+			gl.glDeleteProgram(jobIn.programId);
+		}
+	}
+
+	/**
+	 * @return binary cached for keyIn, null when there is none or when it cannot be read, the program is then compiled
+	 */
+	private ProgramBinary readBinary(String keyIn)
+	{
+		try
+		{
+			return cache.read(keyIn);
+		}
+		catch (IOException eIn)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Preparation on a loader thread, then creation on the GL thread
+	 */
+	private final class Job implements Runnable
+	{
+		private final ShaderProgram                  program;
+		// Written on the loader thread before the job is queued
+		private       Map<ShaderStage, ShaderSource> sources;
+		private       String                         key;
+		private       ProgramBinary                  binary;
+		private       RuntimeException               failure;
+		// GL thread only
+		private       int                            programId;
+		private       int[]                          shaders;
+		private       boolean                        fromBinary;
+
+		private Job(ShaderProgram programIn)
+		{
+			program = programIn;
+		}
+
+		@Override
+		public void run()
+		{
+			try
+			{
+				var variant = program.variant();
+				sources = new EnumMap<>(ShaderStage.class);
+				for (var stage : variant.stages().entrySet())
+				{
+					sources.put(stage.getKey(), preprocessor.process(stage.getValue(), variant.defines()));
+				}
+				if (cache != null)
+				{
+					key    = ProgramBinaryCache.key(driver, sources);
+					binary = readBinary(key);
+				}
+			}
+			catch (Exception eIn)
+			{
+				failure = new IllegalStateException("Cannot read the sources of " + program.variant(), eIn);
+			}
+			prepared.add(this);
+		}
+	}
+}
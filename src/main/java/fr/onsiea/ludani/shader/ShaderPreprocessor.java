@@ -0,0 +1,145 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.shader;
+
+import fr.onsiea.ludani.asset.AssetLoader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Expands #include "path" directives, paths being relative to the including file, and writes the defines of a variant
+ * after the #version line. A file is included once per stage, later includes of it are skipped, an include cycle is an
+ * error. #line directives keep the line numbers of each file, with the index of the file as source string number.
+ * Runs on the loader threads.
+ */
+public class ShaderPreprocessor
+{
+	private final AssetLoader loader;
+
+	public ShaderPreprocessor(AssetLoader loaderIn)
+	{
+		loader = loaderIn;
+	}
+
+	/**
+	 * @param definesIn written as "#define name value" after the #version line, or at the start without one
+	 *
+	 * @throws IllegalArgumentException on a malformed include or an include cycle
+	 */
+	public ShaderSource process(String pathIn, Map<String, String> definesIn) throws IOException
+	{
+		var text  = new StringBuilder();
+		var files = new ArrayList<String>();
+		var stack = new ArrayList<String>();
+		if (!append(pathIn, definesIn, text, files, stack))
+		{
+			// No #version line, the defines go first
+			text.insert(0, ShaderPreprocessor.defines(definesIn, new StringBuilder()).append("#line 1 0\n"));
+		}
+
+		return new ShaderSource(pathIn, text.toString(), files);
+	}
+
+	private static StringBuilder defines(Map<String, String> definesIn, StringBuilder builderIn)
+	{
+		for (var define : definesIn.entrySet())
+		{
+			builderIn.append("#define ").append(define.getKey());
+			if (!define.getValue().isEmpty())
+			{
+				builderIn.append(' ').append(define.getValue());
+			}
+			builderIn.append('\n');
+		}
+
+		return builderIn;
+	}
+
+	/**
+	 * @param definesIn defines of the variant for the main file, null for included files
+	 *
+	 * @return true if the #version line was found and the defines written after it
+	 */
+	private boolean append(String pathIn, Map<String, String> definesIn, StringBuilder textOut, List<String> filesOut, List<String> stackIn) throws IOException
+	{
+		var file    = filesOut.size();
+		var version = false;
+		filesOut.add(pathIn);
+		stackIn.add(pathIn);
+		if (definesIn == null)
+		{
+			textOut.append("#line 1 ").append(file).append('\n');
+		}
+
+		var lineNumber = 0;
+		for (var line : loader.readText(pathIn).lines().toList())
+		{
+			lineNumber++;
+			var directive = line.strip();
+			if (definesIn != null && !version && directive.startsWith("#version"))
+			{
+				version = true;
+				textOut.append(line).append('\n');
+				ShaderPreprocessor.defines(definesIn, textOut).append("#line ").append(lineNumber + 1).append(' ').append(file).append('\n');
+				continue;
+			}
+			if (!directive.startsWith("#include"))
+			{
+				textOut.append(line).append('\n');
+				continue;
+			}
+
+			var name = directive.substring("#include".length()).strip();
+			if (name.length() < 2 || !(name.startsWith("\"") && name.endsWith("\"") || name.startsWith("<") && name.endsWith(">")))
+			{
+				throw new IllegalArgumentException(pathIn + ":" + lineNumber + " malformed include : " + directive);
+			}
+			var included = AssetLoader.resolve(pathIn, name.substring(1, name.length() - 1));
+			if (stackIn.contains(included))
+			{
+				throw new IllegalArgumentException("Include cycle : " + String.join(" -> ", stackIn) + " -> " + included);
+			}
+			if (!filesOut.contains(included))
+			{
+				append(included, null, textOut, filesOut, stackIn);
+			}
+			textOut.append("#line ").append(lineNumber + 1).append(' ').append(file).append('\n');
+		}
+		stackIn.remove(stackIn.size() - 1);
+
+		return version;
+	}
+}
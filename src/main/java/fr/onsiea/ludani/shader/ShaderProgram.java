@@ -0,0 +1,98 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.shader;
+
+import lombok.Getter;
+
+/**
+ * Program of a {@link ShaderVariant} loaded by a {@link ShaderPipeline}. Keep this handle rather than its id, the id is
+ * only set once the pipeline linked the program on the GL thread, or its failure once it could not.
+ */
+public class ShaderProgram
+{
+	private final @Getter    ShaderVariant    variant;
+	private volatile @Getter int              programId;
+	private volatile @Getter ProgramLayout    layout;
+	// Loaded from the binary of an earlier run rather than compiled
+	private volatile @Getter boolean          fromBinary;
+	private volatile @Getter RuntimeException failure;
+
+	ShaderProgram(ShaderVariant variantIn)
+	{
+		variant = variantIn;
+	}
+
+	void ready(int programIdIn, ProgramLayout layoutIn, boolean fromBinaryIn)
+	{
+		layout     = layoutIn;
+		fromBinary = fromBinaryIn;
+		programId  = programIdIn;
+	}
+
+	void fail(RuntimeException failureIn)
+	{
+		failure = failureIn;
+	}
+
+	void deleted()
+	{
+		programId = 0;
+		layout    = null;
+	}
+
+	public boolean ready()
+	{
+		return programId != 0;
+	}
+
+	public boolean failed()
+	{
+		return failure != null;
+	}
+
+	/**
+	 * @return location of the uniform, -1 until the program is ready or if it has no such active uniform
+	 */
+	public int uniformLocation(String nameIn)
+	{
+		var programLayout = layout;
+
+		return programLayout == null ? -1 : programLayout.uniformLocation(nameIn);
+	}
+
+	@Override
+	public String toString()
+	{
+		return variant + (ready() ? " (program " + programId + ")" : failed() ? " (failed)" : " (loading)");
+	}
+}
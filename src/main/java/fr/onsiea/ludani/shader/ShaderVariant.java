@@ -0,0 +1,128 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.shader;
+
+import lombok.EqualsAndHashCode;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Source file of each stage and preprocessor definitions of a program, variants that differ by a define are distinct
+ * programs. Immutable, adding a stage or a define returns a new variant.
+ */
+@EqualsAndHashCode
+public class ShaderVariant
+{
+	private final static Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+	private final Map<ShaderStage, String>  stages;
+	private final SortedMap<String, String> defines;
+
+	public ShaderVariant(String vertexPathIn, String fragmentPathIn)
+	{
+		stages = new EnumMap<>(ShaderStage.class);
+		stages.put(ShaderStage.VERTEX, vertexPathIn);
+		stages.put(ShaderStage.FRAGMENT, fragmentPathIn);
+		defines = new TreeMap<>();
+	}
+
+	private ShaderVariant(Map<ShaderStage, String> stagesIn, SortedMap<String, String> definesIn)
+	{
+		stages  = stagesIn;
+		defines = definesIn;
+	}
+
+	/**
+	 * @return a copy reading the source of stageIn from pathIn
+	 */
+	public ShaderVariant stage(ShaderStage stageIn, String pathIn)
+	{
+		var copy = new EnumMap<>(stages);
+		copy.put(stageIn, pathIn);
+
+		return new ShaderVariant(copy, defines);
+	}
+
+	/**
+	 * @return a copy defining nameIn without value
+	 */
+	public ShaderVariant define(String nameIn)
+	{
+		return define(nameIn, "");
+	}
+
+	/**
+	 * @return a copy defining nameIn as valueIn after the #version line of every stage
+	 */
+	public ShaderVariant define(String nameIn, Object valueIn)
+	{
+		if (!ShaderVariant.IDENTIFIER.matcher(nameIn).matches())
+		{
+			throw new IllegalArgumentException("Define name must be an identifier : " + nameIn);
+		}
+		var value = String.valueOf(valueIn);
+		if (value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0)
+		{
+			throw new IllegalArgumentException("Define value must fit on one line : " + nameIn);
+		}
+
+		var copy = new TreeMap<>(defines);
+		copy.put(nameIn, value);
+
+		return new ShaderVariant(stages, copy);
+	}
+
+	public Map<ShaderStage, String> stages()
+	{
+		return Collections.unmodifiableMap(stages);
+	}
+
+	/**
+	 * @return defines sorted by name, so that equal variants are preprocessed to the same sources
+	 */
+	public SortedMap<String, String> defines()
+	{
+		return Collections.unmodifiableSortedMap(defines);
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.join(" + ", stages.values()) + (defines.isEmpty() ? "" : " " + defines);
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.simulation;
+
+import fr.onsiea.ludart.prototype.IPrototypeImpl;
+import lombok.Getter;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Prototype implementation running its simulation on a {@link SimulationThread} instead of the prototype thread : update
+ * does nothing and render draws the interpolated snapshots. The prototype update rate is then unused, the simulation has
+ * its own. The simulation thread starts with the first input, update or render call and stops with {@link #close()}.
+ */
+public class DecoupledPrototypeImpl<S> implements IPrototypeImpl, AutoCloseable
+{
+	private final @Getter SimulationThread<S>      simulation;
+	private final         LongConsumer             input;
+	private final         IInterpolatedRenderer<S> renderer;
+	// A closed simulation is not started again, render keeps drawing its last states
+	private               boolean                  closed;
+
+	/**
+	 * @param inputIn receives the window handle on the prototype thread, to forward the inputs to the simulation
+	 */
+	public DecoupledPrototypeImpl(ISimulation<S> simulationIn, int updateRateIn, LongConsumer inputIn, IInterpolatedRenderer<S> rendererIn)
+	{
+		simulation = new SimulationThread<>(simulationIn, updateRateIn);
+		input      = inputIn;
+		renderer   = rendererIn;
+	}
+
+	private void startSimulation()
+	{
+		if (!closed && !simulation.running())
+		{
+			simulation.start();
+		}
+	}
+
+	@Override
+	public void input(long windowHandleIn)
+	{
+		startSimulation();
+		input.accept(windowHandleIn);
+	}
+
+	@Override
+	public void update()
+	{
+		// Stepped by the simulation thread
+		startSimulation();
+	}
+
+	@Override
+	public void render()
+	{
+		startSimulation();
+		var alpha = simulation.acquire(System.nanoTime());
+		renderer.render(simulation.previous(), simulation.current(), alpha);
+	}
+
+	/**
+	 * Stop the simulation thread, to call once the prototype loop has ended
+	 */
+	@Override
+	public void close()
+	{
+		closed = true;
+		simulation.close();
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.simulation;
+
+/**
+ * Simulation stepped at a fixed rate by a {@link SimulationThread}, its states are the snapshots read by the render
+ *
+ * @param <S> state of the simulation, mutable, a few instances are created and reused
+ */
+public interface ISimulation<S>
+{
+	/**
+	 * @return the state before the first step, every call must return an equal state
+	 */
+	S newState();
+
+	/**
+	 * Compute the state following previousIn in nextOut, which holds an older state. For the simulation to be deterministic
+	 * nextOut must only depend on previousIn and tickIn. previousIn may be read by the render at the same time and must not
+	 * be modified.
+	 *
+	 * @param tickIn number of the computed step, the first one is 1
+	 */
+	void step(S previousIn, S nextOut, long tickIn, float stepSecondsIn);
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.simulation;
+
+import lombok.Getter;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Steps an {@link ISimulation} at a fixed rate on its own thread, so that simulation and render overlap and a slow step does
+ * not delay the frames. Each step is published through a {@link SnapshotBuffer}, the render thread calls
+ * {@link #acquire(long)} then draws between {@link #previous()} and {@link #current()}.
+ * The render shows the simulation one step in the past, so that the state it interpolates toward is usually published.
+ * Late steps are caught up back to back, beyond {@link SimulationThread#MAX_CATCH_UP_STEPS} the schedule is moved instead,
+ * the states only depend on the tick so the simulation stays deterministic.
+ */
+public class SimulationThread<S> implements AutoCloseable
+{
+	public final static int MAX_CATCH_UP_STEPS = 5;
+
+	private final            ISimulation<S>    simulation;
+	private final @Getter    SnapshotBuffer<S> snapshots;
+	private final @Getter    long              stepNanos;
+	private final            float             stepSeconds;
+	private final            Thread            thread;
+	private volatile         boolean           running;
+	// Time of tick 0, moved forward when steps are dropped
+	private volatile         long              origin;
+	private volatile @Getter long              tick;
+	// Steps computed after their scheduled time and steps skipped to catch up
+	private volatile @Getter long              lateSteps;
+	private volatile @Getter long              droppedSteps;
+
+	/**
+	 * @param updateRateIn steps per second
+	 */
+	public SimulationThread(ISimulation<S> simulationIn, int updateRateIn)
+	{
+		if (updateRateIn <= 0)
+		{
+			throw new IllegalArgumentException("Update rate must be positive : " + updateRateIn);
+		}
+
+		simulation  = simulationIn;
+		snapshots   = new SnapshotBuffer<>(simulationIn::newState);
+		stepNanos   = 1_000_000_000L / updateRateIn;
+		stepSeconds = 1.0f / updateRateIn;
+		thread      = new Thread(this::run, "Simulation");
+		thread.setDaemon(true);
+	}
+
+	public SimulationThread<S> start()
+	{
+		if (thread.getState() != Thread.State.NEW)
+		{
+			throw new IllegalStateException("Simulation thread already started");
+		}
+
+		origin  = System.nanoTime() - tick * stepNanos;
+		running = true;
+		thread.start();
+
+		return this;
+	}
+
+	public boolean running()
+	{
+		return running;
+	}
+
+	/**
+	 * Compute and publish the next state on the calling thread, only when the thread is not running
+	 */
+	public SimulationThread<S> step()
+	{
+		if (running)
+		{
+			throw new IllegalStateException("Cannot step while the simulation thread runs");
+		}
+
+		next();
+
+		return this;
+	}
+
+	private void next()
+	{
+		var next = tick + 1;
+		simulation.step(snapshots.latest(), snapshots.back(), next, stepSeconds);
+		snapshots.publish(next);
+		tick = next;
+	}
+
+	private void run()
+	{
+		while (running)
+		{
+			var scheduled = origin + (tick + 1) * stepNanos;
+			var now       = System.nanoTime();
+			if (now < scheduled)
+			{
+				LockSupport.parkNanos(scheduled - now);
+				continue;
+			}
+
+			if (now - scheduled > SimulationThread.MAX_CATCH_UP_STEPS * stepNanos)
+			{
+				var dropped = (now - scheduled) / stepNanos;
+				droppedSteps += dropped;
+				origin += dropped * stepNanos;
+			}
+			else if (now - scheduled > stepNanos)
+			{
+				lateSteps++;
+			}
+			next();
+		}
+	}
+
+	/**
+	 * Take the last published state and place nowNanosIn between the previous and current states, render thread only
+	 *
+	 * @param nowNanosIn {@link System#nanoTime()} of the frame
+	 * @return interpolation factor from {@link #previous()} (0) to {@link #current()} (1)
+	 */
+	public float acquire(long nowNanosIn)
+	{
+		snapshots.acquire();
+
+		var previousTick = snapshots.previousTick();
+		var currentTick  = snapshots.currentTick();
+		if (currentTick == previousTick)
+		{
+			return 1.0f;
+		}
+		var renderTime   = nowNanosIn - stepNanos;
+		var previousTime = origin + previousTick * stepNanos;
+		var alpha        = (double) (renderTime - previousTime) / ((currentTick - previousTick) * stepNanos);
+
+		return (float) Math.min(Math.max(alpha, 0.0D), 1.0D);
+	}
+
+	public S previous()
+	{
+		return snapshots.previous();
+	}
+
+	public S current()
+	{
+		return snapshots.current();
+	}
+
+	/**
+	 * Stop the thread after its current step, the last state stays readable through {@link SnapshotBuffer#latest()}
+	 */
+	@Override
+	public void close()
+	{
+		running = false;
+		LockSupport.unpark(thread);
+		try
+		{
+			thread.join();
+		}
+		catch (InterruptedException eIn)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
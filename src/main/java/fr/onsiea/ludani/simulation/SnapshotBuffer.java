@@ -0,0 +1,161 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.simulation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Lock free exchange of states between one writer and one reader. The writer fills its back state then publishes it, the
+ * reader keeps the last two states it acquired to interpolate between them. Four states rotate : the back one, the
+ * published one waiting in the middle and the two of the reader, a state is never written while the reader holds it.
+ * Publishing and acquiring are a single atomic swap of the middle index.
+ */
+public class SnapshotBuffer<S>
+{
+	private final static int INDEX = 0b011;
+	// Set when the middle state was published and not acquired yet
+	private final static int FRESH = 0b100;
+
+	private final Object[]      states;
+	private final long[]        ticks;
+	private final AtomicInteger middle;
+	// Writer side
+	private       int           back;
+	private       int           latest;
+	// Reader side
+	private       int           current;
+	private       int           previous;
+
+	/**
+	 * @param factoryIn returns the initial state, called once per slot
+	 */
+	public SnapshotBuffer(Supplier<S> factoryIn)
+	{
+		states = new Object[4];
+		ticks  = new long[4];
+		for (var index = 0; index < states.length; index++)
+		{
+			states[index] = factoryIn.get();
+		}
+
+		back     = 0;
+		latest   = 1;
+		current  = 1;
+		previous = 2;
+		middle   = new AtomicInteger(3);
+	}
+
+	@SuppressWarnings("unchecked")
+	private S state(int indexIn)
+	{
+		return (S) states[indexIn];
+	}
+
+	/**
+	 * @return state to fill before {@link #publish(long)}, writer only
+	 */
+	public S back()
+	{
+		return state(back);
+	}
+
+	/**
+	 * @return last published state, the writer may read it but not modify it
+	 */
+	public S latest()
+	{
+		return state(latest);
+	}
+
+	public long latestTick()
+	{
+		return ticks[latest];
+	}
+
+	/**
+	 * Make the back state the one the reader acquires next, the previous unread one is reused as back state
+	 */
+	public void publish(long tickIn)
+	{
+		ticks[back] = tickIn;
+		var published = back;
+		back   = middle.getAndSet(published | SnapshotBuffer.FRESH) & SnapshotBuffer.INDEX;
+		latest = published;
+	}
+
+	/**
+	 * Take the last published state if the reader does not have it yet, the current state then becomes the previous one
+	 *
+	 * @return false when nothing was published since the last acquire
+	 */
+	public boolean acquire()
+	{
+		if ((middle.get() & SnapshotBuffer.FRESH) == 0)
+		{
+			return false;
+		}
+
+		var fresh = middle.getAndSet(previous);
+		previous = current;
+		current  = fresh & SnapshotBuffer.INDEX;
+
+		return true;
+	}
+
+	/**
+	 * @return last acquired state, reader only
+	 */
+	public S current()
+	{
+		return state(current);
+	}
+
+	public long currentTick()
+	{
+		return ticks[current];
+	}
+
+	/**
+	 * @return state acquired before the current one, reader only
+	 */
+	public S previous()
+	{
+		return state(previous);
+	}
+
+	public long previousTick()
+	{
+		return ticks[previous];
+	}
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain;
+
+import lombok.Getter;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Fixed size cubic voxel chunk. Each (x, z) column is stored as a 32 bits mask, bit y set when the voxel is solid.
+ * An occupancy bitmap of CELL_SIZE^3 voxel cells is kept up to date with the columns, one long per cell x slab, bit
+ * cellZ * CELLS + cellY set when the cell holds a solid voxel, so that queries skip empty space a cell at a time.
+ */
+@Getter
+public class VoxelChunk
+{
+	public final static int SIZE_SHIFT = 5;
+	public final static int SIZE       = 1 << VoxelChunk.SIZE_SHIFT;
+	public final static int SIZE_MASK  = VoxelChunk.SIZE - 1;
+	public final static int CELL_SHIFT = 2;
+	public final static int CELL_SIZE  = 1 << VoxelChunk.CELL_SHIFT;
+	public final static int CELLS      = VoxelChunk.SIZE / VoxelChunk.CELL_SIZE;
+
+	private final int    x;
+	private final int    y;
+	private final int    z;
+	private final int[]  columns;
+	private final long[] cells;
+	private       int    solidCount;
+
+	public VoxelChunk(int xIn, int yIn, int zIn)
+	{
+		x       = xIn;
+		y       = yIn;
+		z       = zIn;
+		columns = new int[VoxelChunk.SIZE * VoxelChunk.SIZE];
+		cells   = new long[VoxelChunk.CELLS];
+	}
+
+	public static int columnIndex(int xIn, int zIn)
+	{
+		return xIn * VoxelChunk.SIZE + zIn;
+	}
+
+	public boolean solid(int xIn, int yIn, int zIn)
+	{
+		return (columns[VoxelChunk.columnIndex(xIn, zIn)] >>> yIn & 1) != 0;
+	}
+
+	public int column(int xIn, int zIn)
+	{
+		return columns[VoxelChunk.columnIndex(xIn, zIn)];
+	}
+
+	/**
+	 * @return true if the cell (chunk local cell coordinates) holds a solid voxel
+	 */
+	public boolean occupied(int cellXIn, int cellYIn, int cellZIn)
+	{
+		return (cells[cellXIn] >>> (cellZIn * VoxelChunk.CELLS + cellYIn) & 1L) != 0L;
+	}
+
+	public VoxelChunk solid(int xIn, int yIn, int zIn, boolean solidIn)
+	{
+		return column(xIn, zIn, solidIn ? column(xIn, zIn) | 1 << yIn : column(xIn, zIn) & ~(1 << yIn));
+	}
+
+	public VoxelChunk column(int xIn, int zIn, int maskIn)
+	{
+		var index = VoxelChunk.columnIndex(xIn, zIn);
+		if (columns[index] == maskIn)
+		{
+			return this;
+		}
+		solidCount += Integer.bitCount(maskIn) - Integer.bitCount(columns[index]);
+		columns[index] = maskIn;
+		updateCells(xIn >> VoxelChunk.CELL_SHIFT, zIn >> VoxelChunk.CELL_SHIFT);
+
+		return this;
+	}
+
+	/**
+	 * Occupancy of the cells above CELL_SIZE x CELL_SIZE columns
+	 */
+	private void updateCells(int cellXIn, int cellZIn)
+	{
+		var columnsMask = 0;
+		for (var x = cellXIn << VoxelChunk.CELL_SHIFT; x < cellXIn + 1 << VoxelChunk.CELL_SHIFT; x++)
+		{
+			for (var z = cellZIn << VoxelChunk.CELL_SHIFT; z < cellZIn + 1 << VoxelChunk.CELL_SHIFT; z++)
+			{
+				columnsMask |= columns[VoxelChunk.columnIndex(x, z)];
+			}
+		}
+
+		var occupied = 0L;
+		for (var cellY = 0; cellY < VoxelChunk.CELLS; cellY++)
+		{
+			if ((columnsMask >>> (cellY << VoxelChunk.CELL_SHIFT) & (1 << VoxelChunk.CELL_SIZE) - 1) != 0)
+			{
+				occupied |= 1L << cellY;
+			}
+		}
+		var shift = cellZIn * VoxelChunk.CELLS;
+		cells[cellXIn] = cells[cellXIn] & ~(0xFFL << shift) | occupied << shift;
+	}
+
+	/**
+	 * @param fromYIn first solid voxel (inclusive, chunk local)
+	 * @param toYIn   last solid voxel (exclusive, chunk local)
+	 */
+	public VoxelChunk fillColumn(int xIn, int zIn, int fromYIn, int toYIn)
+	{
+		if (fromYIn >= toYIn)
+		{
+			return this;
+		}
+
+		var mask = (int) ((1L << toYIn) - (1L << fromYIn));
+
+		return column(xIn, zIn, column(xIn, zIn) | mask);
+	}
+
+	/**
+	 * Replace every column by the masks read from columnsIn, in {@link VoxelChunk#columnIndex(int, int)} order
+	 */
+	public VoxelChunk columns(IntBuffer columnsIn)
+	{
+		columnsIn.get(columns);
+		solidCount = 0;
+		for (var column : columns)
+		{
+			solidCount += Integer.bitCount(column);
+		}
+		for (var cellX = 0; cellX < VoxelChunk.CELLS; cellX++)
+		{
+			for (var cellZ = 0; cellZ < VoxelChunk.CELLS; cellZ++)
+			{
+				updateCells(cellX, cellZ);
+			}
+		}
+
+		return this;
+	}
+
+	public VoxelChunk fill()
+	{
+		Arrays.fill(columns, -1);
+		Arrays.fill(cells, -1L);
+		solidCount = VoxelChunk.SIZE * VoxelChunk.SIZE * VoxelChunk.SIZE;
+
+		return this;
+	}
+
+	public boolean isEmpty()
+	{
+		return solidCount == 0;
+	}
+
+	public boolean isFull()
+	{
+		return solidCount == VoxelChunk.SIZE * VoxelChunk.SIZE * VoxelChunk.SIZE;
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sparse set of voxel chunks addressed by chunk coordinates, missing chunks are considered empty.
+ * The chunk bounds cover every chunk added since the creation, they never shrink when chunks are removed.
+ */
+public class VoxelWorld
+{
+	private final   Map<Long, VoxelChunk> chunks;
+	// Inclusive chunk coordinates, min above max while no chunk was added
+	private @Getter int                   minChunkX;
+	private @Getter int                   minChunkY;
+	private @Getter int                   minChunkZ;
+	private @Getter int                   maxChunkX;
+	private @Getter int                   maxChunkY;
+	private @Getter int                   maxChunkZ;
+
+	public VoxelWorld()
+	{
+		chunks    = new HashMap<>();
+		minChunkX = Integer.MAX_VALUE;
+		minChunkY = Integer.MAX_VALUE;
+		minChunkZ = Integer.MAX_VALUE;
+		maxChunkX = Integer.MIN_VALUE;
+		maxChunkY = Integer.MIN_VALUE;
+		maxChunkZ = Integer.MIN_VALUE;
+	}
+
+	public static long key(int xIn, int yIn, int zIn)
+	{
+		return ((long) xIn & 0x1FFFFFL) << 42 | ((long) yIn & 0x1FFFFFL) << 21 | (long) zIn & 0x1FFFFFL;
+	}
+
+	public static int chunkCoordinate(int voxelCoordinateIn)
+	{
+		return voxelCoordinateIn >> VoxelChunk.SIZE_SHIFT;
+	}
+
+	public static int localCoordinate(int voxelCoordinateIn)
+	{
+		return voxelCoordinateIn & VoxelChunk.SIZE_MASK;
+	}
+
+	public VoxelChunk chunk(int xIn, int yIn, int zIn)
+	{
+		return chunks.get(VoxelWorld.key(xIn, yIn, zIn));
+	}
+
+	public VoxelChunk chunkOrCreate(int xIn, int yIn, int zIn)
+	{
+		return chunks.computeIfAbsent(VoxelWorld.key(xIn, yIn, zIn), keyIn ->
+		{
+			include(xIn, yIn, zIn);
+
+			return new VoxelChunk(xIn, yIn, zIn);
+		});
+	}
+
+	public VoxelWorld add(VoxelChunk chunkIn)
+	{
+		chunks.put(VoxelWorld.key(chunkIn.x(), chunkIn.y(), chunkIn.z()), chunkIn);
+		include(chunkIn.x(), chunkIn.y(), chunkIn.z());
+
+		return this;
+	}
+
+	private void include(int xIn, int yIn, int zIn)
+	{
+		minChunkX = Math.min(minChunkX, xIn);
+		minChunkY = Math.min(minChunkY, yIn);
+		minChunkZ = Math.min(minChunkZ, zIn);
+		maxChunkX = Math.max(maxChunkX, xIn);
+		maxChunkY = Math.max(maxChunkY, yIn);
+		maxChunkZ = Math.max(maxChunkZ, zIn);
+	}
+
+	public VoxelChunk remove(int xIn, int yIn, int zIn)
+	{
+		return chunks.remove(VoxelWorld.key(xIn, yIn, zIn));
+	}
+
+	public Collection<VoxelChunk> chunks()
+	{
+		return chunks.values();
+	}
+
+	public boolean solid(int xIn, int yIn, int zIn)
+	{
+		var chunk = chunk(VoxelWorld.chunkCoordinate(xIn), VoxelWorld.chunkCoordinate(yIn), VoxelWorld.chunkCoordinate(zIn));
+
+		return chunk != null && chunk.solid(VoxelWorld.localCoordinate(xIn), VoxelWorld.localCoordinate(yIn), VoxelWorld.localCoordinate(zIn));
+	}
+
+	public VoxelWorld solid(int xIn, int yIn, int zIn, boolean solidIn)
+	{
+		var chunkX = VoxelWorld.chunkCoordinate(xIn);
+		var chunkY = VoxelWorld.chunkCoordinate(yIn);
+		var chunkZ = VoxelWorld.chunkCoordinate(zIn);
+		var chunk  = solidIn ? chunkOrCreate(chunkX, chunkY, chunkZ) : chunk(chunkX, chunkY, chunkZ);
+		if (chunk != null)
+		{
+			chunk.solid(VoxelWorld.localCoordinate(xIn), VoxelWorld.localCoordinate(yIn), VoxelWorld.localCoordinate(zIn), solidIn);
+		}
+
+		return this;
+	}
+
+	/**
+	 * Fill world voxels column from fromYIn (inclusive) to toYIn (exclusive), across as many chunks as needed.
+	 */
+	public VoxelWorld fillColumn(int xIn, int zIn, int fromYIn, int toYIn)
+	{
+		var chunkX = VoxelWorld.chunkCoordinate(xIn);
+		var chunkZ = VoxelWorld.chunkCoordinate(zIn);
+		var localX = VoxelWorld.localCoordinate(xIn);
+		var localZ = VoxelWorld.localCoordinate(zIn);
+
+		var y = fromYIn;
+		while (y < toYIn)
+		{
+			var chunkY  = VoxelWorld.chunkCoordinate(y);
+			var chunkTo = Math.min(toYIn, (chunkY + 1) * VoxelChunk.SIZE);
+			chunkOrCreate(chunkX, chunkY, chunkZ).fillColumn(localX, localZ, y - chunkY * VoxelChunk.SIZE, chunkTo - chunkY * VoxelChunk.SIZE);
+			y = chunkTo;
+		}
+
+		return this;
+	}
+
+	public int size()
+	{
+		return chunks.size();
+	}
+}
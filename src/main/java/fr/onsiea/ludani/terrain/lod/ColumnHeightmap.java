@@ -0,0 +1,162 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain.lod;
+
+import fr.onsiea.ludani.terrain.VoxelChunk;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Highest and lowest solid voxel of each cell of a chunk column, cells are cellSize x cellSize voxel columns.
+ * Holes and overhangs between both are ignored, which is what distant terrain needs.
+ */
+@Getter
+public class ColumnHeightmap
+{
+	public final static int EMPTY = Integer.MIN_VALUE;
+
+	private final int   size;
+	private final int   cellSize;
+	// Exclusive top and inclusive bottom in world voxels, tops are EMPTY for cells without any solid voxel
+	private final int[] tops;
+	private final int[] bottoms;
+	private       int   minBottom;
+	private       int   maxTop;
+
+	private ColumnHeightmap(int cellSizeIn)
+	{
+		cellSize  = cellSizeIn;
+		size      = VoxelChunk.SIZE / cellSizeIn;
+		tops      = new int[size * size];
+		bottoms   = new int[size * size];
+		minBottom = Integer.MAX_VALUE;
+		maxTop    = ColumnHeightmap.EMPTY;
+		Arrays.fill(tops, ColumnHeightmap.EMPTY);
+	}
+
+	/**
+	 * @param chunksIn chunks of one column, in any order
+	 */
+	public static ColumnHeightmap of(List<VoxelChunk> chunksIn)
+	{
+		var heightmap = new ColumnHeightmap(1);
+		for (var chunk : chunksIn)
+		{
+			var chunkY = chunk.y() * VoxelChunk.SIZE;
+			for (var index = 0; index < heightmap.tops.length; index++)
+			{
+				var column = chunk.columns()[index];
+				if (column != 0)
+				{
+					heightmap.include(index, chunkY + Integer.numberOfTrailingZeros(column), chunkY + VoxelChunk.SIZE - Integer.numberOfLeadingZeros(column));
+				}
+			}
+		}
+
+		return heightmap;
+	}
+
+	private void include(int indexIn, int bottomIn, int topIn)
+	{
+		if (tops[indexIn] == ColumnHeightmap.EMPTY)
+		{
+			tops[indexIn]    = topIn;
+			bottoms[indexIn] = bottomIn;
+		}
+		else
+		{
+			tops[indexIn]    = Math.max(tops[indexIn], topIn);
+			bottoms[indexIn] = Math.min(bottoms[indexIn], bottomIn);
+		}
+		minBottom = Math.min(minBottom, bottomIn);
+		maxTop    = Math.max(maxTop, topIn);
+	}
+
+	/**
+	 * Conservative downsampling, each cell of 2^lodIn x 2^lodIn columns keeps the highest top and lowest bottom so the coarse
+	 * terrain always contains the fine one
+	 */
+	public ColumnHeightmap downsample(int lodIn)
+	{
+		if (cellSize != 1)
+		{
+			throw new IllegalStateException("Only full resolution heightmaps can be downsampled");
+		}
+		if (lodIn < 0 || lodIn > VoxelChunk.SIZE_SHIFT)
+		{
+			throw new IllegalArgumentException("LOD must be in [0, " + VoxelChunk.SIZE_SHIFT + "] : " + lodIn);
+		}
+
+		var heightmap = new ColumnHeightmap(1 << lodIn);
+		for (var x = 0; x < size; x++)
+		{
+			for (var z = 0; z < size; z++)
+			{
+				var index = x * size + z;
+				if (tops[index] != ColumnHeightmap.EMPTY)
+				{
+					heightmap.include(heightmap.index(x >> lodIn, z >> lodIn), bottoms[index], tops[index]);
+				}
+			}
+		}
+
+		return heightmap;
+	}
+
+	public int index(int cellXIn, int cellZIn)
+	{
+		return cellXIn * size + cellZIn;
+	}
+
+	public boolean isEmpty(int cellXIn, int cellZIn)
+	{
+		return tops[index(cellXIn, cellZIn)] == ColumnHeightmap.EMPTY;
+	}
+
+	public boolean isEmpty()
+	{
+		return maxTop == ColumnHeightmap.EMPTY;
+	}
+
+	public int top(int cellXIn, int cellZIn)
+	{
+		return tops[index(cellXIn, cellZIn)];
+	}
+
+	public int bottom(int cellXIn, int cellZIn)
+	{
+		return bottoms[index(cellXIn, cellZIn)];
+	}
+}
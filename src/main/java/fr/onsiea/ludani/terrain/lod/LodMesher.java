@@ -0,0 +1,202 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain.lod;
+
+import fr.onsiea.ludani.terrain.VoxelChunk;
+import fr.onsiea.ludani.terrain.meshing.Face;
+import fr.onsiea.ludani.terrain.meshing.IQuadSink;
+
+/**
+ * Mesh a downsampled {@link ColumnHeightmap} as boxes, one per cell going from its bottom to its top.
+ * Sides facing another cell only cover the height difference. Sides on the column border always go from bottom to top: these
+ * skirts close the column whatever the level of detail of its neighbours, so no crack can show between them.
+ * Quads follow the {@link IQuadSink} contract, tops and bottoms of same height are merged along z.
+ */
+public class LodMesher
+{
+	private final static int[]  DIRECTIONS_X = {-1, 1, 0, 0};
+	private final static int[]  DIRECTIONS_Z = {0, 0, -1, 1};
+	private final static Face[] WALLS        = {Face.NEGATIVE_X, Face.POSITIVE_X, Face.NEGATIVE_Z, Face.POSITIVE_Z};
+
+	private final int[] position;
+
+	public LodMesher()
+	{
+		position = new int[3];
+	}
+
+	/**
+	 * @return number of quads sent to sinkIn
+	 */
+	public int mesh(ColumnHeightmap heightmapIn, int columnXIn, int columnZIn, IQuadSink sinkIn)
+	{
+		var size     = heightmapIn.size();
+		var cellSize = heightmapIn.cellSize();
+		var originX  = columnXIn * VoxelChunk.SIZE;
+		var originZ  = columnZIn * VoxelChunk.SIZE;
+		var quads    = 0;
+
+		for (var cellX = 0; cellX < size; cellX++)
+		{
+			var x0 = originX + cellX * cellSize;
+			quads += horizontalRuns(heightmapIn, cellX, x0, originZ, true, sinkIn);
+			quads += horizontalRuns(heightmapIn, cellX, x0, originZ, false, sinkIn);
+
+			for (var cellZ = 0; cellZ < size; cellZ++)
+			{
+				if (heightmapIn.isEmpty(cellX, cellZ))
+				{
+					continue;
+				}
+
+				var top    = heightmapIn.top(cellX, cellZ);
+				var bottom = heightmapIn.bottom(cellX, cellZ);
+				var z0     = originZ + cellZ * cellSize;
+				for (var direction = 0; direction < LodMesher.WALLS.length; direction++)
+				{
+					var neighbourX = cellX + LodMesher.DIRECTIONS_X[direction];
+					var neighbourZ = cellZ + LodMesher.DIRECTIONS_Z[direction];
+					if (neighbourX < 0 || neighbourZ < 0 || neighbourX >= size || neighbourZ >= size || heightmapIn.isEmpty(neighbourX, neighbourZ))
+					{
+						quads += wall(LodMesher.WALLS[direction], x0, z0, cellSize, bottom, top, sinkIn);
+						continue;
+					}
+
+					var neighbourTop    = heightmapIn.top(neighbourX, neighbourZ);
+					var neighbourBottom = heightmapIn.bottom(neighbourX, neighbourZ);
+					if (top > neighbourTop)
+					{
+						quads += wall(LodMesher.WALLS[direction], x0, z0, cellSize, Math.max(bottom, neighbourTop), top, sinkIn);
+					}
+					if (bottom < neighbourBottom)
+					{
+						quads += wall(LodMesher.WALLS[direction], x0, z0, cellSize, bottom, Math.min(top, neighbourBottom), sinkIn);
+					}
+				}
+			}
+		}
+
+		return quads;
+	}
+
+	private int horizontalRuns(ColumnHeightmap heightmapIn, int cellXIn, int x0In, int originZIn, boolean topIn, IQuadSink sinkIn)
+	{
+		var size     = heightmapIn.size();
+		var cellSize = heightmapIn.cellSize();
+		var quads    = 0;
+		var cellZ    = 0;
+		while (cellZ < size)
+		{
+			if (heightmapIn.isEmpty(cellXIn, cellZ))
+			{
+				cellZ++;
+				continue;
+			}
+
+			var height = topIn ? heightmapIn.top(cellXIn, cellZ) : heightmapIn.bottom(cellXIn, cellZ);
+			var length = 1;
+			while (cellZ + length < size && !heightmapIn.isEmpty(cellXIn, cellZ + length)
+			       && (topIn ? heightmapIn.top(cellXIn, cellZ + length) : heightmapIn.bottom(cellXIn, cellZ + length)) == height)
+			{
+				length++;
+			}
+
+			// Y faces : u along z, v along x
+			var z0 = originZIn + cellZ * cellSize;
+			emit(topIn ? Face.POSITIVE_Y : Face.NEGATIVE_Y, height, z0, x0In, z0 + length * cellSize, x0In + cellSize, sinkIn);
+			quads++;
+			cellZ += length;
+		}
+
+		return quads;
+	}
+
+	private int wall(Face faceIn, int x0In, int z0In, int cellSizeIn, int fromYIn, int toYIn, IQuadSink sinkIn)
+	{
+		if (fromYIn >= toYIn)
+		{
+			return 0;
+		}
+
+		switch (faceIn)
+		{
+			// X faces : u along y, v along z
+			case NEGATIVE_X -> emit(faceIn, x0In, fromYIn, z0In, toYIn, z0In + cellSizeIn, sinkIn);
+			case POSITIVE_X -> emit(faceIn, x0In + cellSizeIn, fromYIn, z0In, toYIn, z0In + cellSizeIn, sinkIn);
+			// Z faces : u along x, v along y
+			case NEGATIVE_Z -> emit(faceIn, z0In, x0In, fromYIn, x0In + cellSizeIn, toYIn, sinkIn);
+			default -> emit(faceIn, z0In + cellSizeIn, x0In, fromYIn, x0In + cellSizeIn, toYIn, sinkIn);
+		}
+
+		return 1;
+	}
+
+	/**
+	 * Same axis convention as the greedy mesher, u and v follow the face axis cyclically so (u, v) is counter-clockwise seen
+	 * from the positive side
+	 */
+	private void emit(Face faceIn, int planeIn, int u0In, int v0In, int u1In, int v1In, IQuadSink sinkIn)
+	{
+		var axis  = faceIn.axis();
+		var uAxis = (axis + 1) % 3;
+		var vAxis = (axis + 2) % 3;
+
+		position[axis]  = planeIn;
+		position[uAxis] = u0In;
+		position[vAxis] = v0In;
+		var x0 = position[0];
+		var y0 = position[1];
+		var z0 = position[2];
+		position[uAxis] = u1In;
+		var x1 = position[0];
+		var y1 = position[1];
+		var z1 = position[2];
+		position[vAxis] = v1In;
+		var x2 = position[0];
+		var y2 = position[1];
+		var z2 = position[2];
+		position[uAxis] = u0In;
+		var x3 = position[0];
+		var y3 = position[1];
+		var z3 = position[2];
+
+		if (faceIn.direction() > 0)
+		{
+			sinkIn.quad(faceIn.ordinal(), x0, y0, z0, x1, y1, z1, x2, y2, z2, x3, y3, z3);
+		}
+		else
+		{
+			sinkIn.quad(faceIn.ordinal(), x0, y0, z0, x3, y3, z3, x2, y2, z2, x1, y1, z1);
+		}
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain.lod;
+
+import lombok.Getter;
+
+/**
+ * Level of detail from a distance. Level n + 1 starts at distances[n]; a level only changes once the distance goes past the
+ * threshold by more than the hysteresis fraction, so a camera moving around a threshold does not switch meshes every frame.
+ */
+public class LodSelector
+{
+	private final         float[] distances;
+	private final @Getter float   hysteresis;
+
+	/**
+	 * @param distancesIn  ascending distances where each coarser level starts, one less than the number of levels
+	 * @param hysteresisIn fraction of the threshold, in [0, 1[
+	 */
+	public LodSelector(float hysteresisIn, float... distancesIn)
+	{
+		if (hysteresisIn < 0 || hysteresisIn >= 1)
+		{
+			throw new IllegalArgumentException("Hysteresis must be in [0, 1[ : " + hysteresisIn);
+		}
+		for (var i = 1; i < distancesIn.length; i++)
+		{
+			if (distancesIn[i] <= distancesIn[i - 1])
+			{
+				throw new IllegalArgumentException("Distances must be ascending : " + distancesIn[i - 1] + " then " + distancesIn[i]);
+			}
+		}
+
+		distances  = distancesIn.clone();
+		hysteresis = hysteresisIn;
+	}
+
+	public int lodCount()
+	{
+		return distances.length + 1;
+	}
+
+	/**
+	 * @return level for an object without any previous level
+	 */
+	public int select(float distanceIn)
+	{
+		var lod = 0;
+		while (lod < distances.length && distanceIn > distances[lod])
+		{
+			lod++;
+		}
+
+		return lod;
+	}
+
+	public int select(int currentLodIn, float distanceIn)
+	{
+		var lod = currentLodIn;
+		while (lod < distances.length && distanceIn > distances[lod] * (1 + hysteresis))
+		{
+			lod++;
+		}
+		while (lod > 0 && distanceIn < distances[lod - 1] * (1 - hysteresis))
+		{
+			lod--;
+		}
+
+		return lod;
+	}
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain.lod;
+
+import fr.onsiea.ludani.terrain.VoxelChunk;
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Current level of detail of every chunk column, picked from the horizontal distance between the camera and the column center.
+ * Also keeps the number of triangles drawn at each level.
+ */
+public class TerrainLod
+{
+	private final @Getter LodSelector       selector;
+	private final         Map<Long, Column> columns;
+	private final         long[]            triangleCounts;
+	private final         int[]             columnCounts;
+
+	public TerrainLod(LodSelector selectorIn)
+	{
+		selector       = selectorIn;
+		columns        = new HashMap<>();
+		triangleCounts = new long[selectorIn.lodCount()];
+		columnCounts   = new int[selectorIn.lodCount()];
+	}
+
+	private static float distance(int columnXIn, int columnZIn, float voxelXIn, float voxelZIn)
+	{
+		var dx = (columnXIn + 0.5f) * VoxelChunk.SIZE - voxelXIn;
+		var dz = (columnZIn + 0.5f) * VoxelChunk.SIZE - voxelZIn;
+
+		return (float) Math.sqrt(dx * dx + dz * dz);
+	}
+
+	/**
+	 * @param trianglesIn triangle count of the column meshes at each level
+	 * @return level chosen for the column
+	 */
+	public int add(long keyIn, int columnXIn, int columnZIn, int[] trianglesIn, float voxelXIn, float voxelZIn)
+	{
+		if (trianglesIn.length != triangleCounts.length)
+		{
+			throw new IllegalArgumentException("Expected " + triangleCounts.length + " triangle counts, got " + trianglesIn.length);
+		}
+
+		remove(keyIn);
+		var column = new Column(columnXIn, columnZIn, trianglesIn.clone(), selector.select(TerrainLod.distance(columnXIn, columnZIn, voxelXIn, voxelZIn)));
+		columns.put(keyIn, column);
+		count(column, 1);
+
+		return column.lod;
+	}
+
+	public boolean remove(long keyIn)
+	{
+		var column = columns.remove(keyIn);
+		if (column == null)
+		{
+			return false;
+		}
+		count(column, -1);
+
+		return true;
+	}
+
+	private void count(Column columnIn, int signIn)
+	{
+		triangleCounts[columnIn.lod] += signIn * columnIn.triangles[columnIn.lod];
+		columnCounts[columnIn.lod] += signIn;
+	}
+
+	/**
+	 * Move every column to the level matching its distance, listenerIn is told about each change
+	 *
+	 * @return number of columns whose level changed
+	 */
+	public int update(float voxelXIn, float voxelZIn, ILodListener listenerIn)
+	{
+		var changed = 0;
+		for (var entry : columns.entrySet())
+		{
+			var column = entry.getValue();
+			var lod    = selector.select(column.lod, TerrainLod.distance(column.x, column.z, voxelXIn, voxelZIn));
+			if (lod == column.lod)
+			{
+				continue;
+			}
+
+			var previous = column.lod;
+			count(column, -1);
+			column.lod = lod;
+			count(column, 1);
+			changed++;
+			listenerIn.lod(entry.getKey(), previous, lod);
+		}
+
+		return changed;
+	}
+
+	/**
+	 * @return level of the column, -1 when unknown
+	 */
+	public int lod(long keyIn)
+	{
+		var column = columns.get(keyIn);
+
+		return column != null ? column.lod : -1;
+	}
+
+	/**
+	 * @return triangles of the columns currently at lodIn
+	 */
+	public long triangleCount(int lodIn)
+	{
+		return triangleCounts[lodIn];
+	}
+
+	public long triangleCount()
+	{
+		var total = 0L;
+		for (var count : triangleCounts)
+		{
+			total += count;
+		}
+
+		return total;
+	}
+
+	/**
+	 * @return triangles if every column was drawn at lodIn
+	 */
+	public long uniformTriangleCount(int lodIn)
+	{
+		var total = 0L;
+		for (var column : columns.values())
+		{
+			total += column.triangles[lodIn];
+		}
+
+		return total;
+	}
+
+	public int columnCount(int lodIn)
+	{
+		return columnCounts[lodIn];
+	}
+
+	public int size()
+	{
+		return columns.size();
+	}
+
+	private final static class Column
+	{
+		private final int   x;
+		private final int   z;
+		private final int[] triangles;
+		private       int   lod;
+
+		private Column(int xIn, int zIn, int[] trianglesIn, int lodIn)
+		{
+			x         = xIn;
+			z         = zIn;
+			triangles = trianglesIn;
+			lod       = lodIn;
+		}
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain.meshing;
+
+import lombok.Getter;
+
+@Getter
+public enum Face
+{
+	NEGATIVE_X(0, -1),
+	POSITIVE_X(0, 1),
+	NEGATIVE_Y(1, -1),
+	POSITIVE_Y(1, 1),
+	NEGATIVE_Z(2, -1),
+	POSITIVE_Z(2, 1);
+
+	public final static Face[] VALUES = Face.values();
+
+	private final int axis;
+	private final int direction;
+
+	Face(int axisIn, int directionIn)
+	{
+		axis      = axisIn;
+		direction = directionIn;
+	}
+
+	public int normalX()
+	{
+		return axis == 0 ? direction : 0;
+	}
+
+	public int normalY()
+	{
+		return axis == 1 ? direction : 0;
+	}
+
+	public int normalZ()
+	{
+		return axis == 2 ? direction : 0;
+	}
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain.meshing;
+
+import fr.onsiea.ludani.terrain.VoxelChunk;
+import fr.onsiea.ludani.terrain.VoxelWorld;
+
+import java.util.Arrays;
+
+/**
+ * Build the visible surface of a chunk : faces between two solid voxels (including across neighbour chunks) are culled and
+ * coplanar visible faces are merged into the biggest possible rectangles.
+ * Not thread safe, use one mesher per thread.
+ */
+public class GreedyMesher
+{
+	private final static int SIZE        = VoxelChunk.SIZE;
+	private final static int PADDED_SIZE = GreedyMesher.SIZE + 2;
+
+	// Chunk occupancy with a border of one voxel taken from neighbours, bit (y + 1) of column ((x + 1) * PADDED_SIZE + z + 1)
+	private final long[]    padded;
+	private final boolean[] mask;
+	private final int[]     position;
+
+	public GreedyMesher()
+	{
+		padded   = new long[GreedyMesher.PADDED_SIZE * GreedyMesher.PADDED_SIZE];
+		mask     = new boolean[GreedyMesher.SIZE * GreedyMesher.SIZE];
+		position = new int[3];
+	}
+
+	private static int paddedIndex(int xIn, int zIn)
+	{
+		return (xIn + 1) * GreedyMesher.PADDED_SIZE + zIn + 1;
+	}
+
+	private static long unsigned(int columnIn)
+	{
+		return columnIn & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * @return merged quads count
+	 */
+	public int mesh(VoxelWorld worldIn, VoxelChunk chunkIn, IQuadSink sinkIn)
+	{
+		if (chunkIn.isEmpty())
+		{
+			return 0;
+		}
+
+		fillPadded(worldIn, chunkIn);
+
+		var quads = 0;
+		for (var face : Face.VALUES)
+		{
+			quads += mesh(chunkIn, face, sinkIn);
+		}
+
+		return quads;
+	}
+
+	private void fillPadded(VoxelWorld worldIn, VoxelChunk chunkIn)
+	{
+		Arrays.fill(padded, 0L);
+
+		var chunkX = chunkIn.x();
+		var chunkY = chunkIn.y();
+		var chunkZ = chunkIn.z();
+		var below  = worldIn.chunk(chunkX, chunkY - 1, chunkZ);
+		var above  = worldIn.chunk(chunkX, chunkY + 1, chunkZ);
+
+		for (var x = 0; x < GreedyMesher.SIZE; x++)
+		{
+			for (var z = 0; z < GreedyMesher.SIZE; z++)
+			{
+				var column = GreedyMesher.unsigned(chunkIn.column(x, z)) << 1;
+				if (below != null)
+				{
+					column |= GreedyMesher.unsigned(below.column(x, z)) >>> GreedyMesher.SIZE - 1;
+				}
+				if (above != null)
+				{
+					column |= (GreedyMesher.unsigned(above.column(x, z)) & 1L) << GreedyMesher.SIZE + 1;
+				}
+				padded[GreedyMesher.paddedIndex(x, z)] = column;
+			}
+		}
+
+		var negativeX = worldIn.chunk(chunkX - 1, chunkY, chunkZ);
+		var positiveX = worldIn.chunk(chunkX + 1, chunkY, chunkZ);
+		var negativeZ = worldIn.chunk(chunkX, chunkY, chunkZ - 1);
+		var positiveZ = worldIn.chunk(chunkX, chunkY, chunkZ + 1);
+		for (var i = 0; i < GreedyMesher.SIZE; i++)
+		{
+			if (negativeX != null)
+			{
+				padded[GreedyMesher.paddedIndex(-1, i)] = GreedyMesher.unsigned(negativeX.column(GreedyMesher.SIZE - 1, i)) << 1;
+			}
+			if (positiveX != null)
+			{
+				padded[GreedyMesher.paddedIndex(GreedyMesher.SIZE, i)] = GreedyMesher.unsigned(positiveX.column(0, i)) << 1;
+			}
+			if (negativeZ != null)
+			{
+				padded[GreedyMesher.paddedIndex(i, -1)] = GreedyMesher.unsigned(negativeZ.column(i, GreedyMesher.SIZE - 1)) << 1;
+			}
+			if (positiveZ != null)
+			{
+				padded[GreedyMesher.paddedIndex(i, GreedyMesher.SIZE)] = GreedyMesher.unsigned(positiveZ.column(i, 0)) << 1;
+			}
+		}
+	}
+
+	private boolean solid(int xIn, int yIn, int zIn)
+	{
+		return (padded[GreedyMesher.paddedIndex(xIn, zIn)] >>> yIn + 1 & 1L) != 0L;
+	}
+
+	/**
+	 * Convert (slice, u, v) face space coordinates into (x, y, z), u and v axes are chosen so that u x v points toward +axis
+	 */
+	private int[] toPosition(int axisIn, int sliceIn, int uIn, int vIn)
+	{
+		switch (axisIn)
+		{
+			case 0 ->
+			{
+				position[0] = sliceIn;
+				position[1] = uIn;
+				position[2] = vIn;
+			}
+			case 1 ->
+			{
+				position[0] = vIn;
+				position[1] = sliceIn;
+				position[2] = uIn;
+			}
+			default ->
+			{
+				position[0] = uIn;
+				position[1] = vIn;
+				position[2] = sliceIn;
+			}
+		}
+
+		return position;
+	}
+
+	private int mesh(VoxelChunk chunkIn, Face faceIn, IQuadSink sinkIn)
+	{
+		var axis    = faceIn.axis();
+		var offsetX = faceIn.normalX();
+		var offsetY = faceIn.normalY();
+		var offsetZ = faceIn.normalZ();
+		var originX = chunkIn.x() * GreedyMesher.SIZE;
+		var originY = chunkIn.y() * GreedyMesher.SIZE;
+		var originZ = chunkIn.z() * GreedyMesher.SIZE;
+		var quads   = 0;
+
+		for (var slice = 0; slice < GreedyMesher.SIZE; slice++)
+		{
+			var visibleCount = 0;
+			for (var u = 0; u < GreedyMesher.SIZE; u++)
+			{
+				for (var v = 0; v < GreedyMesher.SIZE; v++)
+				{
+					var voxel   = toPosition(axis, slice, u, v);
+					var x       = voxel[0];
+					var y       = voxel[1];
+					var z       = voxel[2];
+					var visible = solid(x, y, z) && !solid(x + offsetX, y + offsetY, z + offsetZ);
+					mask[u * GreedyMesher.SIZE + v] = visible;
+					if (visible)
+					{
+						visibleCount++;
+					}
+				}
+			}
+
+			if (visibleCount == 0)
+			{
+				continue;
+			}
+
+			var plane = slice + (faceIn.direction() > 0 ? 1 : 0);
+			for (var u = 0; u < GreedyMesher.SIZE; u++)
+			{
+				for (var v = 0; v < GreedyMesher.SIZE; )
+				{
+					if (!mask[u * GreedyMesher.SIZE + v])
+					{
+						v++;
+						continue;
+					}
+
+					var height = 1;
+					while (v + height < GreedyMesher.SIZE && mask[u * GreedyMesher.SIZE + v + height])
+					{
+						height++;
+					}
+
+					var width = 1;
+					expand:
+					while (u + width < GreedyMesher.SIZE)
+					{
+						for (var i = 0; i < height; i++)
+						{
+							if (!mask[(u + width) * GreedyMesher.SIZE + v + i])
+							{
+								break expand;
+							}
+						}
+						width++;
+					}
+
+					for (var w = 0; w < width; w++)
+					{
+						Arrays.fill(mask, (u + w) * GreedyMesher.SIZE + v, (u + w) * GreedyMesher.SIZE + v + height, false);
+					}
+
+					emit(faceIn, axis, plane, u, v, width, height, originX, originY, originZ, sinkIn);
+					quads++;
+					v += height;
+				}
+			}
+		}
+
+		return quads;
+	}
+
+	private void emit(Face faceIn, int axisIn, int planeIn, int uIn, int vIn, int widthIn, int heightIn, int originXIn, int originYIn, int originZIn, IQuadSink sinkIn)
+	{
+		var corner = toPosition(axisIn, planeIn, uIn, vIn);
+		var x0     = corner[0] + originXIn;
+		var y0     = corner[1] + originYIn;
+		var z0     = corner[2] + originZIn;
+		corner = toPosition(axisIn, planeIn, uIn + widthIn, vIn);
+		var x1 = corner[0] + originXIn;
+		var y1 = corner[1] + originYIn;
+		var z1 = corner[2] + originZIn;
+		corner = toPosition(axisIn, planeIn, uIn + widthIn, vIn + heightIn);
+		var x2 = corner[0] + originXIn;
+		var y2 = corner[1] + originYIn;
+		var z2 = corner[2] + originZIn;
+		corner = toPosition(axisIn, planeIn, uIn, vIn + heightIn);
+		var x3 = corner[0] + originXIn;
+		var y3 = corner[1] + originYIn;
+		var z3 = corner[2] + originZIn;
+
+		if (faceIn.direction() > 0)
+		{
+			sinkIn.quad(faceIn.ordinal(), x0, y0, z0, x1, y1, z1, x2, y2, z2, x3, y3, z3);
+		}
+		else
+		{
+			sinkIn.quad(faceIn.ordinal(), x0, y0, z0, x3, y3, z3, x2, y2, z2, x1, y1, z1);
+		}
+	}
+}
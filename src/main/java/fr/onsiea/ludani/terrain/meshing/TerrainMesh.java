@@ -0,0 +1,154 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain.meshing;
+
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Growable float xyz positions + int indices mesh, each quad adds 4 vertices and 6 indices.
+ * Voxel coordinates are converted with (voxel * scale + offset) per axis.
+ */
+public class TerrainMesh implements IQuadSink
+{
+	private final   float   xScale;
+	private final   float   yScale;
+	private final   float   zScale;
+	private final   float   xOffset;
+	private final   float   yOffset;
+	private final   float   zOffset;
+	private         float[] positions;
+	private         int[]   indices;
+	private @Getter int     vertexCount;
+	private @Getter int     indexCount;
+
+	public TerrainMesh()
+	{
+		this(1.0f, 1.0f, 1.0f, 0.0f, 0.0f, 0.0f);
+	}
+
+	public TerrainMesh(float xScaleIn, float yScaleIn, float zScaleIn, float xOffsetIn, float yOffsetIn, float zOffsetIn)
+	{
+		xScale  = xScaleIn;
+		yScale  = yScaleIn;
+		zScale  = zScaleIn;
+		xOffset = xOffsetIn;
+		yOffset = yOffsetIn;
+		zOffset = zOffsetIn;
+
+		positions = new float[4 * 3 * 256];
+		indices   = new int[6 * 256];
+	}
+
+	@Override
+	public void quad(int faceIn, int x0In, int y0In, int z0In, int x1In, int y1In, int z1In, int x2In, int y2In, int z2In, int x3In, int y3In, int z3In)
+	{
+		if ((vertexCount + 4) * 3 > positions.length)
+		{
+			positions = Arrays.copyOf(positions, positions.length * 2);
+			indices   = Arrays.copyOf(indices, indices.length * 2);
+		}
+
+		var first = vertexCount;
+		vertex(x0In, y0In, z0In);
+		vertex(x1In, y1In, z1In);
+		vertex(x2In, y2In, z2In);
+		vertex(x3In, y3In, z3In);
+
+		indices[indexCount++] = first;
+		indices[indexCount++] = first + 1;
+		indices[indexCount++] = first + 2;
+		indices[indexCount++] = first + 2;
+		indices[indexCount++] = first + 3;
+		indices[indexCount++] = first;
+	}
+
+	private void vertex(int xIn, int yIn, int zIn)
+	{
+		var index = vertexCount * 3;
+		positions[index]     = xIn * xScale + xOffset;
+		positions[index + 1] = yIn * yScale + yOffset;
+		positions[index + 2] = zIn * zScale + zOffset;
+		vertexCount++;
+	}
+
+	public float[] positions()
+	{
+		return Arrays.copyOf(positions, vertexCount * 3);
+	}
+
+	public int[] indices()
+	{
+		return Arrays.copyOf(indices, indexCount);
+	}
+
+	/**
+	 * @return new native ordered direct buffer ready to be uploaded
+	 */
+	public FloatBuffer positionsBuffer()
+	{
+		var buffer = ByteBuffer.allocateDirect(vertexCount * 3 * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+		buffer.put(positions, 0, vertexCount * 3).flip();
+
+		return buffer;
+	}
+
+	/**
+	 * @return new native ordered direct buffer ready to be uploaded
+	 */
+	public IntBuffer indicesBuffer()
+	{
+		var buffer = ByteBuffer.allocateDirect(indexCount * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+		buffer.put(indices, 0, indexCount).flip();
+
+		return buffer;
+	}
+
+	public int quadCount()
+	{
+		return vertexCount / 4;
+	}
+
+	public TerrainMesh clear()
+	{
+		vertexCount = 0;
+		indexCount  = 0;
+
+		return this;
+	}
+}
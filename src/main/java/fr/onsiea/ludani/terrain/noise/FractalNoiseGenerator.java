@@ -0,0 +1,305 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain.noise;
+
+import lombok.Getter;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Value noise made of octaveCount bilinear smoothed copies of a white noise, all octaves are blended in a single pass.
+ * Work is split by square tiles on a fork join pool, each tile draws its white noise from its own random stream derived from
+ * (seed, tile), so the result only depends on the seed and the tile size, never on the number of threads.
+ * Rows are computed by {@link INoiseKernels}, SIMD ones by default when available.
+ */
+@Getter
+public class FractalNoiseGenerator
+{
+	public final static int DEFAULT_TILE_SIZE = 64;
+
+	private final int           octaveCount;
+	private final float         persistence;
+	private final float         amplitude;
+	private final int           tileSize;
+	private final ForkJoinPool  pool;
+	private final INoiseKernels kernels;
+
+	public FractalNoiseGenerator(int octaveCountIn, float persistenceIn, float amplitudeIn)
+	{
+		this(octaveCountIn, persistenceIn, amplitudeIn, FractalNoiseGenerator.DEFAULT_TILE_SIZE, ForkJoinPool.commonPool(), NoiseKernels.preferred());
+	}
+
+	public FractalNoiseGenerator(int octaveCountIn, float persistenceIn, float amplitudeIn, int tileSizeIn, ForkJoinPool poolIn, INoiseKernels kernelsIn)
+	{
+		if (octaveCountIn <= 0 || octaveCountIn > 30)
+		{
+			throw new IllegalArgumentException("Octave count must be in [1, 30] : " + octaveCountIn);
+		}
+		if (tileSizeIn <= 0)
+		{
+			throw new IllegalArgumentException("Tile size must be positive : " + tileSizeIn);
+		}
+
+		octaveCount = octaveCountIn;
+		persistence = persistenceIn;
+		amplitude   = amplitudeIn;
+		tileSize    = tileSizeIn;
+		pool        = poolIn;
+		kernels     = kernelsIn;
+	}
+
+	/**
+	 * SplitMix64 finalizer, spread close seeds into unrelated ones
+	 */
+	public static long mix(long valueIn)
+	{
+		var value = (valueIn ^ valueIn >>> 30) * 0xBF58476D1CE4E5B9L;
+		value = (value ^ value >>> 27) * 0x94D049BB133111EBL;
+
+		return value ^ value >>> 31;
+	}
+
+	public static long tileSeed(long seedIn, int tileIndexIn)
+	{
+		return FractalNoiseGenerator.mix(seedIn + (tileIndexIn + 1L) * 0x9E3779B97F4A7C15L);
+	}
+
+	/**
+	 * Octave weights, lowest octave is the last one to be multiplied by persistence (bigger persistence gives bigger mountains)
+	 */
+	public float[] weights()
+	{
+		var weights          = new float[octaveCount + 1];
+		var currentAmplitude = amplitude;
+		var totalAmplitude   = 0.0f;
+		for (var octave = octaveCount - 1; octave >= 0; octave--)
+		{
+			currentAmplitude *= persistence;
+			totalAmplitude += currentAmplitude;
+			weights[octave] = currentAmplitude;
+		}
+		weights[octaveCount] = totalAmplitude;
+
+		return weights;
+	}
+
+	/**
+	 * @return normalized noise, values are in [0, 1[
+	 */
+	public NoiseMap generate(long seedIn, int widthIn, int heightIn)
+	{
+		var base   = new NoiseMap(widthIn, heightIn);
+		var output = new NoiseMap(widthIn, heightIn);
+
+		var tilesX = (widthIn + tileSize - 1) / tileSize;
+		var tilesY = (heightIn + tileSize - 1) / tileSize;
+
+		// Every tile of the base noise must exists before smoothing since octaves sample far away points
+		pool.invoke(new TilesAction(0, tilesX * tilesY, tileIndexIn -> whiteNoise(seedIn, tileIndexIn, tilesX, base)));
+
+		var weights = weights();
+		pool.invoke(new TilesAction(0, tilesX * tilesY, tileIndexIn -> blend(tileIndexIn, tilesX, base, weights, output)));
+
+		return output;
+	}
+
+	private void whiteNoise(long seedIn, int tileIndexIn, int tilesXIn, NoiseMap baseIn)
+	{
+		var random = new SplittableRandom(FractalNoiseGenerator.tileSeed(seedIn, tileIndexIn));
+		var values = baseIn.values();
+		var width  = baseIn.width();
+		var fromX  = tileIndexIn % tilesXIn * tileSize;
+		var fromY  = tileIndexIn / tilesXIn * tileSize;
+		var toX    = Math.min(fromX + tileSize, width);
+		var toY    = Math.min(fromY + tileSize, baseIn.height());
+
+		for (var y = fromY; y < toY; y++)
+		{
+			var row = y * width;
+			for (var x = fromX; x < toX; x++)
+			{
+				values[row + x] = (float) random.nextDouble();
+			}
+		}
+	}
+
+	private void blend(int tileIndexIn, int tilesXIn, NoiseMap baseIn, float[] weightsIn, NoiseMap outputIn)
+	{
+		var base         = baseIn.values();
+		var output       = outputIn.values();
+		var width        = baseIn.width();
+		var height       = baseIn.height();
+		var fromX        = tileIndexIn % tilesXIn * tileSize;
+		var fromY        = tileIndexIn / tilesXIn * tileSize;
+		var tileWidth    = Math.min(fromX + tileSize, width) - fromX;
+		var toY          = Math.min(fromY + tileSize, height);
+		var inverseTotal = 1.0f / weightsIn[octaveCount];
+
+		// Horizontal sampling indices only depend on the column, computed once per tile
+		var x0s              = new int[octaveCount][tileWidth];
+		var x1s              = new int[octaveCount][tileWidth];
+		var horizontalBlends = new float[octaveCount][tileWidth];
+		for (var octave = 0; octave < octaveCount; octave++)
+		{
+			var samplePeriod    = 1 << octave;
+			var sampleFrequency = 1.0f / samplePeriod;
+			for (var i = 0; i < tileWidth; i++)
+			{
+				var x  = fromX + i;
+				var x0 = x >> octave << octave;
+				x0s[octave][i]              = x0;
+				x1s[octave][i]              = (x0 + samplePeriod) % width; // wrap around
+				horizontalBlends[octave][i] = (x - x0) * sampleFrequency;
+			}
+		}
+
+		// Rows of the base noise used by the tile, horizontally blended once per octave then shared by the period rows that sample them
+		var rows = new float[(tileSize + 2) * tileWidth];
+		for (var octave = 0; octave < octaveCount; octave++)
+		{
+			var samplePeriod = 1 << octave;
+			var firstY0      = fromY >> octave << octave;
+			var lastY0       = toY - 1 >> octave << octave;
+			var rowCount     = (lastY0 - firstY0 >> octave) + 1;
+			for (var row = 0; row < rowCount; row++)
+			{
+				kernels.interpolateRow(base, (firstY0 + row * samplePeriod) * width, x0s[octave], x1s[octave], horizontalBlends[octave], rows, row * tileWidth, tileWidth);
+			}
+			// Only the last row can wrap around
+			kernels.interpolateRow(base, (lastY0 + samplePeriod) % height * width, x0s[octave], x1s[octave], horizontalBlends[octave], rows, rowCount * tileWidth, tileWidth);
+
+			for (var y = fromY; y < toY; y++)
+			{
+				var row           = (y >> octave << octave) - firstY0 >> octave;
+				var verticalBlend = (y - (y >> octave << octave)) * (1.0f / samplePeriod);
+
+				kernels.accumulateInterpolation(rows, row * tileWidth, (row + 1) * tileWidth, verticalBlend, weightsIn[octave], output, fromX + y * width, tileWidth);
+			}
+		}
+
+		for (var y = fromY; y < toY; y++)
+		{
+			kernels.affine(output, fromX + y * width, tileWidth, inverseTotal, 0.0f);
+		}
+	}
+
+	/**
+	 * Fractal simplex gradient noise, octave n is sampled with a period of 2^n voxels and weighted like the value noise octaves.
+	 *
+	 * @return normalized noise, values are in [0, 1]
+	 */
+	public NoiseMap generateSimplex(long seedIn, int widthIn, int heightIn)
+	{
+		return generateSimplex(seedIn, 0, 0, widthIn, heightIn);
+	}
+
+	/**
+	 * Window of the infinite simplex noise starting at (originX, originY), neighbouring windows join without seams
+	 *
+	 * @return normalized noise, values are in [0, 1]
+	 */
+	public NoiseMap generateSimplex(long seedIn, int originXIn, int originYIn, int widthIn, int heightIn)
+	{
+		var output = new NoiseMap(widthIn, heightIn);
+
+		var tilesX  = (widthIn + tileSize - 1) / tileSize;
+		var tilesY  = (heightIn + tileSize - 1) / tileSize;
+		var weights = weights();
+		pool.invoke(new TilesAction(0, tilesX * tilesY, tileIndexIn -> simplex(seedIn, originXIn, originYIn, tileIndexIn, tilesX, weights, output)));
+
+		return output;
+	}
+
+	private void simplex(long seedIn, int originXIn, int originYIn, int tileIndexIn, int tilesXIn, float[] weightsIn, NoiseMap outputIn)
+	{
+		var output    = outputIn.values();
+		var width     = outputIn.width();
+		var fromX     = tileIndexIn % tilesXIn * tileSize;
+		var fromY     = tileIndexIn / tilesXIn * tileSize;
+		var tileWidth = Math.min(fromX + tileSize, width) - fromX;
+		var toY       = Math.min(fromY + tileSize, outputIn.height());
+		var factor    = 0.5f / weightsIn[octaveCount];
+
+		for (var y = fromY; y < toY; y++)
+		{
+			var offset = fromX + y * width;
+			for (var octave = 0; octave < octaveCount; octave++)
+			{
+				var frequency = 1.0f / (1 << octave);
+				var seed      = (int) FractalNoiseGenerator.mix(seedIn + octave);
+
+				kernels.accumulateSimplex((originXIn + fromX) * frequency, (originYIn + y) * frequency, frequency, seed, weightsIn[octave], output, offset, tileWidth);
+			}
+			// [-total, total] to [0, 1]
+			kernels.affine(output, offset, tileWidth, factor, 0.5f);
+		}
+	}
+
+	private interface ITileTask
+	{
+		void execute(int tileIndexIn);
+	}
+
+	private final static class TilesAction extends RecursiveAction
+	{
+		private final int       from;
+		private final int       to;
+		private final ITileTask task;
+
+		private TilesAction(int fromIn, int toIn, ITileTask taskIn)
+		{
+			from = fromIn;
+			to   = toIn;
+			task = taskIn;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (to - from <= 1)
+			{
+				for (var tileIndex = from; tileIndex < to; tileIndex++)
+				{
+					task.execute(tileIndex);
+				}
+
+				return;
+			}
+
+			var middle = (from + to) >>> 1;
+			RecursiveAction.invokeAll(new TilesAction(from, middle, task), new TilesAction(middle, to, task));
+		}
+	}
+}
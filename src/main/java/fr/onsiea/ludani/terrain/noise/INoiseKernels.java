@@ -0,0 +1,61 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain.noise;
+
+/**
+ * Row kernels used by {@link FractalNoiseGenerator}, implementations must give the same results within float rounding.
+ */
+public interface INoiseKernels
+{
+	/**
+	 * output[outputOffset + i] = lerp(base[row + x0[i]], base[row + x1[i]], blend[i])
+	 */
+	void interpolateRow(float[] baseIn, int rowIn, int[] x0In, int[] x1In, float[] blendIn, float[] outputIn, int outputOffsetIn, int lengthIn);
+
+	/**
+	 * accumulator[offset + i] += weight * lerp(rows[row0 + i], rows[row1 + i], blend)
+	 */
+	void accumulateInterpolation(float[] rowsIn, int row0In, int row1In, float blendIn, float weightIn, float[] accumulatorIn, int offsetIn, int lengthIn);
+
+	/**
+	 * accumulator[offset + i] += weight * simplex(x + i * step, y), simplex is in [-1, 1]
+	 */
+	void accumulateSimplex(float xIn, float yIn, float stepIn, int seedIn, float weightIn, float[] accumulatorIn, int offsetIn, int lengthIn);
+
+	/**
+	 * values[offset + i] = values[offset + i] * factor + bias
+	 */
+	void affine(float[] valuesIn, int offsetIn, int lengthIn, float factorIn, float biasIn);
+
+	String name();
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain.noise;
+
+public final class NoiseKernels
+{
+	/**
+	 * Set to true to always use the scalar kernels, even when the vector module is there
+	 */
+	public final static String SCALAR_PROPERTY = "ludani.noise.scalar";
+
+	private final static INoiseKernels SCALAR = new ScalarNoiseKernels();
+	private static       INoiseKernels preferred;
+
+	private NoiseKernels()
+	{
+	}
+
+	/**
+	 * jdk.incubator.vector is an optional module, it needs "--add-modules jdk.incubator.vector" on the class path
+	 */
+	public static boolean isVectorAvailable()
+	{
+		return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+	}
+
+	public static INoiseKernels scalar()
+	{
+		return NoiseKernels.SCALAR;
+	}
+
+	/**
+	 * @return vector kernels when the vector module is available and at least four floats fit in a vector, scalar ones otherwise
+	 */
+	public static synchronized INoiseKernels preferred()
+	{
+		if (NoiseKernels.preferred == null)
+		{
+			NoiseKernels.preferred = NoiseKernels.SCALAR;
+			if (!Boolean.getBoolean(NoiseKernels.SCALAR_PROPERTY) && NoiseKernels.isVectorAvailable() && VectorNoiseKernels.lanes() >= 4)
+			{
+				NoiseKernels.preferred = new VectorNoiseKernels();
+			}
+		}
+
+		return NoiseKernels.preferred;
+	}
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain.noise;
+
+/**
+ * Plain java kernels, always available. Also used by {@link VectorNoiseKernels} to finish rows that do not fill a whole vector.
+ */
+public class ScalarNoiseKernels implements INoiseKernels
+{
+	// Simplex skew factors, (sqrt(3) - 1) / 2 and (3 - sqrt(3)) / 6
+	public final static float F2 = 0.36602540378f;
+	public final static float G2 = 0.21132486540f;
+
+	public static float interpolate(float x0In, float x1In, float alphaIn)
+	{
+		return x0In * (1 - alphaIn) + alphaIn * x1In;
+	}
+
+	/**
+	 * Truncation then correction of negative values, same rounding as the vector implementation
+	 */
+	public static int floor(float valueIn)
+	{
+		var truncated = (int) valueIn;
+
+		return valueIn < truncated ? truncated - 1 : truncated;
+	}
+
+	public static int hash(int xIn, int yIn, int seedIn)
+	{
+		var hash = xIn * 0x27D4EB2D ^ yIn * 0x165667B1 ^ seedIn;
+		hash ^= hash >>> 15;
+		hash *= 0x85EBCA6B;
+
+		return hash ^ hash >>> 13;
+	}
+
+	/**
+	 * Dot product between (x, y) and one of the eight gradients (+-1, +-1), (+-1, 0), (0, +-1) chosen by the three lowest hash bits
+	 */
+	public static float gradient(int hashIn, float xIn, float yIn)
+	{
+		var xTerm = (hashIn & 1) == 0 ? xIn : -xIn;
+		if ((hashIn & 4) == 0)
+		{
+			return xTerm + ((hashIn & 2) == 0 ? yIn : -yIn);
+		}
+		if ((hashIn & 2) == 0)
+		{
+			return xTerm;
+		}
+
+		return (hashIn & 1) == 0 ? yIn : -yIn;
+	}
+
+	private static float corner(int hashIn, float xIn, float yIn)
+	{
+		var t = Math.max(0.5f - xIn * xIn - yIn * yIn, 0.0f);
+		t *= t;
+
+		return t * t * ScalarNoiseKernels.gradient(hashIn, xIn, yIn);
+	}
+
+	public static float simplex(float xIn, float yIn, int seedIn)
+	{
+		var skew = (xIn + yIn) * ScalarNoiseKernels.F2;
+		var i    = ScalarNoiseKernels.floor(xIn + skew);
+		var j    = ScalarNoiseKernels.floor(yIn + skew);
+
+		var unskew = (i + j) * ScalarNoiseKernels.G2;
+		var x0     = xIn - (i - unskew);
+		var y0     = yIn - (j - unskew);
+
+		// Lower or upper triangle of the skewed cell
+		var i1 = x0 > y0 ? 1 : 0;
+		var j1 = 1 - i1;
+
+		var x1 = x0 - i1 + ScalarNoiseKernels.G2;
+		var y1 = y0 - j1 + ScalarNoiseKernels.G2;
+		var x2 = x0 - 1.0f + 2.0f * ScalarNoiseKernels.G2;
+		var y2 = y0 - 1.0f + 2.0f * ScalarNoiseKernels.G2;
+
+		var n0 = ScalarNoiseKernels.corner(ScalarNoiseKernels.hash(i, j, seedIn), x0, y0);
+		var n1 = ScalarNoiseKernels.corner(ScalarNoiseKernels.hash(i + i1, j + j1, seedIn), x1, y1);
+		var n2 = ScalarNoiseKernels.corner(ScalarNoiseKernels.hash(i + 1, j + 1, seedIn), x2, y2);
+
+		return 70.0f * (n0 + n1 + n2);
+	}
+
+	static void interpolateRow(float[] baseIn, int rowIn, int[] x0In, int[] x1In, float[] blendIn, float[] outputIn, int outputOffsetIn, int fromIn, int toIn)
+	{
+		for (var i = fromIn; i < toIn; i++)
+		{
+			outputIn[outputOffsetIn + i] = ScalarNoiseKernels.interpolate(baseIn[rowIn + x0In[i]], baseIn[rowIn + x1In[i]], blendIn[i]);
+		}
+	}
+
+	static void accumulateInterpolation(float[] rowsIn, int row0In, int row1In, float blendIn, float weightIn, float[] accumulatorIn, int offsetIn, int fromIn, int toIn)
+	{
+		for (var i = fromIn; i < toIn; i++)
+		{
+			accumulatorIn[offsetIn + i] += ScalarNoiseKernels.interpolate(rowsIn[row0In + i], rowsIn[row1In + i], blendIn) * weightIn;
+		}
+	}
+
+	static void accumulateSimplex(float xIn, float yIn, float stepIn, int seedIn, float weightIn, float[] accumulatorIn, int offsetIn, int fromIn, int toIn)
+	{
+		for (var i = fromIn; i < toIn; i++)
+		{
+			accumulatorIn[offsetIn + i] += ScalarNoiseKernels.simplex(xIn + i * stepIn, yIn, seedIn) * weightIn;
+		}
+	}
+
+	static void affine(float[] valuesIn, int offsetIn, int fromIn, int toIn, float factorIn, float biasIn)
+	{
+		for (var i = offsetIn + fromIn; i < offsetIn + toIn; i++)
+		{
+			valuesIn[i] = valuesIn[i] * factorIn + biasIn;
+		}
+	}
+
+	@Override
+	public void interpolateRow(float[] baseIn, int rowIn, int[] x0In, int[] x1In, float[] blendIn, float[] outputIn, int outputOffsetIn, int lengthIn)
+	{
+		ScalarNoiseKernels.interpolateRow(baseIn, rowIn, x0In, x1In, blendIn, outputIn, outputOffsetIn, 0, lengthIn);
+	}
+
+	@Override
+	public void accumulateInterpolation(float[] rowsIn, int row0In, int row1In, float blendIn, float weightIn, float[] accumulatorIn, int offsetIn, int lengthIn)
+	{
+		ScalarNoiseKernels.accumulateInterpolation(rowsIn, row0In, row1In, blendIn, weightIn, accumulatorIn, offsetIn, 0, lengthIn);
+	}
+
+	@Override
+	public void accumulateSimplex(float xIn, float yIn, float stepIn, int seedIn, float weightIn, float[] accumulatorIn, int offsetIn, int lengthIn)
+	{
+		ScalarNoiseKernels.accumulateSimplex(xIn, yIn, stepIn, seedIn, weightIn, accumulatorIn, offsetIn, 0, lengthIn);
+	}
+
+	@Override
+	public void affine(float[] valuesIn, int offsetIn, int lengthIn, float factorIn, float biasIn)
+	{
+		ScalarNoiseKernels.affine(valuesIn, offsetIn, 0, lengthIn, factorIn, biasIn);
+	}
+
+	@Override
+	public String name()
+	{
+		return "scalar";
+	}
+}
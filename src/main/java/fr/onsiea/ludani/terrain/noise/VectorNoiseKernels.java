@@ -0,0 +1,202 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain.noise;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernels on the preferred vector shape of the platform (jdk.incubator.vector), row remainders are done by
+ * {@link ScalarNoiseKernels}. Must only be loaded after checking {@link NoiseKernels#isVectorAvailable()}.
+ */
+public class VectorNoiseKernels implements INoiseKernels
+{
+	private final static VectorSpecies<Float>   FLOATS = FloatVector.SPECIES_PREFERRED;
+	private final static VectorSpecies<Integer> INTS   = IntVector.SPECIES_PREFERRED;
+	private final static float[]                LANES;
+
+	static
+	{
+		LANES = new float[VectorNoiseKernels.FLOATS.length()];
+		for (var i = 0; i < VectorNoiseKernels.LANES.length; i++)
+		{
+			VectorNoiseKernels.LANES[i] = i;
+		}
+	}
+
+	public static int lanes()
+	{
+		return VectorNoiseKernels.FLOATS.length();
+	}
+
+	private static FloatVector toFloat(IntVector valueIn)
+	{
+		return (FloatVector) valueIn.convert(VectorOperators.I2F, 0);
+	}
+
+	private static IntVector floor(FloatVector valueIn)
+	{
+		var truncated = (IntVector) valueIn.convert(VectorOperators.F2I, 0);
+
+		return truncated.sub(1, valueIn.compare(VectorOperators.LT, VectorNoiseKernels.toFloat(truncated)).cast(VectorNoiseKernels.INTS));
+	}
+
+	private static IntVector hash(IntVector xIn, IntVector yIn, int seedIn)
+	{
+		var hash = xIn.mul(0x27D4EB2D).lanewise(VectorOperators.XOR, yIn.mul(0x165667B1)).lanewise(VectorOperators.XOR, seedIn);
+		hash = hash.lanewise(VectorOperators.XOR, hash.lanewise(VectorOperators.LSHR, 15));
+		hash = hash.mul(0x85EBCA6B);
+
+		return hash.lanewise(VectorOperators.XOR, hash.lanewise(VectorOperators.LSHR, 13));
+	}
+
+	private static VectorMask<Float> bit(IntVector hashIn, int bitIn)
+	{
+		return hashIn.and(bitIn).compare(VectorOperators.NE, 0).cast(VectorNoiseKernels.FLOATS);
+	}
+
+	/**
+	 * Same gradients selection than {@link ScalarNoiseKernels#gradient(int, float, float)} with blends instead of branches
+	 */
+	private static FloatVector corner(IntVector hashIn, FloatVector xIn, FloatVector yIn)
+	{
+		var t = FloatVector.broadcast(VectorNoiseKernels.FLOATS, 0.5f).sub(xIn.mul(xIn)).sub(yIn.mul(yIn)).max(0.0f);
+		t = t.mul(t);
+
+		var negative = VectorNoiseKernels.bit(hashIn, 1);
+		var second   = VectorNoiseKernels.bit(hashIn, 2);
+		var axis     = VectorNoiseKernels.bit(hashIn, 4);
+
+		var xTerm     = xIn.blend(xIn.neg(), negative);
+		var diagonal  = xTerm.add(yIn.blend(yIn.neg(), second));
+		var alongAxis = xTerm.blend(yIn.blend(yIn.neg(), negative), second);
+
+		return t.mul(t).mul(diagonal.blend(alongAxis, axis));
+	}
+
+	/**
+	 * Gathers both corners of each lane through the x0 and x1 index maps, then blends them with a single fma
+	 */
+	@Override
+	public void interpolateRow(float[] baseIn, int rowIn, int[] x0In, int[] x1In, float[] blendIn, float[] outputIn, int outputOffsetIn, int lengthIn)
+	{
+		var bound = VectorNoiseKernels.FLOATS.loopBound(lengthIn);
+		var i     = 0;
+		for (; i < bound; i += VectorNoiseKernels.FLOATS.length())
+		{
+			var x0    = FloatVector.fromArray(VectorNoiseKernels.FLOATS, baseIn, rowIn, x0In, i);
+			var x1    = FloatVector.fromArray(VectorNoiseKernels.FLOATS, baseIn, rowIn, x1In, i);
+			var blend = FloatVector.fromArray(VectorNoiseKernels.FLOATS, blendIn, i);
+			x1.sub(x0).fma(blend, x0).intoArray(outputIn, outputOffsetIn + i);
+		}
+
+		ScalarNoiseKernels.interpolateRow(baseIn, rowIn, x0In, x1In, blendIn, outputIn, outputOffsetIn, i, lengthIn);
+	}
+
+	@Override
+	public void accumulateInterpolation(float[] rowsIn, int row0In, int row1In, float blendIn, float weightIn, float[] accumulatorIn, int offsetIn, int lengthIn)
+	{
+		var bound = VectorNoiseKernels.FLOATS.loopBound(lengthIn);
+		var i     = 0;
+		for (; i < bound; i += VectorNoiseKernels.FLOATS.length())
+		{
+			var row0  = FloatVector.fromArray(VectorNoiseKernels.FLOATS, rowsIn, row0In + i);
+			var row1  = FloatVector.fromArray(VectorNoiseKernels.FLOATS, rowsIn, row1In + i);
+			var value = row0.mul(1 - blendIn).add(row1.mul(blendIn)).mul(weightIn);
+			FloatVector.fromArray(VectorNoiseKernels.FLOATS, accumulatorIn, offsetIn + i).add(value).intoArray(accumulatorIn, offsetIn + i);
+		}
+
+		ScalarNoiseKernels.accumulateInterpolation(rowsIn, row0In, row1In, blendIn, weightIn, accumulatorIn, offsetIn, i, lengthIn);
+	}
+
+	@Override
+	public void accumulateSimplex(float xIn, float yIn, float stepIn, int seedIn, float weightIn, float[] accumulatorIn, int offsetIn, int lengthIn)
+	{
+		var lanes = FloatVector.fromArray(VectorNoiseKernels.FLOATS, VectorNoiseKernels.LANES, 0);
+		var y     = FloatVector.broadcast(VectorNoiseKernels.FLOATS, yIn);
+		var bound = VectorNoiseKernels.FLOATS.loopBound(lengthIn);
+		var i     = 0;
+		for (; i < bound; i += VectorNoiseKernels.FLOATS.length())
+		{
+			var x     = lanes.add(i).mul(stepIn).add(xIn);
+			var skew  = x.add(y).mul(ScalarNoiseKernels.F2);
+			var cellX = VectorNoiseKernels.floor(x.add(skew));
+			var cellY = VectorNoiseKernels.floor(y.add(skew));
+
+			var unskew = VectorNoiseKernels.toFloat(cellX.add(cellY)).mul(ScalarNoiseKernels.G2);
+			var x0     = x.sub(VectorNoiseKernels.toFloat(cellX).sub(unskew));
+			var y0     = y.sub(VectorNoiseKernels.toFloat(cellY).sub(unskew));
+
+			// Lower or upper triangle of the skewed cell
+			var lower = x0.compare(VectorOperators.GT, y0);
+			var i1    = IntVector.zero(VectorNoiseKernels.INTS).blend(1, lower.cast(VectorNoiseKernels.INTS));
+			var j1    = i1.neg().add(1);
+
+			var x1 = x0.sub(VectorNoiseKernels.toFloat(i1)).add(ScalarNoiseKernels.G2);
+			var y1 = y0.sub(VectorNoiseKernels.toFloat(j1)).add(ScalarNoiseKernels.G2);
+			var x2 = x0.sub(1.0f).add(2.0f * ScalarNoiseKernels.G2);
+			var y2 = y0.sub(1.0f).add(2.0f * ScalarNoiseKernels.G2);
+
+			var n0 = VectorNoiseKernels.corner(VectorNoiseKernels.hash(cellX, cellY, seedIn), x0, y0);
+			var n1 = VectorNoiseKernels.corner(VectorNoiseKernels.hash(cellX.add(i1), cellY.add(j1), seedIn), x1, y1);
+			var n2 = VectorNoiseKernels.corner(VectorNoiseKernels.hash(cellX.add(1), cellY.add(1), seedIn), x2, y2);
+
+			var value = n0.add(n1).add(n2).mul(70.0f).mul(weightIn);
+			FloatVector.fromArray(VectorNoiseKernels.FLOATS, accumulatorIn, offsetIn + i).add(value).intoArray(accumulatorIn, offsetIn + i);
+		}
+
+		ScalarNoiseKernels.accumulateSimplex(xIn, yIn, stepIn, seedIn, weightIn, accumulatorIn, offsetIn, i, lengthIn);
+	}
+
+	@Override
+	public void affine(float[] valuesIn, int offsetIn, int lengthIn, float factorIn, float biasIn)
+	{
+		var bound = VectorNoiseKernels.FLOATS.loopBound(lengthIn);
+		var i     = 0;
+		for (; i < bound; i += VectorNoiseKernels.FLOATS.length())
+		{
+			FloatVector.fromArray(VectorNoiseKernels.FLOATS, valuesIn, offsetIn + i).mul(factorIn).add(biasIn).intoArray(valuesIn, offsetIn + i);
+		}
+
+		ScalarNoiseKernels.affine(valuesIn, offsetIn, i, lengthIn, factorIn, biasIn);
+	}
+
+	@Override
+	public String name()
+	{
+		return "vector-" + VectorNoiseKernels.FLOATS.length() + "x" + Float.SIZE;
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain.query;
+
+import lombok.Getter;
+
+/**
+ * Axis aligned box in voxel units, moved through the terrain by {@link TerrainQuery#move(CollisionBox, float, float, float)}
+ */
+@Getter
+public class CollisionBox
+{
+	private float minX;
+	private float minY;
+	private float minZ;
+	private float maxX;
+	private float maxY;
+	private float maxZ;
+
+	public CollisionBox(float minXIn, float minYIn, float minZIn, float maxXIn, float maxYIn, float maxZIn)
+	{
+		set(minXIn, minYIn, minZIn, maxXIn, maxYIn, maxZIn);
+	}
+
+	public CollisionBox set(float minXIn, float minYIn, float minZIn, float maxXIn, float maxYIn, float maxZIn)
+	{
+		if (!(minXIn <= maxXIn && minYIn <= maxYIn && minZIn <= maxZIn))
+		{
+			throw new IllegalArgumentException("Box min must be below max : (" + minXIn + ", " + minYIn + ", " + minZIn + ") (" + maxXIn + ", " + maxYIn + ", " + maxZIn + ")");
+		}
+
+		minX = minXIn;
+		minY = minYIn;
+		minZ = minZIn;
+		maxX = maxXIn;
+		maxY = maxYIn;
+		maxZ = maxZIn;
+
+		return this;
+	}
+
+	public CollisionBox translate(float xIn, float yIn, float zIn)
+	{
+		minX += xIn;
+		minY += yIn;
+		minZ += zIn;
+		maxX += xIn;
+		maxY += yIn;
+		maxZ += zIn;
+
+		return this;
+	}
+
+	void x(float minXIn, float maxXIn)
+	{
+		minX = minXIn;
+		maxX = maxXIn;
+	}
+
+	void y(float minYIn, float maxYIn)
+	{
+		minY = minYIn;
+		maxY = maxYIn;
+	}
+
+	void z(float minZIn, float maxZIn)
+	{
+		minZ = minZIn;
+		maxZ = maxZIn;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "(" + minX + ", " + minY + ", " + minZ + ") (" + maxX + ", " + maxY + ", " + maxZ + ")";
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain.query;
+
+import fr.onsiea.ludani.terrain.meshing.Face;
+import lombok.Getter;
+
+/**
+ * Rays and their results in parallel arrays, cast together by {@link TerrainQuery#raycast(RayBatch)} on several threads.
+ * Results are only valid after the cast, {@link #clear()} keeps the arrays for the next batch.
+ */
+public class RayBatch
+{
+	// Face of the results, -1 for a ray starting inside a solid voxel, -2 for a miss
+	private final static byte INSIDE = -1;
+	private final static byte MISS   = -2;
+
+	private final @Getter int     capacity;
+	private final         float[] originsX;
+	private final         float[] originsY;
+	private final         float[] originsZ;
+	private final         float[] directionsX;
+	private final         float[] directionsY;
+	private final         float[] directionsZ;
+	private final         float[] maxDistances;
+	private final         int[]   hitsX;
+	private final         int[]   hitsY;
+	private final         int[]   hitsZ;
+	private final         byte[]  faces;
+	private final         float[] distances;
+	private @Getter       int     count;
+
+	public RayBatch(int capacityIn)
+	{
+		if (capacityIn <= 0)
+		{
+			throw new IllegalArgumentException("Capacity must be positive : " + capacityIn);
+		}
+
+		capacity     = capacityIn;
+		originsX     = new float[capacityIn];
+		originsY     = new float[capacityIn];
+		originsZ     = new float[capacityIn];
+		directionsX  = new float[capacityIn];
+		directionsY  = new float[capacityIn];
+		directionsZ  = new float[capacityIn];
+		maxDistances = new float[capacityIn];
+		hitsX        = new int[capacityIn];
+		hitsY        = new int[capacityIn];
+		hitsZ        = new int[capacityIn];
+		faces        = new byte[capacityIn];
+		distances    = new float[capacityIn];
+	}
+
+	/**
+	 * @return index of the ray
+	 *
+	 * @throws IllegalStateException when the batch is full
+	 */
+	public int add(float originXIn, float originYIn, float originZIn, float directionXIn, float directionYIn, float directionZIn, float maxDistanceIn)
+	{
+		if (count == capacity)
+		{
+			throw new IllegalStateException("Batch full, " + capacity + " rays");
+		}
+
+		var ray = count;
+		originsX[ray]     = originXIn;
+		originsY[ray]     = originYIn;
+		originsZ[ray]     = originZIn;
+		directionsX[ray]  = directionXIn;
+		directionsY[ray]  = directionYIn;
+		directionsZ[ray]  = directionZIn;
+		maxDistances[ray] = maxDistanceIn;
+		faces[ray]        = RayBatch.MISS;
+		count++;
+
+		return ray;
+	}
+
+	public void clear()
+	{
+		count = 0;
+	}
+
+	boolean cast(TerrainQuery.Traversal traversalIn, int rayIn, RaycastHit hitIn)
+	{
+		if (!traversalIn.cast(originsX[rayIn], originsY[rayIn], originsZ[rayIn], directionsX[rayIn], directionsY[rayIn], directionsZ[rayIn], maxDistances[rayIn], hitIn))
+		{
+			faces[rayIn] = RayBatch.MISS;
+
+			return false;
+		}
+
+		hitsX[rayIn]     = hitIn.x();
+		hitsY[rayIn]     = hitIn.y();
+		hitsZ[rayIn]     = hitIn.z();
+		faces[rayIn]     = hitIn.face() == null ? RayBatch.INSIDE : (byte) hitIn.face().ordinal();
+		distances[rayIn] = hitIn.distance();
+
+		return true;
+	}
+
+	public boolean hit(int rayIn)
+	{
+		return faces[rayIn] != RayBatch.MISS;
+	}
+
+	public int hitX(int rayIn)
+	{
+		return hitsX[rayIn];
+	}
+
+	public int hitY(int rayIn)
+	{
+		return hitsY[rayIn];
+	}
+
+	public int hitZ(int rayIn)
+	{
+		return hitsZ[rayIn];
+	}
+
+	/**
+	 * @return face the ray entered the voxel through, null for a miss or a ray starting inside a solid voxel
+	 */
+	public Face face(int rayIn)
+	{
+		return faces[rayIn] < 0 ? null : Face.VALUES[faces[rayIn]];
+	}
+
+	/**
+	 * @return distance to the voxel hit, infinite for a miss
+	 */
+	public float distance(int rayIn)
+	{
+		return hit(rayIn) ? distances[rayIn] : Float.POSITIVE_INFINITY;
+	}
+}
@@ -0,0 +1,685 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain.query;
+
+import fr.onsiea.ludani.terrain.VoxelChunk;
+import fr.onsiea.ludani.terrain.VoxelWorld;
+import fr.onsiea.ludani.terrain.meshing.Face;
+import lombok.Getter;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Spatial queries over the solid voxels of a {@link VoxelWorld}, in voxel coordinates.
+ * Raycasts step voxel by voxel (Amanatides and Woo) only where there may be something to hit. Missing and empty chunks are
+ * crossed in one step, so are the empty cells of the chunk occupancy bitmaps, and rays are clipped to the chunk bounds of
+ * the world first. Batches of rays are split on a fork join pool.
+ * Boxes are swept axis by axis, y then x then z, so that they slide along the terrain.
+ * Queries only read the world, any number may run at once as long as nothing changes the world meanwhile.
+ */
+public class TerrainQuery
+{
+	public final static int BLOCKED_X          = 1;
+	public final static int BLOCKED_Y          = 2;
+	public final static int BLOCKED_Z          = 4;
+	// Top of a column without any solid voxel
+	public final static int EMPTY              = Integer.MIN_VALUE;
+	public final static int DEFAULT_BATCH_SIZE = 1024;
+
+	private final @Getter VoxelWorld   world;
+	private final         ForkJoinPool pool;
+	private final @Getter int          batchSize;
+
+	public TerrainQuery(VoxelWorld worldIn)
+	{
+		this(worldIn, ForkJoinPool.commonPool(), TerrainQuery.DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * @param batchSizeIn rays cast by a task of {@link #raycast(RayBatch)}
+	 */
+	public TerrainQuery(VoxelWorld worldIn, ForkJoinPool poolIn, int batchSizeIn)
+	{
+		if (batchSizeIn <= 0)
+		{
+			throw new IllegalArgumentException("Batch size must be positive : " + batchSizeIn);
+		}
+
+		world     = worldIn;
+		pool      = poolIn;
+		batchSize = batchSizeIn;
+	}
+
+	/**
+	 * @param directionXIn direction of the ray, normalized here, distances are in voxels
+	 * @param maxDistanceIn voxels entered further along the ray are not tested
+	 *
+	 * @return true if a solid voxel was hit, hitOut then tells which one
+	 */
+	public boolean raycast(float originXIn, float originYIn, float originZIn, float directionXIn, float directionYIn, float directionZIn, float maxDistanceIn, RaycastHit hitOut)
+	{
+		return new Traversal(world).cast(originXIn, originYIn, originZIn, directionXIn, directionYIn, directionZIn, maxDistanceIn, hitOut);
+	}
+
+	/**
+	 * Cast every ray of the batch, on the calling thread if they fit in one task
+	 *
+	 * @return number of rays that hit
+	 */
+	public int raycast(RayBatch batchIn)
+	{
+		var action = new BatchAction(world, batchIn, 0, batchIn.count(), batchSize);
+		if (batchIn.count() <= batchSize)
+		{
+			action.compute();
+		}
+		else
+		{
+			pool.invoke(action);
+		}
+
+		return action.hitCount;
+	}
+
+	/**
+	 * Move the box by (dx, dy, dz) unless solid voxels are in the way, it then stops against them on the blocked axes and
+	 * keeps moving on the others. Voxels the box already overlaps do not block it, so a box stuck in the terrain can get out.
+	 *
+	 * @return {@link #BLOCKED_X}, {@link #BLOCKED_Y} and {@link #BLOCKED_Z} of the blocked axes
+	 */
+	public int move(CollisionBox boxIn, float dxIn, float dyIn, float dzIn)
+	{
+		var blocked = 0;
+		if (dyIn != 0.0f && sweepY(boxIn, dyIn))
+		{
+			blocked |= TerrainQuery.BLOCKED_Y;
+		}
+		if (dxIn != 0.0f && sweepHorizontal(boxIn, dxIn, true))
+		{
+			blocked |= TerrainQuery.BLOCKED_X;
+		}
+		if (dzIn != 0.0f && sweepHorizontal(boxIn, dzIn, false))
+		{
+			blocked |= TerrainQuery.BLOCKED_Z;
+		}
+
+		return blocked;
+	}
+
+	/**
+	 * @return true if the box overlaps a solid voxel, touching one is not overlapping it
+	 */
+	public boolean intersects(CollisionBox boxIn)
+	{
+		var fromY = (int) Math.floor(boxIn.minY());
+		var toY   = (int) Math.ceil(boxIn.maxY()) - 1;
+		for (var x = (int) Math.floor(boxIn.minX()); x < (int) Math.ceil(boxIn.maxX()); x++)
+		{
+			for (var z = (int) Math.floor(boxIn.minZ()); z < (int) Math.ceil(boxIn.maxZ()); z++)
+			{
+				if (lowestSolid(x, z, fromY, toY) != Integer.MAX_VALUE)
+				{
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * @return y above the highest solid voxel of the column, {@link #EMPTY} if it has none
+	 */
+	public int top(int xIn, int zIn)
+	{
+		if (world.minChunkY() > world.maxChunkY())
+		{
+			return TerrainQuery.EMPTY;
+		}
+
+		var highest = highestSolid(xIn, zIn, world.minChunkY() << VoxelChunk.SIZE_SHIFT, (world.maxChunkY() + 1 << VoxelChunk.SIZE_SHIFT) - 1);
+
+		return highest == Integer.MIN_VALUE ? TerrainQuery.EMPTY : highest + 1;
+	}
+
+	private boolean sweepY(CollisionBox boxIn, float dyIn)
+	{
+		var fromX = (int) Math.floor(boxIn.minX());
+		var toX   = (int) Math.ceil(boxIn.maxX());
+		var fromZ = (int) Math.floor(boxIn.minZ());
+		var toZ   = (int) Math.ceil(boxIn.maxZ());
+		if (dyIn > 0.0f)
+		{
+			// Layers of voxels the top face enters
+			var first   = (int) Math.ceil(boxIn.maxY());
+			var last    = (int) Math.ceil(boxIn.maxY() + dyIn) - 1;
+			var nearest = Integer.MAX_VALUE;
+			for (var x = fromX; x < toX && first <= last; x++)
+			{
+				for (var z = fromZ; z < toZ; z++)
+				{
+					nearest = Math.min(nearest, lowestSolid(x, z, first, last));
+				}
+			}
+			if (nearest == Integer.MAX_VALUE)
+			{
+				boxIn.y(boxIn.minY() + dyIn, boxIn.maxY() + dyIn);
+
+				return false;
+			}
+			boxIn.y(boxIn.minY() + (nearest - boxIn.maxY()), nearest);
+
+			return true;
+		}
+
+		var first   = (int) Math.floor(boxIn.minY()) - 1;
+		var last    = (int) Math.floor(boxIn.minY() + dyIn);
+		var nearest = Integer.MIN_VALUE;
+		for (var x = fromX; x < toX && last <= first; x++)
+		{
+			for (var z = fromZ; z < toZ; z++)
+			{
+				nearest = Math.max(nearest, highestSolid(x, z, last, first));
+			}
+		}
+		if (nearest == Integer.MIN_VALUE)
+		{
+			boxIn.y(boxIn.minY() + dyIn, boxIn.maxY() + dyIn);
+
+			return false;
+		}
+		boxIn.y(nearest + 1, boxIn.maxY() + (nearest + 1 - boxIn.minY()));
+
+		return true;
+	}
+
+	/**
+	 * Sweep along x when alongXIn, along z otherwise, layer by layer of voxels entered by the leading face
+	 */
+	private boolean sweepHorizontal(CollisionBox boxIn, float deltaIn, boolean alongXIn)
+	{
+		var min       = alongXIn ? boxIn.minX() : boxIn.minZ();
+		var max       = alongXIn ? boxIn.maxX() : boxIn.maxZ();
+		var fromSide  = (int) Math.floor(alongXIn ? boxIn.minZ() : boxIn.minX());
+		var toSide    = (int) Math.ceil(alongXIn ? boxIn.maxZ() : boxIn.maxX());
+		var fromY     = (int) Math.floor(boxIn.minY());
+		var toY       = (int) Math.ceil(boxIn.maxY()) - 1;
+		var step      = deltaIn > 0.0f ? 1 : -1;
+		var first     = deltaIn > 0.0f ? (int) Math.ceil(max) : (int) Math.floor(min) - 1;
+		var last      = deltaIn > 0.0f ? (int) Math.ceil(max + deltaIn) - 1 : (int) Math.floor(min + deltaIn);
+		var newMin    = min + deltaIn;
+		var newMax    = max + deltaIn;
+		var isBlocked = false;
+		for (var layer = first; (last - layer) * step >= 0 && !isBlocked; layer += step)
+		{
+			for (var side = fromSide; side < toSide; side++)
+			{
+				if (alongXIn ? lowestSolid(layer, side, fromY, toY) != Integer.MAX_VALUE : lowestSolid(side, layer, fromY, toY) != Integer.MAX_VALUE)
+				{
+					// The leading face stops exactly on the voxel so that the next sweep starts from the same layer
+					newMin    = step > 0 ? min + (layer - max) : layer + 1;
+					newMax    = step > 0 ? layer : max + (layer + 1 - min);
+					isBlocked = true;
+					break;
+				}
+			}
+		}
+
+		if (alongXIn)
+		{
+			boxIn.x(newMin, newMax);
+		}
+		else
+		{
+			boxIn.z(newMin, newMax);
+		}
+
+		return isBlocked;
+	}
+
+	/**
+	 * @return solid voxels of the column of chunk chunkYIn between fromYIn and toYIn (inclusive, world coordinates), bit y
+	 * for chunk local y
+	 */
+	private int columnMask(int xIn, int zIn, int chunkYIn, int fromYIn, int toYIn)
+	{
+		var chunk = world.chunk(VoxelWorld.chunkCoordinate(xIn), chunkYIn, VoxelWorld.chunkCoordinate(zIn));
+		if (chunk == null || chunk.isEmpty())
+		{
+			return 0;
+		}
+
+		var base = chunkYIn << VoxelChunk.SIZE_SHIFT;
+		var from = Math.max(fromYIn - base, 0);
+		var to   = Math.min(toYIn - base, VoxelChunk.SIZE_MASK);
+
+		return chunk.column(VoxelWorld.localCoordinate(xIn), VoxelWorld.localCoordinate(zIn)) & (int) ((2L << to) - (1L << from));
+	}
+
+	/**
+	 * @return lowest solid y of the column between fromYIn and toYIn (inclusive), Integer.MAX_VALUE if none
+	 */
+	private int lowestSolid(int xIn, int zIn, int fromYIn, int toYIn)
+	{
+		for (var chunkY = VoxelWorld.chunkCoordinate(fromYIn); chunkY <= VoxelWorld.chunkCoordinate(toYIn) && fromYIn <= toYIn; chunkY++)
+		{
+			var mask = columnMask(xIn, zIn, chunkY, fromYIn, toYIn);
+			if (mask != 0)
+			{
+				return (chunkY << VoxelChunk.SIZE_SHIFT) + Integer.numberOfTrailingZeros(mask);
+			}
+		}
+
+		return Integer.MAX_VALUE;
+	}
+
+	/**
+	 * @return highest solid y of the column between fromYIn and toYIn (inclusive), Integer.MIN_VALUE if none
+	 */
+	private int highestSolid(int xIn, int zIn, int fromYIn, int toYIn)
+	{
+		for (var chunkY = VoxelWorld.chunkCoordinate(toYIn); chunkY >= VoxelWorld.chunkCoordinate(fromYIn) && fromYIn <= toYIn; chunkY--)
+		{
+			var mask = columnMask(xIn, zIn, chunkY, fromYIn, toYIn);
+			if (mask != 0)
+			{
+				return (chunkY << VoxelChunk.SIZE_SHIFT) + VoxelChunk.SIZE - 1 - Integer.numberOfLeadingZeros(mask);
+			}
+		}
+
+		return Integer.MIN_VALUE;
+	}
+
+	/**
+	 * State of one ray walking through the voxels, reused for the rays of a batch. The last chunk read is kept since
+	 * consecutive voxels are mostly in the same chunk.
+	 */
+	final static class Traversal
+	{
+		private final VoxelWorld world;
+		private       VoxelChunk chunk;
+		private       int        chunkX;
+		private       int        chunkY;
+		private       int        chunkZ;
+		private       boolean    chunkRead;
+		private       float      originX;
+		private       float      originY;
+		private       float      originZ;
+		private       float      directionX;
+		private       float      directionY;
+		private       float      directionZ;
+		private       int        stepX;
+		private       int        stepY;
+		private       int        stepZ;
+		private       float      deltaX;
+		private       float      deltaY;
+		private       float      deltaZ;
+		// Distance to the next voxel boundary on each axis
+		private       float      nextX;
+		private       float      nextY;
+		private       float      nextZ;
+		private       float      maxDistance;
+		// Current voxel, the distance and face it was entered at
+		private       int        x;
+		private       int        y;
+		private       int        z;
+		private       float      distance;
+		private       Face       face;
+
+		Traversal(VoxelWorld worldIn)
+		{
+			world = worldIn;
+		}
+
+		boolean cast(float originXIn, float originYIn, float originZIn, float directionXIn, float directionYIn, float directionZIn, float maxDistanceIn, RaycastHit hitOut)
+		{
+			var length = (float) Math.sqrt(directionXIn * directionXIn + directionYIn * directionYIn + directionZIn * directionZIn);
+			if (!(length > 0.0f) || Float.isInfinite(length))
+			{
+				throw new IllegalArgumentException("Ray direction must be finite and not zero : (" + directionXIn + ", " + directionYIn + ", " + directionZIn + ")");
+			}
+
+			originX     = originXIn;
+			originY     = originYIn;
+			originZ     = originZIn;
+			directionX  = directionXIn / length;
+			directionY  = directionYIn / length;
+			directionZ  = directionZIn / length;
+			stepX       = Traversal.step(directionX);
+			stepY       = Traversal.step(directionY);
+			stepZ       = Traversal.step(directionZ);
+			deltaX      = stepX == 0 ? Float.POSITIVE_INFINITY : Math.abs(1.0f / directionX);
+			deltaY      = stepY == 0 ? Float.POSITIVE_INFINITY : Math.abs(1.0f / directionY);
+			deltaZ      = stepZ == 0 ? Float.POSITIVE_INFINITY : Math.abs(1.0f / directionZ);
+			maxDistance = maxDistanceIn;
+			if (!enter())
+			{
+				return hitOut.miss();
+			}
+
+			while (true)
+			{
+				var currentChunkX = VoxelWorld.chunkCoordinate(x);
+				var currentChunkY = VoxelWorld.chunkCoordinate(y);
+				var currentChunkZ = VoxelWorld.chunkCoordinate(z);
+				if (!chunkRead || currentChunkX != chunkX || currentChunkY != chunkY || currentChunkZ != chunkZ)
+				{
+					chunk     = world.chunk(currentChunkX, currentChunkY, currentChunkZ);
+					chunkX    = currentChunkX;
+					chunkY    = currentChunkY;
+					chunkZ    = currentChunkZ;
+					chunkRead = true;
+				}
+
+				if (chunk == null || chunk.isEmpty())
+				{
+					if (!skip(VoxelChunk.SIZE_SHIFT))
+					{
+						return hitOut.miss();
+					}
+					continue;
+				}
+				if (!chunk.isFull())
+				{
+					var localX = VoxelWorld.localCoordinate(x);
+					var localY = VoxelWorld.localCoordinate(y);
+					var localZ = VoxelWorld.localCoordinate(z);
+					if (!chunk.occupied(localX >> VoxelChunk.CELL_SHIFT, localY >> VoxelChunk.CELL_SHIFT, localZ >> VoxelChunk.CELL_SHIFT))
+					{
+						if (!skip(VoxelChunk.CELL_SHIFT))
+						{
+							return hitOut.miss();
+						}
+						continue;
+					}
+					if ((chunk.columns()[VoxelChunk.columnIndex(localX, localZ)] >>> localY & 1) == 0)
+					{
+						if (!step())
+						{
+							return hitOut.miss();
+						}
+						continue;
+					}
+				}
+
+				return hitOut.hit(x, y, z, face, distance);
+			}
+		}
+
+		private static int step(float directionIn)
+		{
+			return directionIn > 0.0f ? 1 : directionIn < 0.0f ? -1 : 0;
+		}
+
+		/**
+		 * Clip the ray to the chunk bounds of the world and start on the first voxel inside them
+		 *
+		 * @return false if the ray misses the bounds within the max distance
+		 */
+		private boolean enter()
+		{
+			if (world.minChunkX() > world.maxChunkX())
+			{
+				return false;
+			}
+
+			var minX  = world.minChunkX() << VoxelChunk.SIZE_SHIFT;
+			var minY  = world.minChunkY() << VoxelChunk.SIZE_SHIFT;
+			var minZ  = world.minChunkZ() << VoxelChunk.SIZE_SHIFT;
+			var maxX  = world.maxChunkX() + 1 << VoxelChunk.SIZE_SHIFT;
+			var maxY  = world.maxChunkY() + 1 << VoxelChunk.SIZE_SHIFT;
+			var maxZ  = world.maxChunkZ() + 1 << VoxelChunk.SIZE_SHIFT;
+			var enter = 0.0f;
+			var exit  = maxDistance;
+			var axis  = -1;
+			for (var currentAxis = 0; currentAxis < 3; currentAxis++)
+			{
+				var origin    = currentAxis == 0 ? originX : currentAxis == 1 ? originY : originZ;
+				var direction = currentAxis == 0 ? directionX : currentAxis == 1 ? directionY : directionZ;
+				var min       = currentAxis == 0 ? minX : currentAxis == 1 ? minY : minZ;
+				var max       = currentAxis == 0 ? maxX : currentAxis == 1 ? maxY : maxZ;
+				if (direction == 0.0f)
+				{
+					if (origin < min || origin >= max)
+					{
+						return false;
+					}
+					continue;
+				}
+
+				var near = ((direction > 0.0f ? min : max) - origin) / direction;
+				var far  = ((direction > 0.0f ? max : min) - origin) / direction;
+				if (near > enter)
+				{
+					enter = near;
+					axis  = currentAxis;
+				}
+				exit = Math.min(exit, far);
+			}
+			if (enter > exit)
+			{
+				return false;
+			}
+
+			maxDistance = exit;
+			distance    = enter;
+			if (axis < 0)
+			{
+				x    = (int) Math.floor(originX);
+				y    = (int) Math.floor(originY);
+				z    = (int) Math.floor(originZ);
+				face = null;
+			}
+			else
+			{
+				// The entry axis is exact, the others are clamped inside the bounds against rounding
+				x    = axis == 0 ? (stepX > 0 ? minX : maxX - 1) : Traversal.clamp(originX + directionX * enter, minX, maxX - 1);
+				y    = axis == 1 ? (stepY > 0 ? minY : maxY - 1) : Traversal.clamp(originY + directionY * enter, minY, maxY - 1);
+				z    = axis == 2 ? (stepZ > 0 ? minZ : maxZ - 1) : Traversal.clamp(originZ + directionZ * enter, minZ, maxZ - 1);
+				face = Traversal.face(axis, axis == 0 ? stepX : axis == 1 ? stepY : stepZ);
+			}
+			boundaries();
+
+			return true;
+		}
+
+		private static int clamp(float coordinateIn, int minIn, int maxIn)
+		{
+			return Math.max(minIn, Math.min(maxIn, (int) Math.floor(coordinateIn)));
+		}
+
+		/**
+		 * @return face of a voxel entered along axisIn going toward stepIn
+		 */
+		private static Face face(int axisIn, int stepIn)
+		{
+			return switch (axisIn)
+			{
+				case 0 -> stepIn > 0 ? Face.NEGATIVE_X : Face.POSITIVE_X;
+				case 1 -> stepIn > 0 ? Face.NEGATIVE_Y : Face.POSITIVE_Y;
+				default -> stepIn > 0 ? Face.NEGATIVE_Z : Face.POSITIVE_Z;
+			};
+		}
+
+		/**
+		 * Distances to the boundaries of the current voxel, from the origin so that skips do not accumulate rounding
+		 */
+		private void boundaries()
+		{
+			nextX = stepX == 0 ? Float.POSITIVE_INFINITY : (x + (stepX > 0 ? 1 : 0) - originX) / directionX;
+			nextY = stepY == 0 ? Float.POSITIVE_INFINITY : (y + (stepY > 0 ? 1 : 0) - originY) / directionY;
+			nextZ = stepZ == 0 ? Float.POSITIVE_INFINITY : (z + (stepZ > 0 ? 1 : 0) - originZ) / directionZ;
+		}
+
+		/**
+		 * Move to the next voxel along the ray
+		 *
+		 * @return false past the max distance
+		 */
+		private boolean step()
+		{
+			if (nextX <= nextY && nextX <= nextZ)
+			{
+				if (nextX > maxDistance)
+				{
+					return false;
+				}
+				distance = nextX;
+				x += stepX;
+				nextX += deltaX;
+				face = stepX > 0 ? Face.NEGATIVE_X : Face.POSITIVE_X;
+			}
+			else if (nextY <= nextZ)
+			{
+				if (nextY > maxDistance)
+				{
+					return false;
+				}
+				distance = nextY;
+				y += stepY;
+				nextY += deltaY;
+				face = stepY > 0 ? Face.NEGATIVE_Y : Face.POSITIVE_Y;
+			}
+			else
+			{
+				if (nextZ > maxDistance)
+				{
+					return false;
+				}
+				distance = nextZ;
+				z += stepZ;
+				nextZ += deltaZ;
+				face = stepZ > 0 ? Face.NEGATIVE_Z : Face.POSITIVE_Z;
+			}
+
+			return true;
+		}
+
+		/**
+		 * Leave the empty aligned cube of 2^shiftIn voxels holding the current voxel in one step, to the voxel after its
+		 * exit face
+		 *
+		 * @return false past the max distance
+		 */
+		private boolean skip(int shiftIn)
+		{
+			var size  = 1 << shiftIn;
+			var fromX = x >> shiftIn << shiftIn;
+			var fromY = y >> shiftIn << shiftIn;
+			var fromZ = z >> shiftIn << shiftIn;
+			var exitX = stepX == 0 ? Float.POSITIVE_INFINITY : ((stepX > 0 ? fromX + size : fromX) - originX) / directionX;
+			var exitY = stepY == 0 ? Float.POSITIVE_INFINITY : ((stepY > 0 ? fromY + size : fromY) - originY) / directionY;
+			var exitZ = stepZ == 0 ? Float.POSITIVE_INFINITY : ((stepZ > 0 ? fromZ + size : fromZ) - originZ) / directionZ;
+			var exit  = Math.min(exitX, Math.min(exitY, exitZ));
+			if (exit > maxDistance)
+			{
+				return false;
+			}
+
+			// Never go back, rounding could put the exit before the current voxel entry
+			distance = Math.max(distance, exit);
+			if (exitX <= exitY && exitX <= exitZ)
+			{
+				x    = stepX > 0 ? fromX + size : fromX - 1;
+				y    = Traversal.clamp(originY + directionY * exit, fromY, fromY + size - 1);
+				z    = Traversal.clamp(originZ + directionZ * exit, fromZ, fromZ + size - 1);
+				face = stepX > 0 ? Face.NEGATIVE_X : Face.POSITIVE_X;
+			}
+			else if (exitY <= exitZ)
+			{
+				x    = Traversal.clamp(originX + directionX * exit, fromX, fromX + size - 1);
+				y    = stepY > 0 ? fromY + size : fromY - 1;
+				z    = Traversal.clamp(originZ + directionZ * exit, fromZ, fromZ + size - 1);
+				face = stepY > 0 ? Face.NEGATIVE_Y : Face.POSITIVE_Y;
+			}
+			else
+			{
+				x    = Traversal.clamp(originX + directionX * exit, fromX, fromX + size - 1);
+				y    = Traversal.clamp(originY + directionY * exit, fromY, fromY + size - 1);
+				z    = stepZ > 0 ? fromZ + size : fromZ - 1;
+				face = stepZ > 0 ? Face.NEGATIVE_Z : Face.POSITIVE_Z;
+			}
+			boundaries();
+
+			return true;
+		}
+	}
+
+	/**
+	 * Splits the rays of a batch in halves down to batchSize rays, each leaf casts with its own traversal
+	 */
+	private final static class BatchAction extends RecursiveAction
+	{
+		private final VoxelWorld world;
+		private final RayBatch   batch;
+		private final int        from;
+		private final int        to;
+		private final int        batchSize;
+		private       int        hitCount;
+
+		private BatchAction(VoxelWorld worldIn, RayBatch batchIn, int fromIn, int toIn, int batchSizeIn)
+		{
+			world     = worldIn;
+			batch     = batchIn;
+			from      = fromIn;
+			to        = toIn;
+			batchSize = batchSizeIn;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (to - from <= batchSize)
+			{
+				var traversal = new Traversal(world);
+				var hit       = new RaycastHit();
+				for (var ray = from; ray < to; ray++)
+				{
+					if (batch.cast(traversal, ray, hit))
+					{
+						hitCount++;
+					}
+				}
+
+				return;
+			}
+
+			var middle = (from + to) >>> 1;
+			var left   = new BatchAction(world, batch, from, middle, batchSize);
+			var right  = new BatchAction(world, batch, middle, to, batchSize);
+			RecursiveAction.invokeAll(left, right);
+			hitCount = left.hitCount + right.hitCount;
+		}
+	}
+}
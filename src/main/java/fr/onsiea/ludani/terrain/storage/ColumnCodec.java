@@ -0,0 +1,166 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain.storage;
+
+import fr.onsiea.ludani.terrain.VoxelChunk;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Serialized column of chunks, little endian :
+ * chunk count, then for each chunk its y, codec and payload length followed by the payload.
+ * Each chunk picks its own codec, full chunks have no payload and deflate is only kept when it saves at least a quarter of the raw size.
+ */
+public final class ColumnCodec
+{
+	public final static byte FULL    = 0;
+	public final static byte RAW     = 1;
+	public final static byte DEFLATE = 2;
+
+	public final static  int RAW_BYTES          = VoxelChunk.SIZE * VoxelChunk.SIZE * Integer.BYTES;
+	private final static int CHUNK_HEADER_BYTES = Integer.BYTES + 1 + Integer.BYTES;
+
+	private ColumnCodec()
+	{
+	}
+
+	public static ByteBuffer encode(List<VoxelChunk> chunksIn)
+	{
+		var raw        = ByteBuffer.allocate(ColumnCodec.RAW_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		var compressed = new byte[ColumnCodec.RAW_BYTES];
+		var output     = ByteBuffer.allocate(Integer.BYTES + chunksIn.size() * (ColumnCodec.CHUNK_HEADER_BYTES + ColumnCodec.RAW_BYTES)).order(ByteOrder.LITTLE_ENDIAN);
+		var deflater   = new Deflater(Deflater.BEST_SPEED);
+		try
+		{
+			output.putInt(chunksIn.size());
+			for (var chunk : chunksIn)
+			{
+				output.putInt(chunk.y());
+				if (chunk.isFull())
+				{
+					output.put(ColumnCodec.FULL).putInt(0);
+					continue;
+				}
+
+				raw.clear();
+				raw.asIntBuffer().put(chunk.columns());
+				deflater.reset();
+				deflater.setInput(raw.array(), 0, ColumnCodec.RAW_BYTES);
+				deflater.finish();
+				var length = deflater.deflate(compressed);
+				if (deflater.finished() && length <= ColumnCodec.RAW_BYTES * 3 / 4)
+				{
+					output.put(ColumnCodec.DEFLATE).putInt(length).put(compressed, 0, length);
+				}
+				else
+				{
+					output.put(ColumnCodec.RAW).putInt(ColumnCodec.RAW_BYTES).put(raw.array());
+				}
+			}
+		}
+		finally
+		{
+			deflater.end();
+		}
+
+		return output.flip();
+	}
+
+	/**
+	 * Raw chunks are read straight from inputIn, which may be a slice of a mapped region file
+	 */
+	public static List<VoxelChunk> decode(ByteBuffer inputIn, int columnXIn, int columnZIn)
+	{
+		var input  = inputIn.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		var count  = input.getInt();
+		var chunks = new ArrayList<VoxelChunk>(count);
+
+		// Only allocated when a deflated chunk is met
+		ByteBuffer raw      = null;
+		Inflater   inflater = null;
+		try
+		{
+			for (var i = 0; i < count; i++)
+			{
+				var chunk  = new VoxelChunk(columnXIn, input.getInt(), columnZIn);
+				var codec  = input.get();
+				var length = input.getInt();
+				var data   = input.slice(input.position(), length).order(ByteOrder.LITTLE_ENDIAN);
+				input.position(input.position() + length);
+
+				switch (codec)
+				{
+					case ColumnCodec.FULL -> chunk.fill();
+					case ColumnCodec.RAW -> chunk.columns(data.asIntBuffer());
+					case ColumnCodec.DEFLATE ->
+					{
+						if (inflater == null)
+						{
+							inflater = new Inflater();
+							raw      = ByteBuffer.allocate(ColumnCodec.RAW_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+						}
+						inflater.reset();
+						inflater.setInput(data);
+						raw.clear();
+						if (inflater.inflate(raw) != ColumnCodec.RAW_BYTES)
+						{
+							throw new IllegalArgumentException("Truncated chunk (" + columnXIn + ", " + chunk.y() + ", " + columnZIn + ")");
+						}
+						chunk.columns(raw.flip().asIntBuffer());
+					}
+					default -> throw new IllegalArgumentException("Unknown chunk codec " + codec);
+				}
+				chunks.add(chunk);
+			}
+		}
+		catch (DataFormatException eIn)
+		{
+			throw new IllegalArgumentException("Corrupted chunk data in column (" + columnXIn + ", " + columnZIn + ")", eIn);
+		}
+		finally
+		{
+			if (inflater != null)
+			{
+				inflater.end();
+			}
+		}
+
+		return chunks;
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain.storage;
+
+import fr.onsiea.ludani.terrain.VoxelChunk;
+import fr.onsiea.ludani.terrain.VoxelWorld;
+import fr.onsiea.ludani.terrain.streaming.ITerrainGenerator;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read columns from a {@link RegionStore}, missing ones are generated then saved. The store only holds the chunks of each
+ * column, the border needed by the mesher comes from the four neighbouring columns which are stored (or generated) too.
+ */
+public class PersistentTerrainGenerator implements ITerrainGenerator
+{
+	private final @Getter RegionStore       store;
+	private final @Getter ITerrainGenerator generator;
+	private final         AtomicLong        generatedCount;
+	private final         AtomicLong        loadedCount;
+	// Stored columns that could not be read back and were generated again
+	private final         AtomicLong        unreadableCount;
+
+	public PersistentTerrainGenerator(RegionStore storeIn, ITerrainGenerator generatorIn)
+	{
+		store           = storeIn;
+		generator       = generatorIn;
+		generatedCount  = new AtomicLong();
+		loadedCount     = new AtomicLong();
+		unreadableCount = new AtomicLong();
+	}
+
+	@Override
+	public void generate(int columnXIn, int columnZIn, VoxelWorld worldOut)
+	{
+		add(columnXIn, columnZIn, worldOut);
+		add(columnXIn - 1, columnZIn, worldOut);
+		add(columnXIn + 1, columnZIn, worldOut);
+		add(columnXIn, columnZIn - 1, worldOut);
+		add(columnXIn, columnZIn + 1, worldOut);
+	}
+
+	private void add(int columnXIn, int columnZIn, VoxelWorld worldOut)
+	{
+		for (var chunk : column(columnXIn, columnZIn))
+		{
+			worldOut.add(chunk);
+		}
+	}
+
+	/**
+	 * @return stored chunks of the column, null when the column is missing or cannot be read back
+	 */
+	private List<VoxelChunk> load(int columnXIn, int columnZIn)
+	{
+		try
+		{
+			var chunks = store.load(columnXIn, columnZIn);
+			if (chunks == null && store.contains(columnXIn, columnZIn))
+			{
+				unreadableCount.incrementAndGet();
+			}
+
+			return chunks;
+		}
+		catch (IOException | RuntimeException eIn)
+		{
+			// Any failure is treated as a corrupted column, saving the generated one replaces it
+			unreadableCount.incrementAndGet();
+
+			return null;
+		}
+	}
+
+	/**
+	 * @return chunks of the column ordered by y, read from the store when possible
+	 */
+	public List<VoxelChunk> column(int columnXIn, int columnZIn)
+	{
+		var chunks = load(columnXIn, columnZIn);
+		if (chunks != null)
+		{
+			loadedCount.incrementAndGet();
+
+			return chunks;
+		}
+
+		try
+		{
+			var world = new VoxelWorld();
+			generator.generate(columnXIn, columnZIn, world);
+			chunks = new ArrayList<>();
+			for (var chunk : world.chunks())
+			{
+				if (chunk.x() == columnXIn && chunk.z() == columnZIn && !chunk.isEmpty())
+				{
+					chunks.add(chunk);
+				}
+			}
+			chunks.sort(Comparator.comparingInt(VoxelChunk::y));
+			store.save(columnXIn, columnZIn, chunks);
+			generatedCount.incrementAndGet();
+
+			return chunks;
+		}
+		catch (IOException eIn)
+		{
+			throw new UncheckedIOException("Cannot access column (" + columnXIn + ", " + columnZIn + ") in " + store.directory(), eIn);
+		}
+	}
+
+	public long generatedCount()
+	{
+		return generatedCount.get();
+	}
+
+	public long loadedCount()
+	{
+		return loadedCount.get();
+	}
+
+	public long unreadableCount()
+	{
+		return unreadableCount.get();
+	}
+}
@@ -0,0 +1,475 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain.storage;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * File holding the serialized columns of a {@link RegionFile#SIZE} x {@link RegionFile#SIZE} columns region.
+ * The header has two slots, each one with a sequence number, an offset table and a checksum. Columns are only appended
+ * after the data already referenced, written and forced to disk, then the table goes in the slot not in use. After a crash
+ * the slot with the highest valid sequence still describes complete data, the other one is ignored. Once the columns no
+ * longer referenced outweigh the referenced ones, the referenced columns are copied into a new file replacing this one.
+ * Reads go through read only mappings of 1 GiB windows of the file, so that columns past 2 GiB can be read, written
+ * columns are kept in memory until {@link #flush()}.
+ */
+public class RegionFile implements AutoCloseable
+{
+	public final static int  SHIFT                  = 4;
+	public final static int  SIZE                   = 1 << RegionFile.SHIFT;
+	public final static int  MASK                   = RegionFile.SIZE - 1;
+	public final static int  COLUMN_COUNT           = RegionFile.SIZE * RegionFile.SIZE;
+	// Garbage under which the file is never compacted, a few columns saved again must not rewrite it
+	public final static long MIN_COMPACTION_GARBAGE = 1L << 20;
+
+	private final static int MAGIC   = 0x4752444C; // "LDRG" in little endian
+	private final static int VERSION = 1;
+
+	// magic, version, sequence, table checksum, then offset, length and checksum of each column
+	private final static int  HEADER_BYTES = 2 * Integer.BYTES + Long.BYTES + Integer.BYTES;
+	private final static int  ENTRY_BYTES  = Long.BYTES + 2 * Integer.BYTES;
+	private final static int  SLOT_BYTES   = RegionFile.HEADER_BYTES + RegionFile.COLUMN_COUNT * RegionFile.ENTRY_BYTES;
+	private final static int  ALIGNMENT    = 64;
+	private final static long DATA_START   = RegionFile.align(2 * RegionFile.SLOT_BYTES, 4096);
+	// A mapped buffer holds at most 2 GiB, the file is mapped by windows of 1 GiB
+	private final static int  WINDOW_SHIFT = 30;
+	private final static long WINDOW_BYTES = 1L << RegionFile.WINDOW_SHIFT;
+
+	private final @Getter Path                     path;
+	private               FileChannel              channel;
+	private final         long[]                   offsets;
+	private final         int[]                    lengths;
+	private final         int[]                    checksums;
+	private final         Map<Integer, ByteBuffer> pending;
+	private final         List<MappedByteBuffer>   windows;
+	private @Getter       long                     sequence;
+	private @Getter       long                     end;
+	// Bytes of the file no longer referenced by the table
+	private @Getter       long                     garbageBytes;
+	// Garbage starting a compaction, doubled when the file could not be replaced
+	private               long                     compactionGarbage;
+	private @Getter       int                      compactionCount;
+
+	public RegionFile(Path pathIn) throws IOException
+	{
+		path              = pathIn;
+		channel           = FileChannel.open(pathIn, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		offsets           = new long[RegionFile.COLUMN_COUNT];
+		lengths           = new int[RegionFile.COLUMN_COUNT];
+		checksums         = new int[RegionFile.COLUMN_COUNT];
+		pending           = new HashMap<>();
+		windows           = new ArrayList<>();
+		compactionGarbage = RegionFile.MIN_COMPACTION_GARBAGE;
+
+		try
+		{
+			if (channel.size() == 0 || !readSlots())
+			{
+				create();
+			}
+		}
+		catch (IOException | RuntimeException eIn)
+		{
+			channel.close();
+			throw eIn;
+		}
+	}
+
+	private static long align(long valueIn, int alignmentIn)
+	{
+		return (valueIn + alignmentIn - 1) / alignmentIn * alignmentIn;
+	}
+
+	/**
+	 * @return index of the column in its region
+	 */
+	public static int index(int columnXIn, int columnZIn)
+	{
+		return (columnXIn & RegionFile.MASK) * RegionFile.SIZE + (columnZIn & RegionFile.MASK);
+	}
+
+	private static int checksum(ByteBuffer bufferIn)
+	{
+		var crc = new CRC32C();
+		crc.update(bufferIn.duplicate());
+
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Write an empty table in both slots, so that one stays valid whichever slot a crash interrupts later
+	 */
+	private void create() throws IOException
+	{
+		end      = RegionFile.DATA_START;
+		sequence = 0L;
+		writeSlot(channel, sequence, offsets, lengths, checksums);
+		sequence++;
+		writeSlot(channel, sequence, offsets, lengths, checksums);
+	}
+
+	/**
+	 * Without a valid slot, a file not longer than the header comes from an interrupted creation and holds no column
+	 *
+	 * @return false when no slot is valid in such a file, it must be created again
+	 *
+	 * @throws IOException when no slot is valid in a file holding columns
+	 */
+	private boolean readSlots() throws IOException
+	{
+		ByteBuffer best = null;
+		for (var slot = 0; slot < 2; slot++)
+		{
+			var buffer = ByteBuffer.allocate(RegionFile.SLOT_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			while (buffer.hasRemaining() && channel.read(buffer, (long) slot * RegionFile.SLOT_BYTES + buffer.position()) > 0)
+			{
+				// Read until the slot is complete or the file ends
+			}
+			if (buffer.hasRemaining() || buffer.getInt(0) != RegionFile.MAGIC)
+			{
+				continue;
+			}
+			if (buffer.getInt(Integer.BYTES) != RegionFile.VERSION)
+			{
+				throw new IOException("Unsupported region file version " + buffer.getInt(Integer.BYTES) + " : " + path);
+			}
+			var table = buffer.slice(RegionFile.HEADER_BYTES, RegionFile.SLOT_BYTES - RegionFile.HEADER_BYTES);
+			if (RegionFile.checksum(table) != buffer.getInt(2 * Integer.BYTES + Long.BYTES))
+			{
+				continue;
+			}
+			if (best == null || buffer.getLong(2 * Integer.BYTES) > best.getLong(2 * Integer.BYTES))
+			{
+				best = buffer;
+			}
+		}
+		if (best == null)
+		{
+			if (channel.size() > RegionFile.DATA_START)
+			{
+				throw new IOException("No valid header in region file : " + path);
+			}
+
+			return false;
+		}
+
+		sequence = best.getLong(2 * Integer.BYTES);
+		end      = RegionFile.DATA_START;
+		var used = 0L;
+		for (var index = 0; index < RegionFile.COLUMN_COUNT; index++)
+		{
+			var offset = RegionFile.HEADER_BYTES + index * RegionFile.ENTRY_BYTES;
+			offsets[index]   = best.getLong(offset);
+			lengths[index]   = best.getInt(offset + Long.BYTES);
+			checksums[index] = best.getInt(offset + Long.BYTES + Integer.BYTES);
+			end              = Math.max(end, RegionFile.align(offsets[index] + lengths[index], RegionFile.ALIGNMENT));
+			used += lengths[index];
+		}
+		// Anything after the last referenced column comes from an interrupted flush and will be overwritten
+		garbageBytes = end - RegionFile.DATA_START - used;
+
+		return true;
+	}
+
+	private static void writeSlot(FileChannel channelIn, long sequenceIn, long[] offsetsIn, int[] lengthsIn, int[] checksumsIn) throws IOException
+	{
+		var buffer = ByteBuffer.allocate(RegionFile.SLOT_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		for (var index = 0; index < RegionFile.COLUMN_COUNT; index++)
+		{
+			var offset = RegionFile.HEADER_BYTES + index * RegionFile.ENTRY_BYTES;
+			buffer.putLong(offset, offsetsIn[index]);
+			buffer.putInt(offset + Long.BYTES, lengthsIn[index]);
+			buffer.putInt(offset + Long.BYTES + Integer.BYTES, checksumsIn[index]);
+		}
+		buffer.putInt(0, RegionFile.MAGIC);
+		buffer.putInt(Integer.BYTES, RegionFile.VERSION);
+		buffer.putLong(2 * Integer.BYTES, sequenceIn);
+		buffer.putInt(2 * Integer.BYTES + Long.BYTES, RegionFile.checksum(buffer.slice(RegionFile.HEADER_BYTES, RegionFile.SLOT_BYTES - RegionFile.HEADER_BYTES)));
+
+		var position = (sequenceIn & 1) * RegionFile.SLOT_BYTES;
+		while (buffer.hasRemaining())
+		{
+			channelIn.write(buffer, position + buffer.position());
+		}
+		channelIn.force(true);
+	}
+
+	public synchronized boolean contains(int columnXIn, int columnZIn)
+	{
+		var index = RegionFile.index(columnXIn, columnZIn);
+
+		return lengths[index] > 0 || pending.containsKey(index);
+	}
+
+	/**
+	 * @return mapping of a window of the file covering at least up to endIn, mapped again once the file grew past it
+	 */
+	private MappedByteBuffer window(int windowIn, long endIn) throws IOException
+	{
+		while (windows.size() <= windowIn)
+		{
+			windows.add(null);
+		}
+
+		var start  = (long) windowIn << RegionFile.WINDOW_SHIFT;
+		var window = windows.get(windowIn);
+		if (window == null || start + window.capacity() < endIn)
+		{
+			window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(RegionFile.WINDOW_BYTES, end - start));
+			windows.set(windowIn, window);
+		}
+
+		return window;
+	}
+
+	/**
+	 * @return serialized column, a slice of a file mapping or of the pending buffer, null when the column is missing or its
+	 * data does not match its checksum. A column across two windows is read in a heap buffer.
+	 */
+	public synchronized ByteBuffer read(int columnXIn, int columnZIn) throws IOException
+	{
+		var index  = RegionFile.index(columnXIn, columnZIn);
+		var buffer = pending.get(index);
+		if (buffer != null)
+		{
+			return buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		}
+		if (lengths[index] == 0)
+		{
+			return null;
+		}
+
+		var offset = offsets[index];
+		var length = lengths[index];
+		var window = (int) (offset >>> RegionFile.WINDOW_SHIFT);
+		ByteBuffer data;
+		if (offset + length - 1 >>> RegionFile.WINDOW_SHIFT == window)
+		{
+			data = window(window, offset + length).slice((int) (offset - ((long) window << RegionFile.WINDOW_SHIFT)), length);
+		}
+		else
+		{
+			data = ByteBuffer.allocate(length);
+			while (data.hasRemaining())
+			{
+				if (channel.read(data, offset + data.position()) < 0)
+				{
+					return null;
+				}
+			}
+			data.flip();
+		}
+		data.order(ByteOrder.LITTLE_ENDIAN);
+
+		return RegionFile.checksum(data) == checksums[index] ? data : null;
+	}
+
+	/**
+	 * Queue the serialized column, it is written with the other pending ones by the next {@link #flush()}
+	 */
+	public synchronized RegionFile write(int columnXIn, int columnZIn, ByteBuffer dataIn)
+	{
+		pending.put(RegionFile.index(columnXIn, columnZIn), dataIn.duplicate());
+
+		return this;
+	}
+
+	public synchronized int pendingCount()
+	{
+		return pending.size();
+	}
+
+	/**
+	 * Append every pending column with a single gathering write, force it to disk then commit the new table. The table in
+	 * memory is only replaced once both writes succeeded, after a failure the columns stay pending and reads are unchanged.
+	 */
+	public synchronized RegionFile flush() throws IOException
+	{
+		if (pending.isEmpty())
+		{
+			return this;
+		}
+
+		var newOffsets   = offsets.clone();
+		var newLengths   = lengths.clone();
+		var newChecksums = checksums.clone();
+		var garbage      = garbageBytes;
+		var buffers      = new ArrayList<ByteBuffer>(pending.size() * 2);
+		var position     = end;
+		for (var entry : pending.entrySet())
+		{
+			var index = entry.getKey();
+			var data  = entry.getValue();
+			garbage += newLengths[index];
+
+			newOffsets[index]   = position;
+			newLengths[index]   = data.remaining();
+			newChecksums[index] = RegionFile.checksum(data);
+			buffers.add(data.duplicate());
+
+			var aligned = RegionFile.align(position + newLengths[index], RegionFile.ALIGNMENT);
+			if (aligned > position + newLengths[index])
+			{
+				buffers.add(ByteBuffer.allocate((int) (aligned - position - newLengths[index])));
+			}
+			position = aligned;
+		}
+
+		var array = buffers.toArray(new ByteBuffer[0]);
+		channel.position(end);
+		var remaining = position - end;
+		while (remaining > 0)
+		{
+			remaining -= channel.write(array);
+		}
+		channel.force(false);
+		RegionFile.writeSlot(channel, sequence + 1, newOffsets, newLengths, newChecksums);
+
+		System.arraycopy(newOffsets, 0, offsets, 0, RegionFile.COLUMN_COUNT);
+		System.arraycopy(newLengths, 0, lengths, 0, RegionFile.COLUMN_COUNT);
+		System.arraycopy(newChecksums, 0, checksums, 0, RegionFile.COLUMN_COUNT);
+		garbageBytes = garbage;
+		end          = position;
+		sequence++;
+		pending.clear();
+
+		if (garbageBytes >= compactionGarbage && garbageBytes > liveBytes())
+		{
+			compact();
+		}
+
+		return this;
+	}
+
+	/**
+	 * @return bytes of the referenced columns
+	 */
+	public synchronized long liveBytes()
+	{
+		var live = 0L;
+		for (var length : lengths)
+		{
+			live += length;
+		}
+
+		return live;
+	}
+
+	/**
+	 * Copy the referenced columns into a new file then move it over this one, a crash leaves one file or the other. Slices
+	 * already returned by {@link #read(int, int)} keep reading the previous file. When the file cannot be replaced, for
+	 * example while a system forbids replacing a mapped file, this one stays in use and the next attempt waits for twice as
+	 * much garbage.
+	 */
+	private void compact() throws IOException
+	{
+		var temporary  = path.resolveSibling(path.getFileName() + ".tmp");
+		var newOffsets = new long[RegionFile.COLUMN_COUNT];
+		var position   = RegionFile.DATA_START;
+		try (var output = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+		{
+			for (var index = 0; index < RegionFile.COLUMN_COUNT; index++)
+			{
+				if (lengths[index] == 0)
+				{
+					continue;
+				}
+
+				newOffsets[index] = position;
+				output.position(position);
+				var copied = 0L;
+				while (copied < lengths[index])
+				{
+					copied += channel.transferTo(offsets[index] + copied, lengths[index] - copied, output);
+				}
+				position = RegionFile.align(position + lengths[index], RegionFile.ALIGNMENT);
+			}
+			RegionFile.writeSlot(output, sequence + 1, newOffsets, lengths, checksums);
+			RegionFile.writeSlot(output, sequence + 2, newOffsets, lengths, checksums);
+		}
+
+		windows.clear();
+		channel.close();
+		try
+		{
+			Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (IOException eIn)
+		{
+			Files.deleteIfExists(temporary);
+			compactionGarbage = garbageBytes * 2;
+
+			return;
+		}
+		finally
+		{
+			channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		}
+
+		System.arraycopy(newOffsets, 0, offsets, 0, RegionFile.COLUMN_COUNT);
+		end               = position;
+		garbageBytes      = 0L;
+		compactionGarbage = RegionFile.MIN_COMPACTION_GARBAGE;
+		sequence += 2;
+		compactionCount++;
+	}
+
+	@Override
+	public synchronized void close() throws IOException
+	{
+		try
+		{
+			flush();
+		}
+		finally
+		{
+			windows.clear();
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain.storage;
+
+import fr.onsiea.ludani.terrain.VoxelChunk;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Directory of {@link RegionFile}, at most maxOpenRegions stay open (least recently used ones are flushed and closed first).
+ * Written columns are flushed by region once batchSize of them are pending, or by {@link #flush()}.
+ * Safe to use from several threads.
+ */
+public class RegionStore implements AutoCloseable
+{
+	public final static int DEFAULT_MAX_OPEN_REGIONS = 16;
+	public final static int DEFAULT_BATCH_SIZE       = 32;
+
+	private final @Getter Path                           directory;
+	private final @Getter int                            maxOpenRegions;
+	private final @Getter int                            batchSize;
+	private final         LinkedHashMap<Long, RegionFile> regions;
+	private               boolean                        closed;
+
+	public RegionStore(Path directoryIn) throws IOException
+	{
+		this(directoryIn, RegionStore.DEFAULT_MAX_OPEN_REGIONS, RegionStore.DEFAULT_BATCH_SIZE);
+	}
+
+	public RegionStore(Path directoryIn, int maxOpenRegionsIn, int batchSizeIn) throws IOException
+	{
+		if (maxOpenRegionsIn <= 0 || batchSizeIn <= 0)
+		{
+			throw new IllegalArgumentException("Max open regions and batch size must be positive : " + maxOpenRegionsIn + ", " + batchSizeIn);
+		}
+
+		directory      = Files.createDirectories(directoryIn);
+		maxOpenRegions = maxOpenRegionsIn;
+		batchSize      = batchSizeIn;
+		regions        = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	public static String fileName(int regionXIn, int regionZIn)
+	{
+		return "r." + regionXIn + "." + regionZIn + ".ldr";
+	}
+
+	private RegionFile region(int columnXIn, int columnZIn, boolean createIn) throws IOException
+	{
+		if (closed)
+		{
+			throw new IllegalStateException("Region store is closed : " + directory);
+		}
+
+		var regionX = columnXIn >> RegionFile.SHIFT;
+		var regionZ = columnZIn >> RegionFile.SHIFT;
+		var key     = (long) regionX << 32 | regionZ & 0xFFFFFFFFL;
+		var region  = regions.get(key);
+		if (region != null)
+		{
+			return region;
+		}
+
+		var path = directory.resolve(RegionStore.fileName(regionX, regionZ));
+		if (!createIn && !Files.exists(path))
+		{
+			return null;
+		}
+
+		if (regions.size() >= maxOpenRegions)
+		{
+			var eldest = regions.values().iterator().next();
+			regions.values().remove(eldest);
+			eldest.close();
+		}
+		region = new RegionFile(path);
+		regions.put(key, region);
+
+		return region;
+	}
+
+	public synchronized boolean contains(int columnXIn, int columnZIn) throws IOException
+	{
+		var region = region(columnXIn, columnZIn, false);
+
+		return region != null && region.contains(columnXIn, columnZIn);
+	}
+
+	private synchronized ByteBuffer read(int columnXIn, int columnZIn) throws IOException
+	{
+		var region = region(columnXIn, columnZIn, false);
+
+		return region != null ? region.read(columnXIn, columnZIn) : null;
+	}
+
+	/**
+	 * Decoding happens outside of the store lock, the mapping stays valid even if the region is closed meanwhile
+	 *
+	 * @return chunks of the column ordered like they were saved, null when the column is missing or corrupted
+	 */
+	public List<VoxelChunk> load(int columnXIn, int columnZIn) throws IOException
+	{
+		var data = read(columnXIn, columnZIn);
+		if (data == null)
+		{
+			return null;
+		}
+
+		try
+		{
+			return ColumnCodec.decode(data, columnXIn, columnZIn);
+		}
+		catch (IllegalArgumentException | IndexOutOfBoundsException | BufferUnderflowException eIn)
+		{
+			return null;
+		}
+	}
+
+	public RegionStore save(int columnXIn, int columnZIn, List<VoxelChunk> chunksIn) throws IOException
+	{
+		var data = ColumnCodec.encode(chunksIn);
+		synchronized (this)
+		{
+			var region = region(columnXIn, columnZIn, true);
+			region.write(columnXIn, columnZIn, data);
+			if (region.pendingCount() >= batchSize)
+			{
+				region.flush();
+			}
+		}
+
+		return this;
+	}
+
+	public synchronized RegionStore flush() throws IOException
+	{
+		for (var region : regions.values())
+		{
+			region.flush();
+		}
+
+		return this;
+	}
+
+	@Override
+	public synchronized void close() throws IOException
+	{
+		if (closed)
+		{
+			return;
+		}
+		closed = true;
+
+		IOException exception = null;
+		for (var region : regions.values())
+		{
+			try
+			{
+				region.close();
+			}
+			catch (IOException eIn)
+			{
+				if (exception == null)
+				{
+					exception = eIn;
+				}
+				else
+				{
+					exception.addSuppressed(eIn);
+				}
+			}
+		}
+		regions.clear();
+		if (exception != null)
+		{
+			throw exception;
+		}
+	}
+}
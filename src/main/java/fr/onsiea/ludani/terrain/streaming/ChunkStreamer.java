@@ -0,0 +1,473 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain.streaming;
+
+import fr.onsiea.ludani.mesh.MeshBuilder;
+import fr.onsiea.ludani.mesh.PackedMesh;
+import fr.onsiea.ludani.mesh.VertexFormat;
+import fr.onsiea.ludani.terrain.VoxelChunk;
+import fr.onsiea.ludani.terrain.VoxelWorld;
+import fr.onsiea.ludani.terrain.lod.ColumnHeightmap;
+import fr.onsiea.ludani.terrain.lod.LodMesher;
+import fr.onsiea.ludani.terrain.meshing.GreedyMesher;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keep the chunk columns around a moving point generated and meshed. Noise and meshing run on the executor, finished columns
+ * come back through a lock free queue and are handed to a listener by {@link #drain(IChunkStreamListener, int)}.
+ * Loaded columns form an access ordered cache, columns out of the radius stay loaded until the capacity is exceeded so going
+ * back and forth does not generate them again.
+ * Apart from the workers, the streamer must be used by a single thread (update, drain and close).
+ */
+public class ChunkStreamer implements AutoCloseable
+{
+	private final         ITerrainGenerator                   generator;
+	private final         VertexFormat                        format;
+	private final @Getter int                                 lodCount;
+	private final         ExecutorService                     executor;
+	private final         boolean                             ownsExecutor;
+	private final @Getter int                                 radius;
+	private final @Getter int                                 capacity;
+	private final @Getter int                                 maxPending;
+	// dx, dz of every column in the radius, nearest first
+	private final         int[]                               offsets;
+	private final         Map<Long, Job>                      pending;
+	private final         LinkedHashMap<Long, StreamedColumn> loaded;
+	private final         Queue<Job>                          finished;
+	private               int                                 centerX;
+	private               int                                 centerZ;
+	private               boolean                             centered;
+	private               boolean                             complete;
+	private       @Getter long                                generatedCount;
+	private       @Getter long                                cancelledCount;
+	private       @Getter long                                evictedCount;
+
+	/**
+	 * Generate on a fixed pool of daemon threads, one less than the number of processors
+	 */
+	public ChunkStreamer(ITerrainGenerator generatorIn, VertexFormat formatIn, int radiusIn, int capacityIn)
+	{
+		this(generatorIn, formatIn, 1, radiusIn, capacityIn);
+	}
+
+	/**
+	 * @param lodCountIn number of levels of detail meshed for each column, 1 for full resolution meshes only
+	 */
+	public ChunkStreamer(ITerrainGenerator generatorIn, VertexFormat formatIn, int lodCountIn, int radiusIn, int capacityIn)
+	{
+		this(generatorIn, formatIn, lodCountIn, radiusIn, capacityIn, ChunkStreamer.workers(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)), true,
+				Math.max(2, Runtime.getRuntime().availableProcessors() * 2));
+	}
+
+	/**
+	 * @param executorIn   any executor, e.g. a virtual thread per task one, it is not shut down by {@link #close()}
+	 * @param maxPendingIn number of columns submitted and not drained yet, keep the nearest ones first when the camera moves fast
+	 */
+	public ChunkStreamer(ITerrainGenerator generatorIn, VertexFormat formatIn, int lodCountIn, int radiusIn, int capacityIn, ExecutorService executorIn, int maxPendingIn)
+	{
+		this(generatorIn, formatIn, lodCountIn, radiusIn, capacityIn, executorIn, false, maxPendingIn);
+	}
+
+	private ChunkStreamer(ITerrainGenerator generatorIn, VertexFormat formatIn, int lodCountIn, int radiusIn, int capacityIn, ExecutorService executorIn, boolean ownsExecutorIn, int maxPendingIn)
+	{
+		if (lodCountIn <= 0 || lodCountIn > VoxelChunk.SIZE_SHIFT + 1)
+		{
+			throw new IllegalArgumentException("LOD count must be in [1, " + (VoxelChunk.SIZE_SHIFT + 1) + "] : " + lodCountIn);
+		}
+		if (radiusIn < 0)
+		{
+			throw new IllegalArgumentException("Radius must be positive : " + radiusIn);
+		}
+		if (maxPendingIn <= 0)
+		{
+			throw new IllegalArgumentException("Max pending must be positive : " + maxPendingIn);
+		}
+
+		generator    = generatorIn;
+		format       = formatIn;
+		lodCount     = lodCountIn;
+		executor     = executorIn;
+		ownsExecutor = ownsExecutorIn;
+		radius       = radiusIn;
+		capacity     = capacityIn;
+		maxPending   = maxPendingIn;
+		offsets      = ChunkStreamer.offsets(radiusIn);
+		pending      = new HashMap<>();
+		loaded       = new LinkedHashMap<>(16, 0.75f, true);
+		finished     = new ConcurrentLinkedQueue<>();
+
+		if (capacityIn < offsets.length / 2)
+		{
+			if (ownsExecutorIn)
+			{
+				executorIn.shutdownNow();
+			}
+			throw new IllegalArgumentException("Capacity " + capacityIn + " is lower than the " + offsets.length / 2 + " columns of radius " + radiusIn);
+		}
+	}
+
+	private static ExecutorService workers(int countIn)
+	{
+		var counter = new AtomicInteger();
+
+		return Executors.newFixedThreadPool(countIn, runnableIn ->
+		{
+			var thread = new Thread(runnableIn, "ludani-chunk-streamer-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+
+			return thread;
+		});
+	}
+
+	private static int[] offsets(int radiusIn)
+	{
+		var columns = new ArrayList<int[]>();
+		for (var dx = -radiusIn; dx <= radiusIn; dx++)
+		{
+			for (var dz = -radiusIn; dz <= radiusIn; dz++)
+			{
+				if (dx * dx + dz * dz <= radiusIn * radiusIn)
+				{
+					columns.add(new int[] {dx, dz});
+				}
+			}
+		}
+		columns.sort(Comparator.comparingInt(columnIn -> columnIn[0] * columnIn[0] + columnIn[1] * columnIn[1]));
+
+		var offsets = new int[columns.size() * 2];
+		for (var i = 0; i < columns.size(); i++)
+		{
+			offsets[i * 2]     = columns.get(i)[0];
+			offsets[i * 2 + 1] = columns.get(i)[1];
+		}
+
+		return offsets;
+	}
+
+	public static long key(int columnXIn, int columnZIn)
+	{
+		return (long) columnXIn << 32 | columnZIn & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * @return column containing the voxel coordinate
+	 */
+	public static int column(float voxelCoordinateIn)
+	{
+		return (int) Math.floor(voxelCoordinateIn) >> VoxelChunk.SIZE_SHIFT;
+	}
+
+	private boolean inRadius(int columnXIn, int columnZIn)
+	{
+		var dx = columnXIn - centerX;
+		var dz = columnZIn - centerZ;
+
+		return dx * dx + dz * dz <= radius * radius;
+	}
+
+	/**
+	 * Move the streaming center to a voxel position, cancel columns not needed anymore and submit the missing ones
+	 */
+	public ChunkStreamer update(float voxelXIn, float voxelZIn)
+	{
+		var columnX = ChunkStreamer.column(voxelXIn);
+		var columnZ = ChunkStreamer.column(voxelZIn);
+		if (!centered || columnX != centerX || columnZ != centerZ)
+		{
+			centerX  = columnX;
+			centerZ  = columnZ;
+			centered = true;
+			complete = false;
+
+			var iterator = pending.values().iterator();
+			while (iterator.hasNext())
+			{
+				var job = iterator.next();
+				if (!inRadius(job.x, job.z))
+				{
+					job.cancelled = true;
+					iterator.remove();
+					cancelledCount++;
+				}
+			}
+		}
+
+		if (!complete)
+		{
+			schedule();
+		}
+
+		return this;
+	}
+
+	private void schedule()
+	{
+		complete = true;
+		for (var i = 0; i < offsets.length; i += 2)
+		{
+			var x   = centerX + offsets[i];
+			var z   = centerZ + offsets[i + 1];
+			var key = ChunkStreamer.key(x, z);
+			// Also marks the column as recently used
+			if (loaded.get(key) != null || pending.containsKey(key))
+			{
+				continue;
+			}
+			// Keep going when full, the loaded columns further away must still be marked used before anything is evicted
+			if (pending.size() >= maxPending)
+			{
+				complete = false;
+				continue;
+			}
+
+			var job = new Job(x, z);
+			pending.put(key, job);
+			executor.execute(job);
+		}
+	}
+
+	/**
+	 * Hand at most maxColumnsIn finished columns to the listener, then unload the least recently used columns over the capacity
+	 *
+	 * @return number of loaded columns
+	 */
+	public int drain(IChunkStreamListener listenerIn, int maxColumnsIn)
+	{
+		var count = 0;
+		while (count < maxColumnsIn)
+		{
+			var job = finished.poll();
+			if (job == null)
+			{
+				break;
+			}
+
+			var key = ChunkStreamer.key(job.x, job.z);
+			if (pending.get(key) != job)
+			{
+				// Cancelled after it was started
+				continue;
+			}
+			pending.remove(key);
+			complete = false;
+			if (job.failure != null)
+			{
+				throw new RuntimeException("Generation of column (" + job.x + ", " + job.z + ") failed", job.failure);
+			}
+
+			loaded.put(key, job.result);
+			generatedCount++;
+			listenerIn.load(job.result);
+			count++;
+
+			while (loaded.size() > capacity)
+			{
+				var eldest = loaded.values().iterator().next();
+				loaded.remove(eldest.key());
+				evictedCount++;
+				listenerIn.unload(eldest);
+			}
+		}
+
+		return count;
+	}
+
+	public boolean isLoaded(int columnXIn, int columnZIn)
+	{
+		return loaded.containsKey(ChunkStreamer.key(columnXIn, columnZIn));
+	}
+
+	public boolean isPending(int columnXIn, int columnZIn)
+	{
+		return pending.containsKey(ChunkStreamer.key(columnXIn, columnZIn));
+	}
+
+	public int loadedCount()
+	{
+		return loaded.size();
+	}
+
+	public int pendingCount()
+	{
+		return pending.size();
+	}
+
+	/**
+	 * Unload every loaded column through the listener, pending ones are cancelled
+	 */
+	public void unloadAll(IChunkStreamListener listenerIn)
+	{
+		cancelPending();
+		for (var column : loaded.values())
+		{
+			listenerIn.unload(column);
+		}
+		loaded.clear();
+		centered = false;
+	}
+
+	private void cancelPending()
+	{
+		for (var job : pending.values())
+		{
+			job.cancelled = true;
+		}
+		cancelledCount += pending.size();
+		pending.clear();
+		finished.clear();
+	}
+
+	/**
+	 * Cancel pending columns and wait for the running ones, workers are not interrupted since an interrupt closes the file
+	 * channels they may be using
+	 */
+	@Override
+	public void close()
+	{
+		cancelPending();
+		if (!ownsExecutor)
+		{
+			return;
+		}
+
+		executor.shutdown();
+		try
+		{
+			if (!executor.awaitTermination(10, TimeUnit.SECONDS))
+			{
+				executor.shutdownNow();
+			}
+		}
+		catch (InterruptedException eIn)
+		{
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private final class Job implements Runnable
+	{
+		private final    int              x;
+		private final    int              z;
+		private volatile boolean          cancelled;
+		private          StreamedColumn   result;
+		private          Throwable        failure;
+
+		private Job(int xIn, int zIn)
+		{
+			x = xIn;
+			z = zIn;
+		}
+
+		@Override
+		public void run()
+		{
+			if (cancelled)
+			{
+				return;
+			}
+
+			try
+			{
+				var world = new VoxelWorld();
+				generator.generate(x, z, world);
+				if (cancelled)
+				{
+					return;
+				}
+
+				var column = new ArrayList<VoxelChunk>();
+				for (var chunk : world.chunks())
+				{
+					if (chunk.x() == x && chunk.z() == z)
+					{
+						column.add(chunk);
+					}
+				}
+				column.sort(Comparator.comparingInt(VoxelChunk::y));
+
+				var mesher = new GreedyMesher();
+				var meshes = new ArrayList<PackedMesh>(column.size());
+				for (var chunk : column)
+				{
+					var builder = new MeshBuilder(format, x * VoxelChunk.SIZE, chunk.y() * VoxelChunk.SIZE, z * VoxelChunk.SIZE, null);
+					meshes.add(mesher.mesh(world, chunk, builder) > 0 ? builder.build() : null);
+				}
+
+				var heightmap = ColumnHeightmap.of(column);
+				var lodMeshes = new ArrayList<PackedMesh>(lodCount - 1);
+				if (lodCount > 1 && !heightmap.isEmpty())
+				{
+					// Coarse meshes span the whole column height, larger positions may be needed
+					var height    = heightmap.maxTop() - heightmap.minBottom();
+					var lodFormat = height > format.maxCoordinate() ? new VertexFormat(2, format.normals(), format.colors()) : format;
+					var lodMesher = new LodMesher();
+					for (var lod = 1; lod < lodCount; lod++)
+					{
+						var builder = new MeshBuilder(lodFormat, x * VoxelChunk.SIZE, heightmap.minBottom(), z * VoxelChunk.SIZE, null);
+						lodMesher.mesh(heightmap.downsample(lod), x, z, builder);
+						lodMeshes.add(builder.build());
+					}
+				}
+				result = new StreamedColumn(x, z, column, meshes, heightmap, lodMeshes);
+			}
+			catch (RuntimeException eIn)
+			{
+				failure = eIn;
+			}
+			catch (Error eIn)
+			{
+				failure = eIn;
+				throw eIn;
+			}
+			finally
+			{
+				// Even after an error, drain must remove the column from the pending ones or it is never requested again.
+				// The queue publishes result and failure to the draining thread
+				finished.offer(this);
+			}
+		}
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.terrain.streaming;
+
+import fr.onsiea.ludani.mesh.PackedMesh;
+import fr.onsiea.ludani.terrain.VoxelChunk;
+import fr.onsiea.ludani.terrain.lod.ColumnHeightmap;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Generated and meshed column of chunks ordered by y, meshes are chunk relative and null for chunks without any visible face.
+ * lodMeshes holds one mesh per coarser level of detail (level 1 first) relative to (x, heightmap bottom, z), it is empty when
+ * the streamer only builds full resolution meshes or when the column is empty.
+ */
+@Getter
+public class StreamedColumn
+{
+	private final int              x;
+	private final int              z;
+	private final List<VoxelChunk> chunks;
+	private final List<PackedMesh> meshes;
+	private final ColumnHeightmap  heightmap;
+	private final List<PackedMesh> lodMeshes;
+
+	public StreamedColumn(int xIn, int zIn, List<VoxelChunk> chunksIn, List<PackedMesh> meshesIn, ColumnHeightmap heightmapIn, List<PackedMesh> lodMeshesIn)
+	{
+		x         = xIn;
+		z         = zIn;
+		chunks    = chunksIn;
+		meshes    = meshesIn;
+		heightmap = heightmapIn;
+		lodMeshes = lodMeshesIn;
+	}
+
+	public long key()
+	{
+		return ChunkStreamer.key(x, z);
+	}
+}
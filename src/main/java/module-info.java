@@ -1,6 +1,36 @@
 module fr.onsiea.ludani
 {
+	requires static lombok;
+	requires static jdk.incubator.vector;
+
+	requires org.joml;
+	requires org.lwjgl.opengl;
+	requires org.lwjgl.glfw;
+	requires jdk.jfr;
+
 	requires fr.onsiea.ludart.common;
 	requires fr.onsiea.ludart.prototype;
 	requires fr.onsiea.ludart.client;
+
+	exports fr.onsiea.ludani.terrain;
+	exports fr.onsiea.ludani.terrain.meshing;
+	exports fr.onsiea.ludani.terrain.noise;
+	exports fr.onsiea.ludani.terrain.streaming;
+	exports fr.onsiea.ludani.terrain.storage;
+	exports fr.onsiea.ludani.terrain.lod;
+	exports fr.onsiea.ludani.terrain.query;
+	exports fr.onsiea.ludani.mesh;
+	exports fr.onsiea.ludani.culling;
+	exports fr.onsiea.ludani.gl;
+	exports fr.onsiea.ludani.render;
+	exports fr.onsiea.ludani.profiling;
+	exports fr.onsiea.ludani.simulation;
+	exports fr.onsiea.ludani.pacing;
+	exports fr.onsiea.ludani.input;
+	exports fr.onsiea.ludani.scheduling;
+	exports fr.onsiea.ludani.asset;
+	exports fr.onsiea.ludani.shader;
+	exports fr.onsiea.ludani.entity;
+
+	uses fr.onsiea.ludani.scheduling.IModuleRegistry;
 }
\ No newline at end of file
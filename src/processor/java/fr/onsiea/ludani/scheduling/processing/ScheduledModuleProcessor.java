@@ -0,0 +1,232 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.scheduling.processing;
+
+import fr.onsiea.ludani.scheduling.IModuleRegistry;
+import fr.onsiea.ludani.scheduling.IScheduledModule;
+import fr.onsiea.ludani.scheduling.ScheduledModule;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Generates, for each package holding {@link ScheduledModule} classes, a {@link ScheduledModuleProcessor#REGISTRY_NAME}
+ * class implementing {@link IModuleRegistry} with the schema of each class and a factory calling its constructor, then
+ * lists the registries in the service file read by {@link fr.onsiea.ludani.scheduling.ModuleFactories}.
+ * Classes must implement {@link IScheduledModule}, must not be abstract nor private and need a constructor without
+ * parameters that is not private, nested classes must be static.
+ */
+@SupportedAnnotationTypes("fr.onsiea.ludani.scheduling.ScheduledModule")
+public class ScheduledModuleProcessor extends AbstractProcessor
+{
+	public final static  String REGISTRY_NAME = "ScheduledModuleRegistry";
+	private final static String SERVICE_FILE  = "META-INF/services/" + IModuleRegistry.class.getName();
+
+	// Registries written by the previous rounds, by qualified name
+	private final Set<String> registries = new TreeSet<>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion()
+	{
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotationsIn, RoundEnvironment roundIn)
+	{
+		if (roundIn.processingOver())
+		{
+			writeServices();
+
+			return false;
+		}
+
+		var modules = new TreeMap<String, List<TypeElement>>();
+		for (var element : roundIn.getElementsAnnotatedWith(ScheduledModule.class))
+		{
+			if (valid(element))
+			{
+				var type = (TypeElement) element;
+				modules.computeIfAbsent(processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString(), packageIn -> new ArrayList<>()).add(type);
+			}
+		}
+		for (var entry : modules.entrySet())
+		{
+			writeRegistry(entry.getKey(), entry.getValue());
+		}
+
+		return true;
+	}
+
+	private boolean valid(Element elementIn)
+	{
+		var messager = processingEnv.getMessager();
+		if (elementIn.getKind() != ElementKind.CLASS || elementIn.getModifiers().contains(Modifier.ABSTRACT))
+		{
+			messager.printMessage(Diagnostic.Kind.ERROR, "@ScheduledModule only applies to concrete classes", elementIn);
+
+			return false;
+		}
+		var moduleType = processingEnv.getElementUtils().getTypeElement(IScheduledModule.class.getCanonicalName());
+		if (!processingEnv.getTypeUtils().isAssignable(processingEnv.getTypeUtils().erasure(elementIn.asType()), moduleType.asType()))
+		{
+			messager.printMessage(Diagnostic.Kind.ERROR, "@ScheduledModule classes must implement " + moduleType.getQualifiedName(), elementIn);
+
+			return false;
+		}
+		// The generated registry sits in the same package, the class and its enclosing classes must be static and not private
+		for (var enclosing = elementIn; enclosing instanceof TypeElement type; enclosing = type.getEnclosingElement())
+		{
+			if (type.getModifiers().contains(Modifier.PRIVATE) || type.getNestingKind() != NestingKind.TOP_LEVEL && !type.getModifiers().contains(Modifier.STATIC))
+			{
+				messager.printMessage(Diagnostic.Kind.ERROR, "@ScheduledModule classes must be reachable from their package, private or inner classes are not", elementIn);
+
+				return false;
+			}
+		}
+		for (var constructor : ElementFilter.constructorsIn(elementIn.getEnclosedElements()))
+		{
+			if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE))
+			{
+				return true;
+			}
+		}
+		messager.printMessage(Diagnostic.Kind.ERROR, "@ScheduledModule classes need a constructor without parameters that is not private", elementIn);
+
+		return false;
+	}
+
+	private void writeRegistry(String packageIn, List<TypeElement> typesIn)
+	{
+		var name = packageIn.isEmpty() ? ScheduledModuleProcessor.REGISTRY_NAME : packageIn + "." + ScheduledModuleProcessor.REGISTRY_NAME;
+		if (!registries.add(name))
+		{
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "@ScheduledModule classes of package " + packageIn + " must be compiled in a single round", typesIn.get(0));
+
+			return;
+		}
+
+		var elements = processingEnv.getElementUtils();
+		try (Writer writer = processingEnv.getFiler().createSourceFile(name, typesIn.toArray(new Element[0])).openWriter())
+		{
+			if (!packageIn.isEmpty())
+			{
+				writer.write("package " + packageIn + ";\n\n");
+			}
+			writer.write("import fr.onsiea.ludani.scheduling.IModuleRegistry;\n");
+			writer.write("import fr.onsiea.ludani.scheduling.IScheduledModule;\n");
+			writer.write("import fr.onsiea.ludani.scheduling.ModuleAffinity;\n");
+			writer.write("import fr.onsiea.ludani.scheduling.ModuleSchema;\n\n");
+			writer.write("import java.util.List;\n");
+			writer.write("import java.util.Set;\n");
+			writer.write("import java.util.function.Supplier;\n\n");
+			writer.write("/**\n * Generated by " + ScheduledModuleProcessor.class.getName() + " from the @ScheduledModule classes of this package\n */\n");
+			writer.write("public final class " + ScheduledModuleProcessor.REGISTRY_NAME + " implements IModuleRegistry\n{\n");
+			writer.write("\tprivate final static List<ModuleSchema> SCHEMAS = List.of(");
+			for (var index = 0; index < typesIn.size(); index++)
+			{
+				var type       = typesIn.get(index);
+				var annotation = type.getAnnotation(ScheduledModule.class);
+				var moduleName = annotation.name().isEmpty() ? type.getSimpleName().toString() : annotation.name();
+				writer.write(index == 0 ? "\n" : ",\n");
+				writer.write("\t\t\tnew ModuleSchema(" + type.getQualifiedName() + ".class, " + elements.getConstantExpression(moduleName) + ", ModuleAffinity." + annotation.affinity().name() + ", " + ScheduledModuleProcessor.set(elements::getConstantExpression, annotation.reads()) + ", " + ScheduledModuleProcessor.set(elements::getConstantExpression, annotation.writes()) + ", new Factory(" + index + "))");
+			}
+			writer.write(");\n\n");
+			writer.write("\t@Override\n\tpublic List<ModuleSchema> schemas()\n\t{\n\t\treturn SCHEMAS;\n\t}\n\n");
+			// A switch rather than constructor references, no lambda to bootstrap at startup
+			writer.write("\tprivate final static class Factory implements Supplier<IScheduledModule>\n\t{\n");
+			writer.write("\t\tprivate final int index;\n\n");
+			writer.write("\t\tprivate Factory(int indexIn)\n\t\t{\n\t\t\tindex = indexIn;\n\t\t}\n\n");
+			writer.write("\t\t@Override\n\t\tpublic IScheduledModule get()\n\t\t{\n\t\t\treturn switch (index)\n\t\t\t{\n");
+			for (var index = 0; index < typesIn.size(); index++)
+			{
+				writer.write("\t\t\t\tcase " + index + " -> new " + typesIn.get(index).getQualifiedName() + "();\n");
+			}
+			writer.write("\t\t\t\tdefault -> throw new IllegalStateException(\"No module \" + index);\n");
+			writer.write("\t\t\t};\n\t\t}\n\t}\n}\n");
+		}
+		catch (IOException eIn)
+		{
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write " + name + " : " + eIn.getMessage(), typesIn.get(0));
+		}
+	}
+
+	private static String set(Function<Object, String> literalIn, String[] valuesIn)
+	{
+		var builder = new StringBuilder("Set.of(");
+		for (var value : new TreeSet<>(List.of(valuesIn)))
+		{
+			builder.append(builder.length() > 7 ? ", " : "").append(literalIn.apply(value));
+		}
+
+		return builder.append(')').toString();
+	}
+
+	private void writeServices()
+	{
+		if (registries.isEmpty())
+		{
+			return;
+		}
+
+		try (Writer writer = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", ScheduledModuleProcessor.SERVICE_FILE).openWriter())
+		{
+			for (var registry : registries)
+			{
+				writer.write(registry + "\n");
+			}
+		}
+		catch (IOException eIn)
+		{
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write " + ScheduledModuleProcessor.SERVICE_FILE + " : " + eIn.getMessage());
+		}
+	}
+}
@@ -32,102 +32,270 @@
 
 package fr.onsiea.ludani.tests;
 
-import fr.onsiea.ludart.client.window.settings.IWindowSettings;
+import fr.onsiea.ludani.input.InputState;
 import lombok.Getter;
 import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
 import org.joml.Vector2f;
+import org.joml.Vector2fc;
 import org.joml.Vector3f;
+import org.joml.Vector3fc;
 import org.lwjgl.glfw.GLFW;
 
-@Getter
+/**
+ * First person camera, orientation in degrees (x pitch, y yaw). The sines and cosines of the orientation are computed once
+ * per change and the matrices are only rebuilt when read after a change of position, orientation or projection, the
+ * {@link #revision()} then moves so that users of the matrices can skip their own work while the camera stands still.
+ */
 public class Camera
 {
-	private final static double   PI_180                 = Math.PI / 180.0D;
-	private final static double[] X_MOUSE_POSITION_ARRAY = new double[1];
-	private final static double[] Y_MOUSE_POSITION_ARRAY = new double[1];
-	private final        Vector3f X_VECTOR               = new Vector3f(1, 0, 0);
-	private final        Vector3f Y_VECTOR               = new Vector3f(0, 1, 0);
+	private final static double   PI_180 = Math.PI / 180.0D;
 	private final        Vector3f cameraPosition;
 	private final        Vector2f cameraOrientation;
 	private final        Matrix4f viewMatrix;
-	private final        double   xScreenCenter;
-	private final        double   yScreenCenter;
+	private final        Matrix4f projectionMatrix;
+	private final        Matrix4f viewProjectionMatrix;
+	private final        Matrix4f inverseViewMatrix;
+	private final        Matrix4f inverseViewProjectionMatrix;
 	private final        double   speed;
 	private final        double   rotateSpeed;
 	private final        int      xRotationMax;
+	private              float    sinPitch;
+	private              float    cosPitch;
+	private              float    sinYaw;
+	private              float    cosYaw;
+	// Matrices to rebuild on their next read
+	private @Getter      boolean  viewDirty;
+	private @Getter      boolean  viewProjectionDirty;
+	private @Getter      boolean  inverseViewDirty;
+	private @Getter      boolean  inverseViewProjectionDirty;
+	// Changes of the view or the projection
+	private @Getter      long     revision;
+	// Matrices rebuilt since the creation, view and view projection counted separately
+	private @Getter      long     viewUpdates;
+	private @Getter      long     viewProjectionUpdates;
 
-	public Camera(double speedIn, double rotateSpeedIn, IWindowSettings windowSettingsIn)
+	/**
+	 * @param speedIn       units per second
+	 * @param rotateSpeedIn degrees per pixel of cursor movement
+	 */
+	public Camera(double speedIn, double rotateSpeedIn)
 	{
 		speed       = speedIn;
 		rotateSpeed = rotateSpeedIn;
 
-		cameraPosition    = new Vector3f();
-		cameraOrientation = new Vector2f();
-		viewMatrix        = new Matrix4f();
+		cameraPosition              = new Vector3f();
+		cameraOrientation           = new Vector2f();
+		viewMatrix                  = new Matrix4f();
+		projectionMatrix            = new Matrix4f();
+		viewProjectionMatrix        = new Matrix4f();
+		inverseViewMatrix           = new Matrix4f();
+		inverseViewProjectionMatrix = new Matrix4f();
 
-		xRotationMax  = 90;
-		xScreenCenter = windowSettingsIn.width() / 2;
-		yScreenCenter = windowSettingsIn.height() / 2;
+		xRotationMax = 90;
+		orientationChanged();
 	}
 
-	public void input(long windowHandleIn)
+	/**
+	 * Apply the input of an update tick, the cursor movement accumulated over the tick and the keys held
+	 */
+	public void update(InputState inputIn, float stepSecondsIn)
 	{
-		GLFW.glfwGetCursorPos(windowHandleIn, X_MOUSE_POSITION_ARRAY, Y_MOUSE_POSITION_ARRAY);
-		GLFW.glfwSetCursorPos(windowHandleIn, xScreenCenter, yScreenCenter);
-		var xMouseTranslation = xScreenCenter - X_MOUSE_POSITION_ARRAY[0];
-		var yMouseTranslation = yScreenCenter - Y_MOUSE_POSITION_ARRAY[0];
-		cameraOrientation.y += -xMouseTranslation * rotateSpeed;
-		cameraOrientation.x += -yMouseTranslation * rotateSpeed;
-		cameraOrientation.x %= 360;
-		if (cameraOrientation.x() > xRotationMax)
+		if (inputIn.deltaX() != 0.0D || inputIn.deltaY() != 0.0D)
 		{
-			cameraOrientation.x = xRotationMax;
+			orientation((float) (cameraOrientation.x + inputIn.deltaY() * rotateSpeed), (float) (cameraOrientation.y + inputIn.deltaX() * rotateSpeed));
 		}
-		else if (cameraOrientation.x() < -xRotationMax)
+
+		// Forward is (sin yaw, -cos yaw), right is (cos yaw, sin yaw)
+		var distance = (float) (speed * stepSecondsIn);
+		var forward  = 0.0f;
+		var right    = 0.0f;
+		var up       = 0.0f;
+		if (inputIn.down(GLFW.GLFW_KEY_W))
 		{
-			cameraOrientation.x = -xRotationMax;
+			forward += distance;
 		}
-		cameraOrientation.y %= 360;
-
-		if (GLFW.glfwGetKey(windowHandleIn, GLFW.GLFW_KEY_S) == GLFW.GLFW_PRESS)
+		if (inputIn.down(GLFW.GLFW_KEY_S))
+		{
+			forward -= distance;
+		}
+		if (inputIn.down(GLFW.GLFW_KEY_D))
+		{
+			right += distance;
+		}
+		if (inputIn.down(GLFW.GLFW_KEY_A))
 		{
-			cameraPosition.x += -Math.sin(cameraOrientation.y() * (PI_180)) * speed;
-			cameraPosition.z += Math.cos(cameraOrientation.y() * (PI_180)) * speed;
+			right -= distance;
 		}
-		if (GLFW.glfwGetKey(windowHandleIn, GLFW.GLFW_KEY_W) == GLFW.GLFW_PRESS)
+		if (inputIn.down(GLFW.GLFW_KEY_SPACE))
 		{
-			cameraPosition.x += Math.sin(cameraOrientation.y() * (PI_180)) * speed;
-			cameraPosition.z += -Math.cos(cameraOrientation.y() * (PI_180)) * speed;
+			up += distance;
 		}
-		if (GLFW.glfwGetKey(windowHandleIn, GLFW.GLFW_KEY_D) == GLFW.GLFW_PRESS)
+		if (inputIn.down(GLFW.GLFW_KEY_LEFT_SHIFT))
 		{
-			cameraPosition.x += Math.sin((cameraOrientation.y() + 90) * (PI_180)) * speed;
-			cameraPosition.z += -Math.cos((cameraOrientation.y() + 90) * (PI_180)) * speed;
+			up -= distance;
 		}
-		if (GLFW.glfwGetKey(windowHandleIn, GLFW.GLFW_KEY_A) == GLFW.GLFW_PRESS)
+		if (forward != 0.0f || right != 0.0f || up != 0.0f)
 		{
-			cameraPosition.x += Math.sin((cameraOrientation.y() - 90) * (PI_180)) * speed;
-			cameraPosition.z += -Math.cos((cameraOrientation.y() - 90) * (PI_180)) * speed;
+			move(sinYaw * forward + cosYaw * right, up, sinYaw * right - cosYaw * forward);
 		}
-		if (GLFW.glfwGetKey(windowHandleIn, GLFW.GLFW_KEY_SPACE) == GLFW.GLFW_PRESS)
+	}
+
+	public Vector3fc cameraPosition()
+	{
+		return cameraPosition;
+	}
+
+	public Vector2fc cameraOrientation()
+	{
+		return cameraOrientation;
+	}
+
+	public Camera position(float xIn, float yIn, float zIn)
+	{
+		if (cameraPosition.x != xIn || cameraPosition.y != yIn || cameraPosition.z != zIn)
 		{
-			cameraPosition.y += speed;
+			cameraPosition.set(xIn, yIn, zIn);
+			viewChanged();
 		}
-		if (GLFW.glfwGetKey(windowHandleIn, GLFW.GLFW_KEY_LEFT_SHIFT) == GLFW.GLFW_PRESS)
+
+		return this;
+	}
+
+	public Camera move(float xIn, float yIn, float zIn)
+	{
+		return position(cameraPosition.x + xIn, cameraPosition.y + yIn, cameraPosition.z + zIn);
+	}
+
+	/**
+	 * @param pitchIn degrees, clamped to the rotation limit
+	 * @param yawIn   degrees
+	 */
+	public Camera orientation(float pitchIn, float yawIn)
+	{
+		var pitch = Math.max(-xRotationMax, Math.min(xRotationMax, pitchIn % 360));
+		var yaw   = yawIn % 360;
+		if (cameraOrientation.x != pitch || cameraOrientation.y != yaw)
 		{
-			cameraPosition.y -= speed;
+			cameraOrientation.set(pitch, yaw);
+			orientationChanged();
+			viewChanged();
 		}
+
+		return this;
 	}
 
-	public Matrix4f view()
+	public Camera rotate(float pitchIn, float yawIn)
 	{
-		viewMatrix.identity();
+		return orientation(cameraOrientation.x + pitchIn, cameraOrientation.y + yawIn);
+	}
 
-		viewMatrix.rotate((float) Math.toRadians(cameraOrientation.x), X_VECTOR)
-				.rotate((float) Math.toRadians(cameraOrientation.y), Y_VECTOR);
+	private void orientationChanged()
+	{
+		sinPitch = (float) Math.sin(cameraOrientation.x * Camera.PI_180);
+		cosPitch = (float) Math.cos(cameraOrientation.x * Camera.PI_180);
+		sinYaw   = (float) Math.sin(cameraOrientation.y * Camera.PI_180);
+		cosYaw   = (float) Math.cos(cameraOrientation.y * Camera.PI_180);
+	}
 
-		viewMatrix.translate(-cameraPosition.x, -cameraPosition.y, -cameraPosition.z);
+	private void viewChanged()
+	{
+		viewDirty                  = true;
+		viewProjectionDirty        = true;
+		inverseViewDirty           = true;
+		inverseViewProjectionDirty = true;
+		revision++;
+	}
+
+	/**
+	 * Copy the projection, nothing is marked dirty when it is unchanged
+	 */
+	public Camera projection(Matrix4fc projectionIn)
+	{
+		if (!projectionMatrix.equals(projectionIn))
+		{
+			projectionMatrix.set(projectionIn);
+			viewProjectionDirty        = true;
+			inverseViewProjectionDirty = true;
+			revision++;
+		}
+
+		return this;
+	}
+
+	public Matrix4fc projection()
+	{
+		return projectionMatrix;
+	}
+
+	/**
+	 * Pitch rotation times yaw rotation times the opposite translation, written from the cached sines and cosines
+	 */
+	public Matrix4fc view()
+	{
+		if (viewDirty)
+		{
+			var x = cameraPosition.x;
+			var y = cameraPosition.y;
+			var z = cameraPosition.z;
+			// Column major : each line is a column
+			viewMatrix.set(
+					cosYaw, sinPitch * sinYaw, -cosPitch * sinYaw, 0.0f,
+					0.0f, cosPitch, sinPitch, 0.0f,
+					sinYaw, -sinPitch * cosYaw, cosPitch * cosYaw, 0.0f,
+					-(cosYaw * x + sinYaw * z), -(sinPitch * sinYaw * x + cosPitch * y - sinPitch * cosYaw * z), -(-cosPitch * sinYaw * x + sinPitch * y + cosPitch * cosYaw * z), 1.0f);
+			viewDirty = false;
+			viewUpdates++;
+		}
 
 		return viewMatrix;
 	}
+
+	public Matrix4fc viewProjection()
+	{
+		if (viewProjectionDirty)
+		{
+			projectionMatrix.mul(view(), viewProjectionMatrix);
+			viewProjectionDirty = false;
+			viewProjectionUpdates++;
+		}
+
+		return viewProjectionMatrix;
+	}
+
+	/**
+	 * @return camera to world
+	 */
+	public Matrix4fc inverseView()
+	{
+		if (inverseViewDirty)
+		{
+			view().invertAffine(inverseViewMatrix);
+			inverseViewDirty = false;
+		}
+
+		return inverseViewMatrix;
+	}
+
+	/**
+	 * @return clip space to world, to unproject screen positions
+	 */
+	public Matrix4fc inverseViewProjection()
+	{
+		if (inverseViewProjectionDirty)
+		{
+			viewProjection().invert(inverseViewProjectionMatrix);
+			inverseViewProjectionDirty = false;
+		}
+
+		return inverseViewProjectionMatrix;
+	}
+
+	/**
+	 * @return modelViewProjectionOut set to the view projection times modelIn, the only matrix the vertex shader applies
+	 */
+	public Matrix4f modelViewProjection(Matrix4fc modelIn, Matrix4f modelViewProjectionOut)
+	{
+		return viewProjection().mul(modelIn, modelViewProjectionOut);
+	}
 }
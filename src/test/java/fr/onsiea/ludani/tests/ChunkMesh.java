@@ -0,0 +1,86 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.mesh.PackedMesh;
+import fr.onsiea.ludani.render.ArenaMesh;
+import fr.onsiea.ludani.render.MeshArena;
+import fr.onsiea.ludani.terrain.VoxelChunk;
+import lombok.Getter;
+
+/**
+ * Chunk mesh stored in a shared {@link MeshArena}, drawn at its voxel origin
+ */
+public class ChunkMesh
+{
+	private final         MeshArena arena;
+	private final         ArenaMesh mesh;
+	private final @Getter int       originX;
+	private final @Getter int       originY;
+	private final @Getter int       originZ;
+
+	public ChunkMesh(MeshArena arenaIn, PackedMesh meshIn, VoxelChunk chunkIn)
+	{
+		this(arenaIn, meshIn, chunkIn.x() * VoxelChunk.SIZE, chunkIn.y() * VoxelChunk.SIZE, chunkIn.z() * VoxelChunk.SIZE);
+	}
+
+	/**
+	 * @param originXIn voxel position the mesh is relative to
+	 */
+	public ChunkMesh(MeshArena arenaIn, PackedMesh meshIn, int originXIn, int originYIn, int originZIn)
+	{
+		arena   = arenaIn;
+		mesh    = arenaIn.add(meshIn);
+		originX = originXIn;
+		originY = originYIn;
+		originZ = originZIn;
+	}
+
+	public int indexCount()
+	{
+		return mesh.indexCount();
+	}
+
+	/**
+	 * Queue the mesh in its arena, drawn by the next submit of the arena
+	 */
+	public void draw()
+	{
+		arena.draw(mesh, originX, originY, originZ);
+	}
+
+	public void cleanup()
+	{
+		arena.remove(mesh);
+	}
+}
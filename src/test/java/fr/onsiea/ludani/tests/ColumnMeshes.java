@@ -0,0 +1,157 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.culling.ChunkGrid;
+import fr.onsiea.ludani.mesh.VertexFormat;
+import fr.onsiea.ludani.render.MeshArena;
+import fr.onsiea.ludani.terrain.VoxelChunk;
+import fr.onsiea.ludani.terrain.streaming.StreamedColumn;
+import lombok.Getter;
+import org.joml.Vector3f;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * GPU meshes of a streamed column, full resolution chunk meshes are uploaded at once, coarser ones the first time they are shown.
+ * Meshes go in the arena of their vertex format.
+ */
+public class ColumnMeshes
+{
+	private final         Function<VertexFormat, MeshArena> arenas;
+	private final @Getter StreamedColumn                    column;
+	private final         Vector3f                          voxelScale;
+	private final         Vector3f                          offset;
+	private final         List<ChunkMesh>                   chunkMeshes;
+	// Chunk of each full resolution mesh
+	private final         List<VoxelChunk>                  chunks;
+	private final         ChunkMesh[]                       lodMeshes;
+	private final @Getter int[]                             triangles;
+	private @Getter       int                               lod;
+
+	public ColumnMeshes(Function<VertexFormat, MeshArena> arenasIn, StreamedColumn columnIn, int lodCountIn, Vector3f voxelScaleIn, Vector3f offsetIn)
+	{
+		arenas      = arenasIn;
+		column      = columnIn;
+		voxelScale  = voxelScaleIn;
+		offset      = offsetIn;
+		chunkMeshes = new ArrayList<>();
+		chunks      = new ArrayList<>();
+		lodMeshes   = new ChunkMesh[lodCountIn];
+		triangles   = new int[lodCountIn];
+		lod         = -1;
+
+		for (var i = 0; i < columnIn.chunks().size(); i++)
+		{
+			var mesh = columnIn.meshes().get(i);
+			if (mesh != null)
+			{
+				chunkMeshes.add(new ChunkMesh(arenasIn.apply(mesh.format()), mesh, columnIn.chunks().get(i)));
+				chunks.add(columnIn.chunks().get(i));
+				triangles[0] += mesh.indexCount() / 3;
+			}
+		}
+		for (var level = 1; level < lodCountIn && level <= columnIn.lodMeshes().size(); level++)
+		{
+			triangles[level] = columnIn.lodMeshes().get(level - 1).indexCount() / 3;
+		}
+	}
+
+	private void add(ChunkGrid<ChunkMesh> gridIn, ChunkMesh chunkMeshIn, int minYIn, int maxYIn)
+	{
+		var minX = column.x() * VoxelChunk.SIZE * voxelScale.x + offset.x;
+		var minZ = column.z() * VoxelChunk.SIZE * voxelScale.z + offset.z;
+		gridIn.add(chunkMeshIn, minX, minYIn * voxelScale.y + offset.y, minZ, minX + VoxelChunk.SIZE * voxelScale.x, maxYIn * voxelScale.y + offset.y, minZ + VoxelChunk.SIZE * voxelScale.z);
+	}
+
+	/**
+	 * Replace the meshes of the current level in the grid by the ones of lodIn
+	 */
+	public void show(int lodIn, ChunkGrid<ChunkMesh> gridIn)
+	{
+		hide(gridIn);
+		lod = lodIn;
+
+		if (lodIn == 0 || column.lodMeshes().size() < lodIn)
+		{
+			for (var i = 0; i < chunkMeshes.size(); i++)
+			{
+				var chunkY = chunks.get(i).y() * VoxelChunk.SIZE;
+				add(gridIn, chunkMeshes.get(i), chunkY, chunkY + VoxelChunk.SIZE);
+			}
+
+			return;
+		}
+
+		var heightmap = column.heightmap();
+		if (lodMeshes[lodIn] == null)
+		{
+			var lodMesh = column.lodMeshes().get(lodIn - 1);
+			lodMeshes[lodIn] = new ChunkMesh(arenas.apply(lodMesh.format()), lodMesh, column.x() * VoxelChunk.SIZE, heightmap.minBottom(), column.z() * VoxelChunk.SIZE);
+		}
+		add(gridIn, lodMeshes[lodIn], heightmap.minBottom(), heightmap.maxTop());
+	}
+
+	public void hide(ChunkGrid<ChunkMesh> gridIn)
+	{
+		for (var chunkMesh : chunkMeshes)
+		{
+			gridIn.remove(chunkMesh);
+		}
+		for (var lodMesh : lodMeshes)
+		{
+			if (lodMesh != null)
+			{
+				gridIn.remove(lodMesh);
+			}
+		}
+	}
+
+	public void cleanup(ChunkGrid<ChunkMesh> gridIn)
+	{
+		hide(gridIn);
+		for (var chunkMesh : chunkMeshes)
+		{
+			chunkMesh.cleanup();
+		}
+		for (var lodMesh : lodMeshes)
+		{
+			if (lodMesh != null)
+			{
+				lodMesh.cleanup();
+			}
+		}
+	}
+}
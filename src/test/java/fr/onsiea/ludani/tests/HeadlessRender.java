@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.gl.HeadlessGL;
+import fr.onsiea.ludani.gl.RecordingGL;
+import fr.onsiea.ludani.profiling.FramePhase;
+import fr.onsiea.ludani.profiling.FrameProfiler;
+import fr.onsiea.ludart.client.render.IRenderImplementation;
+import lombok.Getter;
+import org.lwjgl.opengl.GL32;
+
+import java.nio.file.Path;
+
+/**
+ * Render implementation without window nor GPU : {@link Render} draws through a {@link RecordingGL} over a {@link HeadlessGL}
+ * and the camera follows a scripted path instead of reading the inputs. Each draw closes a recorded frame and is timed by
+ * the profiler, the time between two draws counting as the swap phase.
+ */
+public class HeadlessRender implements IRenderImplementation
+{
+	private final static float CAMERA_SPEED      = 0.5f;
+	private final static float CAMERA_TURN_SPEED = 0.25f;
+	private final static float CAMERA_HEIGHT     = 40.0f;
+
+	private final @Getter RecordingGL   gl;
+	private final @Getter FrameProfiler profiler;
+	private final         Path          worldDirectory;
+	private @Getter       Render        render;
+	private @Getter       Camera        camera;
+	// End of the previous draw, 0 before the first one
+	private               long          drawEnd;
+
+	/**
+	 * @param multiDrawIndirectIn false to run the base vertex draws fallback
+	 * @param persistentMappingIn false to run the buffer orphaning fallback
+	 */
+	public HeadlessRender(Path worldDirectoryIn, boolean multiDrawIndirectIn, boolean persistentMappingIn)
+	{
+		gl             = new RecordingGL(new HeadlessGL(multiDrawIndirectIn, persistentMappingIn));
+		profiler       = new FrameProfiler();
+		worldDirectory = worldDirectoryIn;
+	}
+
+	@Override
+	public void initialization()
+	{
+		render = new Render(gl, worldDirectory, profiler);
+		camera = new Camera(6.0D, 0.4D);
+		camera.position(0.0f, CAMERA_HEIGHT, 0.0f);
+		gl.glEnable(GL32.GL_DEPTH_TEST);
+		// Setup calls are the first recorded frame
+		gl.endFrame();
+	}
+
+	@Override
+	public void draw()
+	{
+		var time = drawEnd != 0L ? profiler.record(FramePhase.SWAP, drawEnd) : System.nanoTime();
+
+		camera.move(0.0f, 0.0f, -CAMERA_SPEED).rotate(0.0f, CAMERA_TURN_SPEED);
+		profiler.record(FramePhase.INPUT, time);
+
+		render.draw(camera);
+		gl.endFrame();
+		drawEnd = System.nanoTime();
+	}
+
+	@Override
+	public void cleanup()
+	{
+		render.cleanup();
+		profiler.cleanup();
+		gl.endFrame();
+	}
+}
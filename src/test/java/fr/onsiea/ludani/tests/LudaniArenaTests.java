@@ -0,0 +1,361 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.gl.GLFences;
+import fr.onsiea.ludani.gl.GLState;
+import fr.onsiea.ludani.gl.HeadlessGL;
+import fr.onsiea.ludani.mesh.IndexType;
+import fr.onsiea.ludani.mesh.MeshBuilder;
+import fr.onsiea.ludani.mesh.PackedMesh;
+import fr.onsiea.ludani.mesh.VertexFormat;
+import fr.onsiea.ludani.render.ArenaAllocator;
+import fr.onsiea.ludani.render.ArenaMesh;
+import fr.onsiea.ludani.render.DrawCommands;
+import fr.onsiea.ludani.render.MeshArena;
+import fr.onsiea.ludani.render.StreamBuffer;
+import org.lwjgl.opengl.GL32;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Check the arena allocator without window : first fit offsets, coalescing of freed blocks, growth, and relocations that
+ * keep the content of every allocation, replayed on a byte array. Then submit meshes of a {@link MeshArena} and read back
+ * the indirect commands and origins written in the stream buffer, or the base vertex draws of the fallback path.
+ */
+public class LudaniArenaTests
+{
+	private final static int OPERATIONS = 20_000;
+	private final static int MAX_LIVE   = 60;
+
+	public static void main(final String[] args)
+	{
+		var arena = new ArenaAllocator(128);
+		var a     = arena.allocate(10);
+		var b     = arena.allocate(20);
+		var c     = arena.allocate(30);
+		var d     = arena.allocate(40);
+		check(a.offset() == 0 && b.offset() == 10 && c.offset() == 30 && d.offset() == 60 && arena.used() == 100, "allocations are packed from the start");
+		check(arena.allocate(29) == null && arena.largestFreeBlock() == 28, "an allocation larger than every free block fails");
+
+		arena.free(b);
+		var e = arena.allocate(15);
+		check(e.offset() == 10 && arena.freeBlockCount() == 2, "the first free block large enough is reused");
+		arena.free(a);
+		arena.free(e);
+		check(arena.freeBlockCount() == 2 && arena.largestFreeBlock() == 30, "freed neighbours merge into one block");
+		check(Math.abs(arena.fragmentation() - 28.0f / 58.0f) < 1.0E-6f, "fragmentation is the free share outside the largest block");
+		arena.free(d);
+		arena.free(c);
+		check(arena.freeBlockCount() == 1 && arena.largestFreeBlock() == 128 && arena.used() == 0 && arena.fragmentation() == 0.0f, "freeing everything leaves a single block");
+
+		var freedTwice = false;
+		try
+		{
+			arena.free(c);
+		}
+		catch (IllegalArgumentException eIn)
+		{
+			freedTwice = true;
+		}
+		check(freedTwice, "freeing twice is refused");
+
+		var tail = arena.allocate(100);
+		arena.grow(256);
+		check(arena.capacity() == 256 && arena.freeBlockCount() == 1 && arena.largestFreeBlock() == 156 && tail.offset() == 0, "growing appends to the free block at the end");
+
+		churn();
+		meshArena(true);
+		meshArena(false);
+	}
+
+	/**
+	 * Random allocations and frees with relocations, each allocation is filled with its own byte in a copy of the buffer
+	 */
+	private static void churn()
+	{
+		var random      = new Random(0x5EEDL);
+		var arena       = new ArenaAllocator(1024);
+		var memory      = new byte[1 << 16];
+		var live        = new ArrayList<ArenaAllocator.Allocation>();
+		var contents    = new HashMap<ArenaAllocator.Allocation, Byte>();
+		var moved       = 0L;
+		var compactions = 0;
+		var checked     = 0;
+		for (var operation = 0; operation < OPERATIONS; operation++)
+		{
+			if (live.size() >= MAX_LIVE || !live.isEmpty() && random.nextInt(5) < 2)
+			{
+				var allocation = live.remove(random.nextInt(live.size()));
+				arena.free(allocation);
+				contents.remove(allocation);
+			}
+			else
+			{
+				var size       = 1 + random.nextInt(64);
+				var allocation = arena.allocate(size);
+				if (allocation == null)
+				{
+					var capacity = arena.capacity();
+					compactions++;
+					arena.compact((fromIn, toIn, sizeIn) ->
+					{
+						if (toIn > fromIn)
+						{
+							throw new IllegalStateException("Compaction moves " + sizeIn + " units up from " + fromIn + " to " + toIn);
+						}
+						System.arraycopy(memory, fromIn, memory, toIn, sizeIn);
+					});
+					if (arena.allocationCount() > 0 && arena.freeBlockCount() > 1)
+					{
+						throw new IllegalStateException("Compaction left " + arena.freeBlockCount() + " free blocks");
+					}
+					arena.grow(Math.min(memory.length, capacity * 2));
+					allocation = arena.allocate(size);
+					if (allocation == null)
+					{
+						continue;
+					}
+				}
+				var content = (byte) random.nextInt();
+				for (var i = 0; i < size; i++)
+				{
+					memory[allocation.offset() + i] = content;
+				}
+				live.add(allocation);
+				contents.put(allocation, content);
+			}
+
+			if (operation % 97 == 0)
+			{
+				moved += arena.defragment(256, (fromIn, toIn, sizeIn) ->
+				{
+					if (toIn + sizeIn > fromIn)
+					{
+						throw new IllegalStateException("Defragmentation copies " + sizeIn + " units from " + fromIn + " onto itself at " + toIn);
+					}
+					System.arraycopy(memory, fromIn, memory, toIn, sizeIn);
+				});
+			}
+			checkContents(arena, live, contents, memory, operation);
+			checked++;
+		}
+		check(checked == OPERATIONS, OPERATIONS + " operations keep every allocation content, " + moved + " units defragmented, " + compactions + " compactions, final capacity " + arena.capacity());
+	}
+
+	private static void checkContents(ArenaAllocator arenaIn, List<ArenaAllocator.Allocation> liveIn, HashMap<ArenaAllocator.Allocation, Byte> contentsIn, byte[] memoryIn, int operationIn)
+	{
+		var owners = new boolean[arenaIn.capacity()];
+		var used   = 0;
+		for (var allocation : liveIn)
+		{
+			var content = contentsIn.get(allocation);
+			for (var i = allocation.offset(); i < allocation.offset() + allocation.size(); i++)
+			{
+				if (owners[i] || memoryIn[i] != content)
+				{
+					throw new IllegalStateException("Operation " + operationIn + " : unit " + i + (owners[i] ? " belongs to two allocations" : " lost its content"));
+				}
+				owners[i] = true;
+			}
+			used += allocation.size();
+		}
+		if (used != arenaIn.used() || liveIn.size() != arenaIn.allocationCount() || arenaIn.largestFreeBlock() > arenaIn.capacity() - used)
+		{
+			throw new IllegalStateException("Operation " + operationIn + " : " + arenaIn.used() + " units used for " + used + " allocated");
+		}
+	}
+
+	private static void meshArena(boolean multiDrawIndirectIn)
+	{
+		var gl     = new CapturingGL(multiDrawIndirectIn);
+		var state  = new GLState(gl);
+		var stream = new StreamBuffer(state, new GLFences(gl), GL32.GL_ARRAY_BUFFER, 4096, 3);
+		var arena  = new MeshArena(state, stream, VertexFormat.BYTE_POSITIONS_NORMALS, IndexType.UNSIGNED_INT, 64, 96);
+		var meshes = new ArrayList<ArenaMesh>();
+		for (var i = 0; i < 6; i++)
+		{
+			meshes.add(arena.add(cubes(i + 1)));
+		}
+		var name = multiDrawIndirectIn ? "multi draw indirect" : "base vertex draws";
+		check(arena.vertexAllocator().capacity() > 64 && arena.indexAllocator().capacity() > 96, name + " : the arena grew to " + arena.vertexAllocator().capacity() + " vertices and " + arena.indexAllocator().capacity() + " indices");
+
+		submit(gl, stream, arena, meshes, name + " : first submit");
+		// The last mesh fits in the range of the two removed before it
+		arena.remove(meshes.remove(3));
+		arena.remove(meshes.remove(3));
+		var moved = arena.defragment(Integer.MAX_VALUE);
+		check(moved > 0 && arena.vertexAllocator().fragmentation() == 0.0f, name + " : " + moved + " units moved by defragmentation");
+		submit(gl, stream, arena, meshes, name + " : submit after defragmentation");
+		arena.cleanup();
+		stream.cleanup();
+	}
+
+	/**
+	 * Queue every mesh with its own origin, submit and compare the recorded commands with the mesh ranges
+	 */
+	private static void submit(CapturingGL glIn, StreamBuffer streamIn, MeshArena arenaIn, List<ArenaMesh> meshesIn, String nameIn)
+	{
+		glIn.draws.clear();
+		glIn.drawCount = 0;
+		for (var i = 0; i < meshesIn.size(); i++)
+		{
+			arenaIn.draw(meshesIn.get(i), i * 32.0f, -i, i * 0.5f);
+		}
+		var draws = arenaIn.submit(GL32.GL_TRIANGLES);
+		streamIn.endFrame();
+
+		for (var i = 0; i < meshesIn.size(); i++)
+		{
+			var mesh = meshesIn.get(i);
+			// count, instanceCount, firstIndex and baseVertex then the x, y, z, w origin
+			var command = new int[4];
+			var origin  = new float[4];
+			if (arenaIn.multiDrawIndirect())
+			{
+				var offset = (int) glIn.indirect + i * DrawCommands.COMMAND_BYTES;
+				for (var field = 0; field < command.length; field++)
+				{
+					command[field] = glIn.mapping.getInt(offset + field * Integer.BYTES);
+				}
+				var originOffset = glIn.mapping.getInt(offset + 4 * Integer.BYTES) * DrawCommands.ORIGIN_BYTES;
+				for (var component = 0; component < origin.length; component++)
+				{
+					origin[component] = glIn.mapping.getFloat(originOffset + component * Float.BYTES);
+				}
+			}
+			else
+			{
+				var draw = glIn.draws.get(i);
+				command[0] = (int) draw[0];
+				command[1] = 1;
+				command[2] = (int) (draw[1] / IndexType.UNSIGNED_INT.bytes());
+				command[3] = (int) draw[2];
+				System.arraycopy(draw, 3, origin, 0, origin.length);
+			}
+			var count      = command[0];
+			var instances  = command[1];
+			var firstIndex = command[2];
+			var baseVertex = command[3];
+			if (count != mesh.indexCount() || instances != 1 || firstIndex != mesh.indices().offset() || baseVertex != mesh.vertices().offset())
+			{
+				throw new IllegalStateException(nameIn + " : command " + i + " draws " + count + " indices from " + firstIndex + " at base vertex " + baseVertex + " instead of " + mesh.indexCount() + " from " + mesh.indices().offset() + " at " + mesh.vertices().offset());
+			}
+			if (origin[0] != i * 32.0f || origin[1] != -i || origin[2] != i * 0.5f || origin[3] != 1.0f)
+			{
+				throw new IllegalStateException(nameIn + " : command " + i + " has origin (" + origin[0] + ", " + origin[1] + ", " + origin[2] + ", " + origin[3] + ")");
+			}
+		}
+		var expected = arenaIn.multiDrawIndirect() ? 1 : meshesIn.size();
+		check(draws == expected && glIn.drawCount == meshesIn.size() && arenaIn.queuedCount() == 0, nameIn + " : " + meshesIn.size() + " meshes drawn by " + draws + " calls at their ranges and origins");
+	}
+
+	/**
+	 * @return mesh of countIn separate unit cubes
+	 */
+	private static PackedMesh cubes(int countIn)
+	{
+		var builder = new MeshBuilder(VertexFormat.BYTE_POSITIONS_NORMALS);
+		for (var cube = 0; cube < countIn; cube++)
+		{
+			var x = cube * 2;
+			builder.quad(0, x, 0, 0, x, 0, 1, x, 1, 1, x, 1, 0);
+			builder.quad(1, x + 1, 0, 0, x + 1, 1, 0, x + 1, 1, 1, x + 1, 0, 1);
+			builder.quad(2, x, 0, 0, x + 1, 0, 0, x + 1, 0, 1, x, 0, 1);
+			builder.quad(3, x, 1, 0, x, 1, 1, x + 1, 1, 1, x + 1, 1, 0);
+			builder.quad(4, x, 0, 0, x, 1, 0, x + 1, 1, 0, x + 1, 0, 0);
+			builder.quad(5, x, 0, 1, x + 1, 0, 1, x + 1, 1, 1, x, 1, 1);
+		}
+
+		return builder.build();
+	}
+
+	private static void check(boolean conditionIn, String descriptionIn)
+	{
+		if (!conditionIn)
+		{
+			throw new IllegalStateException("Failed : " + descriptionIn);
+		}
+		System.out.println("ok : " + descriptionIn);
+	}
+
+	/**
+	 * Keeps the persistent mapping of the stream buffer and the arguments of the draws
+	 */
+	private final static class CapturingGL extends HeadlessGL
+	{
+		// count, indices byte offset, base vertex then the x, y, z, w origin per base vertex draw
+		private final List<float[]> draws = new ArrayList<>();
+		private       ByteBuffer    mapping;
+		private       long          indirect;
+		private       int           drawCount;
+		private       float[]       origin;
+
+		private CapturingGL(boolean multiDrawIndirectIn)
+		{
+			super(multiDrawIndirectIn, true);
+		}
+
+		@Override
+		public ByteBuffer glMapBufferRange(int targetIn, long offsetIn, long lengthIn, int accessIn)
+		{
+			mapping = super.glMapBufferRange(targetIn, offsetIn, lengthIn, accessIn);
+
+			return mapping;
+		}
+
+		@Override
+		public void glVertexAttrib4f(int indexIn, float xIn, float yIn, float zIn, float wIn)
+		{
+			origin = new float[] {xIn, yIn, zIn, wIn};
+		}
+
+		@Override
+		public void glDrawElementsBaseVertex(int modeIn, int countIn, int typeIn, long indicesIn, int baseVertexIn)
+		{
+			draws.add(new float[] {countIn, indicesIn, baseVertexIn, origin[0], origin[1], origin[2], origin[3]});
+			drawCount++;
+		}
+
+		@Override
+		public void glMultiDrawElementsIndirect(int modeIn, int typeIn, long indirectIn, int drawCountIn, int strideIn)
+		{
+			indirect  = indirectIn;
+			drawCount = drawCountIn;
+		}
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import org.joml.Matrix4d;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+
+import java.util.Random;
+
+/**
+ * Check the camera caches without window : matrices are only rebuilt after a change, the revision only moves on a change
+ * and the view written from the cached sines and cosines matches the rotations and translation JOML builds in double
+ * precision.
+ */
+public class LudaniCameraTests
+{
+	private final static int   ORIENTATIONS = 10_000;
+	private final static float TOLERANCE    = 1.0E-5f;
+
+	public static void main(final String[] args)
+	{
+		var camera      = new Camera(6.0D, 0.4D);
+		var projections = Render.projections(90.0f, 0.1f, 1000.0f, 1920, 1080, new Matrix4f());
+		camera.position(3.0f, 40.0f, -8.0f).projection(projections);
+		check(camera.viewDirty() && camera.viewProjectionDirty() && camera.inverseViewDirty() && camera.inverseViewProjectionDirty(), "every matrix is dirty before its first read");
+
+		camera.viewProjection();
+		check(!camera.viewDirty() && !camera.viewProjectionDirty() && camera.inverseViewDirty(), "reading the view projection only rebuilds the view and the view projection");
+		check(camera.viewUpdates() == 1 && camera.viewProjectionUpdates() == 1, "one rebuild each");
+
+		var revision = camera.revision();
+		camera.view();
+		camera.viewProjection();
+		camera.position(3.0f, 40.0f, -8.0f).orientation(0.0f, 0.0f).projection(new Matrix4f(projections));
+		check(camera.revision() == revision && camera.viewUpdates() == 1 && camera.viewProjectionUpdates() == 1, "unchanged values keep the caches");
+
+		camera.projection(Render.projections(70.0f, 0.1f, 1000.0f, 1920, 1080, new Matrix4f()));
+		check(!camera.viewDirty() && camera.viewProjectionDirty() && camera.revision() == revision + 1, "a new projection keeps the view");
+
+		camera.rotate(0.0f, 10.0f);
+		check(camera.viewDirty() && camera.revision() == revision + 2, "a turn dirties the view");
+		camera.rotate(200.0f, 0.0f);
+		check(camera.cameraOrientation().x() == 90.0f, "the pitch is clamped");
+
+		var random    = new Random(0x5EEDL);
+		var reference = new Matrix4d();
+		var expected  = new Matrix4f();
+		var maxError  = 0.0f;
+		for (var i = 0; i < ORIENTATIONS; i++)
+		{
+			camera.position(random.nextFloat() * 200.0f - 100.0f, random.nextFloat() * 100.0f, random.nextFloat() * 200.0f - 100.0f).orientation(random.nextFloat() * 180.0f - 90.0f, random.nextFloat() * 720.0f - 360.0f);
+			var position    = camera.cameraPosition();
+			var orientation = camera.cameraOrientation();
+			reference.identity().rotateX(Math.toRadians(orientation.x())).rotateY(Math.toRadians(orientation.y())).translate(-position.x(), -position.y(), -position.z());
+			maxError = Math.max(maxError, maxDifference(camera.view(), expected.set(reference)));
+
+			reference.invertAffine();
+			maxError = Math.max(maxError, maxDifference(camera.inverseView(), expected.set(reference)));
+		}
+		check(maxError < TOLERANCE, "views match JOML, largest relative difference " + maxError);
+
+		System.out.printf("%d views, %d view projections rebuilt, revision %d%n", camera.viewUpdates(), camera.viewProjectionUpdates(), camera.revision());
+	}
+
+	/**
+	 * @return largest difference between two elements, relative to the largest element of bIn when it is above 1
+	 */
+	private static float maxDifference(Matrix4fc aIn, Matrix4fc bIn)
+	{
+		var a = new float[16];
+		var b = new float[16];
+		aIn.get(a);
+		bIn.get(b);
+		var difference = 0.0f;
+		var scale      = 1.0f;
+		for (var i = 0; i < 16; i++)
+		{
+			difference = Math.max(difference, Math.abs(a[i] - b[i]));
+			scale      = Math.max(scale, Math.abs(b[i]));
+		}
+
+		return difference / scale;
+	}
+
+	private static void check(boolean conditionIn, String descriptionIn)
+	{
+		if (!conditionIn)
+		{
+			throw new IllegalStateException("Failed : " + descriptionIn);
+		}
+		System.out.println("ok : " + descriptionIn);
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.culling.ChunkGrid;
+import fr.onsiea.ludani.culling.Frustum;
+import fr.onsiea.ludani.terrain.VoxelChunk;
+import org.joml.Matrix4f;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * Cull a 100 x 100 chunks terrain without window from random synthetic cameras : the grid must return exactly the chunks a
+ * brute force test of every box keeps and known boxes must be classified as expected. The same cameras are then queried
+ * again over several rounds, each keeping its fastest query so that the thread being descheduled is not counted, and the
+ * median and the 99th percentile of a query must stay under 100 microseconds.
+ */
+public class LudaniCullingTests
+{
+	private final static int   CHUNKS_PER_SIDE = 100;
+	private final static int   SIZE            = VoxelChunk.SIZE;
+	private final static int   CAMERAS         = 2_000;
+	private final static float FAR             = 1600.0f;
+	// Untimed rounds over every camera so that the queries run compiled, then timed ones
+	private final static int   WARM_UP_ROUNDS  = 3;
+	private final static int   TIMED_ROUNDS    = 5;
+	private final static long  MAX_QUERY_NANOS = 100_000L;
+
+	public static void main(final String[] args)
+	{
+		var camera  = new Camera(6.0D, 0.4D).projection(Render.projections(70.0f, 0.1f, FAR, 1920, 1080, new Matrix4f()));
+		var frustum = new Frustum().update(camera.position(0.0f, 0.0f, 0.0f).orientation(0.0f, 0.0f).viewProjection());
+		check(frustum.intersectAabb(-1.0f, -1.0f, -20.0f, 1.0f, 1.0f, -10.0f) == Frustum.INSIDE, "a box ahead of the camera is inside");
+		check(frustum.intersectAabb(-1.0f, -1.0f, 10.0f, 1.0f, 1.0f, 20.0f) == Frustum.OUTSIDE, "a box behind the camera is outside");
+		check(frustum.intersectAabb(-1.0f, -1.0f, -1.0f, 1.0f, 1.0f, 1.0f) == Frustum.INTERSECT, "a box around the camera crosses the near plane");
+		check(frustum.intersectAabb(-1.0f, -1.0f, -FAR - 10.0f, 1.0f, 1.0f, -FAR + 10.0f) == Frustum.INTERSECT, "a box on the far plane crosses it");
+		check(frustum.testPoint(0.0f, 0.0f, -5.0f) && !frustum.testPoint(0.0f, 0.0f, 5.0f) && !frustum.testPoint(100.0f, 0.0f, -5.0f), "points ahead are visible, behind and aside are not");
+		camera.orientation(0.0f, 90.0f);
+		frustum.update(camera.viewProjection());
+		check(frustum.intersectAabb(10.0f, -1.0f, -1.0f, 20.0f, 1.0f, 1.0f) == Frustum.INSIDE && frustum.intersectAabb(-1.0f, -1.0f, -20.0f, 1.0f, 1.0f, -10.0f) == Frustum.OUTSIDE, "a yaw of 90 degrees looks toward +x");
+
+		var random = new Random(0x5EEDL);
+		var grid   = new ChunkGrid<Integer>(SIZE * 4);
+		var boxes  = new float[CHUNKS_PER_SIDE * CHUNKS_PER_SIDE * 6];
+		for (var chunk = 0; chunk < CHUNKS_PER_SIDE * CHUNKS_PER_SIDE; chunk++)
+		{
+			var offset = chunk * 6;
+			boxes[offset]     = (chunk / CHUNKS_PER_SIDE - CHUNKS_PER_SIDE / 2) * SIZE;
+			boxes[offset + 1] = 0.0f;
+			boxes[offset + 2] = (chunk % CHUNKS_PER_SIDE - CHUNKS_PER_SIDE / 2) * SIZE;
+			boxes[offset + 3] = boxes[offset] + SIZE;
+			boxes[offset + 4] = 4.0f + random.nextInt(SIZE * 2);
+			boxes[offset + 5] = boxes[offset + 2] + SIZE;
+			grid.add(chunk, boxes[offset], boxes[offset + 1], boxes[offset + 2], boxes[offset + 3], boxes[offset + 4], boxes[offset + 5]);
+		}
+		check(grid.size() == CHUNKS_PER_SIDE * CHUNKS_PER_SIDE, grid.size() + " chunks in " + grid.cellCount() + " cells");
+
+		var visible         = new ArrayList<Integer>();
+		var expected        = new HashSet<Integer>();
+		var viewProjections = new ArrayList<Matrix4f>();
+		var matched         = 0;
+		for (var i = 0; i < CAMERAS; i++)
+		{
+			var extent = CHUNKS_PER_SIDE * SIZE * 0.5f;
+			camera.position(random.nextFloat() * extent * 2.0f - extent, 10.0f + random.nextFloat() * 150.0f, random.nextFloat() * extent * 2.0f - extent).orientation(random.nextFloat() * 120.0f - 90.0f, random.nextFloat() * 360.0f);
+			frustum.update(camera.viewProjection());
+			viewProjections.add(new Matrix4f(camera.viewProjection()));
+
+			visible.clear();
+			grid.visible(frustum, visible);
+
+			expected.clear();
+			for (var offset = 0; offset < boxes.length; offset += 6)
+			{
+				if (frustum.testAabb(boxes[offset], boxes[offset + 1], boxes[offset + 2], boxes[offset + 3], boxes[offset + 4], boxes[offset + 5]))
+				{
+					expected.add(offset / 6);
+				}
+			}
+			if (visible.size() != expected.size() || !expected.equals(new HashSet<>(visible)))
+			{
+				throw new IllegalStateException("Camera " + i + " : the grid keeps " + visible.size() + " chunks, a test of every box keeps " + expected.size());
+			}
+			matched++;
+		}
+		check(matched == CAMERAS, CAMERAS + " cameras keep the same chunks as a test of every box");
+
+		var times  = new long[CAMERAS];
+		var total  = 0L;
+		var tested = 0L;
+		Arrays.fill(times, Long.MAX_VALUE);
+		for (var round = 0; round < WARM_UP_ROUNDS + TIMED_ROUNDS; round++)
+		{
+			total  = 0L;
+			tested = 0L;
+			for (var i = 0; i < CAMERAS; i++)
+			{
+				frustum.update(viewProjections.get(i));
+				visible.clear();
+				var start = System.nanoTime();
+				grid.visible(frustum, visible);
+				var time = System.nanoTime() - start;
+				if (round >= WARM_UP_ROUNDS)
+				{
+					times[i] = Math.min(times[i], time);
+				}
+				total += visible.size();
+				tested += grid.testedCount();
+			}
+		}
+		Arrays.sort(times);
+		var median = times[CAMERAS / 2];
+		var p99    = times[CAMERAS * 99 / 100];
+		System.out.printf("median query %.1f us, p99 %.1f us, %.1f%% visible, %.1f boxes tested per query%n", median / 1.0E3D, p99 / 1.0E3D, total * 100.0D / CAMERAS / grid.size(), tested / (double) CAMERAS);
+		check(median < MAX_QUERY_NANOS, "the median query takes less than " + MAX_QUERY_NANOS / 1_000L + " us");
+		check(p99 < MAX_QUERY_NANOS, "the 99th percentile query takes less than " + MAX_QUERY_NANOS / 1_000L + " us");
+
+		for (var chunk = 0; chunk < CHUNKS_PER_SIDE * CHUNKS_PER_SIDE; chunk += 2)
+		{
+			grid.remove(chunk);
+		}
+		camera.position(0.0f, 100.0f, 0.0f).orientation(90.0f, 0.0f);
+		visible.clear();
+		grid.visible(frustum.update(camera.viewProjection()), visible);
+		check(!visible.isEmpty() && visible.stream().allMatch(chunkIn -> chunkIn % 2 == 1), "removed chunks are no longer returned");
+	}
+
+	private static void check(boolean conditionIn, String descriptionIn)
+	{
+		if (!conditionIn)
+		{
+			throw new IllegalStateException("Failed : " + descriptionIn);
+		}
+		System.out.println("ok : " + descriptionIn);
+	}
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.gl.GLState;
+import fr.onsiea.ludani.gl.HeadlessGL;
+import fr.onsiea.ludani.gl.RecordingGL;
+import org.joml.Matrix4f;
+import org.lwjgl.opengl.GL32;
+
+/**
+ * Count the calls reaching a recording backend through the binding shadow and the uniform caches : binding the object
+ * already bound and uploading the matrix a uniform already holds must not reach it. Then replay the draws of a few frames
+ * once straight on the backend and once through the state, the first is full of redundant state changes and uploads, the
+ * second only sends the binds and matrices that change something.
+ */
+public class LudaniGLStateTests
+{
+	private final static int PROGRAMS      = 2;
+	private final static int VERTEX_ARRAYS = 4;
+	private final static int DRAWS         = 64;
+	private final static int FRAMES        = 3;
+	private final static int MATRIX_BYTES  = 16 * Float.BYTES;
+
+	public static void main(final String[] args)
+	{
+		bindings();
+		uniforms();
+		frames();
+	}
+
+	private static void bindings()
+	{
+		var recorder = new RecordingGL(new HeadlessGL());
+		var state    = new GLState(recorder);
+		var program  = recorder.glCreateProgram();
+
+		check(state.useProgram(program) && !state.useProgram(program), "using the current program again is skipped");
+		check(changes(recorder, 1, 0), "the recorder counts one program change");
+
+		var first  = recorder.glGenVertexArrays();
+		var second = recorder.glGenVertexArrays();
+		var buffer = recorder.glGenBuffers();
+		check(state.bindVertexArray(first) && !state.bindVertexArray(first), "binding the current vertex array again is skipped");
+		check(state.bindBuffer(GL32.GL_ARRAY_BUFFER, buffer) && !state.bindBuffer(GL32.GL_ARRAY_BUFFER, buffer), "binding the current array buffer again is skipped");
+		check(state.bindBuffer(GL32.GL_ELEMENT_ARRAY_BUFFER, buffer) && !state.bindBuffer(GL32.GL_ELEMENT_ARRAY_BUFFER, buffer), "binding the current element buffer again is skipped");
+		check(state.bindVertexArray(second) && state.bindBuffer(GL32.GL_ELEMENT_ARRAY_BUFFER, buffer), "the element buffer is bound again after switching vertex arrays");
+		check(!state.bindBuffer(GL32.GL_ARRAY_BUFFER, buffer), "the array buffer stays bound across vertex arrays");
+		check(changes(recorder, 5, 0), "the recorder counts the 5 binds that reached it, none redundant");
+
+		var uniformBuffer = recorder.glGenBuffers();
+		check(state.bindBufferBase(GL32.GL_UNIFORM_BUFFER, 0, uniformBuffer) && !state.bindBufferBase(GL32.GL_UNIFORM_BUFFER, 0, uniformBuffer), "binding the current indexed buffer again is skipped");
+		check(!state.bindBuffer(GL32.GL_UNIFORM_BUFFER, uniformBuffer), "an indexed bind also binds the generic target");
+		check(state.bindBufferBase(GL32.GL_UNIFORM_BUFFER, 1, uniformBuffer), "each index is tracked apart");
+
+		state.deleteBuffer(buffer);
+		check(state.bindBuffer(GL32.GL_ARRAY_BUFFER, buffer), "a deleted buffer is no longer bound");
+		state.invalidate();
+		check(state.useProgram(program) && state.bindVertexArray(second), "every bind reaches the backend after invalidating");
+		check(changes(recorder, 5, 2), "the recorder sees the 2 binds made redundant by the invalidation only");
+
+		state.deleteProgram(program);
+		check(state.program() == 0 && state.useProgram(program), "deleting the current program unbinds it");
+	}
+
+	private static void uniforms()
+	{
+		var recorder = new RecordingGL(new HeadlessGL());
+		var state    = new GLState(recorder);
+		var program  = recorder.glCreateProgram();
+		var other    = recorder.glCreateProgram();
+		var uniforms = state.uniforms(program);
+		var location = recorder.glGetUniformLocation(program, "modelViewProjection");
+		var matrix   = new Matrix4f().perspective(1.2f, 16.0f / 9.0f, 0.1f, 100.0f).translate(1.0f, 2.0f, -3.0f);
+
+		check(state.uniforms(program) == uniforms && state.uniforms(other) != uniforms, "each program has its own uniform cache");
+		check(uniforms.matrix4(location, matrix) && !uniforms.matrix4(location, matrix), "uploading the same matrix again is skipped");
+		check(!uniforms.matrix4(location, new Matrix4f(matrix)), "an equal matrix held by another object is skipped too");
+		check(uploads(recorder, 1), "the recorder counts one upload of 64 bytes");
+
+		matrix.translate(0.0f, 0.0f, 1.0f);
+		check(uniforms.matrix4(location, matrix) && !uniforms.matrix4(location, matrix), "a changed matrix is uploaded once");
+		check(!uniforms.matrix4(-1, matrix), "an inactive uniform is never uploaded");
+		check(uniforms.matrix4(40, matrix) && !uniforms.matrix4(40, matrix), "a location past the initial capacity is cached");
+		check(state.uniforms(other).matrix4(location, matrix), "the same location of another program is uploaded");
+		check(uploads(recorder, 3), "the recorder counts the 3 uploads that changed a value");
+
+		uniforms.invalidate();
+		check(uniforms.matrix4(location, matrix), "the matrix is uploaded again after invalidating the cache");
+		state.deleteProgram(program);
+		check(state.uniforms(program) != uniforms, "deleting a program drops its uniform cache");
+		check(uploads(recorder, 1), "the recorder counts the upload after the invalidation");
+	}
+
+	/**
+	 * Draws alternating between the programs and the vertex arrays, each with its own model view projection and a shared
+	 * projection per program, the same every frame
+	 */
+	private static void frames()
+	{
+		var direct       = new RecordingGL(new HeadlessGL());
+		var recorder     = new RecordingGL(new HeadlessGL());
+		var state        = new GLState(recorder);
+		var programs     = new int[PROGRAMS];
+		var vertexArrays = new int[VERTEX_ARRAYS];
+		var matrices     = new Matrix4f[DRAWS];
+		var projection   = new Matrix4f().perspective(1.2f, 16.0f / 9.0f, 0.1f, 100.0f);
+		var values       = new float[16];
+		for (var i = 0; i < PROGRAMS; i++)
+		{
+			programs[i] = recorder.glCreateProgram();
+			direct.glCreateProgram();
+		}
+		for (var i = 0; i < VERTEX_ARRAYS; i++)
+		{
+			vertexArrays[i] = recorder.glGenVertexArrays();
+			direct.glGenVertexArrays();
+		}
+		for (var i = 0; i < DRAWS; i++)
+		{
+			matrices[i] = new Matrix4f(projection).translate(i, 0.0f, -i);
+		}
+
+		// Consecutive draws share their program in runs of 8 and their vertex array in runs of 4
+		var changes = DRAWS / 8 + DRAWS / 4;
+		for (var frame = 0; frame < FRAMES; frame++)
+		{
+			for (var i = 0; i < DRAWS; i++)
+			{
+				var program     = programs[i / 8 % PROGRAMS];
+				var vertexArray = vertexArrays[i / 4 % VERTEX_ARRAYS];
+				direct.glUseProgram(program);
+				direct.glBindVertexArray(vertexArray);
+				direct.glUniformMatrix4fv(0, false, projection.get(values));
+				direct.glUniformMatrix4fv(1, false, matrices[i].get(values));
+				direct.glDrawArrays(GL32.GL_TRIANGLES, 0, 36);
+
+				state.useProgram(program);
+				state.bindVertexArray(vertexArray);
+				state.uniforms(program).matrix4(0, projection);
+				state.uniforms(program).matrix4(1, matrices[i]);
+				recorder.glDrawArrays(GL32.GL_TRIANGLES, 0, 36);
+			}
+
+			var unsorted = direct.endFrame();
+			var cached   = recorder.endFrame();
+			check(unsorted.stateChanges() == 2 * DRAWS && unsorted.redundantStateChanges() == 2 * DRAWS - changes && unsorted.uniformUploads() == 2 * DRAWS, "frame " + frame + " : " + unsorted.redundantStateChanges() + " of " + unsorted.stateChanges() + " binds are redundant without the state");
+			check(cached.stateChanges() == changes && cached.redundantStateChanges() == 0, "frame " + frame + " : only the " + changes + " binds changing something reach the backend");
+			check(cached.uniformUploads() == DRAWS + (frame == 0 ? PROGRAMS : 0) && cached.drawCalls() == DRAWS, "frame " + frame + " : " + cached.uniformUploads() + " matrices uploaded for " + DRAWS + " draws, the projection only once per program");
+		}
+	}
+
+	private static boolean changes(RecordingGL recorderIn, int stateChangesIn, int redundantIn)
+	{
+		var frame = recorderIn.endFrame();
+
+		return frame.stateChanges() == stateChangesIn && frame.redundantStateChanges() == redundantIn;
+	}
+
+	private static boolean uploads(RecordingGL recorderIn, int uploadsIn)
+	{
+		var frame = recorderIn.endFrame();
+
+		return frame.uniformUploads() == uploadsIn && frame.uniformBytes() == (long) uploadsIn * MATRIX_BYTES;
+	}
+
+	private static void check(boolean conditionIn, String descriptionIn)
+	{
+		if (!conditionIn)
+		{
+			throw new IllegalStateException("Failed : " + descriptionIn);
+		}
+		System.out.println("ok : " + descriptionIn);
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Run the terrain render path without GPU and check the recorded numbers of each frame : every visible chunk mesh is drawn,
+ * by one multi draw per arena or by one base vertex draw each with "base-vertex" as second argument, and no state change is
+ * redundant. The cube field is drawn by a single instanced draw. Draw commands are streamed through a persistent mapping,
+ * or with buffer orphaning given "orphaning".
+ */
+public class LudaniHeadlessTests
+{
+	private final static int  DEFAULT_FRAMES = 600;
+	// Leaves the streamer threads the time they would have between two frames at 60 frames per second
+	private final static long FRAME_NANOS    = 1_000_000_000L / 60;
+
+	public static void main(final String[] args) throws IOException
+	{
+		var frames            = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_FRAMES;
+		var multiDrawIndirect = args.length <= 1 || !"base-vertex".equals(args[1]);
+		var persistentMapping = args.length <= 1 || !"orphaning".equals(args[1]);
+		var worldDirectory    = Files.createTempDirectory("ludani-headless");
+		var headlessRender    = new HeadlessRender(worldDirectory, multiDrawIndirect, persistentMapping);
+		var gl                = headlessRender.gl();
+
+		try
+		{
+			headlessRender.initialization();
+			System.out.println("Initialization : " + gl.lastFrame());
+
+			for (var frame = 1; frame <= frames; frame++)
+			{
+				headlessRender.draw();
+
+				var statistics = gl.lastFrame();
+				var visible    = headlessRender.render().visibleCount();
+				var instanced  = headlessRender.render().instancedDrawCount();
+				var drawn      = multiDrawIndirect ? statistics.indirectCommands() : statistics.drawCalls() - instanced;
+				if (drawn != visible || statistics.drawCalls() != headlessRender.render().drawCount())
+				{
+					throw new IllegalStateException("Frame " + frame + " : " + drawn + " meshes drawn by " + statistics.drawCalls() + " draw calls for " + visible + " visible meshes");
+				}
+				if (multiDrawIndirect && statistics.drawCalls() - instanced > headlessRender.render().arenaCount())
+				{
+					throw new IllegalStateException("Frame " + frame + " : " + (statistics.drawCalls() - instanced) + " multi draws for " + headlessRender.render().arenaCount() + " arenas");
+				}
+				if (statistics.instances() != headlessRender.render().cubeField().count())
+				{
+					throw new IllegalStateException("Frame " + frame + " : " + statistics.instances() + " instances drawn for " + headlessRender.render().cubeField().count() + " cubes");
+				}
+				if (statistics.redundantStateChanges() != 0)
+				{
+					throw new IllegalStateException("Frame " + frame + " : " + statistics.redundantStateChanges() + " redundant state changes");
+				}
+				if (frame % 60 == 0)
+				{
+					System.out.println("Frame " + frame + " : " + statistics);
+				}
+
+				LockSupport.parkNanos(FRAME_NANOS);
+			}
+		}
+		finally
+		{
+			headlessRender.cleanup();
+			try (Stream<Path> paths = Files.walk(worldDirectory))
+			{
+				for (var path : paths.sorted(Comparator.reverseOrder()).toList())
+				{
+					Files.delete(path);
+				}
+			}
+		}
+
+		var stream = headlessRender.render().stream();
+		System.out.println("Stream buffer : " + (stream.persistent() ? "persistent" : "orphaning") + ", " + stream.capacity() + " bytes, " + stream.wrapCount() + " wraps, " + stream.stallCount() + " stalls");
+		var total  = gl.total();
+		System.out.println("Total over " + gl.frameCount() + " frames : " + total);
+		System.out.printf("Per frame : %.2f draw calls, %.0f bytes uploaded%n", (double) total.drawCalls() / frames, (double) total.bytesUploaded() / frames);
+		System.out.print("Frame profile :\n" + headlessRender.profiler().snapshot());
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.input.InputRing;
+import fr.onsiea.ludani.input.InputScript;
+import fr.onsiea.ludani.input.InputState;
+import org.lwjgl.glfw.GLFW;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Replay the same input script without window at several frame rates : events go through an {@link InputRing} to an
+ * {@link InputState} consumed by fixed update ticks, so the camera must end at the same place whatever the frame rate.
+ * Prints the final camera of each rate and the bytes allocated by the frame loop.
+ */
+public class LudaniInputTests
+{
+	private final static int[] FRAME_RATES    = {30, 60, 144, 240};
+	private final static int   UPDATE_RATE    = 60;
+	private final static long  UPDATE_NANOS   = 1_000_000_000L / UPDATE_RATE;
+	private final static float UPDATE_SECONDS = 1.0f / UPDATE_RATE;
+	private final static long  DURATION       = 10_000_000_000L;
+
+	public static void main(final String[] args)
+	{
+		var    script = script();
+		var    memory = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		Camera first  = null;
+		for (var frameRate : FRAME_RATES)
+		{
+			var camera = new Camera(6.0D, 0.4D);
+			var ring   = new InputRing();
+			var state  = new InputState();
+			script.rewind();
+
+			// Emulated clock, frames end every period and run the updates whose time has come
+			var period     = 1_000_000_000L / frameRate;
+			var nextUpdate = 0L;
+			var allocated  = memory.getCurrentThreadAllocatedBytes();
+			for (var time = 0L; time < DURATION; time += period)
+			{
+				while (time - nextUpdate >= 0L)
+				{
+					script.play(state.tick(), ring);
+					camera.update(state.update(ring), UPDATE_SECONDS);
+					nextUpdate += UPDATE_NANOS;
+				}
+			}
+			allocated = memory.getCurrentThreadAllocatedBytes() - allocated;
+
+			System.out.printf("%3d fps : %d ticks, position %s, orientation %s, %d bytes allocated, %d dropped events%n", frameRate, state.tick(), camera.cameraPosition(), camera.cameraOrientation(), allocated, ring.droppedCount());
+			if (first == null)
+			{
+				first = camera;
+			}
+			else if (!first.cameraPosition().equals(camera.cameraPosition()) || !first.cameraOrientation().equals(camera.cameraOrientation()))
+			{
+				throw new IllegalStateException("Camera at " + frameRate + " fps differs from the camera at " + FRAME_RATES[0] + " fps");
+			}
+		}
+	}
+
+	/**
+	 * Walk forward while turning right, strafe left, then look up and fly
+	 */
+	private static InputScript script()
+	{
+		var script = new InputScript();
+		script.at(0L).cursor(0.0D, 0.0D);
+		script.at(10L).key(GLFW.GLFW_KEY_W, GLFW.GLFW_PRESS);
+		for (var tick = 11L; tick < 200L; tick++)
+		{
+			script.at(tick).cursor((tick - 10L) * 2.0D, 0.0D);
+		}
+		script.at(200L).key(GLFW.GLFW_KEY_W, GLFW.GLFW_RELEASE);
+		script.key(GLFW.GLFW_KEY_A, GLFW.GLFW_PRESS);
+		script.at(320L).key(GLFW.GLFW_KEY_A, GLFW.GLFW_RELEASE);
+		for (var tick = 321L; tick < 400L; tick++)
+		{
+			script.at(tick).cursor(378.0D, (321L - tick) * 1.5D);
+		}
+		script.at(400L).key(GLFW.GLFW_KEY_SPACE, GLFW.GLFW_PRESS);
+		script.key(GLFW.GLFW_KEY_W, GLFW.GLFW_PRESS);
+		script.at(520L).key(GLFW.GLFW_KEY_SPACE, GLFW.GLFW_RELEASE);
+		script.key(GLFW.GLFW_KEY_W, GLFW.GLFW_RELEASE);
+
+		return script;
+	}
+}
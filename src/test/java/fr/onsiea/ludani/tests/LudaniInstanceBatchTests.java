@@ -0,0 +1,226 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.gl.GLState;
+import fr.onsiea.ludani.gl.HeadlessGL;
+import fr.onsiea.ludani.gl.RecordingGL;
+import fr.onsiea.ludani.mesh.VertexFormat;
+import fr.onsiea.ludani.render.InstanceBatch;
+import org.lwjgl.opengl.GL32;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Check an instance batch without window : the instance buffer doubles and is specified again with the whole list, the
+ * last instance takes the slot of a removed one, and each upload only sends the changed range, counted by the recorder
+ * and copied into the memory the fake buffers keep, which must match the instances after every upload.
+ */
+public class LudaniInstanceBatchTests
+{
+	private final static int INSTANCES = 40;
+
+	public static void main(final String[] args)
+	{
+		var memory   = new MemoryGL();
+		var recorder = new RecordingGL(memory);
+		var format   = VertexFormat.BYTE_POSITIONS;
+		var vertices = ByteBuffer.allocateDirect(3 * format.bytesPerVertex()).order(ByteOrder.nativeOrder());
+		var batch    = new InstanceBatch(new GLState(recorder), format, vertices, 3, 0);
+		check(memory.specifications.equals(List.of(16L * InstanceBatch.INSTANCE_BYTES)), "the instance buffer starts with 16 instances");
+		recorder.endFrame();
+
+		for (var instance = 0; instance < 16; instance++)
+		{
+			check(add(batch, instance) == instance, "instance " + instance + " is added at the end");
+		}
+		check(batch.upload() == 16 * InstanceBatch.INSTANCE_BYTES && memory.offset == 0, "the first upload sends the 16 instances");
+		check(memory.specifications.size() == 1, "16 instances fit without growing");
+		check(uploads(recorder, 1, 16 * InstanceBatch.INSTANCE_BYTES), "the recorder counts one upload of the 16 instances");
+		matches(memory, batch);
+
+		add(batch, 16);
+		check(batch.upload() == 17 * InstanceBatch.INSTANCE_BYTES && memory.offset == 0, "the upload after a grow sends the whole list");
+		check(memory.specifications.equals(List.of(16L * InstanceBatch.INSTANCE_BYTES, 32L * InstanceBatch.INSTANCE_BYTES)), "the 17th instance doubles the buffer");
+		// glBufferData without data counts as an upload of no byte
+		check(uploads(recorder, 2, 17 * InstanceBatch.INSTANCE_BYTES), "the recorder counts the respecification and the whole list");
+		matches(memory, batch);
+
+		for (var instance = 17; instance < INSTANCES; instance++)
+		{
+			add(batch, instance);
+		}
+		check(batch.upload() == INSTANCES * InstanceBatch.INSTANCE_BYTES, "the upload after the second grow sends the whole list");
+		check(memory.specifications.equals(List.of(16L * InstanceBatch.INSTANCE_BYTES, 32L * InstanceBatch.INSTANCE_BYTES, 64L * InstanceBatch.INSTANCE_BYTES)), "the 33rd instance doubles the buffer again");
+		matches(memory, batch);
+		recorder.endFrame();
+
+		check(batch.upload() == 0, "nothing is sent without change");
+		batch.set(5, batch.x(5), batch.y(5), batch.z(5), batch.scale(5));
+		check(batch.upload() == 0, "setting the same values sends nothing");
+		check(uploads(recorder, 0, 0), "the recorder counts no upload without change");
+
+		batch.set(3, -1.0f, -2.0f, -3.0f, 0.5f);
+		batch.set(9, -4.0f, -5.0f, -6.0f, 0.25f);
+		check(batch.upload() == 7 * InstanceBatch.INSTANCE_BYTES && memory.offset == 3 * InstanceBatch.INSTANCE_BYTES, "the upload sends the instances 3 to 9");
+		check(uploads(recorder, 1, 7 * InstanceBatch.INSTANCE_BYTES), "the recorder counts the dirty range");
+		matches(memory, batch);
+
+		var last = batch.count() - 1;
+		var x    = batch.x(last);
+		var y    = batch.y(last);
+		var z    = batch.z(last);
+		check(batch.remove(4) == last && batch.count() == last, "removing instance 4 returns the index of the last instance");
+		check(batch.x(4) == x && batch.y(4) == y && batch.z(4) == z, "the last instance takes the slot 4");
+		check(batch.upload() == InstanceBatch.INSTANCE_BYTES && memory.offset == 4 * InstanceBatch.INSTANCE_BYTES, "the upload sends only the slot 4");
+		check(uploads(recorder, 1, InstanceBatch.INSTANCE_BYTES), "the recorder counts the single slot");
+		matches(memory, batch);
+
+		check(batch.remove(batch.count() - 1) == -1, "removing the last instance moves nothing");
+		check(batch.upload() == 0, "removing the last instance sends nothing");
+
+		check(batch.remove(2) == batch.count(), "removing instance 2 returns the index of the last instance");
+		batch.set(10, 1.0f, 2.0f, 3.0f, 4.0f);
+		check(batch.upload() == 9 * InstanceBatch.INSTANCE_BYTES && memory.offset == 2 * InstanceBatch.INSTANCE_BYTES, "a removal and a move send the range between them");
+		matches(memory, batch);
+
+		// The range ends past the count once its last instance is removed
+		last = batch.count() - 1;
+		batch.set(last, 7.0f, 7.0f, 7.0f, 7.0f);
+		batch.remove(last);
+		check(batch.upload() == 0, "a range past the count sends nothing");
+		check(uploads(recorder, 1, 9 * InstanceBatch.INSTANCE_BYTES), "the recorder counts the uploads since the last check");
+
+		check(batch.draw(GL32.GL_TRIANGLES) == 1 && memory.instanceCount == batch.count(), "every instance is drawn by one call");
+		var statistics = recorder.endFrame();
+		check(statistics.drawCalls() == 1 && statistics.instances() == batch.count() && statistics.elements() == 3L * batch.count(), "the recorder counts one instanced draw");
+
+		batch.clear();
+		check(batch.draw(GL32.GL_TRIANGLES) == 0 && recorder.endFrame().drawCalls() == 0, "an empty batch is not drawn");
+		batch.cleanup();
+	}
+
+	private static int add(InstanceBatch batchIn, int instanceIn)
+	{
+		return batchIn.add(instanceIn, 2.0f * instanceIn, -instanceIn, 1.0f + instanceIn / 8.0f);
+	}
+
+	private static boolean uploads(RecordingGL recorderIn, int uploadsIn, int bytesIn)
+	{
+		var frame = recorderIn.endFrame();
+
+		return frame.bufferUploads() == uploadsIn && frame.bytesUploaded() == bytesIn;
+	}
+
+	/**
+	 * Compare the instances with the bytes of the instance buffer
+	 */
+	private static void matches(MemoryGL memoryIn, InstanceBatch batchIn)
+	{
+		var buffer     = memoryIn.buffers.get(memoryIn.instanceBuffer);
+		var mismatches = 0;
+		for (var instance = 0; instance < batchIn.count(); instance++)
+		{
+			var offset = instance * InstanceBatch.INSTANCE_BYTES;
+			if (buffer.getFloat(offset) != batchIn.x(instance) || buffer.getFloat(offset + Float.BYTES) != batchIn.y(instance) || buffer.getFloat(offset + 2 * Float.BYTES) != batchIn.z(instance) || buffer.getFloat(offset + 3 * Float.BYTES) != batchIn.scale(instance))
+			{
+				mismatches++;
+			}
+		}
+		check(mismatches == 0, "the instance buffer holds the " + batchIn.count() + " instances");
+	}
+
+	private static void check(boolean conditionIn, String descriptionIn)
+	{
+		if (!conditionIn)
+		{
+			throw new IllegalStateException("Failed : " + descriptionIn);
+		}
+		System.out.println("ok : " + descriptionIn);
+	}
+
+	/**
+	 * Keeps the content of every buffer, the sizes given to the instance buffer and the last sub data offset
+	 */
+	private final static class MemoryGL extends HeadlessGL
+	{
+		private final Map<Integer, ByteBuffer> buffers        = new HashMap<>();
+		private final List<Long>               specifications = new ArrayList<>();
+		private       int                      bound;
+		// Last buffer specified without data
+		private       int                      instanceBuffer;
+		private       long                     offset;
+		private       int                      instanceCount;
+
+		@Override
+		public void glBindBuffer(int targetIn, int bufferIn)
+		{
+			if (targetIn == GL32.GL_ARRAY_BUFFER)
+			{
+				bound = bufferIn;
+			}
+		}
+
+		@Override
+		public void glBufferData(int targetIn, ByteBuffer dataIn, int usageIn)
+		{
+			buffers.put(bound, ByteBuffer.allocate(dataIn.remaining()).order(ByteOrder.nativeOrder()).put(0, dataIn, dataIn.position(), dataIn.remaining()));
+		}
+
+		@Override
+		public void glBufferData(int targetIn, long sizeIn, int usageIn)
+		{
+			buffers.put(bound, ByteBuffer.allocate((int) sizeIn).order(ByteOrder.nativeOrder()));
+			instanceBuffer = bound;
+			specifications.add(sizeIn);
+		}
+
+		@Override
+		public void glBufferSubData(int targetIn, long offsetIn, ByteBuffer dataIn)
+		{
+			buffers.get(bound).put((int) offsetIn, dataIn, dataIn.position(), dataIn.remaining());
+			offset = offsetIn;
+		}
+
+		@Override
+		public void glDrawArraysInstanced(int modeIn, int firstIn, int countIn, int instanceCountIn)
+		{
+			instanceCount = instanceCountIn;
+		}
+	}
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.terrain.VoxelChunk;
+import fr.onsiea.ludani.terrain.VoxelWorld;
+import fr.onsiea.ludani.terrain.lod.ColumnHeightmap;
+import fr.onsiea.ludani.terrain.lod.LodMesher;
+import fr.onsiea.ludani.terrain.lod.LodSelector;
+import fr.onsiea.ludani.terrain.lod.TerrainLod;
+import fr.onsiea.ludani.terrain.meshing.Face;
+import fr.onsiea.ludani.terrain.meshing.GreedyMesher;
+import fr.onsiea.ludani.terrain.meshing.IQuadSink;
+import fr.onsiea.ludani.terrain.streaming.ChunkStreamer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Mesh every level of detail of synthetic terrain columns without window. Each coarse mesh must cover exactly the faces of its
+ * boxes that touch air, the column border counting as air, so every column is closed whatever the level of its neighbours and
+ * no crack can show, and its boxes must contain every voxel of the full resolution terrain. The triangles must stay within
+ * the budget of each level and {@link TerrainLod} must count the ones drawn as the camera moves.
+ */
+public class LudaniLodTests
+{
+	private final static int SIZE      = VoxelChunk.SIZE;
+	private final static int COLUMNS   = 6;
+	private final static int LOD_COUNT = VoxelChunk.SIZE_SHIFT + 1;
+
+	public static void main(final String[] args)
+	{
+		var world = new VoxelWorld();
+		for (var x = 0; x < COLUMNS * SIZE; x++)
+		{
+			for (var z = 0; z < COLUMNS * SIZE; z++)
+			{
+				var height = (int) (24.0D + 20.0D * Math.sin(x * 0.07D) * Math.cos(z * 0.05D) + 6.0D * Math.sin((x + 2 * z) * 0.3D));
+				// Cliffs seen from below on part of the terrain, so bottom walls are meshed too
+				var bottom = (x ^ z) % 11 == 0 ? height - 5 : -8;
+				world.fillColumn(x, z, bottom, height);
+			}
+		}
+
+		var lod       = new TerrainLod(new LodSelector(0.1f, 64.0f, 128.0f, 192.0f, 256.0f, 320.0f));
+		var triangles = new long[LOD_COUNT];
+		var closed    = 0;
+		for (var columnX = 0; columnX < COLUMNS; columnX++)
+		{
+			for (var columnZ = 0; columnZ < COLUMNS; columnZ++)
+			{
+				var column = new ArrayList<VoxelChunk>();
+				for (var chunk : world.chunks())
+				{
+					if (chunk.x() == columnX && chunk.z() == columnZ)
+					{
+						column.add(chunk);
+					}
+				}
+				column.sort(Comparator.comparingInt(VoxelChunk::y));
+
+				var counts = new int[LOD_COUNT];
+				var mesh   = new Faces();
+				var mesher = new GreedyMesher();
+				for (var chunk : column)
+				{
+					mesher.mesh(world, chunk, mesh);
+				}
+				counts[0] = mesh.quads * 2;
+
+				var heightmap = ColumnHeightmap.of(column);
+				for (var level = 1; level < LOD_COUNT; level++)
+				{
+					var coarse = heightmap.downsample(level);
+					mesh = new Faces();
+					new LodMesher().mesh(coarse, columnX, columnZ, mesh);
+					counts[level] = mesh.quads * 2;
+					checkClosed(world, coarse, columnX, columnZ, mesh.faces, "column (" + columnX + ", " + columnZ + ") at level " + level);
+					closed++;
+
+					var size   = coarse.size();
+					var budget = 2 * (2 * size * size + 4 * size + 8 * size * (size - 1));
+					if (counts[level] > budget || counts[level] > counts[level - 1])
+					{
+						throw new IllegalStateException("Column (" + columnX + ", " + columnZ + ") : " + counts[level] + " triangles at level " + level + ", budget " + budget + ", " + counts[level - 1] + " at the previous level");
+					}
+				}
+				for (var level = 0; level < LOD_COUNT; level++)
+				{
+					triangles[level] += counts[level];
+				}
+				lod.add(ChunkStreamer.key(columnX, columnZ), columnX, columnZ, counts, 0.0f, 0.0f);
+			}
+		}
+		check(closed == COLUMNS * COLUMNS * (LOD_COUNT - 1), COLUMNS * COLUMNS + " columns are closed and contain their voxels at every level");
+		var summary = new StringBuilder();
+		for (var level = 0; level < LOD_COUNT; level++)
+		{
+			summary.append(level == 0 ? "" : ", ").append(triangles[level]);
+		}
+		check(triangles[1] * 2 < triangles[0] && triangles[LOD_COUNT - 1] == 12L * COLUMNS * COLUMNS, "every level stays in its triangle budget : " + summary);
+
+		checkCounts(lod, triangles);
+		var changes = new int[1];
+		lod.update(0.0f, 0.0f, (keyIn, previousLodIn, lodIn) -> changes[0]++);
+		check(changes[0] == 0, "an unmoved camera changes no level");
+		var corner = lod.lod(ChunkStreamer.key(COLUMNS - 1, COLUMNS - 1));
+		lod.update(COLUMNS * SIZE * 0.5f, COLUMNS * SIZE * 0.5f, (keyIn, previousLodIn, lodIn) -> changes[0]++);
+		check(lod.lod(ChunkStreamer.key(COLUMNS / 2, COLUMNS / 2)) == 0 && lod.lod(ChunkStreamer.key(COLUMNS - 1, COLUMNS - 1)) < corner && lod.lod(ChunkStreamer.key(0, 0)) > 0, "moving to the center refines the far corner and coarsens the near one");
+		check(changes[0] > 0 && lod.triangleCount() < lod.uniformTriangleCount(0), changes[0] + " columns changed, " + lod.triangleCount() + " triangles drawn instead of " + lod.uniformTriangleCount(0));
+		checkCounts(lod, triangles);
+
+		var selector = new LodSelector(0.1f, 100.0f, 200.0f);
+		check(selector.select(99.0f) == 0 && selector.select(101.0f) == 1 && selector.select(250.0f) == 2, "levels start past their distance");
+		check(selector.select(0, 105.0f) == 0 && selector.select(0, 111.0f) == 1 && selector.select(1, 95.0f) == 1 && selector.select(1, 89.0f) == 0, "levels only change past the hysteresis band");
+	}
+
+	/**
+	 * Triangles per level must add up to the drawn triangles, whatever level each column is at
+	 */
+	private static void checkCounts(TerrainLod lodIn, long[] trianglesIn)
+	{
+		var total   = 0L;
+		var columns = 0;
+		for (var level = 0; level < LOD_COUNT; level++)
+		{
+			total += lodIn.triangleCount(level);
+			columns += lodIn.columnCount(level);
+			if (lodIn.uniformTriangleCount(level) != trianglesIn[level])
+			{
+				throw new IllegalStateException("Level " + level + " : " + lodIn.uniformTriangleCount(level) + " triangles if uniform instead of " + trianglesIn[level]);
+			}
+		}
+		check(total == lodIn.triangleCount() && columns == lodIn.size(), "triangles per level add up to " + total);
+	}
+
+	/**
+	 * Compare the unit faces covered by the quads with the faces of the boxes touching air, the column border counting as air
+	 */
+	private static void checkClosed(VoxelWorld worldIn, ColumnHeightmap heightmapIn, int columnXIn, int columnZIn, Set<UnitFace> facesIn, String nameIn)
+	{
+		var size     = heightmapIn.size();
+		var cellSize = heightmapIn.cellSize();
+		var expected = new HashSet<UnitFace>();
+		for (var x = 0; x < SIZE; x++)
+		{
+			for (var z = 0; z < SIZE; z++)
+			{
+				var cellX = x / cellSize;
+				var cellZ = z / cellSize;
+				for (var y = heightmapIn.minBottom() - 1; y <= heightmapIn.maxTop(); y++)
+				{
+					var worldX = columnXIn * SIZE + x;
+					var worldZ = columnZIn * SIZE + z;
+					var inside = inside(heightmapIn, cellX, cellZ, y);
+					if (worldIn.solid(worldX, y, worldZ) && !inside)
+					{
+						throw new IllegalStateException(nameIn + " : voxel (" + worldX + ", " + y + ", " + worldZ + ") is out of the coarse boxes");
+					}
+					if (!inside)
+					{
+						continue;
+					}
+					for (var face : Face.VALUES)
+					{
+						var neighbourX = x + face.normalX();
+						var neighbourZ = z + face.normalZ();
+						var border     = neighbourX < 0 || neighbourZ < 0 || neighbourX >= SIZE || neighbourZ >= SIZE;
+						if (border || !inside(heightmapIn, neighbourX / cellSize, neighbourZ / cellSize, y + face.normalY()))
+						{
+							expected.add(new UnitFace(face.ordinal(), worldX, y, worldZ));
+						}
+					}
+				}
+			}
+		}
+		if (!expected.equals(facesIn) || size != SIZE / cellSize)
+		{
+			throw new IllegalStateException(nameIn + " : " + facesIn.size() + " faces meshed, " + expected.size() + " faces touch air");
+		}
+	}
+
+	private static boolean inside(ColumnHeightmap heightmapIn, int cellXIn, int cellZIn, int yIn)
+	{
+		return !heightmapIn.isEmpty(cellXIn, cellZIn) && yIn >= heightmapIn.bottom(cellXIn, cellZIn) && yIn < heightmapIn.top(cellXIn, cellZIn);
+	}
+
+	private static void check(boolean conditionIn, String descriptionIn)
+	{
+		if (!conditionIn)
+		{
+			throw new IllegalStateException("Failed : " + descriptionIn);
+		}
+		System.out.println("ok : " + descriptionIn);
+	}
+
+	private record UnitFace(int face, int x, int y, int z)
+	{
+	}
+
+	/**
+	 * Counts the quads and rasterizes them into unit faces, failing on overlaps
+	 */
+	private final static class Faces implements IQuadSink
+	{
+		private final Set<UnitFace> faces = new HashSet<>();
+		private       int           quads;
+
+		@Override
+		public void quad(int faceIn, int x0In, int y0In, int z0In, int x1In, int y1In, int z1In, int x2In, int y2In, int z2In, int x3In, int y3In, int z3In)
+		{
+			quads++;
+			var face  = Face.VALUES[faceIn];
+			var shift = face.direction() > 0 ? 1 : 0;
+			var minX  = Math.min(x0In, x2In);
+			var minY  = Math.min(y0In, y2In);
+			var minZ  = Math.min(z0In, z2In);
+			var maxX  = Math.max(Math.max(x0In, x2In), minX + 1);
+			var maxY  = Math.max(Math.max(y0In, y2In), minY + 1);
+			var maxZ  = Math.max(Math.max(z0In, z2In), minZ + 1);
+			for (var x = minX - face.normalX() * shift; x < maxX - face.normalX() * shift; x++)
+			{
+				for (var y = minY - face.normalY() * shift; y < maxY - face.normalY() * shift; y++)
+				{
+					for (var z = minZ - face.normalZ() * shift; z < maxZ - face.normalZ() * shift; z++)
+					{
+						if (!faces.add(new UnitFace(faceIn, x, y, z)))
+						{
+							throw new IllegalStateException("Quads overlap on face " + face + " of voxel (" + x + ", " + y + ", " + z + ")");
+						}
+					}
+				}
+			}
+		}
+	}
+}
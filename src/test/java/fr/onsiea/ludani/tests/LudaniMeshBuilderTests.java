@@ -0,0 +1,175 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.mesh.IVertexColors;
+import fr.onsiea.ludani.mesh.IndexType;
+import fr.onsiea.ludani.mesh.MeshBuilder;
+import fr.onsiea.ludani.mesh.VertexFormat;
+import fr.onsiea.ludani.terrain.VoxelChunk;
+import fr.onsiea.ludani.terrain.VoxelWorld;
+import fr.onsiea.ludani.terrain.meshing.GreedyMesher;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Check the packed vertex formats sizes without window, then mesh a chunk with every format and decode the packed
+ * vertices and indices back : each triangle corner must give the position, normal and color of the quad corner it comes
+ * from, shared vertices must be stored once and the index type must follow the vertex count.
+ */
+public class LudaniMeshBuilderTests
+{
+	private final static int[]          CORNERS = {0, 1, 2, 2, 3, 0};
+	private final static VertexFormat[] FORMATS = {VertexFormat.BYTE_POSITIONS, VertexFormat.BYTE_POSITIONS_NORMALS, VertexFormat.BYTE_POSITIONS_NORMALS_COLORS, VertexFormat.SHORT_POSITIONS, VertexFormat.SHORT_POSITIONS_NORMALS};
+
+	public static void main(final String[] args)
+	{
+		check(VertexFormat.BYTE_POSITIONS.bytesPerVertex() == 4 && VertexFormat.BYTE_POSITIONS_NORMALS.bytesPerVertex() == 4, "byte positions take 4 bytes, the normal fills the fourth one");
+		check(VertexFormat.BYTE_POSITIONS_NORMALS_COLORS.bytesPerVertex() == 8 && VertexFormat.BYTE_POSITIONS_NORMALS_COLORS.colorOffset() == 4, "colors add 4 bytes after the position");
+		check(VertexFormat.SHORT_POSITIONS.bytesPerVertex() == 8 && VertexFormat.SHORT_POSITIONS_NORMALS.maxCoordinate() == 0xFFFF, "short positions take 8 bytes up to 65535");
+		check(VertexFormat.BYTE_POSITIONS_NORMALS_COLORS.unpackedBytesPerVertex() == 40, "the unpacked equivalent takes 40 bytes");
+		check(new VertexFormat(1, true, false).equals(VertexFormat.BYTE_POSITIONS_NORMALS), "formats with the same layout are equal");
+
+		var cube = new VoxelWorld().solid(1, 1, 1, true);
+		check(build(cube, VertexFormat.BYTE_POSITIONS_NORMALS).vertexCount() == 24, "a voxel with normals stores 24 vertices");
+		check(build(cube, VertexFormat.BYTE_POSITIONS).vertexCount() == 8, "a voxel without normals shares its 8 corners");
+
+		var world  = new VoxelWorld();
+		var random = new Random(0x5EEDL);
+		for (var x = 0; x < VoxelChunk.SIZE; x++)
+		{
+			for (var z = 0; z < VoxelChunk.SIZE; z++)
+			{
+				world.fillColumn(x, z, 0, 1 + random.nextInt(VoxelChunk.SIZE - 1));
+			}
+		}
+		for (var format : FORMATS)
+		{
+			checkRoundTrip(world, format);
+		}
+
+		var builder = new MeshBuilder(VertexFormat.SHORT_POSITIONS);
+		for (var i = 0; i < 70_000; i++)
+		{
+			builder.vertex(i & 0xFF, i >> 8, 0, 0, 0);
+		}
+		builder.triangle(0, 69_999, 1);
+		var mesh = builder.build();
+		check(mesh.indexType() == IndexType.UNSIGNED_INT && mesh.index(1) == 69_999 && mesh.indexBytes() == 12, "more than 65536 vertices switch to int indices");
+		check(builder.clear().vertex(3, 4, 5, 0, 0) == 0 && builder.vertexCount() == 1, "a cleared builder starts again from the first vertex");
+
+		var outOfRange = false;
+		try
+		{
+			new MeshBuilder(VertexFormat.BYTE_POSITIONS).vertex(256, 0, 0, 0, 0);
+		}
+		catch (IllegalArgumentException eIn)
+		{
+			outOfRange = true;
+		}
+		check(outOfRange, "a coordinate above the format range is refused");
+	}
+
+	private static MeshBuilder build(VoxelWorld worldIn, VertexFormat formatIn)
+	{
+		var builder = new MeshBuilder(formatIn);
+		var mesher  = new GreedyMesher();
+		for (var chunk : worldIn.chunks())
+		{
+			mesher.mesh(worldIn, chunk, builder);
+		}
+
+		return builder;
+	}
+
+	private static void checkRoundTrip(VoxelWorld worldIn, VertexFormat formatIn)
+	{
+		IVertexColors colors  = (faceIn, xIn, yIn, zIn) -> xIn * 0x01000000 ^ yIn * 0x00010100 ^ zIn * 0x00000101 ^ faceIn;
+		var           builder = new MeshBuilder(formatIn, 0, 0, 0, colors);
+		var           quads   = new ArrayList<int[]>();
+		var           mesher  = new GreedyMesher();
+		for (var chunk : worldIn.chunks())
+		{
+			mesher.mesh(worldIn, chunk, (faceIn, x0In, y0In, z0In, x1In, y1In, z1In, x2In, y2In, z2In, x3In, y3In, z3In) ->
+			{
+				quads.add(new int[] {faceIn, x0In, y0In, z0In, x1In, y1In, z1In, x2In, y2In, z2In, x3In, y3In, z3In});
+				builder.quad(faceIn, x0In, y0In, z0In, x1In, y1In, z1In, x2In, y2In, z2In, x3In, y3In, z3In);
+			});
+		}
+
+		var mesh     = builder.build();
+		var position = new int[3];
+		var decoded  = 0;
+		var name     = formatIn.positionBytes() + " byte positions" + (formatIn.normals() ? ", normals" : "") + (formatIn.colors() ? ", colors" : "");
+		check(mesh.indexCount() == quads.size() * 6 && builder.submittedVertexCount() == quads.size() * 4, name + " : 2 triangles per quad");
+		check(mesh.vertexCount() < builder.submittedVertexCount(), name + " : " + builder.submittedVertexCount() + " submitted vertices stored as " + mesh.vertexCount());
+		check(mesh.vertices().remaining() == mesh.vertexCount() * formatIn.bytesPerVertex() && mesh.indices().remaining() == mesh.indexBytes() && mesh.indexType() == IndexType.of(mesh.vertexCount()), name + " : buffers are as big as the counts");
+
+		for (var quad = 0; quad < quads.size(); quad++)
+		{
+			var corners = quads.get(quad);
+			for (var i = 0; i < CORNERS.length; i++)
+			{
+				var vertex = mesh.index(quad * 6 + i);
+				var x      = corners[1 + CORNERS[i] * 3];
+				var y      = corners[2 + CORNERS[i] * 3];
+				var z      = corners[3 + CORNERS[i] * 3];
+				mesh.position(vertex, position);
+				if (position[0] != x || position[1] != y || position[2] != z)
+				{
+					throw new IllegalStateException(name + " : corner " + i + " of quad " + quad + " decoded at (" + position[0] + ", " + position[1] + ", " + position[2] + ") instead of (" + x + ", " + y + ", " + z + ")");
+				}
+				if (formatIn.normals() && mesh.normal(vertex) != corners[0])
+				{
+					throw new IllegalStateException(name + " : corner " + i + " of quad " + quad + " decoded with normal " + mesh.normal(vertex));
+				}
+				if (formatIn.colors() && mesh.color(vertex) != colors.color(corners[0], x, y, z))
+				{
+					throw new IllegalStateException(name + " : corner " + i + " of quad " + quad + " decoded with color " + Integer.toHexString(mesh.color(vertex)));
+				}
+				decoded++;
+			}
+		}
+		check(decoded == mesh.indexCount(), name + " : " + quads.size() + " quads decode back to their corners");
+	}
+
+	private static void check(boolean conditionIn, String descriptionIn)
+	{
+		if (!conditionIn)
+		{
+			throw new IllegalStateException("Failed : " + descriptionIn);
+		}
+		System.out.println("ok : " + descriptionIn);
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.terrain.VoxelChunk;
+import fr.onsiea.ludani.terrain.VoxelWorld;
+import fr.onsiea.ludani.terrain.meshing.Face;
+import fr.onsiea.ludani.terrain.meshing.GreedyMesher;
+import fr.onsiea.ludani.terrain.meshing.TerrainMesh;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Mesh known shapes without window and check the quads, vertices and indices counts, then check on a random height map
+ * that the merged quads cover exactly the voxel faces that touch air, once each and wound toward their normal.
+ */
+public class LudaniMeshingTests
+{
+	private final static int SIZE = VoxelChunk.SIZE;
+
+	public static void main(final String[] args)
+	{
+		var voxel = new VoxelWorld().solid(5, 7, 9, true);
+		var mesh  = mesh(voxel);
+		check(mesh.quadCount() == 6 && mesh.vertexCount() == 24 && mesh.indexCount() == 36, "a single voxel gives 6 quads, 24 vertices and 36 indices");
+		checkSilhouette(voxel, "single voxel");
+
+		var box = new VoxelWorld();
+		for (var x = 1; x < 4; x++)
+		{
+			for (var z = 2; z < 6; z++)
+			{
+				box.fillColumn(x, z, 3, 5);
+			}
+		}
+		check(mesh(box).quadCount() == 6, "a 3 x 2 x 4 box merges into 6 quads");
+		checkSilhouette(box, "box");
+
+		var shape = new VoxelWorld().solid(0, 0, 0, true).solid(1, 0, 0, true).solid(0, 0, 1, true);
+		check(mesh(shape).quadCount() == 10, "an L of three voxels gives 10 quads");
+		checkSilhouette(shape, "L shape");
+
+		var full = new VoxelWorld().add(new VoxelChunk(0, 0, 0).fill());
+		mesh = mesh(full);
+		check(mesh.quadCount() == 6 && mesh.vertexCount() == 24, "a full chunk gives 6 quads of " + SIZE + " x " + SIZE);
+		checkSilhouette(full, "full chunk");
+
+		full.add(new VoxelChunk(1, 0, 0).fill());
+		check(mesh(full).quadCount() == 10, "the faces between two full neighbour chunks are culled");
+		checkSilhouette(full, "two full chunks");
+
+		var terrain = new VoxelWorld();
+		var random  = new Random(0x5EEDL);
+		for (var x = -SIZE; x < SIZE; x++)
+		{
+			for (var z = -SIZE; z < SIZE; z++)
+			{
+				terrain.fillColumn(x, z, -8, random.nextInt(4) + (x + z >> 3));
+			}
+		}
+		var faces = checkSilhouette(terrain, "height map");
+		mesh = mesh(terrain);
+		check(mesh.quadCount() < faces / 2, "the height map merges " + faces + " voxel faces into " + mesh.quadCount() + " quads");
+
+		System.out.printf("%d chunks, %d quads, %d vertices for %d visible voxel faces%n", terrain.size(), mesh.quadCount(), mesh.vertexCount(), faces);
+	}
+
+	private static TerrainMesh mesh(VoxelWorld worldIn)
+	{
+		var mesher = new GreedyMesher();
+		var mesh   = new TerrainMesh();
+		var quads  = 0;
+		for (var chunk : worldIn.chunks())
+		{
+			quads += mesher.mesh(worldIn, chunk, mesh);
+		}
+		check(quads == mesh.quadCount() && mesh.indexCount() == quads * 6, "the mesher counts the quads it emits");
+
+		return mesh;
+	}
+
+	/**
+	 * Rasterize every quad back into unit faces and compare them with the faces found voxel by voxel
+	 *
+	 * @return visible voxel faces count
+	 */
+	private static int checkSilhouette(VoxelWorld worldIn, String nameIn)
+	{
+		var expected = new HashSet<UnitFace>();
+		for (var chunk : worldIn.chunks())
+		{
+			for (var x = 0; x < SIZE; x++)
+			{
+				for (var y = 0; y < SIZE; y++)
+				{
+					for (var z = 0; z < SIZE; z++)
+					{
+						if (!chunk.solid(x, y, z))
+						{
+							continue;
+						}
+						var worldX = chunk.x() * SIZE + x;
+						var worldY = chunk.y() * SIZE + y;
+						var worldZ = chunk.z() * SIZE + z;
+						for (var face : Face.VALUES)
+						{
+							if (!worldIn.solid(worldX + face.normalX(), worldY + face.normalY(), worldZ + face.normalZ()))
+							{
+								expected.add(new UnitFace(face.ordinal(), worldX, worldY, worldZ));
+							}
+						}
+					}
+				}
+			}
+		}
+
+		var actual  = new HashSet<UnitFace>();
+		var mesher  = new GreedyMesher();
+		var wound   = new boolean[] {true};
+		var overlap = new boolean[1];
+		for (var chunk : worldIn.chunks())
+		{
+			mesher.mesh(worldIn, chunk, (faceIn, x0In, y0In, z0In, x1In, y1In, z1In, x2In, y2In, z2In, x3In, y3In, z3In) ->
+			{
+				var face = Face.VALUES[faceIn];
+				// (p1 - p0) x (p2 - p0) must point along the face normal
+				var ax = x1In - x0In;
+				var ay = y1In - y0In;
+				var az = z1In - z0In;
+				var bx = x2In - x0In;
+				var by = y2In - y0In;
+				var bz = z2In - z0In;
+				wound[0] &= Integer.signum(ay * bz - az * by) == face.normalX() && Integer.signum(az * bx - ax * bz) == face.normalY() && Integer.signum(ax * by - ay * bx) == face.normalZ();
+
+				var minX  = Math.min(Math.min(x0In, x1In), Math.min(x2In, x3In));
+				var minY  = Math.min(Math.min(y0In, y1In), Math.min(y2In, y3In));
+				var minZ  = Math.min(Math.min(z0In, z1In), Math.min(z2In, z3In));
+				var maxX  = Math.max(Math.max(x0In, x1In), Math.max(x2In, x3In));
+				var maxY  = Math.max(Math.max(y0In, y1In), Math.max(y2In, y3In));
+				var maxZ  = Math.max(Math.max(z0In, z1In), Math.max(z2In, z3In));
+				// The plane of a positive face is one voxel after the voxel it belongs to
+				var shift = face.direction() > 0 ? 1 : 0;
+				for (var x = minX - face.normalX() * shift; x < Math.max(maxX, minX + 1) - face.normalX() * shift; x++)
+				{
+					for (var y = minY - face.normalY() * shift; y < Math.max(maxY, minY + 1) - face.normalY() * shift; y++)
+					{
+						for (var z = minZ - face.normalZ() * shift; z < Math.max(maxZ, minZ + 1) - face.normalZ() * shift; z++)
+						{
+							overlap[0] |= !actual.add(new UnitFace(faceIn, x, y, z));
+						}
+					}
+				}
+			});
+		}
+
+		check(wound[0], nameIn + " : quads are counter-clockwise seen from their normal");
+		check(!overlap[0], nameIn + " : quads do not overlap");
+		check(actual.equals(expected), nameIn + " : quads cover the " + expected.size() + " visible voxel faces exactly");
+
+		return expected.size();
+	}
+
+	private static void check(boolean conditionIn, String descriptionIn)
+	{
+		if (!conditionIn)
+		{
+			throw new IllegalStateException("Failed : " + descriptionIn);
+		}
+		System.out.println("ok : " + descriptionIn);
+	}
+
+	private record UnitFace(int face, int x, int y, int z)
+	{
+	}
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.terrain.noise.FractalNoiseGenerator;
+import fr.onsiea.ludani.terrain.noise.INoiseKernels;
+import fr.onsiea.ludani.terrain.noise.NoiseKernels;
+import fr.onsiea.ludani.terrain.noise.VectorNoiseKernels;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Run every vector kernel and its scalar counterpart on the same random rows, with lengths that are not a multiple of the
+ * lanes count so that the scalar remainders run too, and check that they agree within float rounding. Then generate the
+ * same region with the same seed on pools of 1, 2 and every processor, which must give the same noise bit for bit. Needs
+ * "--add-modules jdk.incubator.vector".
+ */
+public class LudaniNoiseKernelTests
+{
+	private final static int   ROWS       = 1_000;
+	private final static int   WIDTH      = 67;
+	private final static float TOLERANCE  = 1.0E-5f;
+	// Not a multiple of the tile size, the last tiles of each row and column are partial
+	private final static int   MAP_WIDTH  = 300;
+	private final static int   MAP_HEIGHT = 200;
+	private final static int   TILE_SIZE  = 32;
+	private final static long  SEED       = 0x5EEDL;
+
+	public static void main(final String[] args)
+	{
+		if (!NoiseKernels.isVectorAvailable())
+		{
+			throw new IllegalStateException("Run with --add-modules jdk.incubator.vector");
+		}
+
+		var scalar = NoiseKernels.scalar();
+		var vector = (INoiseKernels) new VectorNoiseKernels();
+		var random = new Random(0x5EEDL);
+		var base   = new float[WIDTH * 2];
+		var x0     = new int[WIDTH];
+		var x1     = new int[WIDTH];
+		var blend  = new float[WIDTH];
+		var errors = new float[4];
+		for (var row = 0; row < ROWS; row++)
+		{
+			var length = 1 + random.nextInt(WIDTH);
+			var offset = random.nextInt(WIDTH - length + 1);
+			for (var i = 0; i < base.length; i++)
+			{
+				base[i] = random.nextFloat() * 2.0f - 1.0f;
+			}
+			for (var i = 0; i < length; i++)
+			{
+				x0[i]    = random.nextInt(WIDTH);
+				x1[i]    = random.nextInt(WIDTH);
+				blend[i] = random.nextFloat();
+			}
+
+			var expected = new float[WIDTH];
+			var actual   = new float[WIDTH];
+			scalar.interpolateRow(base, WIDTH, x0, x1, blend, expected, offset, length);
+			vector.interpolateRow(base, WIDTH, x0, x1, blend, actual, offset, length);
+			errors[0] = Math.max(errors[0], maxDifference(expected, actual));
+
+			var rowBlend = random.nextFloat();
+			var weight   = random.nextFloat();
+			scalar.accumulateInterpolation(base, 0, WIDTH, rowBlend, weight, expected, offset, length);
+			vector.accumulateInterpolation(base, 0, WIDTH, rowBlend, weight, actual, offset, length);
+			errors[1] = Math.max(errors[1], maxDifference(expected, actual));
+
+			var x    = random.nextFloat() * 512.0f - 256.0f;
+			var y    = random.nextFloat() * 512.0f - 256.0f;
+			var step = random.nextFloat() * 0.5f;
+			var seed = random.nextInt();
+			Arrays.fill(expected, 0.0f);
+			Arrays.fill(actual, 0.0f);
+			scalar.accumulateSimplex(x, y, step, seed, weight, expected, offset, length);
+			vector.accumulateSimplex(x, y, step, seed, weight, actual, offset, length);
+			errors[2] = Math.max(errors[2], maxDifference(expected, actual));
+
+			var factor = random.nextFloat() * 4.0f - 2.0f;
+			var bias   = random.nextFloat() * 2.0f - 1.0f;
+			scalar.affine(expected, offset, length, factor, bias);
+			vector.affine(actual, offset, length, factor, bias);
+			errors[3] = Math.max(errors[3], maxDifference(expected, actual));
+		}
+
+		check(errors[0] < TOLERANCE, "gathered row interpolations match, largest difference " + errors[0]);
+		check(errors[1] < TOLERANCE, "row blends match, largest difference " + errors[1]);
+		check(errors[2] < TOLERANCE, "simplex rows match, largest difference " + errors[2]);
+		check(errors[3] < TOLERANCE, "affine rows match, largest difference " + errors[3]);
+
+		System.out.printf("%d rows of at most %d values on %d lanes%n", ROWS, WIDTH, VectorNoiseKernels.lanes());
+
+		parallelism(scalar);
+		parallelism(vector);
+	}
+
+	/**
+	 * Each tile draws from its own random stream, so the pool size must not change a single bit
+	 */
+	private static void parallelism(INoiseKernels kernelsIn)
+	{
+		float[] expectedValues  = null;
+		float[] expectedSimplex = null;
+		for (var parallelism : new int[] {1, 2, Math.max(3, Runtime.getRuntime().availableProcessors())})
+		{
+			var pool = new ForkJoinPool(parallelism);
+			try
+			{
+				var generator = new FractalNoiseGenerator(6, 0.5f, 1.0f, TILE_SIZE, pool, kernelsIn);
+				var values    = generator.generate(SEED, MAP_WIDTH, MAP_HEIGHT).values();
+				var simplex   = generator.generateSimplex(SEED, -40, 75, MAP_WIDTH, MAP_HEIGHT).values();
+				if (expectedValues == null)
+				{
+					expectedValues  = values;
+					expectedSimplex = simplex;
+					continue;
+				}
+				check(Arrays.equals(expectedValues, values), kernelsIn.getClass().getSimpleName() + " : value noise on " + parallelism + " threads is identical to a single thread");
+				check(Arrays.equals(expectedSimplex, simplex), kernelsIn.getClass().getSimpleName() + " : simplex noise on " + parallelism + " threads is identical to a single thread");
+			}
+			finally
+			{
+				pool.shutdown();
+			}
+		}
+	}
+
+	private static float maxDifference(float[] aIn, float[] bIn)
+	{
+		var difference = 0.0f;
+		for (var i = 0; i < aIn.length; i++)
+		{
+			difference = Math.max(difference, Math.abs(aIn[i] - bIn[i]));
+		}
+
+		return difference;
+	}
+
+	private static void check(boolean conditionIn, String descriptionIn)
+	{
+		if (!conditionIn)
+		{
+			throw new IllegalStateException("Failed : " + descriptionIn);
+		}
+		System.out.println("ok : " + descriptionIn);
+	}
+}
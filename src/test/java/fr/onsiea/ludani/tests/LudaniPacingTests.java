@@ -0,0 +1,124 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.pacing.FramePacer;
+import fr.onsiea.ludani.pacing.PacingMode;
+import fr.onsiea.ludani.profiling.LatencyHistogram;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Measure the frame pacing without window : frames of random work are paced by each {@link PacingMode} then by a plain
+ * millisecond sleep for comparison. Prints the frame times, the distance between each wake up and its target and the CPU
+ * time spent outside the frame work.
+ */
+public class LudaniPacingTests
+{
+	private final static int  FRAME_RATE = 120;
+	private final static int  FRAMES     = 600;
+	private final static long MIN_WORK   = 1_000_000L;
+	private final static long MAX_WORK   = 5_000_000L;
+
+	public static void main(final String[] args) throws InterruptedException
+	{
+		for (var mode : PacingMode.values())
+		{
+			var pacer  = new FramePacer(mode, FRAME_RATE);
+			var random = new Random(0x5EEDL);
+			var cpu    = ManagementFactory.getThreadMXBean();
+			var waited = 0L;
+			var busy   = 0L;
+			var start  = cpu.getCurrentThreadCpuTime();
+			pacer.sync();
+			for (var frame = 0; frame < FRAMES; frame++)
+			{
+				var work = work(random);
+				busy += work;
+				waited += pacer.sync();
+			}
+			var waitCpu = cpu.getCurrentThreadCpuTime() - start - busy;
+			print(mode.name().toLowerCase(), pacer.frameTimes(), pacer.wakeErrors(), waitCpu, waited);
+			System.out.printf("           predicted work %.3f ms, spin %.1f us, %d missed frames%n", pacer.predictedWorkNanos() / 1.0E6D, pacer.spinNanos() / 1.0E3D, pacer.missedFrames());
+		}
+
+		// Millisecond sleeps, as a coarse limiter does
+		var random     = new Random(0x5EEDL);
+		var cpu        = ManagementFactory.getThreadMXBean();
+		var frameTimes = new LatencyHistogram();
+		var wakeErrors = new LatencyHistogram();
+		var period     = 1_000_000_000L / FRAME_RATE;
+		var busy       = 0L;
+		var waited     = 0L;
+		var start      = cpu.getCurrentThreadCpuTime();
+		var next       = System.nanoTime() + period;
+		var frameStart = System.nanoTime();
+		for (var frame = 0; frame < FRAMES; frame++)
+		{
+			busy += work(random);
+			var now = System.nanoTime();
+			if (next > now)
+			{
+				Thread.sleep((next - now) / 1_000_000L);
+			}
+			var wake = System.nanoTime();
+			waited += wake - now;
+			wakeErrors.record(Math.abs(wake - Math.max(next, now)));
+			frameTimes.record(wake - frameStart);
+			frameStart = wake;
+			next       = Math.max(next + period, wake);
+		}
+		print("sleep", frameTimes, wakeErrors, cpu.getCurrentThreadCpuTime() - start - busy, waited);
+	}
+
+	/**
+	 * @return busy nanoseconds
+	 */
+	private static long work(Random randomIn)
+	{
+		var duration = MIN_WORK + (long) (randomIn.nextDouble() * (MAX_WORK - MIN_WORK));
+		var end      = System.nanoTime() + duration;
+		while (System.nanoTime() < end)
+		{
+			Thread.onSpinWait();
+		}
+
+		return duration;
+	}
+
+	private static void print(String nameIn, LatencyHistogram frameTimesIn, LatencyHistogram wakeErrorsIn, long waitCpuIn, long waitedIn)
+	{
+		System.out.printf("%-10s frame p50 %.3f p99 %.3f p99.9 %.3f ms, wake error p50 %.1f p99 %.1f p99.9 %.1f us, %.0f %% of the wait on CPU%n", nameIn, frameTimesIn.percentile(50.0D) / 1.0E6D, frameTimesIn.percentile(99.0D) / 1.0E6D, frameTimesIn.percentile(99.9D) / 1.0E6D, wakeErrorsIn.percentile(50.0D) / 1.0E3D, wakeErrorsIn.percentile(99.0D) / 1.0E3D, wakeErrorsIn.percentile(99.9D) / 1.0E3D, waitedIn == 0L ? 0.0D : 100.0D * Math.max(waitCpuIn, 0L) / waitedIn);
+	}
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.profiling.FramePhase;
+import fr.onsiea.ludani.profiling.FrameProfile;
+import fr.onsiea.ludani.profiling.FrameProfiler;
+import fr.onsiea.ludani.profiling.LatencyHistogram;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * Check the frame profiler without window : buckets cover every duration once and within 1.6 %, percentiles of known
+ * distributions are within their bucket of the exact ones, subtracting an earlier state keeps the later durations, each
+ * interval only holds the phases recorded since the previous one, the recorders of terminated threads are dropped
+ * without losing their durations, and the csv and json exports read back to the same values.
+ */
+public class LudaniProfilerTests
+{
+	private final static double   ACCURACY    = 1.0D / LatencyHistogram.SUB_BUCKETS;
+	private final static int      SAMPLES     = 100_000;
+	private final static double[] PERCENTILES = {0.0D, 1.0D, 10.0D, 50.0D, 90.0D, 99.0D, 99.9D, 99.99D, 100.0D};
+	private final static long     PHASE_NANOS = 2_000_000L;
+	private final static int      THREADS     = 200;
+	private final static Pattern  JSON_PHASE  = Pattern.compile("\\{\"phase\":\"(\\w+)\",\"count\":(\\d+),\"meanNanos\":([\\d.]+),\"p50Nanos\":(\\d+),\"p99Nanos\":(\\d+),\"p999Nanos\":(\\d+),\"maxNanos\":(\\d+)}");
+
+	public static void main(final String[] args) throws InterruptedException
+	{
+		buckets();
+
+		var random = new Random(0x5EEDL);
+		var exact  = new long[LatencyHistogram.EXACT_BELOW];
+		for (var index = 0; index < exact.length; index++)
+		{
+			exact[index] = index;
+		}
+		percentiles("exact durations", exact, 0.0D);
+
+		var uniform = new long[SAMPLES];
+		for (var index = 0; index < uniform.length; index++)
+		{
+			uniform[index] = 1L + random.nextLong(20_000_000L);
+		}
+		percentiles("uniform durations", uniform, ACCURACY);
+
+		// Frame times around 8 ms with rare spikes up to a second
+		var spikes = new long[SAMPLES];
+		for (var index = 0; index < spikes.length; index++)
+		{
+			spikes[index] = index % 1000 == 0 ? 100_000_000L + random.nextLong(900_000_000L) : (long) (8_000_000.0D + random.nextGaussian() * 500_000.0D);
+		}
+		percentiles("spiking durations", spikes, ACCURACY);
+
+		var exponential = new long[SAMPLES];
+		for (var index = 0; index < exponential.length; index++)
+		{
+			exponential[index] = (long) (-Math.log(1.0D - random.nextDouble()) * 1_000_000.0D);
+		}
+		percentiles("exponential durations", exponential, ACCURACY);
+
+		subtract(random);
+		interval();
+		threads();
+	}
+
+	private static void buckets()
+	{
+		var gaps = 0;
+		var wide = 0;
+		for (var index = 0; index < LatencyHistogram.BUCKET_COUNT; index++)
+		{
+			var lowest  = LatencyHistogram.lowest(index);
+			var highest = LatencyHistogram.highest(index);
+			if (LatencyHistogram.index(lowest) != index || LatencyHistogram.index(highest) != index || index > 0 && LatencyHistogram.highest(index - 1) + 1 != lowest)
+			{
+				gaps++;
+			}
+			if (index + 1 < LatencyHistogram.BUCKET_COUNT && highest - lowest > lowest * ACCURACY)
+			{
+				wide++;
+			}
+		}
+		check(gaps == 0, "every duration up to the maximum belongs to exactly one bucket");
+		check(wide == 0, "every bucket is narrower than 1/" + LatencyHistogram.SUB_BUCKETS + " of its lowest duration");
+		check(LatencyHistogram.lowest(LatencyHistogram.EXACT_BELOW - 1) == LatencyHistogram.EXACT_BELOW - 1 && LatencyHistogram.highest(LatencyHistogram.EXACT_BELOW - 1) == LatencyHistogram.EXACT_BELOW - 1, "durations below " + LatencyHistogram.EXACT_BELOW + " have their own bucket");
+		check(LatencyHistogram.index(-5L) == 0 && LatencyHistogram.index(Long.MAX_VALUE) == LatencyHistogram.BUCKET_COUNT - 1 && LatencyHistogram.highest(LatencyHistogram.BUCKET_COUNT - 1) == LatencyHistogram.MAX_VALUE, "durations out of range go in the first and the last bucket");
+		check(new LatencyHistogram().percentile(99.0D) == 0L, "an empty histogram has no duration");
+	}
+
+	/**
+	 * Compare the percentiles of the histogram with the nearest rank percentiles of the sorted durations
+	 */
+	private static void percentiles(String nameIn, long[] durationsIn, double accuracyIn)
+	{
+		var histogram = new LatencyHistogram();
+		var sum       = 0L;
+		for (var duration : durationsIn)
+		{
+			histogram.record(duration);
+			sum += duration;
+		}
+		var sorted = durationsIn.clone();
+		Arrays.sort(sorted);
+		check(histogram.count() == sorted.length && histogram.sum() == sum && histogram.max() == sorted[sorted.length - 1], nameIn + " : count, sum and max are exact");
+
+		for (var percentile : PERCENTILES)
+		{
+			var rank     = Math.max(1, (int) Math.ceil(percentile / 100.0D * sorted.length));
+			var expected = sorted[rank - 1];
+			var actual   = histogram.percentile(percentile);
+			check(actual >= expected && actual - expected <= expected * accuracyIn, String.format(Locale.ROOT, "%s : p%s %d within %.1f %% of %d", nameIn, percentile, actual, accuracyIn * 100.0D, expected));
+		}
+	}
+
+	private static void subtract(Random randomIn)
+	{
+		var histogram = new LatencyHistogram();
+		for (var index = 0; index < SAMPLES; index++)
+		{
+			histogram.record(randomIn.nextLong(50_000_000L));
+		}
+		var previous = new LatencyHistogram().add(histogram);
+
+		var later = new LatencyHistogram();
+		for (var index = 0; index < SAMPLES / 10; index++)
+		{
+			var duration = 1_000L + randomIn.nextLong(1_000_000L);
+			histogram.record(duration);
+			later.record(duration);
+		}
+		histogram.subtract(previous);
+
+		var different = 0;
+		for (var index = 0; index < LatencyHistogram.BUCKET_COUNT; index++)
+		{
+			if (histogram.count(index) != later.count(index))
+			{
+				different++;
+			}
+		}
+		check(different == 0 && histogram.count() == later.count() && histogram.sum() == later.sum(), "subtracting an earlier state keeps the later buckets, count and sum");
+		check(histogram.max() >= later.max() && LatencyHistogram.index(histogram.max()) == LatencyHistogram.index(later.max()), "the later max is known within its bucket");
+		check(histogram.percentile(50.0D) == later.percentile(50.0D), "the later median is kept");
+		check(histogram.subtract(new LatencyHistogram().add(histogram)).count() == 0 && histogram.max() == 0L, "subtracting itself leaves nothing");
+	}
+
+	/**
+	 * Phases are recorded by the profiler from a start {@link #PHASE_NANOS} in the past, so each lasts at least as long
+	 */
+	private static void interval() throws InterruptedException
+	{
+		var profiler = new FrameProfiler();
+		record(profiler, FramePhase.UPDATE, 100);
+		record(profiler, FramePhase.CULLING, 40);
+		var first = profiler.interval();
+		check(first.histogram(FramePhase.UPDATE).count() == 100 && first.histogram(FramePhase.CULLING).count() == 40 && first.histogram(FramePhase.FRAME).count() == 0, "the first interval holds every recorded phase");
+		check(first.percentile(FramePhase.UPDATE, 0.0D) >= PHASE_NANOS, "recorded phases last from their start");
+
+		record(profiler, FramePhase.UPDATE, 30);
+		var thread = new Thread(() -> record(profiler, FramePhase.UPDATE, 20));
+		thread.start();
+		thread.join();
+		var second = profiler.interval();
+		check(second.histogram(FramePhase.UPDATE).count() == 50 && second.histogram(FramePhase.CULLING).count() == 0, "the second interval only holds the phases of both threads recorded since the first");
+		check(second.histogram(FramePhase.UPDATE).sum() >= 50 * PHASE_NANOS && profiler.snapshot().histogram(FramePhase.UPDATE).count() == 150, "the snapshot keeps every phase");
+		check(profiler.interval().histogram(FramePhase.UPDATE).count() == 0, "an interval without record is empty");
+
+		exports(profiler.snapshot());
+		profiler.cleanup();
+	}
+
+	/**
+	 * Like the tasks of a pool whose idle workers are replaced, each phase is recorded by a thread that terminates after
+	 */
+	private static void threads() throws InterruptedException
+	{
+		var profiler = new FrameProfiler();
+		record(profiler, FramePhase.FRAME, 10);
+		for (var index = 0; index < THREADS; index++)
+		{
+			var thread = new Thread(() -> record(profiler, FramePhase.CULLING, 5));
+			thread.start();
+			thread.join();
+		}
+		check(profiler.recorders() <= 2, profiler.recorders() + " recorders are held after " + THREADS + " short-lived threads");
+
+		var snapshot = profiler.snapshot();
+		check(profiler.recorders() == 1, "a snapshot only keeps the recorder of the running thread");
+		check(snapshot.histogram(FramePhase.CULLING).count() == 5L * THREADS && snapshot.histogram(FramePhase.FRAME).count() == 10, "the durations of the terminated threads are kept");
+		check(snapshot.histogram(FramePhase.CULLING).sum() >= 5L * THREADS * PHASE_NANOS && profiler.snapshot().histogram(FramePhase.CULLING).count() == 5L * THREADS, "they are folded only once");
+
+		record(profiler, FramePhase.FRAME, 5);
+		check(profiler.interval().histogram(FramePhase.FRAME).count() == 15 && profiler.interval().histogram(FramePhase.CULLING).count() == 0, "intervals stay consistent across folds");
+		profiler.cleanup();
+	}
+
+	private static void record(FrameProfiler profilerIn, FramePhase phaseIn, int countIn)
+	{
+		for (var index = 0; index < countIn; index++)
+		{
+			profilerIn.record(phaseIn, System.nanoTime() - PHASE_NANOS);
+		}
+	}
+
+	private static void exports(FrameProfile profileIn)
+	{
+		var lines = profileIn.csv().split("\n");
+		check(lines.length == FramePhase.values().length + 1 && lines[0].equals("phase,count,mean_ns,p50_ns,p99_ns,p99.9_ns,max_ns"), "the csv has a header and a line per phase");
+
+		var fromCsv = new HashMap<String, String[]>();
+		for (var index = 1; index < lines.length; index++)
+		{
+			var fields = lines[index].split(",");
+			fromCsv.put(fields[0], fields);
+		}
+
+		var fromJson = new HashMap<String, String[]>();
+		var matcher  = JSON_PHASE.matcher(profileIn.json());
+		while (matcher.find())
+		{
+			var fields = new String[matcher.groupCount()];
+			for (var group = 0; group < fields.length; group++)
+			{
+				fields[group] = matcher.group(group + 1);
+			}
+			fromJson.put(fields[0], fields);
+		}
+		check(profileIn.json().startsWith("{\"phases\":[") && profileIn.json().endsWith("]}") && fromJson.size() == FramePhase.values().length, "the json has an object per phase");
+
+		check(readBack(profileIn, fromCsv) == FramePhase.values().length, "the csv reads back to the values of every phase");
+		check(readBack(profileIn, fromJson) == FramePhase.values().length, "the json reads back to the values of every phase");
+	}
+
+	/**
+	 * @return number of phases whose label, count, mean, p50, p99, p99.9 and max read back to the histogram values
+	 */
+	private static int readBack(FrameProfile profileIn, Map<String, String[]> fieldsIn)
+	{
+		var matching = 0;
+		for (var phase : FramePhase.values())
+		{
+			var histogram = profileIn.histogram(phase);
+			var fields    = fieldsIn.get(phase.label());
+			if (fields != null && Long.parseLong(fields[1]) == histogram.count() && Math.abs(Double.parseDouble(fields[2]) - histogram.mean()) <= 0.05D && Long.parseLong(fields[3]) == histogram.percentile(50.0D) && Long.parseLong(fields[4]) == histogram.percentile(99.0D) && Long.parseLong(fields[5]) == histogram.percentile(99.9D) && Long.parseLong(fields[6]) == histogram.max())
+			{
+				matching++;
+			}
+		}
+
+		return matching;
+	}
+
+	private static void check(boolean conditionIn, String descriptionIn)
+	{
+		if (!conditionIn)
+		{
+			throw new IllegalStateException("Failed : " + descriptionIn);
+		}
+		System.out.println("ok : " + descriptionIn);
+	}
+}
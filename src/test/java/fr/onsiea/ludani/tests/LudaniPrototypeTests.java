@@ -32,6 +32,8 @@
 
 package fr.onsiea.ludani.tests;
 
+import fr.onsiea.ludani.pacing.FramePacer;
+import fr.onsiea.ludani.pacing.PacingMode;
 import fr.onsiea.ludart.prototype.IPrototypeImpl;
 import fr.onsiea.ludart.prototype.Prototype;
 import org.lwjgl.glfw.GLFW;
@@ -40,6 +42,9 @@ public class LudaniPrototypeTests
 {
 	public static void main(String[] args)
 	{
+		// Replaces the prototype sync, frames start as late as their predicted duration allows
+		var framePacer = new FramePacer(PacingMode.ADAPTIVE, 60);
+
 		Prototype prototype = new Prototype().prototypeImpl(new IPrototypeImpl()
 		{
 			@Override
@@ -60,9 +65,9 @@ public class LudaniPrototypeTests
 			@Override
 			public void render()
 			{
-
+				framePacer.sync();
 			}
-		}).width(1920).height(1080).title("Ludani Engine !").frameRate(60).updateRate(60).sync(true);
+		}).width(1920).height(1080).title("Ludani Engine !").frameRate(60).updateRate(60).sync(false);
 		prototype.start();
 	}
 }
\ No newline at end of file
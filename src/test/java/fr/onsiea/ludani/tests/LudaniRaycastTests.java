@@ -0,0 +1,373 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.terrain.VoxelWorld;
+import fr.onsiea.ludani.terrain.meshing.Face;
+import fr.onsiea.ludani.terrain.noise.FractalNoiseGenerator;
+import fr.onsiea.ludani.terrain.query.CollisionBox;
+import fr.onsiea.ludani.terrain.query.RayBatch;
+import fr.onsiea.ludani.terrain.query.RaycastHit;
+import fr.onsiea.ludani.terrain.query.TerrainQuery;
+import fr.onsiea.ludani.terrain.streaming.HeightmapTerrainGenerator;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Generates COLUMNS x COLUMNS chunk columns of terrain with carved caves. It checks the raycasts of {@link TerrainQuery}
+ * against a naive stepper that reads every voxel, then checks box sweeps. Last it times both raycasts and the batched
+ * ones from points above the terrain.
+ */
+public class LudaniRaycastTests
+{
+	private final static int   COLUMNS      = 8;
+	private final static int   CAVES        = 300;
+	private final static int   CHECKED_RAYS = 200_000;
+	private final static int   TIMED_RAYS   = 1_000_000;
+	private final static float MAX_DISTANCE = 256.0f;
+
+	public static void main(final String[] args)
+	{
+		System.out.println(Runtime.getRuntime().availableProcessors() + " processors");
+
+		var random = new SplittableRandom(7L);
+		var world  = world(random);
+		var query  = new TerrainQuery(world);
+		System.out.println(world.size() + " chunks");
+
+		checkRaycasts(world, query, random);
+		checkSweeps(world, query);
+		System.out.println("Raycasts match the naive stepper, sweeps stop on the terrain");
+
+		time(world, query, random);
+	}
+
+	private static VoxelWorld world(SplittableRandom randomIn)
+	{
+		var world     = new VoxelWorld();
+		var generator = new HeightmapTerrainGenerator(new FractalNoiseGenerator(6, 0.75f, 0.024f), 42L, 25);
+		for (var x = 0; x < COLUMNS; x++)
+		{
+			for (var z = 0; z < COLUMNS; z++)
+			{
+				generator.generate(x, z, world);
+			}
+		}
+
+		// Caves and overhangs, so that rays go through partly filled cells
+		var size = COLUMNS * 32;
+		for (var cave = 0; cave < CAVES; cave++)
+		{
+			var centerX = randomIn.nextInt(size);
+			var centerY = randomIn.nextInt(-20, 20);
+			var centerZ = randomIn.nextInt(size);
+			var radius  = randomIn.nextInt(2, 7);
+			for (var x = centerX - radius; x <= centerX + radius; x++)
+			{
+				for (var y = centerY - radius; y <= centerY + radius; y++)
+				{
+					for (var z = centerZ - radius; z <= centerZ + radius; z++)
+					{
+						var dx = x - centerX;
+						var dy = y - centerY;
+						var dz = z - centerZ;
+						if (dx * dx + dy * dy + dz * dz <= radius * radius)
+						{
+							world.solid(x, y, z, false);
+						}
+					}
+				}
+			}
+		}
+
+		return world;
+	}
+
+	private static void checkRaycasts(VoxelWorld worldIn, TerrainQuery queryIn, SplittableRandom randomIn)
+	{
+		var hit      = new RaycastHit();
+		var expected = new NaiveHit();
+		var batch    = new RayBatch(CHECKED_RAYS);
+		var hits     = 0;
+		for (var ray = 0; ray < CHECKED_RAYS; ray++)
+		{
+			var origin    = origin(randomIn, ray % 10 == 0);
+			var direction = direction(randomIn, ray % 7 == 0);
+			var distance  = ray % 3 == 0 ? 40.0f : MAX_DISTANCE;
+			queryIn.raycast(origin[0], origin[1], origin[2], direction[0], direction[1], direction[2], distance, hit);
+			naive(worldIn, origin, direction, distance, expected);
+			if (hit.hit() != expected.hit || hit.hit() && !matches(worldIn, hit, expected))
+			{
+				throw new IllegalStateException("Ray " + ray + " from (" + origin[0] + ", " + origin[1] + ", " + origin[2] + ") toward (" + direction[0] + ", " + direction[1] + ", " + direction[2] + ") : " + hit + ", expected " + expected);
+			}
+			if (hit.hit())
+			{
+				hits++;
+			}
+			batch.add(origin[0], origin[1], origin[2], direction[0], direction[1], direction[2], distance);
+		}
+
+		// The same rays cast together give the same results
+		var batchHits = queryIn.raycast(batch);
+		if (batchHits != hits)
+		{
+			throw new IllegalStateException("Batch hit " + batchHits + " rays, " + hits + " one by one");
+		}
+		System.out.printf("%d rays checked, %.1f%% hit%n", CHECKED_RAYS, hits * 100.0D / CHECKED_RAYS);
+
+		// Rays missing the bounds of the world and rays starting inside a voxel
+		if (queryIn.raycast(-100.0f, 500.0f, -100.0f, 0.0f, 1.0f, 0.0f, 1000.0f, hit) || queryIn.raycast(10.5f, 200.0f, 10.5f, 1.0f, 0.0f, 0.0f, 1000.0f, hit))
+		{
+			throw new IllegalStateException("Ray outside of the world hit " + hit);
+		}
+		var top = queryIn.top(10, 10);
+		if (!queryIn.raycast(10.5f, top - 0.5f, 10.5f, 0.0f, 1.0f, 0.0f, 10.0f, hit) || hit.face() != null || hit.distance() != 0.0f || hit.y() != top - 1)
+		{
+			throw new IllegalStateException("Ray starting in a solid voxel : " + hit);
+		}
+		if (!queryIn.raycast(10.5f, top + 100.0f, 10.5f, 0.0f, -1.0f, 0.0f, 1000.0f, hit) || hit.face() != Face.POSITIVE_Y || hit.y() != top - 1 || Math.abs(hit.distance() - 100.0f) > 1.0E-4f)
+		{
+			throw new IllegalStateException("Ray falling on the top of the column : " + hit);
+		}
+	}
+
+	/**
+	 * Far from their origin, rays crossing two boundaries at the same distance may step either way first, the voxel hit is
+	 * then a solid neighbour entered at the same distance
+	 */
+	private static boolean matches(VoxelWorld worldIn, RaycastHit hitIn, NaiveHit expectedIn)
+	{
+		if (Math.abs(hitIn.distance() - expectedIn.distance) > 1.0E-3f)
+		{
+			return false;
+		}
+		if (hitIn.x() == expectedIn.x && hitIn.y() == expectedIn.y && hitIn.z() == expectedIn.z)
+		{
+			return hitIn.face() == expectedIn.face;
+		}
+
+		return Math.abs(hitIn.x() - expectedIn.x) <= 1 && Math.abs(hitIn.y() - expectedIn.y) <= 1 && Math.abs(hitIn.z() - expectedIn.z) <= 1 && worldIn.solid(hitIn.x(), hitIn.y(), hitIn.z());
+	}
+
+	private static void checkSweeps(VoxelWorld worldIn, TerrainQuery queryIn)
+	{
+		// A falling box lands on the top of its column
+		var top = queryIn.top(20, 20);
+		var box = new CollisionBox(20.2f, top + 50.0f, 20.2f, 20.8f, top + 53.6f, 20.8f);
+		if (queryIn.move(box, 0.0f, -200.0f, 0.0f) != TerrainQuery.BLOCKED_Y || box.minY() != top)
+		{
+			throw new IllegalStateException("Box fell to " + box + ", expected to land on " + top);
+		}
+
+		// Pushed against the terrain it stops on the face of the first column with a solid voxel at its height, and slides
+		// along z
+		var wallX = 21;
+		while (!worldIn.solid(wallX, top, 20) && !worldIn.solid(wallX, top + 1, 20) && !worldIn.solid(wallX, top + 2, 20) && !worldIn.solid(wallX, top + 3, 20))
+		{
+			wallX++;
+		}
+		var blocked = queryIn.move(box, 100.0f, 0.0f, 0.01f);
+		if ((blocked & TerrainQuery.BLOCKED_X) == 0 || box.maxX() != wallX || Math.abs(box.minZ() - 20.21f) > 1.0E-4f)
+		{
+			throw new IllegalStateException("Box pushed to " + box + ", expected to stop at x " + wallX);
+		}
+		if (queryIn.intersects(box))
+		{
+			throw new IllegalStateException("Box " + box + " went into the terrain");
+		}
+
+		// A box inside the terrain is not blocked by the voxels it overlaps
+		box.set(20.2f, top - 3.5f, 20.2f, 20.8f, top - 0.5f, 20.8f);
+		if (!queryIn.intersects(box) || queryIn.move(box, 0.0f, 10.0f, 0.0f) != 0)
+		{
+			throw new IllegalStateException("Box stuck in the terrain could not get out : " + box);
+		}
+	}
+
+	private static float[] origin(SplittableRandom randomIn, boolean outsideIn)
+	{
+		// Some rays start far from the chunks and must be clipped to the world bounds first
+		if (outsideIn)
+		{
+			return new float[]{(float) randomIn.nextDouble(-200.0D, 456.0D), (float) randomIn.nextDouble(60.0D, 200.0D), (float) randomIn.nextDouble(-200.0D, 456.0D)};
+		}
+
+		return new float[]{(float) randomIn.nextDouble(0.0D, COLUMNS * 32.0D), (float) randomIn.nextDouble(-30.0D, 40.0D), (float) randomIn.nextDouble(0.0D, COLUMNS * 32.0D)};
+	}
+
+	private static float[] direction(SplittableRandom randomIn, boolean axisAlignedIn)
+	{
+		if (axisAlignedIn)
+		{
+			var direction = new float[3];
+			direction[randomIn.nextInt(3)] = randomIn.nextBoolean() ? 1.0f : -1.0f;
+
+			return direction;
+		}
+
+		return new float[]{(float) randomIn.nextDouble(-1.0D, 1.0D), (float) randomIn.nextDouble(-1.0D, 1.0D), (float) randomIn.nextDouble(-1.0D, 1.0D)};
+	}
+
+	/**
+	 * One voxel at a time without skipping anything, every voxel read through {@link VoxelWorld#solid(int, int, int)}
+	 */
+	private static boolean naive(VoxelWorld worldIn, float[] originIn, float[] directionIn, float maxDistanceIn, NaiveHit hitOut)
+	{
+		var length     = (float) Math.sqrt(directionIn[0] * directionIn[0] + directionIn[1] * directionIn[1] + directionIn[2] * directionIn[2]);
+		var directionX = directionIn[0] / length;
+		var directionY = directionIn[1] / length;
+		var directionZ = directionIn[2] / length;
+		var stepX      = directionX > 0.0f ? 1 : directionX < 0.0f ? -1 : 0;
+		var stepY      = directionY > 0.0f ? 1 : directionY < 0.0f ? -1 : 0;
+		var stepZ      = directionZ > 0.0f ? 1 : directionZ < 0.0f ? -1 : 0;
+		var x          = (int) Math.floor(originIn[0]);
+		var y          = (int) Math.floor(originIn[1]);
+		var z          = (int) Math.floor(originIn[2]);
+		var nextX      = stepX == 0 ? Float.POSITIVE_INFINITY : (x + (stepX > 0 ? 1 : 0) - originIn[0]) / directionX;
+		var nextY      = stepY == 0 ? Float.POSITIVE_INFINITY : (y + (stepY > 0 ? 1 : 0) - originIn[1]) / directionY;
+		var nextZ      = stepZ == 0 ? Float.POSITIVE_INFINITY : (z + (stepZ > 0 ? 1 : 0) - originIn[2]) / directionZ;
+		var deltaX     = Math.abs(1.0f / directionX);
+		var deltaY     = Math.abs(1.0f / directionY);
+		var deltaZ     = Math.abs(1.0f / directionZ);
+		var distance   = 0.0f;
+		Face face      = null;
+		while (distance <= maxDistanceIn)
+		{
+			if (worldIn.solid(x, y, z))
+			{
+				hitOut.hit      = true;
+				hitOut.x        = x;
+				hitOut.y        = y;
+				hitOut.z        = z;
+				hitOut.face     = face;
+				hitOut.distance = distance;
+
+				return true;
+			}
+
+			if (nextX <= nextY && nextX <= nextZ)
+			{
+				distance = nextX;
+				x += stepX;
+				nextX += deltaX;
+				face = stepX > 0 ? Face.NEGATIVE_X : Face.POSITIVE_X;
+			}
+			else if (nextY <= nextZ)
+			{
+				distance = nextY;
+				y += stepY;
+				nextY += deltaY;
+				face = stepY > 0 ? Face.NEGATIVE_Y : Face.POSITIVE_Y;
+			}
+			else
+			{
+				distance = nextZ;
+				z += stepZ;
+				nextZ += deltaZ;
+				face = stepZ > 0 ? Face.NEGATIVE_Z : Face.POSITIVE_Z;
+			}
+		}
+		hitOut.hit = false;
+
+		return false;
+	}
+
+	private static void time(VoxelWorld worldIn, TerrainQuery queryIn, SplittableRandom randomIn)
+	{
+		// Picking like rays, from above the terrain toward it
+		var origins    = new float[TIMED_RAYS][];
+		var directions = new float[TIMED_RAYS][];
+		for (var ray = 0; ray < TIMED_RAYS; ray++)
+		{
+			origins[ray]    = new float[]{(float) randomIn.nextDouble(0.0D, COLUMNS * 32.0D), (float) randomIn.nextDouble(20.0D, 40.0D), (float) randomIn.nextDouble(0.0D, COLUMNS * 32.0D)};
+			directions[ray] = new float[]{(float) randomIn.nextDouble(-1.0D, 1.0D), (float) randomIn.nextDouble(-1.0D, 0.2D), (float) randomIn.nextDouble(-1.0D, 1.0D)};
+		}
+
+		var naiveHit = new NaiveHit();
+		var start    = System.nanoTime();
+		for (var ray = 0; ray < TIMED_RAYS / 10; ray++)
+		{
+			naive(worldIn, origins[ray], directions[ray], MAX_DISTANCE, naiveHit);
+		}
+		var naive = (System.nanoTime() - start) / (TIMED_RAYS / 10.0D);
+		System.out.printf("naive       %7.1f ns per ray, %6.2f M rays/s%n", naive, 1.0E3D / naive);
+
+		var hit = new RaycastHit();
+		for (var round = 0; round < 3; round++)
+		{
+			start = System.nanoTime();
+			for (var ray = 0; ray < TIMED_RAYS; ray++)
+			{
+				queryIn.raycast(origins[ray][0], origins[ray][1], origins[ray][2], directions[ray][0], directions[ray][1], directions[ray][2], MAX_DISTANCE, hit);
+			}
+		}
+		var single = (System.nanoTime() - start) / (double) TIMED_RAYS;
+		System.out.printf("query       %7.1f ns per ray, %6.2f M rays/s, speed up %.2f%n", single, 1.0E3D / single, naive / single);
+
+		var batch = new RayBatch(TIMED_RAYS);
+		for (var ray = 0; ray < TIMED_RAYS; ray++)
+		{
+			batch.add(origins[ray][0], origins[ray][1], origins[ray][2], directions[ray][0], directions[ray][1], directions[ray][2], MAX_DISTANCE);
+		}
+		for (var parallelism : new int[]{1, ForkJoinPool.getCommonPoolParallelism()})
+		{
+			var pool         = new ForkJoinPool(parallelism);
+			var batchedQuery = new TerrainQuery(worldIn, pool, TerrainQuery.DEFAULT_BATCH_SIZE);
+			for (var round = 0; round < 3; round++)
+			{
+				start = System.nanoTime();
+				batchedQuery.raycast(batch);
+			}
+			var batched = (System.nanoTime() - start) / (double) TIMED_RAYS;
+			pool.shutdown();
+			System.out.printf("batch %2d    %7.1f ns per ray, %6.2f M rays/s, speed up %.2f%n", parallelism, batched, 1.0E3D / batched, naive / batched);
+		}
+	}
+
+	private final static class NaiveHit
+	{
+		private boolean hit;
+		private int     x;
+		private int     y;
+		private int     z;
+		private Face    face;
+		private float   distance;
+
+		@Override
+		public String toString()
+		{
+			return hit ? "hit (" + x + ", " + y + ", " + z + ") " + face + " at " + distance : "miss";
+		}
+	}
+}
@@ -0,0 +1,419 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.terrain.VoxelChunk;
+import fr.onsiea.ludani.terrain.storage.ColumnCodec;
+import fr.onsiea.ludani.terrain.storage.PersistentTerrainGenerator;
+import fr.onsiea.ludani.terrain.storage.RegionFile;
+import fr.onsiea.ludani.terrain.storage.RegionStore;
+import fr.onsiea.ludani.terrain.streaming.ITerrainGenerator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32C;
+
+/**
+ * Write columns through the codec, the region files and the region store in a temporary directory, then read them back
+ * after reopening. Damage the header slots and the column data the way a crash or a bad disk would, check that the file
+ * falls back to the previous table or reports the column as missing, and that overwriting columns does not grow the file
+ * forever. A region file with columns past 2 GiB is crafted sparse to check the windowed mapping.
+ */
+public class LudaniRegionTests
+{
+	// Layout of a region file, see RegionFile
+	private final static int  HEADER_BYTES = 20;
+	private final static int  ENTRY_BYTES  = 16;
+	private final static int  SLOT_BYTES   = HEADER_BYTES + RegionFile.COLUMN_COUNT * ENTRY_BYTES;
+	private final static long DATA_START   = 3 * 4096;
+	private final static int  MAGIC        = 0x4752444C;
+
+	private final static int  OVERWRITES   = 200;
+	private final static int  BIG_COLUMN   = 64 * 1024;
+	private final static long GIB          = 1L << 30;
+
+	public static void main(final String[] args) throws IOException
+	{
+		var directory = Files.createTempDirectory("ludani-regions");
+		try
+		{
+			codec();
+			regionFile(directory);
+			slots(directory);
+			compaction(directory);
+			largeFile(directory);
+			store(directory.resolve("store"));
+			persistent(directory.resolve("persistent"));
+		}
+		finally
+		{
+			try (var paths = Files.walk(directory))
+			{
+				for (var path : paths.sorted(Comparator.reverseOrder()).toList())
+				{
+					Files.delete(path);
+				}
+			}
+		}
+	}
+
+	private static void codec()
+	{
+		var chunks = column(3, -7, 11);
+		var data   = ColumnCodec.encode(chunks);
+		check(data.get(Integer.BYTES + Integer.BYTES) == ColumnCodec.FULL, "a full chunk is stored without its voxels");
+		check(data.get(2 * Integer.BYTES + 1 + Integer.BYTES + Integer.BYTES) == ColumnCodec.DEFLATE, "a regular chunk is deflated");
+		check(same(ColumnCodec.decode(data, 3, -7), chunks), "full, deflated and raw chunks are decoded as encoded");
+		check(data.position() == 0, "decoding does not move the input");
+		check(ColumnCodec.decode(ColumnCodec.encode(List.of()), 3, -7).isEmpty(), "an empty column is decoded empty");
+	}
+
+	private static void regionFile(Path directoryIn) throws IOException
+	{
+		var path   = directoryIn.resolve("region.ldr");
+		var first  = bytes(1000, 1);
+		var second = bytes(5000, 2);
+		try (var region = new RegionFile(path))
+		{
+			check(region.sequence() == 1 && region.end() == DATA_START, "a new region file has an empty table in both slots");
+			region.write(1, 2, first);
+			check(region.pendingCount() == 1 && region.contains(1, 2) && first.equals(region.read(1, 2)), "a pending column is read before the flush");
+			region.flush();
+			check(region.pendingCount() == 0 && region.sequence() == 2 && first.equals(region.read(1, 2)), "a flushed column is read back");
+			region.write(-1, 18, second);
+			check(region.read(15, 2).equals(second) && !region.contains(0, 0) && region.read(0, 0) == null, "columns are indexed modulo the region size");
+		}
+		try (var region = new RegionFile(path))
+		{
+			check(region.sequence() == 3 && first.equals(region.read(1, 2)) && second.equals(region.read(15, 2)), "closing flushes, reopening reads both columns");
+		}
+
+		// A checksum mismatch makes the column missing instead of decoding garbage
+		try (var channel = FileChannel.open(path, StandardOpenOption.WRITE))
+		{
+			channel.write(ByteBuffer.wrap(new byte[] {(byte) ~first.get(10)}), DATA_START + 10);
+		}
+		try (var region = new RegionFile(path))
+		{
+			check(region.contains(1, 2) && region.read(1, 2) == null && second.equals(region.read(15, 2)), "a damaged column is read as missing");
+		}
+	}
+
+	private static void slots(Path directoryIn) throws IOException
+	{
+		var path   = directoryIn.resolve("slots.ldr");
+		var first  = bytes(300, 3);
+		var second = bytes(700, 4);
+		try (var region = new RegionFile(path))
+		{
+			region.write(0, 0, first).flush();
+			region.write(0, 1, second).flush();
+		}
+
+		// The last flush wrote the slot of sequence 3, damaging its table falls back to the table of sequence 2
+		flip(path, SLOT_BYTES + HEADER_BYTES + 5);
+		try (var region = new RegionFile(path))
+		{
+			check(region.sequence() == 2 && first.equals(region.read(0, 0)) && !region.contains(0, 1), "a damaged current slot falls back to the previous table");
+			region.write(0, 1, second).flush();
+			check(region.sequence() == 3, "the next flush replaces the damaged slot");
+		}
+
+		// A write torn after the header of the slot leaves the entries of the previous table in this slot
+		try (var channel = FileChannel.open(path, StandardOpenOption.WRITE))
+		{
+			channel.write(ByteBuffer.allocate(2 * ENTRY_BYTES), SLOT_BYTES + HEADER_BYTES);
+		}
+		try (var region = new RegionFile(path))
+		{
+			check(region.sequence() == 2 && first.equals(region.read(0, 0)) && !region.contains(0, 1), "a torn current slot falls back to the previous table");
+		}
+
+		// Both slots damaged, the columns of the file cannot be trusted anymore
+		flip(path, HEADER_BYTES + 5);
+		flip(path, SLOT_BYTES + HEADER_BYTES + 5);
+		try (var region = new RegionFile(path))
+		{
+			throw new IllegalStateException("Failed : a region file with data and no valid slot must not open");
+		}
+		catch (IOException eIn)
+		{
+			System.out.println("ok : a region file with data and no valid slot does not open");
+		}
+
+		// A crash while the file was created leaves less than the slots, there is nothing to lose
+		var created = directoryIn.resolve("created.ldr");
+		Files.write(created, new byte[SLOT_BYTES / 3]);
+		try (var region = new RegionFile(created))
+		{
+			check(region.sequence() == 1 && !region.contains(0, 0) && region.end() == DATA_START, "an interrupted creation is created again");
+		}
+		flip(created, SLOT_BYTES + HEADER_BYTES + 5);
+		try (var region = new RegionFile(created))
+		{
+			check(region.sequence() == 0 && !region.contains(0, 0), "a fresh file with a damaged slot opens with the other one");
+		}
+	}
+
+	private static void compaction(Path directoryIn) throws IOException
+	{
+		var path  = directoryIn.resolve("compaction.ldr");
+		var small = bytes(100, 5);
+		var size  = 0L;
+		ByteBuffer last = null;
+		try (var region = new RegionFile(path))
+		{
+			region.write(5, 5, small).flush();
+			for (var i = 0; i < OVERWRITES; i++)
+			{
+				last = bytes(BIG_COLUMN + i, 6 + i);
+				region.write(7, 7, last).flush();
+				size = Math.max(size, Files.size(path));
+				if (!last.equals(region.read(7, 7)) || !small.equals(region.read(5, 5)))
+				{
+					throw new IllegalStateException("Failed : overwrite " + i + " reads the last columns written");
+				}
+			}
+			check(region.compactionCount() > 0 && region.garbageBytes() < RegionFile.MIN_COMPACTION_GARBAGE * 2, OVERWRITES + " overwrites are compacted " + region.compactionCount() + " times");
+		}
+		check(size <= DATA_START + 3 * RegionFile.MIN_COMPACTION_GARBAGE, "the file never grows past " + size + " bytes while " + (long) OVERWRITES * BIG_COLUMN + " bytes were written");
+		check(Files.notExists(directoryIn.resolve("compaction.ldr.tmp")), "no temporary file is left behind");
+		try (var region = new RegionFile(path))
+		{
+			check(last.equals(region.read(7, 7)) && small.equals(region.read(5, 5)), "the compacted file is read back after reopening");
+		}
+	}
+
+	private static void largeFile(Path directoryIn) throws IOException
+	{
+		// Columns past 2 GiB and across the 2 GiB boundary, written without RegionFile so the file stays sparse
+		var path     = directoryIn.resolve("large.ldr");
+		var far      = bytes(3000, 7);
+		var straddle = bytes(4096, 8);
+		var offsets  = new long[RegionFile.COLUMN_COUNT];
+		var lengths  = new int[RegionFile.COLUMN_COUNT];
+		var sums     = new int[RegionFile.COLUMN_COUNT];
+		put(offsets, lengths, sums, RegionFile.index(1, 1), 3 * GIB, far);
+		put(offsets, lengths, sums, RegionFile.index(2, 2), 2 * GIB - 1024, straddle);
+		try (var channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.SPARSE))
+		{
+			channel.write(far.duplicate(), 3 * GIB);
+			channel.write(straddle.duplicate(), 2 * GIB - 1024);
+			channel.write(slot(0, new long[RegionFile.COLUMN_COUNT], new int[RegionFile.COLUMN_COUNT], new int[RegionFile.COLUMN_COUNT]), 0);
+			channel.write(slot(1, offsets, lengths, sums), SLOT_BYTES);
+		}
+
+		var appended = bytes(2000, 9);
+		try (var region = new RegionFile(path))
+		{
+			check(region.end() > Integer.MAX_VALUE && far.equals(region.read(1, 1)), "a column at 3 GiB is read back");
+			check(straddle.equals(region.read(2, 2)), "a column across the 2 GiB boundary is read back");
+			region.write(3, 3, appended).flush();
+			check(appended.equals(region.read(3, 3)) && far.equals(region.read(1, 1)), "a column appended past 3 GiB is read back");
+		}
+		try (var region = new RegionFile(path))
+		{
+			check(appended.equals(region.read(3, 3)) && straddle.equals(region.read(2, 2)), "columns past 2 GiB are read back after reopening");
+		}
+		Files.delete(path);
+	}
+
+	private static void store(Path directoryIn) throws IOException
+	{
+		// Only two regions open at once for columns spread over four, negative coordinates included
+		int[][] columns = {{0, 0}, {-1, -1}, {-16, -17}, {16, 0}, {0, 17}, {40, -40}, {15, 15}};
+		try (var store = new RegionStore(directoryIn, 2, 3))
+		{
+			for (var column : columns)
+			{
+				store.save(column[0], column[1], LudaniRegionTests.column(column[0], column[1], column[0] ^ column[1]));
+			}
+			var loaded = 0;
+			for (var column : columns)
+			{
+				loaded += same(store.load(column[0], column[1]), LudaniRegionTests.column(column[0], column[1], column[0] ^ column[1])) ? 1 : 0;
+			}
+			check(loaded == columns.length, "the " + columns.length + " columns saved are loaded through evicted regions");
+			check(store.load(1, 0) == null && !store.contains(1, 0), "a column never saved is missing");
+			check(Files.exists(directoryIn.resolve(RegionStore.fileName(-1, -1))) && Files.exists(directoryIn.resolve(RegionStore.fileName(-1, -2))), "regions of negative columns are named by floor division");
+		}
+		try (var store = new RegionStore(directoryIn))
+		{
+			var loaded = 0;
+			for (var column : columns)
+			{
+				loaded += same(store.load(column[0], column[1]), LudaniRegionTests.column(column[0], column[1], column[0] ^ column[1])) ? 1 : 0;
+			}
+			check(loaded == columns.length, "the " + columns.length + " columns are loaded after reopening the store");
+		}
+	}
+
+	private static void persistent(Path directoryIn) throws IOException
+	{
+		var generated = new int[1];
+		ITerrainGenerator generator = (columnXIn, columnZIn, worldOut) ->
+		{
+			generated[0]++;
+			for (var x = 0; x < VoxelChunk.SIZE; x++)
+			{
+				for (var z = 0; z < VoxelChunk.SIZE; z++)
+				{
+					worldOut.fillColumn(columnXIn * VoxelChunk.SIZE + x, columnZIn * VoxelChunk.SIZE + z, 0, 40 + (x * z & 7));
+				}
+			}
+		};
+		List<VoxelChunk> expected;
+		try (var store = new RegionStore(directoryIn))
+		{
+			var terrain = new PersistentTerrainGenerator(store, generator);
+			expected = terrain.column(5, 5);
+			check(expected.size() == 2 && terrain.generatedCount() == 1 && store.contains(5, 5), "a missing column is generated and saved");
+			check(same(terrain.column(5, 5), expected) && terrain.loadedCount() == 1 && generated[0] == 1, "a saved column is loaded instead of generated");
+		}
+
+		// A column whose checksum matches but whose data ends early
+		try (var region = new RegionFile(directoryIn.resolve(RegionStore.fileName(0, 0))))
+		{
+			region.write(5, 5, ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).putInt(0, 2));
+		}
+		try (var store = new RegionStore(directoryIn))
+		{
+			var terrain = new PersistentTerrainGenerator(store, generator);
+			check(same(terrain.column(5, 5), expected) && terrain.unreadableCount() == 1 && terrain.generatedCount() == 1, "an undecodable column is generated again");
+			check(same(terrain.column(5, 5), expected) && terrain.loadedCount() == 1 && terrain.unreadableCount() == 1, "the generated column replaced the undecodable one");
+		}
+	}
+
+	/**
+	 * @return a full chunk, a regular one the codec deflates and a noisy one it keeps raw, ordered by y
+	 */
+	private static List<VoxelChunk> column(int columnXIn, int columnZIn, int seedIn)
+	{
+		var random  = new Random(seedIn);
+		var chunks  = new ArrayList<VoxelChunk>();
+		chunks.add(new VoxelChunk(columnXIn, -1, columnZIn).fill());
+		var regular = new VoxelChunk(columnXIn, 0, columnZIn);
+		var noisy   = new VoxelChunk(columnXIn, 2, columnZIn);
+		for (var x = 0; x < VoxelChunk.SIZE; x++)
+		{
+			for (var z = 0; z < VoxelChunk.SIZE; z++)
+			{
+				regular.fillColumn(x, z, 0, 8 + (x + z & 3));
+				noisy.column(x, z, random.nextInt());
+			}
+		}
+		chunks.add(regular);
+		chunks.add(noisy);
+
+		return chunks;
+	}
+
+	private static boolean same(List<VoxelChunk> leftIn, List<VoxelChunk> rightIn)
+	{
+		if (leftIn == null || rightIn == null || leftIn.size() != rightIn.size())
+		{
+			return false;
+		}
+		for (var i = 0; i < leftIn.size(); i++)
+		{
+			var left  = leftIn.get(i);
+			var right = rightIn.get(i);
+			if (left.x() != right.x() || left.y() != right.y() || left.z() != right.z() || !Arrays.equals(left.columns(), right.columns()))
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static ByteBuffer bytes(int lengthIn, int seedIn)
+	{
+		var bytes = new byte[lengthIn];
+		new Random(seedIn).nextBytes(bytes);
+
+		return ByteBuffer.wrap(bytes);
+	}
+
+	private static void flip(Path pathIn, long positionIn) throws IOException
+	{
+		try (var channel = FileChannel.open(pathIn, StandardOpenOption.READ, StandardOpenOption.WRITE))
+		{
+			var buffer = ByteBuffer.allocate(1);
+			channel.read(buffer, positionIn);
+			channel.write(ByteBuffer.wrap(new byte[] {(byte) ~buffer.get(0)}), positionIn);
+		}
+	}
+
+	private static void put(long[] offsetsOut, int[] lengthsOut, int[] checksumsOut, int indexIn, long offsetIn, ByteBuffer dataIn)
+	{
+		var crc = new CRC32C();
+		crc.update(dataIn.duplicate());
+		offsetsOut[indexIn]   = offsetIn;
+		lengthsOut[indexIn]   = dataIn.remaining();
+		checksumsOut[indexIn] = (int) crc.getValue();
+	}
+
+	private static ByteBuffer slot(long sequenceIn, long[] offsetsIn, int[] lengthsIn, int[] checksumsIn)
+	{
+		var buffer = ByteBuffer.allocate(SLOT_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		for (var index = 0; index < RegionFile.COLUMN_COUNT; index++)
+		{
+			var offset = HEADER_BYTES + index * ENTRY_BYTES;
+			buffer.putLong(offset, offsetsIn[index]).putInt(offset + Long.BYTES, lengthsIn[index]).putInt(offset + Long.BYTES + Integer.BYTES, checksumsIn[index]);
+		}
+		var crc = new CRC32C();
+		crc.update(buffer.slice(HEADER_BYTES, SLOT_BYTES - HEADER_BYTES));
+
+		return buffer.putInt(0, MAGIC).putInt(Integer.BYTES, 1).putLong(2 * Integer.BYTES, sequenceIn).putInt(2 * Integer.BYTES + Long.BYTES, (int) crc.getValue());
+	}
+
+	private static void check(boolean conditionIn, String descriptionIn)
+	{
+		if (!conditionIn)
+		{
+			throw new IllegalStateException("Failed : " + descriptionIn);
+		}
+		System.out.println("ok : " + descriptionIn);
+	}
+}
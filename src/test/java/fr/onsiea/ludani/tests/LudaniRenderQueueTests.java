@@ -0,0 +1,329 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.gl.GLState;
+import fr.onsiea.ludani.gl.HeadlessGL;
+import fr.onsiea.ludani.gl.RecordingGL;
+import fr.onsiea.ludani.render.RenderQueue;
+import org.joml.Matrix4f;
+import org.lwjgl.opengl.GL32;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Submit render queues to a recording backend which logs every draw with the program, vertex array and blending state it
+ * was issued with. Random opaque items must be drawn grouped by program then vertex array, front to back, with one bind per
+ * group. Transparent items must come after every opaque one, back to front whatever their program, with blending on and
+ * depth writes off. Contiguous items sharing their state must be merged and batches drawn with their program in use.
+ */
+public class LudaniRenderQueueTests
+{
+	private final static int  PROGRAMS      = 4;
+	private final static int  VERTEX_ARRAYS = 20;
+	private final static int  ITEMS         = 2000;
+	private final static int  TRANSPARENTS  = 500;
+	private final static int  CONTIGUOUS    = 100;
+	private final static int  INDICES       = 6;
+	// Gap left between the index ranges of random items so that none of them merge
+	private final static long ITEM_STRIDE   = 1024L;
+	private final static long SEED          = 0x5EED_0011L;
+
+	public static void main(final String[] args)
+	{
+		var log          = new DrawLogGL();
+		var recorder     = new RecordingGL(log);
+		var state        = new GLState(recorder);
+		var queue        = new RenderQueue(4);
+		var programs     = new int[PROGRAMS];
+		var vertexArrays = new int[VERTEX_ARRAYS];
+		for (var i = 0; i < PROGRAMS; i++)
+		{
+			programs[i] = recorder.glCreateProgram();
+		}
+		for (var i = 0; i < VERTEX_ARRAYS; i++)
+		{
+			vertexArrays[i] = recorder.glGenVertexArrays();
+		}
+		recorder.endFrame();
+
+		sorted(log, recorder, state, queue, programs, vertexArrays);
+		transparent(log, recorder, state, queue, programs, vertexArrays);
+		merged(log, recorder, state, queue, programs, vertexArrays);
+		batches(log, recorder, state, queue, programs, vertexArrays);
+	}
+
+	private static void sorted(DrawLogGL logIn, RecordingGL recorderIn, GLState stateIn, RenderQueue queueIn, int[] programsIn, int[] vertexArraysIn)
+	{
+		var random      = new Random(SEED);
+		var depths      = new HashMap<Long, Float>();
+		var groups      = new HashSet<Long>();
+		var used        = new HashSet<Integer>();
+		var unsorted    = 0;
+		var program     = -1;
+		var vertexArray = -1;
+		for (var i = 0; i < ITEMS; i++)
+		{
+			var itemProgram     = programsIn[random.nextInt(PROGRAMS)];
+			var itemVertexArray = vertexArraysIn[random.nextInt(VERTEX_ARRAYS)];
+			var depth           = random.nextFloat() * 500.0f;
+			queueIn.add(itemProgram, itemVertexArray, GL32.GL_TRIANGLES, GL32.GL_UNSIGNED_INT, i * ITEM_STRIDE, INDICES, -1, null, depth);
+			depths.put(i * ITEM_STRIDE, depth);
+			groups.add((long) itemProgram << 32 | itemVertexArray);
+			used.add(itemProgram);
+
+			// Binds of the same items drawn in insertion order, through the state as well
+			unsorted += (itemProgram != program ? 1 : 0) + (itemProgram != program || itemVertexArray != vertexArray ? 1 : 0);
+			program     = itemProgram;
+			vertexArray = itemVertexArray;
+		}
+		logIn.draws.clear();
+		check(queueIn.submit(stateIn) == ITEMS && queueIn.mergedCount() == 0 && queueIn.size() == 0, "the " + ITEMS + " separate items are drawn one by one and the queue is cleared");
+
+		var frame = recorderIn.endFrame();
+		check(frame.stateChanges() == used.size() + groups.size() && frame.redundantStateChanges() == 0, "sorted, the " + ITEMS + " items need " + frame.stateChanges() + " binds : one per program and one per program and vertex array, against " + unsorted + " unsorted");
+		check(frame.drawCalls() == ITEMS && frame.elements() == (long) ITEMS * INDICES, "the recorder counts every item drawn");
+
+		var misplaced        = 0;
+		var finishedGroups   = new HashSet<Long>();
+		var finishedPrograms = new HashSet<Integer>();
+		for (var i = 1; i < logIn.draws.size(); i++)
+		{
+			var previous = logIn.draws.get(i - 1);
+			var draw     = logIn.draws.get(i);
+			var group    = (long) draw.program << 32 | draw.vertexArray;
+			if (draw.program != previous.program)
+			{
+				// A program whose draws already ended must not come back
+				finishedPrograms.add(previous.program);
+				misplaced += finishedPrograms.contains(draw.program) ? 1 : 0;
+			}
+			if (draw.program != previous.program || draw.vertexArray != previous.vertexArray)
+			{
+				finishedGroups.add((long) previous.program << 32 | previous.vertexArray);
+				misplaced += finishedGroups.contains(group) ? 1 : 0;
+			}
+			else if (depths.get(draw.offset) < depths.get(previous.offset))
+			{
+				misplaced++;
+			}
+		}
+		check(misplaced == 0, "items are grouped by program then vertex array and drawn front to back in each group");
+	}
+
+	private static void transparent(DrawLogGL logIn, RecordingGL recorderIn, GLState stateIn, RenderQueue queueIn, int[] programsIn, int[] vertexArraysIn)
+	{
+		var random = new Random(SEED + 1);
+		var depths = new HashMap<Long, Float>();
+		for (var i = 0; i < TRANSPARENTS; i++)
+		{
+			var depth = random.nextFloat() * 500.0f;
+			queueIn.addTransparent(programsIn[random.nextInt(PROGRAMS)], vertexArraysIn[random.nextInt(VERTEX_ARRAYS)], GL32.GL_TRIANGLES, GL32.GL_UNSIGNED_INT, i * ITEM_STRIDE, INDICES, -1, null, depth);
+			depths.put(i * ITEM_STRIDE, depth);
+
+			// Opaque items queued after, at the same depths, are still drawn first
+			var opaqueOffset = (TRANSPARENTS + i) * ITEM_STRIDE;
+			queueIn.add(programsIn[random.nextInt(PROGRAMS)], vertexArraysIn[random.nextInt(VERTEX_ARRAYS)], GL32.GL_TRIANGLES, GL32.GL_UNSIGNED_INT, opaqueOffset, INDICES, -1, null, depth);
+		}
+		logIn.draws.clear();
+		check(queueIn.submit(stateIn) == 2 * TRANSPARENTS, "every opaque and transparent item is drawn");
+		recorderIn.endFrame();
+
+		var opaqueAfter = 0;
+		var unordered   = 0;
+		var unblended   = 0;
+		var transparent = false;
+		var previous    = Float.POSITIVE_INFINITY;
+		for (var draw : logIn.draws)
+		{
+			var depth = depths.get(draw.offset);
+			if (depth == null)
+			{
+				opaqueAfter += transparent ? 1 : 0;
+				unblended += draw.blend || !draw.depthMask ? 1 : 0;
+				continue;
+			}
+
+			transparent = true;
+			unordered += depth > previous ? 1 : 0;
+			unblended += draw.blend && !draw.depthMask ? 0 : 1;
+			previous  = depth;
+		}
+		check(opaqueAfter == 0, "transparent items are drawn after every opaque one");
+		check(unordered == 0, "the " + TRANSPARENTS + " transparent items are drawn back to front across " + PROGRAMS + " programs");
+		check(unblended == 0, "only transparent items are drawn with blending on and depth writes off");
+		check(!logIn.blend && logIn.depthMask && logIn.sourceFactor == GL32.GL_SRC_ALPHA && logIn.destinationFactor == GL32.GL_ONE_MINUS_SRC_ALPHA, "blending is set for the transparent pass then turned off");
+
+		queueIn.add(programsIn[0], vertexArraysIn[0], GL32.GL_TRIANGLES, GL32.GL_UNSIGNED_INT, 0L, INDICES, -1, null, 1.0f);
+		queueIn.submit(stateIn);
+		check(recorderIn.endFrame().stateChanges() <= 2, "a frame without transparent item leaves blending alone");
+	}
+
+	private static void merged(DrawLogGL logIn, RecordingGL recorderIn, GLState stateIn, RenderQueue queueIn, int[] programsIn, int[] vertexArraysIn)
+	{
+		var uniform = new Matrix4f().translation(1.0f, 2.0f, 3.0f);
+		var other   = new Matrix4f().translation(3.0f, 2.0f, 1.0f);
+		var bytes   = (long) INDICES * Integer.BYTES;
+
+		// Contiguous ranges queued from the last to the first, the depth puts them back in order
+		for (var i = CONTIGUOUS - 1; i >= 0; i--)
+		{
+			queueIn.add(programsIn[0], vertexArraysIn[0], GL32.GL_TRIANGLES, GL32.GL_UNSIGNED_INT, i * bytes, INDICES, 0, new Matrix4f(uniform), i);
+		}
+		logIn.draws.clear();
+		check(queueIn.submit(stateIn) == 1 && queueIn.mergedCount() == CONTIGUOUS - 1, "the " + CONTIGUOUS + " contiguous items are merged in one draw");
+		var frame = recorderIn.endFrame();
+		check(frame.drawCalls() == 1 && frame.elements() == (long) CONTIGUOUS * INDICES && logIn.draws.get(0).offset == 0L, "the merged draw covers the " + CONTIGUOUS * INDICES + " indices from the first");
+		check(frame.uniformUploads() == 1, "the shared uniform is uploaded once");
+
+		// Each change of uniform, primitive or pass, or a gap in the range, splits the draw
+		queueIn.add(programsIn[0], vertexArraysIn[0], GL32.GL_TRIANGLES, GL32.GL_UNSIGNED_INT, 0L, INDICES, 0, uniform, 0.0f);
+		queueIn.add(programsIn[0], vertexArraysIn[0], GL32.GL_TRIANGLES, GL32.GL_UNSIGNED_INT, bytes, INDICES, 0, uniform, 1.0f);
+		queueIn.add(programsIn[0], vertexArraysIn[0], GL32.GL_TRIANGLES, GL32.GL_UNSIGNED_INT, 2 * bytes, INDICES, 0, other, 2.0f);
+		queueIn.add(programsIn[0], vertexArraysIn[0], GL32.GL_TRIANGLES, GL32.GL_UNSIGNED_INT, 4 * bytes, INDICES, 0, other, 3.0f);
+		queueIn.add(programsIn[0], vertexArraysIn[0], GL32.GL_TRIANGLE_STRIP, GL32.GL_UNSIGNED_INT, 5 * bytes, INDICES, 0, other, 4.0f);
+		queueIn.add(programsIn[0], vertexArraysIn[0], GL32.GL_TRIANGLE_STRIP, GL32.GL_UNSIGNED_INT, 6 * bytes, INDICES, 0, other, 5.0f);
+		queueIn.addTransparent(programsIn[0], vertexArraysIn[0], GL32.GL_TRIANGLES, GL32.GL_UNSIGNED_INT, 7 * bytes, INDICES, 0, other, 6.0f);
+		queueIn.addTransparent(programsIn[0], vertexArraysIn[0], GL32.GL_TRIANGLES, GL32.GL_UNSIGNED_INT, 8 * bytes, INDICES, 0, other, 5.0f);
+		check(queueIn.submit(stateIn) == 6 && queueIn.mergedCount() == 2, "8 items with 5 splits are drawn in 6 calls, strips never merged");
+		check(recorderIn.endFrame().drawCalls() == 6 && logIn.draws.get(logIn.draws.size() - 1).count == 2 * INDICES, "transparent neighbours drawn back to front in range order merge");
+	}
+
+	private static void batches(DrawLogGL logIn, RecordingGL recorderIn, GLState stateIn, RenderQueue queueIn, int[] programsIn, int[] vertexArraysIn)
+	{
+		var uniform = new Matrix4f().scaling(2.0f);
+		var order   = new ArrayList<Integer>();
+		for (var i = 0; i < PROGRAMS; i++)
+		{
+			var program = programsIn[PROGRAMS - 1 - i];
+			queueIn.add(program, vertexArraysIn[i], 0, uniform, 0.0f, () ->
+			{
+				order.add(stateIn.program());
+				stateIn.bindVertexArray(vertexArraysIn[0]);
+				recorderIn.glDrawArrays(GL32.GL_TRIANGLES, 0, 3);
+				recorderIn.glDrawArrays(GL32.GL_TRIANGLES, 3, 3);
+
+				return 2;
+			});
+		}
+		queueIn.addTransparent(programsIn[0], vertexArraysIn[0], 0, uniform, 0.0f, () ->
+		{
+			order.add(logIn.blend ? -1 : 0);
+
+			return 0;
+		});
+		check(queueIn.submit(stateIn) == 2 * PROGRAMS, "batches count the draws they issued");
+		var sortedPrograms = new ArrayList<Integer>();
+		for (var program : programsIn)
+		{
+			sortedPrograms.add(program);
+		}
+		sortedPrograms.add(-1);
+		check(order.equals(sortedPrograms), "batches are drawn by program with theirs in use, transparent ones with blending on");
+		check(recorderIn.endFrame().uniformUploads() == PROGRAMS, "each batch program receives its uniform once");
+	}
+
+	private static void check(boolean conditionIn, String descriptionIn)
+	{
+		if (!conditionIn)
+		{
+			throw new IllegalStateException("Failed : " + descriptionIn);
+		}
+		System.out.println("ok : " + descriptionIn);
+	}
+
+	/**
+	 * Logs every indexed draw with the bindings and blending state it was issued with
+	 */
+	private final static class DrawLogGL extends HeadlessGL
+	{
+		private final List<Draw> draws     = new ArrayList<>();
+		private       int        program;
+		private       int        vertexArray;
+		private       boolean    blend;
+		private       boolean    depthMask = true;
+		private       int        sourceFactor;
+		private       int        destinationFactor;
+
+		@Override
+		public void glUseProgram(int programIn)
+		{
+			program = programIn;
+		}
+
+		@Override
+		public void glBindVertexArray(int vertexArrayIn)
+		{
+			vertexArray = vertexArrayIn;
+		}
+
+		@Override
+		public void glEnable(int capabilityIn)
+		{
+			blend |= capabilityIn == GL32.GL_BLEND;
+		}
+
+		@Override
+		public void glDisable(int capabilityIn)
+		{
+			blend &= capabilityIn != GL32.GL_BLEND;
+		}
+
+		@Override
+		public void glBlendFunc(int sourceFactorIn, int destinationFactorIn)
+		{
+			sourceFactor      = sourceFactorIn;
+			destinationFactor = destinationFactorIn;
+		}
+
+		@Override
+		public void glDepthMask(boolean flagIn)
+		{
+			depthMask = flagIn;
+		}
+
+		@Override
+		public void glDrawElements(int modeIn, int countIn, int typeIn, long indicesIn)
+		{
+			draws.add(new Draw(program, vertexArray, indicesIn, countIn, blend, depthMask));
+		}
+	}
+
+	private record Draw(int program, int vertexArray, long offset, int count, boolean blend, boolean depthMask)
+	{
+	}
+}
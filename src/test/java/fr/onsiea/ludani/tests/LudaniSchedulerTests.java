@@ -0,0 +1,163 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.scheduling.IScheduledModule;
+import fr.onsiea.ludani.scheduling.ModuleAffinity;
+import fr.onsiea.ludani.scheduling.ModuleScheduler;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Run synthetic modules through the {@link ModuleScheduler} without window : a frame shaped graph where window and render
+ * stay on the main thread, then independent modules. Checks that every module starts after the modules it depends on
+ * ended and that main thread modules ran on the main thread, then compares the tick time to a serial iteration for several
+ * pool sizes.
+ */
+public class LudaniSchedulerTests
+{
+	private final static int[] PARALLELISMS = {1, 2, 4, 8};
+	private final static int   TICKS        = 200;
+
+	public static void main(final String[] args)
+	{
+		System.out.println(Runtime.getRuntime().availableProcessors() + " processors");
+
+		run("frame", List.of(
+				new SyntheticModule("window", ModuleAffinity.MAIN_THREAD, Set.of(), Set.of("input"), 200_000L),
+				new SyntheticModule("controls", ModuleAffinity.ANY_THREAD, Set.of("input"), Set.of("controls"), 200_000L),
+				new SyntheticModule("simulation", ModuleAffinity.ANY_THREAD, Set.of("controls"), Set.of("world"), 1_500_000L),
+				new SyntheticModule("audio", ModuleAffinity.ANY_THREAD, Set.of("controls"), Set.of("sounds"), 1_000_000L),
+				new SyntheticModule("streaming", ModuleAffinity.ANY_THREAD, Set.of(), Set.of("terrain"), 1_500_000L),
+				new SyntheticModule("particles", ModuleAffinity.ANY_THREAD, Set.of("world"), Set.of("particles"), 1_000_000L),
+				new SyntheticModule("render", ModuleAffinity.MAIN_THREAD, Set.of("world", "terrain", "particles"), Set.of(), 500_000L)));
+
+		var independent = new SyntheticModule[16];
+		for (var i = 0; i < independent.length; i++)
+		{
+			independent[i] = new SyntheticModule("independent " + i, ModuleAffinity.ANY_THREAD, Set.of("settings"), Set.of("output " + i), 400_000L);
+		}
+		run("independent", List.of(independent));
+	}
+
+	private static void run(String nameIn, List<SyntheticModule> modulesIn)
+	{
+		// Serial reference, as modules iterated one after another
+		var start = System.nanoTime();
+		for (var tick = 0; tick < TICKS; tick++)
+		{
+			for (var module : modulesIn)
+			{
+				module.iterate();
+			}
+		}
+		var serial = (System.nanoTime() - start) / TICKS;
+		System.out.printf("%-12s serial     %.3f ms per tick%n", nameIn, serial / 1.0E6D);
+
+		for (var parallelism : PARALLELISMS)
+		{
+			var pool      = new ForkJoinPool(parallelism);
+			var scheduler = new ModuleScheduler(pool);
+			for (var module : modulesIn)
+			{
+				scheduler.add(module);
+			}
+			var main        = Thread.currentThread();
+			var parallelSum = 0.0D;
+			start = System.nanoTime();
+			for (var tick = 0; tick < TICKS; tick++)
+			{
+				scheduler.iterate();
+				parallelSum += scheduler.parallelism();
+				for (var index = 0; index < modulesIn.size(); index++)
+				{
+					var module = modulesIn.get(index);
+					if (module.affinity() == ModuleAffinity.MAIN_THREAD && module.thread() != main)
+					{
+						throw new IllegalStateException(module.name() + " ran on " + module.thread().getName());
+					}
+					for (var successor : scheduler.successors(index))
+					{
+						if (modulesIn.get(successor).start() < module.end())
+						{
+							throw new IllegalStateException(modulesIn.get(successor).name() + " started before the end of " + module.name());
+						}
+					}
+				}
+			}
+			var parallel = (System.nanoTime() - start) / TICKS;
+			pool.shutdown();
+			System.out.printf("%-12s %d threads  %.3f ms per tick, speed up %.2f, parallelism %.2f, depth %d, %d edges%n", nameIn, parallelism, parallel / 1.0E6D, (double) serial / parallel, parallelSum / TICKS, scheduler.depth(), scheduler.edgeCount());
+		}
+	}
+
+	/**
+	 * Busy for a fixed time, keeps when and where its last iteration ran
+	 */
+	private final static class SyntheticModule implements IScheduledModule
+	{
+		private final @Getter    String         name;
+		private final @Getter    ModuleAffinity affinity;
+		private final @Getter    Set<?>         reads;
+		private final @Getter    Set<?>         writes;
+		private final            long           workNanos;
+		private volatile @Getter long           start;
+		private volatile @Getter long           end;
+		private volatile @Getter Thread         thread;
+
+		private SyntheticModule(String nameIn, ModuleAffinity affinityIn, Set<?> readsIn, Set<?> writesIn, long workNanosIn)
+		{
+			name      = nameIn;
+			affinity  = affinityIn;
+			reads     = readsIn;
+			writes    = writesIn;
+			workNanos = workNanosIn;
+		}
+
+		@Override
+		public void iterate()
+		{
+			thread = Thread.currentThread();
+			start  = System.nanoTime();
+			var until = start + workNanos;
+			while (System.nanoTime() < until)
+			{
+				Thread.onSpinWait();
+			}
+			end = System.nanoTime();
+		}
+	}
+}
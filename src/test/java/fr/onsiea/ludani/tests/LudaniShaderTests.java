@@ -0,0 +1,394 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.asset.AssetLoader;
+import fr.onsiea.ludani.asset.IAssetSource;
+import fr.onsiea.ludani.gl.GLState;
+import fr.onsiea.ludani.gl.HeadlessGL;
+import fr.onsiea.ludani.shader.ProgramBinaryCache;
+import fr.onsiea.ludani.shader.ShaderPipeline;
+import fr.onsiea.ludani.shader.ShaderPreprocessor;
+import fr.onsiea.ludani.shader.ShaderProgram;
+import fr.onsiea.ludani.shader.ShaderVariant;
+import org.lwjgl.opengl.GL32;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Load shader variants through the {@link ShaderPipeline} without window, on a stand-in GL where compiling a shader and
+ * linking a program take a few milliseconds and reading a file takes one. A first run compiles every variant one per
+ * frame and caches their binaries, a second run with a new GL loads every binary, then a damaged cache file, a driver
+ * refusing the binaries, another driver, includes, defines and broken sources are checked.
+ * Prints the GL thread time of the longest frame against linking every variant at once.
+ */
+public class LudaniShaderTests
+{
+	private final static int  VARIANTS      = 12;
+	private final static long COMPILE_NANOS = 2_000_000L;
+	private final static long LINK_NANOS    = 4_000_000L;
+	private final static long BINARY_NANOS  = 300_000L;
+	private final static long READ_NANOS    = 1_000_000L;
+
+	public static void main(final String[] args) throws IOException
+	{
+		var directory = Files.createTempDirectory("ludani-shaders");
+		try
+		{
+			var sources = directory.resolve("sources");
+			write(sources, "terrain.vert", """
+					#version 400
+
+					#include "lib/lighting.glsl"
+					#include "lib/fog.glsl"
+
+					layout(location = 0) in vec4 vertex;
+					layout(location = 2) in vec4 origin;
+
+					uniform mat4 modelViewProjection;
+					uniform vec3 lightDirections[8];
+
+					out vec3 color;
+
+					void main()
+					{
+						vec3 position = vertex.xyz * origin.w + origin.xyz;
+						gl_Position = modelViewProjection * vec4(position, 1.0);
+						color = fog(light(position), gl_Position.z);
+					}
+					""");
+			write(sources, "terrain.frag", """
+					#version 400
+
+					in vec3 color;
+
+					void main()
+					{
+						gl_FragColor = vec4(color, 1.0);
+					}
+					""");
+			write(sources, "lib/lighting.glsl", """
+					#include "common.glsl"
+
+					vec3 light(vec3 positionIn)
+					{
+						return vec3(LIGHTS * AMBIENT);
+					}
+					""");
+			// Includes common.glsl again, skipped
+			write(sources, "lib/fog.glsl", """
+					#include "../lib/common.glsl"
+
+					uniform float fogDensity;
+
+					vec3 fog(vec3 colorIn, float depthIn)
+					{
+						return colorIn * exp(-fogDensity * depthIn);
+					}
+					""");
+			write(sources, "lib/common.glsl", """
+					#define AMBIENT 0.25
+					""");
+			write(sources, "broken.frag", """
+					#version 400
+
+					#error unfinished fragment shader
+					""");
+			write(sources, "cycle.vert", """
+					#version 400
+					#include "cycle.glsl"
+					""");
+			write(sources, "cycle.glsl", """
+					#include "cycle.vert"
+					""");
+
+			var slowSource = slow(IAssetSource.directory(sources));
+			var cache      = new ProgramBinaryCache(directory.resolve("cache"));
+			var variants   = new ArrayList<ShaderVariant>();
+			for (var i = 0; i < VARIANTS; i++)
+			{
+				variants.add(new ShaderVariant("terrain.vert", "terrain.frag").define("LIGHTS", i + 1));
+			}
+
+			try (var loader = new AssetLoader(slowSource))
+			{
+				preprocessor(loader);
+
+				var first = run("first run", new SlowGL("Ludani HeadlessGL"), loader, cache, variants);
+				check(first.compiledCount() == VARIANTS && first.binaryCount() == 0, "first run compiles every variant");
+				check(cache.writeCount() == VARIANTS, "every binary is cached");
+
+				var second = run("second run", new SlowGL("Ludani HeadlessGL"), loader, cache, variants);
+				check(second.compiledCount() == 0 && second.binaryCount() == VARIANTS, "second run loads every binary");
+
+				try (var files = Files.list(cache.directory()))
+				{
+					var damaged = files.filter(pathIn -> pathIn.toString().endsWith(".bin")).findFirst().orElseThrow();
+					Files.write(damaged, new byte[] {1, 2, 3});
+				}
+				var afterDamage = run("damaged", new SlowGL("Ludani HeadlessGL"), loader, cache, variants);
+				check(afterDamage.compiledCount() == 1 && afterDamage.binaryCount() == VARIANTS - 1, "a damaged file is compiled again");
+
+				var refusing = run("refused", new RefusingGL(), loader, cache, variants);
+				check(refusing.rejectedCount() == VARIANTS && refusing.compiledCount() == VARIANTS, "refused binaries are compiled again");
+
+				var otherDriver = run("other driver", new SlowGL("Ludani HeadlessGL 2"), loader, cache, variants);
+				check(otherDriver.compiledCount() == VARIANTS, "binaries of another driver are not looked up");
+
+				failures(loader);
+			}
+		}
+		finally
+		{
+			try (Stream<Path> paths = Files.walk(directory))
+			{
+				for (var path : paths.sorted(Comparator.reverseOrder()).toList())
+				{
+					Files.delete(path);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Load every variant, linking one per frame, then link them again all at once on a pipeline without cache
+	 */
+	private static ShaderPipeline run(String nameIn, HeadlessGL glIn, AssetLoader loaderIn, ProgramBinaryCache cacheIn, List<ShaderVariant> variantsIn)
+	{
+		var state    = new GLState(glIn);
+		var pipeline = new ShaderPipeline(state, loaderIn, cacheIn);
+		var programs = new ArrayList<ShaderProgram>();
+		var start    = System.nanoTime();
+		for (var variant : variantsIn)
+		{
+			programs.add(pipeline.load(variant));
+		}
+		check(pipeline.load(variantsIn.get(0)) == programs.get(0), nameIn + " loads a variant once");
+
+		var frames       = 0;
+		var longestFrame = 0L;
+		while (pipeline.pendingCount() > 0)
+		{
+			var frameStart = System.nanoTime();
+			pipeline.drain(1);
+			longestFrame = Math.max(longestFrame, System.nanoTime() - frameStart);
+			frames++;
+			// Rest of a 60 Hz frame
+			sleepUntil(frameStart + 16_666_666L);
+		}
+		var total = System.nanoTime() - start;
+
+		for (var program : programs)
+		{
+			check(program.ready(), program + " is ready");
+			check(program.layout().uniformLocation("modelViewProjection") >= 0 && program.layout().uniform("lightDirections").size() == 8 && program.layout().attributeLocation("origin") == 2, program.variant() + " layout is reflected");
+		}
+		pipeline.close();
+
+		// Linking every variant at once, as the constructor of the former Shader did for its single program
+		var blocking = new ShaderPipeline(new GLState(glIn), loaderIn);
+		var loaded   = new ArrayList<ShaderProgram>();
+		for (var variant : variantsIn)
+		{
+			loaded.add(blocking.load(variant));
+		}
+		for (var program : loaded)
+		{
+			blocking.await(program);
+		}
+		blocking.close();
+
+		System.out.printf("%-12s %2d compiled, %2d from binaries, %2d refused : %3d frames, %6.1f ms, longest frame %5.2f ms, GL thread %6.1f ms, all at once %6.1f ms%n", nameIn, pipeline.compiledCount(), pipeline.binaryCount(), pipeline.rejectedCount(), frames, total / 1.0E6D, longestFrame / 1.0E6D, pipeline.drainNanos() / 1.0E6D, blocking.drainNanos() / 1.0E6D);
+
+		return pipeline;
+	}
+
+	private static void preprocessor(AssetLoader loaderIn) throws IOException
+	{
+		var processed = new ShaderPreprocessor(loaderIn).process("terrain.vert", Map.of("LIGHTS", "3"));
+		var lines     = processed.text().lines().toList();
+		check(lines.get(0).equals("#version 400") && lines.get(1).equals("#define LIGHTS 3") && lines.get(2).equals("#line 2 0"), "defines follow the #version line");
+		check(processed.files().equals(List.of("terrain.vert", "lib/lighting.glsl", "lib/common.glsl", "lib/fog.glsl")), "includes are resolved once each : " + processed.sourceStrings());
+		check(lines.contains("#line 4 0") && lines.contains("#line 1 3"), "#line directives keep the line numbers of each file");
+	}
+
+	private static void failures(AssetLoader loaderIn)
+	{
+		var pipeline = new ShaderPipeline(new GLState(new HeadlessGL()), loaderIn);
+		var broken   = pipeline.load(new ShaderVariant("terrain.vert", "broken.frag"));
+		var cycle    = pipeline.load(new ShaderVariant("cycle.vert", "terrain.frag"));
+		var missing  = pipeline.load(new ShaderVariant("terrain.vert", "missing.frag"));
+		for (var program : List.of(broken, cycle, missing))
+		{
+			try
+			{
+				pipeline.await(program);
+				throw new IllegalStateException(program + " should have failed");
+			}
+			catch (IllegalStateException eIn)
+			{
+				check(program.failed(), program.variant() + " fails : " + message(eIn));
+			}
+		}
+		check(pipeline.failedCount() == 3 && pipeline.pendingCount() == 0, "failed programs are not pending anymore");
+		pipeline.close();
+	}
+
+	private static String message(Throwable throwableIn)
+	{
+		var cause = throwableIn;
+		while (cause.getCause() != null)
+		{
+			cause = cause.getCause();
+		}
+
+		return cause.getMessage().lines().reduce((firstIn, secondIn) -> firstIn + " / " + secondIn).orElse("");
+	}
+
+	private static void write(Path directoryIn, String pathIn, String textIn) throws IOException
+	{
+		var path = directoryIn.resolve(pathIn);
+		Files.createDirectories(path.getParent());
+		Files.writeString(path, textIn);
+	}
+
+	private static IAssetSource slow(IAssetSource sourceIn)
+	{
+		return pathIn ->
+		{
+			// Waiting on the disk, not on the processor
+			sleepUntil(System.nanoTime() + READ_NANOS);
+
+			return sourceIn.read(pathIn);
+		};
+	}
+
+	private static void spin(long nanosIn)
+	{
+		var until = System.nanoTime() + nanosIn;
+		while (System.nanoTime() < until)
+		{
+			Thread.onSpinWait();
+		}
+	}
+
+	private static void sleepUntil(long nanoTimeIn)
+	{
+		var remaining = nanoTimeIn - System.nanoTime();
+		if (remaining > 0L)
+		{
+			try
+			{
+				Thread.sleep(remaining / 1_000_000L, (int) (remaining % 1_000_000L));
+			}
+			catch (InterruptedException eIn)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static void check(boolean conditionIn, String descriptionIn)
+	{
+		if (!conditionIn)
+		{
+			throw new IllegalStateException("Failed : " + descriptionIn);
+		}
+		System.out.println("ok : " + descriptionIn);
+	}
+
+	/**
+	 * Headless GL where the driver work takes time on the calling thread, as without parallel shader compilation
+	 */
+	private static class SlowGL extends HeadlessGL
+	{
+		private final String renderer;
+
+		private SlowGL(String rendererIn)
+		{
+			renderer = rendererIn;
+		}
+
+		@Override
+		public String glGetString(int nameIn)
+		{
+			return nameIn == GL32.GL_RENDERER ? renderer : super.glGetString(nameIn);
+		}
+
+		@Override
+		public void glCompileShader(int shaderIn)
+		{
+			spin(COMPILE_NANOS);
+			super.glCompileShader(shaderIn);
+		}
+
+		@Override
+		public void glLinkProgram(int programIn)
+		{
+			spin(LINK_NANOS);
+			super.glLinkProgram(programIn);
+		}
+
+		@Override
+		public void glProgramBinary(int programIn, int binaryFormatIn, ByteBuffer binaryIn)
+		{
+			spin(BINARY_NANOS);
+			super.glProgramBinary(programIn, binaryFormatIn, binaryIn);
+		}
+	}
+
+	/**
+	 * Same driver strings, binaries refused as after a driver update
+	 */
+	private final static class RefusingGL extends SlowGL
+	{
+		private RefusingGL()
+		{
+			super("Ludani HeadlessGL");
+		}
+
+		@Override
+		public void glProgramBinary(int programIn, int binaryFormatIn, ByteBuffer binaryIn)
+		{
+			super.glProgramBinary(programIn, 0, binaryIn);
+		}
+	}
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.simulation.DecoupledPrototypeImpl;
+import fr.onsiea.ludani.simulation.ISimulation;
+import fr.onsiea.ludani.simulation.SimulationThread;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Run a particle simulation on its own thread without window. The render loop checks that every snapshot it reads is whole
+ * and in order while the steps are made slow on purpose, then the same number of steps is replayed on the calling thread
+ * and must give the same state bit for bit. Last, a decoupled prototype implementation must stop its simulation thread when
+ * closed and keep rendering its last states.
+ */
+public class LudaniSimulationTests
+{
+	private final static int  UPDATE_RATE    = 120;
+	private final static int  PARTICLES      = 4096;
+	private final static long DURATION_NANOS = 3_000_000_000L;
+	// Busy time added to each step, a heavy update that would halve the frame rate on a single thread
+	private final static long STEP_WORK      = 6_000_000L;
+	private final static long FRAME_NANOS    = 1_000_000_000L / 60;
+	private final static int  CLOSE_FRAMES   = 30;
+
+	public static void main(final String[] args)
+	{
+		var simulation = new ParticleSimulation();
+		var thread     = new SimulationThread<>(simulation, UPDATE_RATE);
+		var frames     = 0L;
+		var acquired   = 0L;
+		var lastTick   = 0L;
+		var start      = System.nanoTime();
+
+		thread.start();
+		try
+		{
+			while (System.nanoTime() - start < DURATION_NANOS)
+			{
+				var alpha    = thread.acquire(System.nanoTime());
+				var previous = thread.previous();
+				var current  = thread.current();
+				if (alpha < 0.0f || alpha > 1.0f)
+				{
+					throw new IllegalStateException("Frame " + frames + " : interpolation factor " + alpha);
+				}
+				if (current.tick != thread.snapshots().currentTick() || previous.tick != thread.snapshots().previousTick() || previous.tick > current.tick)
+				{
+					throw new IllegalStateException("Frame " + frames + " : snapshots of ticks " + previous.tick + " and " + current.tick + " out of order");
+				}
+				if (current.checksum != current.checksum() || previous.checksum != previous.checksum())
+				{
+					throw new IllegalStateException("Frame " + frames + " : snapshot of tick " + current.tick + " modified while read");
+				}
+				if (current.tick != lastTick)
+				{
+					acquired++;
+					lastTick = current.tick;
+				}
+				frames++;
+
+				LockSupport.parkNanos(FRAME_NANOS);
+			}
+		}
+		finally
+		{
+			thread.close();
+		}
+
+		var seconds = (System.nanoTime() - start) / 1.0E9D;
+		var ticks   = thread.tick();
+		System.out.printf("%d frames (%.1f per second) over %d steps (%.1f per second) of %.1f ms, %d snapshots acquired, %d late steps, %d dropped steps%n", frames, frames / seconds, ticks, ticks / seconds, STEP_WORK / 1.0E6D, acquired, thread.lateSteps(), thread.droppedSteps());
+
+		// Same steps without thread nor schedule
+		var replay = new SimulationThread<>(new ParticleSimulation(), UPDATE_RATE);
+		for (var tick = 0L; tick < ticks; tick++)
+		{
+			replay.step();
+		}
+		var expected = replay.snapshots().latest();
+		var actual   = thread.snapshots().latest();
+		if (expected.tick != actual.tick || !Arrays.equals(expected.x, actual.x) || !Arrays.equals(expected.y, actual.y) || !Arrays.equals(expected.velocityX, actual.velocityX) || !Arrays.equals(expected.velocityY, actual.velocityY))
+		{
+			throw new IllegalStateException("Replay of " + ticks + " steps differs from the threaded simulation");
+		}
+		System.out.println("Replay of " + ticks + " steps matches the threaded simulation");
+
+		decoupled();
+	}
+
+	private static void decoupled()
+	{
+		var rendered  = new long[1];
+		var prototype = new DecoupledPrototypeImpl<>(new ParticleSimulation(), UPDATE_RATE, windowHandleIn ->
+		{
+		}, (previousIn, currentIn, alphaIn) -> rendered[0] = currentIn.tick);
+		try
+		{
+			for (var frame = 0; frame < CLOSE_FRAMES; frame++)
+			{
+				prototype.update();
+				prototype.render();
+				LockSupport.parkNanos(FRAME_NANOS);
+			}
+			if (!prototype.simulation().running() || prototype.simulation().tick() == 0L)
+			{
+				throw new IllegalStateException("Decoupled prototype did not start its simulation");
+			}
+		}
+		finally
+		{
+			prototype.close();
+		}
+
+		var ticks = prototype.simulation().tick();
+		LockSupport.parkNanos(10 * FRAME_NANOS);
+		prototype.update();
+		prototype.render();
+		if (prototype.simulation().running() || prototype.simulation().tick() != ticks)
+		{
+			throw new IllegalStateException("Simulation thread still steps after the decoupled prototype was closed");
+		}
+		if (rendered[0] != ticks)
+		{
+			throw new IllegalStateException("Render after close draws tick " + rendered[0] + " instead of the last tick " + ticks);
+		}
+		System.out.println("Closing the decoupled prototype stopped its simulation after " + ticks + " steps");
+	}
+
+	private static class Particles
+	{
+		private final float[] x         = new float[PARTICLES];
+		private final float[] y         = new float[PARTICLES];
+		private final float[] velocityX = new float[PARTICLES];
+		private final float[] velocityY = new float[PARTICLES];
+		private       long    tick;
+		// Written last, a snapshot read while written would not match it
+		private       double  checksum;
+
+		private double checksum()
+		{
+			var sum = (double) tick;
+			for (var i = 0; i < PARTICLES; i++)
+			{
+				sum += x[i] + 2.0D * y[i];
+			}
+
+			return sum;
+		}
+	}
+
+	/**
+	 * Particles orbiting the origin, pulled by a spring
+	 */
+	private static class ParticleSimulation implements ISimulation<Particles>
+	{
+		@Override
+		public Particles newState()
+		{
+			var particles = new Particles();
+			for (var i = 0; i < PARTICLES; i++)
+			{
+				var angle = i * 0.0137f;
+				particles.x[i]         = (float) Math.cos(angle) * (1.0f + i % 7);
+				particles.y[i]         = (float) Math.sin(angle) * (1.0f + i % 7);
+				particles.velocityX[i] = -particles.y[i];
+				particles.velocityY[i] = particles.x[i];
+			}
+			particles.checksum = particles.checksum();
+
+			return particles;
+		}
+
+		@Override
+		public void step(Particles previousIn, Particles nextOut, long tickIn, float stepSecondsIn)
+		{
+			for (var i = 0; i < PARTICLES; i++)
+			{
+				nextOut.velocityX[i] = previousIn.velocityX[i] - previousIn.x[i] * stepSecondsIn;
+				nextOut.velocityY[i] = previousIn.velocityY[i] - previousIn.y[i] * stepSecondsIn;
+				nextOut.x[i]         = previousIn.x[i] + nextOut.velocityX[i] * stepSecondsIn;
+				nextOut.y[i]         = previousIn.y[i] + nextOut.velocityY[i] * stepSecondsIn;
+			}
+			nextOut.tick     = tickIn;
+			nextOut.checksum = nextOut.checksum();
+
+			var end = System.nanoTime() + STEP_WORK;
+			while (System.nanoTime() < end)
+			{
+				Thread.onSpinWait();
+			}
+		}
+	}
+}
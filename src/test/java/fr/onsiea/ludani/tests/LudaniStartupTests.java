@@ -0,0 +1,136 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.scheduling.IScheduledModule;
+import fr.onsiea.ludani.scheduling.ModuleAffinity;
+import fr.onsiea.ludani.scheduling.ModuleFactories;
+import fr.onsiea.ludani.scheduling.ModuleScheduler;
+import fr.onsiea.ludani.scheduling.ScheduledModule;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Time a cold start without window, from the start of the JVM and from main to the end of the first tick. Modules are
+ * created by {@link ModuleFactories}, through the registry generated by the annotation processor or, when the test
+ * classes were compiled without it, through their annotations and constructor method handles.
+ * With reflection as first argument their constructors are called through reflection instead, their schemas still come
+ * from {@link ModuleFactories}. Once timed, the schemas are checked against the annotations read through reflection.
+ * Run each path in its own JVM, then with the archive of the appcds profile to see the class loading share.
+ */
+public class LudaniStartupTests
+{
+	private final static List<Class<? extends IScheduledModule>> MODULES = List.of(WindowModule.class, ControlsModule.class, SimulationModule.class, StreamingModule.class, RenderModule.class);
+
+	public static void main(final String[] args) throws ReflectiveOperationException
+	{
+		var mainStart  = System.nanoTime();
+		var reflection = args.length > 0 && args[0].equals("reflection");
+		var scheduler  = new ModuleScheduler();
+		for (var type : MODULES)
+		{
+			if (reflection)
+			{
+				scheduler.add(type.getDeclaredConstructor().newInstance());
+			}
+			else
+			{
+				scheduler.add(type);
+			}
+		}
+		scheduler.iterate();
+		var firstTick       = System.nanoTime();
+		var firstTickMillis = System.currentTimeMillis();
+
+		// Management classes are only loaded once the first tick is timed
+		var path = reflection ? "reflection" : ModuleFactories.generated(MODULES.get(0)) ? "generated" : "handles";
+		System.out.printf("%-10s main to first tick %.3f ms, JVM start to first tick %d ms, %d modules, depth %d%n", path, (firstTick - mainStart) / 1.0E6D, firstTickMillis - ManagementFactory.getRuntimeMXBean().getStartTime(), scheduler.size(), scheduler.depth());
+
+		for (var type : MODULES)
+		{
+			var schema     = ModuleFactories.schema(type);
+			var annotation = type.getAnnotation(ScheduledModule.class);
+			if (!schema.name().equals(annotation.name()) || schema.affinity() != annotation.affinity() || !schema.reads().equals(Set.of(annotation.reads())) || !schema.writes().equals(Set.of(annotation.writes())))
+			{
+				throw new IllegalStateException("Schema of " + type.getSimpleName() + " does not match its annotation : " + schema.name() + " " + schema.affinity() + " reads " + schema.reads() + " writes " + schema.writes());
+			}
+		}
+	}
+
+	@ScheduledModule(name = "window", affinity = ModuleAffinity.MAIN_THREAD, writes = "input")
+	public final static class WindowModule implements IScheduledModule
+	{
+		@Override
+		public void iterate()
+		{
+		}
+	}
+
+	@ScheduledModule(name = "controls", reads = "input", writes = "controls")
+	public final static class ControlsModule implements IScheduledModule
+	{
+		@Override
+		public void iterate()
+		{
+		}
+	}
+
+	@ScheduledModule(name = "simulation", reads = "controls", writes = "world")
+	public final static class SimulationModule implements IScheduledModule
+	{
+		@Override
+		public void iterate()
+		{
+		}
+	}
+
+	@ScheduledModule(name = "streaming", writes = "terrain")
+	public final static class StreamingModule implements IScheduledModule
+	{
+		@Override
+		public void iterate()
+		{
+		}
+	}
+
+	@ScheduledModule(name = "render", affinity = ModuleAffinity.MAIN_THREAD, reads = {"world", "terrain"})
+	public final static class RenderModule implements IScheduledModule
+	{
+		@Override
+		public void iterate()
+		{
+		}
+	}
+}
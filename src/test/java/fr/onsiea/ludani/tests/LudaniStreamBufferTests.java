@@ -0,0 +1,291 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.gl.GLState;
+import fr.onsiea.ludani.gl.HeadlessGL;
+import fr.onsiea.ludani.gl.IFenceProvider;
+import fr.onsiea.ludani.render.StreamBuffer;
+import org.lwjgl.opengl.GL32;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Stream random frames through a {@link StreamBuffer} without window, with fences signaled by a simulated GPU that runs a
+ * given number of frames behind. When a fence is signaled the GPU reads the slices of its frame back, they must still hold
+ * what the CPU wrote : a range is never reused while a frame in flight may read it. A GPU that never catches up on its own
+ * forces the ring to wait at every wrap. Orphaning is checked to give the buffer new storage at every wrap.
+ */
+public class LudaniStreamBufferTests
+{
+	private final static int FRAME_BYTES = 1024;
+	private final static int FRAMES      = 3;
+	private final static int FRAME_COUNT = 2_000;
+
+	public static void main(final String[] args)
+	{
+		var keepingUp = stream(1);
+		check(keepingUp.stallCount() == 0 && keepingUp.wrapCount() > 0, "a GPU one frame behind never stalls the ring, " + keepingUp.wrapCount() + " wraps");
+
+		var late = stream(Integer.MAX_VALUE);
+		check(late.stallCount() > 0 && late.wrapCount() > 0, "a GPU that never catches up stalls " + late.stallCount() + " times over " + late.wrapCount() + " wraps");
+
+		var fences = new SimulatedFences(0);
+		var stream = new StreamBuffer(new GLState(new HeadlessGL()), fences, GL32.GL_ARRAY_BUFFER, FRAME_BYTES, FRAMES, true);
+		var thrown = false;
+		try
+		{
+			for (var i = 0; i <= FRAMES; i++)
+			{
+				stream.allocate(FRAME_BYTES, 4);
+			}
+		}
+		catch (IllegalStateException eIn)
+		{
+			thrown = true;
+		}
+		check(thrown, "a frame larger than the ring is refused");
+		stream.cleanup();
+
+		var gl = new OrphaningGL();
+		stream = new StreamBuffer(new GLState(gl), new SimulatedFences(0), GL32.GL_ARRAY_BUFFER, FRAME_BYTES, FRAMES, false);
+		var random = new Random(0x5EEDL);
+		var slices = 0;
+		for (var frame = 0; frame < FRAME_COUNT; frame++)
+		{
+			// Each slice is flushed before its draw, as the mesh arenas do
+			for (var slice = random.nextInt(4); slice >= 0; slice--)
+			{
+				stream.allocate(1 + random.nextInt(FRAME_BYTES / 4), 16);
+				stream.flush();
+				slices++;
+			}
+			stream.endFrame();
+		}
+		check(gl.orphanings == stream.wrapCount() + 1 && gl.unmappings == slices, "orphaning gives new storage at each of the " + stream.wrapCount() + " wraps");
+		thrown = false;
+		try
+		{
+			for (var i = 0; i <= FRAMES; i++)
+			{
+				stream.allocate(FRAME_BYTES, 4);
+			}
+		}
+		catch (IllegalStateException eIn)
+		{
+			thrown = true;
+		}
+		check(thrown, "slices larger than the ring between two flushes are refused");
+	}
+
+	/**
+	 * @param lagIn frames the simulated GPU keeps in flight before signaling them on its own
+	 */
+	private static StreamBuffer stream(int lagIn)
+	{
+		var fences = new SimulatedFences(lagIn);
+		var stream = new StreamBuffer(new GLState(new HeadlessGL()), fences, GL32.GL_ARRAY_BUFFER, FRAME_BYTES, FRAMES, true);
+		var random = new Random(0x5EEDL);
+		for (var frame = 0; frame < FRAME_COUNT; frame++)
+		{
+			var left = FRAME_BYTES;
+			while (left > 64 && random.nextInt(6) != 0)
+			{
+				var size      = 1 + random.nextInt(Math.min(left, 400) - 48);
+				var alignment = 1 << random.nextInt(7);
+				var slice     = stream.allocate(size, alignment);
+				if (stream.offset() % alignment != 0 || stream.offset() + size > stream.capacity() || slice.capacity() != size)
+				{
+					throw new IllegalStateException("Frame " + frame + " : slice of " + size + " bytes at " + stream.offset() + " for an alignment of " + alignment);
+				}
+				var pattern = (byte) random.nextInt();
+				for (var i = 0; i < size; i++)
+				{
+					slice.put(i, pattern);
+				}
+				fences.frame.add(new Slice(slice, pattern, stream.offset()));
+				left -= size + alignment;
+			}
+			stream.endFrame();
+			fences.progress();
+			if (stream.inFlightBytes() > stream.capacity() || stream.framesInFlight() > FRAMES)
+			{
+				throw new IllegalStateException("Frame " + frame + " : " + stream.inFlightBytes() + " bytes in " + stream.framesInFlight() + " frames in flight");
+			}
+		}
+		check(fences.waits == stream.stallCount(), "lag " + (lagIn == Integer.MAX_VALUE ? "unbounded" : lagIn) + " : every stall waits for the oldest fence, " + fences.checkedSlices + " slices read back intact");
+
+		stream.cleanup();
+		check(fences.live.isEmpty(), "cleanup deletes the fences still in flight");
+
+		return stream;
+	}
+
+	private static void check(boolean conditionIn, String descriptionIn)
+	{
+		if (!conditionIn)
+		{
+			throw new IllegalStateException("Failed : " + descriptionIn);
+		}
+		System.out.println("ok : " + descriptionIn);
+	}
+
+	/**
+	 * Slice kept to be read back by the simulated GPU, it shares the memory of the mapping
+	 */
+	private record Slice(ByteBuffer data, byte pattern, int offset)
+	{
+	}
+
+	/**
+	 * Fences of a GPU that finishes frames in order, lag frames after they were submitted or when the CPU waits for them
+	 */
+	private final static class SimulatedFences implements IFenceProvider
+	{
+		private final int                        lag;
+		private final TreeMap<Long, List<Slice>> submitted = new TreeMap<>();
+		private final Set<Long>                  live      = new HashSet<>();
+		private       List<Slice>                frame     = new ArrayList<>();
+		private       long                       last;
+		private       long                       done;
+		private       int                        waits;
+		private       long                       checkedSlices;
+
+		private SimulatedFences(int lagIn)
+		{
+			lag = lagIn;
+		}
+
+		@Override
+		public long fence()
+		{
+			last++;
+			submitted.put(last, frame);
+			live.add(last);
+			frame = new ArrayList<>();
+
+			return last;
+		}
+
+		private void progress()
+		{
+			if (lag != Integer.MAX_VALUE && last - lag > done)
+			{
+				finish(last - lag);
+			}
+		}
+
+		/**
+		 * Read the slices of every frame up to fenceIn and check that none was overwritten while in flight
+		 */
+		private void finish(long fenceIn)
+		{
+			while (!submitted.isEmpty() && submitted.firstKey() <= fenceIn)
+			{
+				var entry = submitted.pollFirstEntry();
+				for (var slice : entry.getValue())
+				{
+					for (var i = 0; i < slice.data.capacity(); i++)
+					{
+						if (slice.data.get(i) != slice.pattern)
+						{
+							throw new IllegalStateException("Fence " + entry.getKey() + " : byte " + (slice.offset + i) + " was overwritten before the GPU read it");
+						}
+					}
+					checkedSlices++;
+				}
+			}
+			done = Math.max(done, fenceIn);
+		}
+
+		@Override
+		public boolean signaled(long fenceIn)
+		{
+			return fenceIn <= done;
+		}
+
+		@Override
+		public void await(long fenceIn)
+		{
+			if (fenceIn != done + 1)
+			{
+				throw new IllegalStateException("Waiting for fence " + fenceIn + " while the oldest in flight is " + (done + 1));
+			}
+			waits++;
+			finish(fenceIn);
+		}
+
+		@Override
+		public void delete(long fenceIn)
+		{
+			if (!live.remove(fenceIn))
+			{
+				throw new IllegalStateException("Fence " + fenceIn + " deleted twice");
+			}
+		}
+	}
+
+	/**
+	 * Counts the storages given to the buffer after its creation and the unmappings
+	 */
+	private final static class OrphaningGL extends HeadlessGL
+	{
+		private int orphanings;
+		private int unmappings;
+
+		private OrphaningGL()
+		{
+			super(true, false);
+		}
+
+		@Override
+		public void glBufferData(int targetIn, long sizeIn, int usageIn)
+		{
+			orphanings++;
+		}
+
+		@Override
+		public boolean glUnmapBuffer(int targetIn)
+		{
+			unmappings++;
+
+			return true;
+		}
+	}
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.mesh.VertexFormat;
+import fr.onsiea.ludani.terrain.VoxelChunk;
+import fr.onsiea.ludani.terrain.streaming.ChunkStreamer;
+import fr.onsiea.ludani.terrain.streaming.IChunkStreamListener;
+import fr.onsiea.ludani.terrain.streaming.ITerrainGenerator;
+import fr.onsiea.ludani.terrain.streaming.StreamedColumn;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stream columns along a scripted camera path without window nor worker threads : the jobs are run on the calling thread
+ * between two updates, so the columns loaded and unloaded at each step must be exactly the ones entering and leaving the
+ * radius. Then check that the cache keeps columns the camera comes back to, that cancelled columns are never loaded and
+ * that a column whose job failed with an error is requested again.
+ */
+public class LudaniStreamingTests
+{
+	private final static int       RADIUS      = 3;
+	private final static int       MAX_PENDING = 4;
+	private final static int       SIZE        = VoxelChunk.SIZE;
+	private final static float[][] PATH        = {{0.0f, 0.0f}, {40.0f, 0.0f}, {80.0f, 10.0f}, {80.0f, 80.0f}, {-5.0f, 80.0f}, {-5.0f, 79.0f}, {-300.0f, -300.0f}, {-270.0f, -300.0f}};
+
+	private static int generated;
+
+	public static void main(final String[] args)
+	{
+		ITerrainGenerator generator = (columnXIn, columnZIn, worldOut) ->
+		{
+			generated++;
+			for (var x = columnXIn * SIZE - 1; x <= (columnXIn + 1) * SIZE; x++)
+			{
+				for (var z = columnZIn * SIZE - 1; z <= (columnZIn + 1) * SIZE; z++)
+				{
+					worldOut.fillColumn(x, z, 0, 4 + (x + z & 3));
+				}
+			}
+		};
+		var columns = expected(0, 0).size();
+
+		// Capacity of exactly the radius, every column leaving it is unloaded
+		var executor = new ManualExecutor();
+		var listener = new Listener();
+		try (var streamer = new ChunkStreamer(generator, VertexFormat.BYTE_POSITIONS_NORMALS, 1, RADIUS, columns, executor, MAX_PENDING))
+		{
+			var previous = Set.<Long>of();
+			for (var position : PATH)
+			{
+				listener.loads.clear();
+				listener.unloads.clear();
+				settle(streamer, executor, listener, position[0], position[1]);
+
+				var expected = expected(ChunkStreamer.column(position[0]), ChunkStreamer.column(position[1]));
+				var entering = new HashSet<>(expected);
+				entering.removeAll(previous);
+				var leaving = new HashSet<>(previous);
+				leaving.removeAll(expected);
+				var step = "(" + position[0] + ", " + position[1] + ")";
+				check(listener.loaded.equals(expected) && streamer.loadedCount() == columns, step + " : the " + columns + " columns of the radius are loaded");
+				check(listener.loads.equals(entering) && listener.unloads.equals(leaving), step + " : " + entering.size() + " columns loaded, " + leaving.size() + " unloaded");
+				previous = expected;
+			}
+			check(streamer.generatedCount() == generated && streamer.evictedCount() == generated - columns, generated + " columns generated, " + streamer.evictedCount() + " evicted");
+		}
+
+		// Twice the capacity, going back reuses the loaded columns
+		generated = 0;
+		listener  = new Listener();
+		try (var streamer = new ChunkStreamer(generator, VertexFormat.BYTE_POSITIONS_NORMALS, 1, RADIUS, columns * 2, executor, MAX_PENDING))
+		{
+			settle(streamer, executor, listener, 0.0f, 0.0f);
+			settle(streamer, executor, listener, 2.0f * SIZE, 0.0f);
+			var forward = generated;
+			settle(streamer, executor, listener, 0.0f, 0.0f);
+			check(generated == forward && streamer.evictedCount() == 0 && listener.unloads.isEmpty(), "coming back within the capacity generates nothing");
+			check(streamer.isLoaded(RADIUS + 2, 0) && !streamer.isLoaded(RADIUS + 3, 0), "columns out of the radius stay cached");
+
+			streamer.unloadAll(listener);
+			check(listener.loaded.isEmpty() && streamer.loadedCount() == 0, "unloading everything goes through the listener");
+		}
+
+		// Columns pending or finished but not drained when the camera jumps away are cancelled
+		generated = 0;
+		listener  = new Listener();
+		try (var streamer = new ChunkStreamer(generator, VertexFormat.BYTE_POSITIONS_NORMALS, 1, RADIUS, columns, executor, columns))
+		{
+			streamer.update(0.0f, 0.0f);
+			executor.run(columns / 2);
+			check(streamer.pendingCount() == columns && streamer.isPending(0, 0), "every column of the radius is submitted");
+			streamer.update(1000.0f, 0.0f);
+			check(streamer.cancelledCount() == columns && !streamer.isPending(0, 0), "the columns left behind are cancelled");
+
+			settle(streamer, executor, listener, 1000.0f, 0.0f);
+			check(listener.loaded.equals(expected(ChunkStreamer.column(1000.0f), 0)) && listener.unloads.isEmpty(), "cancelled columns are never loaded");
+			check(generated == columns + columns / 2, "jobs cancelled before they start generate nothing");
+		}
+
+		// An error in a job must not leave its column pending forever
+		var failures = new int[1];
+		ITerrainGenerator failing = (columnXIn, columnZIn, worldOut) ->
+		{
+			if (columnXIn == 0 && columnZIn == 0 && failures[0]++ == 0)
+			{
+				throw new OutOfMemoryError("Simulated failure of column (0, 0)");
+			}
+			generator.generate(columnXIn, columnZIn, worldOut);
+		};
+		listener = new Listener();
+		try (var streamer = new ChunkStreamer(failing, VertexFormat.BYTE_POSITIONS_NORMALS, 1, RADIUS, columns, executor, columns))
+		{
+			streamer.update(0.0f, 0.0f);
+			var errors = 0;
+			while (executor.pending() > 0)
+			{
+				try
+				{
+					executor.run(columns);
+				}
+				catch (OutOfMemoryError eIn)
+				{
+					errors++;
+				}
+			}
+			check(errors == 1, "the error reaches the worker running the job");
+
+			Throwable drained = null;
+			try
+			{
+				streamer.drain(listener, columns);
+			}
+			catch (RuntimeException eIn)
+			{
+				drained = eIn.getCause();
+			}
+			check(drained instanceof OutOfMemoryError && !streamer.isPending(0, 0) && !streamer.isLoaded(0, 0), "draining reports the error and the column is no longer pending");
+
+			settle(streamer, executor, listener, 0.0f, 0.0f);
+			check(streamer.isLoaded(0, 0) && failures[0] == 2 && listener.loaded.equals(expected(0, 0)), "the failed column is requested and loaded again");
+		}
+	}
+
+	/**
+	 * Update and run the submitted jobs until every column of the radius is loaded
+	 */
+	private static void settle(ChunkStreamer streamerIn, ManualExecutor executorIn, Listener listenerIn, float xIn, float zIn)
+	{
+		do
+		{
+			streamerIn.update(xIn, zIn);
+			check(streamerIn.pendingCount() <= streamerIn.maxPending(), "no more than " + streamerIn.maxPending() + " columns pending", false);
+		}
+		while (executorIn.run(Integer.MAX_VALUE) + streamerIn.drain(listenerIn, Integer.MAX_VALUE) > 0);
+		check(listenerIn.loaded.size() == streamerIn.loadedCount() && listenerIn.loaded.size() <= streamerIn.capacity(), "the listener sees the loaded columns", false);
+	}
+
+	private static Set<Long> expected(int columnXIn, int columnZIn)
+	{
+		var expected = new HashSet<Long>();
+		for (var dx = -RADIUS; dx <= RADIUS; dx++)
+		{
+			for (var dz = -RADIUS; dz <= RADIUS; dz++)
+			{
+				if (dx * dx + dz * dz <= RADIUS * RADIUS)
+				{
+					expected.add(ChunkStreamer.key(columnXIn + dx, columnZIn + dz));
+				}
+			}
+		}
+
+		return expected;
+	}
+
+	private static void check(boolean conditionIn, String descriptionIn)
+	{
+		check(conditionIn, descriptionIn, true);
+	}
+
+	private static void check(boolean conditionIn, String descriptionIn, boolean printIn)
+	{
+		if (!conditionIn)
+		{
+			throw new IllegalStateException("Failed : " + descriptionIn);
+		}
+		if (printIn)
+		{
+			System.out.println("ok : " + descriptionIn);
+		}
+	}
+
+	private final static class Listener implements IChunkStreamListener
+	{
+		private final Set<Long> loaded  = new HashSet<>();
+		private final Set<Long> loads   = new HashSet<>();
+		private final Set<Long> unloads = new HashSet<>();
+
+		@Override
+		public void load(StreamedColumn columnIn)
+		{
+			if (!loaded.add(columnIn.key()))
+			{
+				throw new IllegalStateException("Column (" + columnIn.x() + ", " + columnIn.z() + ") loaded twice");
+			}
+			if (columnIn.meshes().isEmpty() || columnIn.meshes().get(0) == null)
+			{
+				throw new IllegalStateException("Column (" + columnIn.x() + ", " + columnIn.z() + ") loaded without mesh");
+			}
+			loads.add(columnIn.key());
+		}
+
+		@Override
+		public void unload(StreamedColumn columnIn)
+		{
+			if (!loaded.remove(columnIn.key()))
+			{
+				throw new IllegalStateException("Column (" + columnIn.x() + ", " + columnIn.z() + ") unloaded while not loaded");
+			}
+			unloads.add(columnIn.key());
+		}
+	}
+
+	/**
+	 * Keeps the submitted jobs until {@link #run(int)} runs them in order on the calling thread
+	 */
+	private final static class ManualExecutor extends AbstractExecutorService
+	{
+		private final ArrayDeque<Runnable> jobs = new ArrayDeque<>();
+
+		private int pending()
+		{
+			return jobs.size();
+		}
+
+		private int run(int maxJobsIn)
+		{
+			var count = 0;
+			while (count < maxJobsIn && !jobs.isEmpty())
+			{
+				jobs.poll().run();
+				count++;
+			}
+
+			return count;
+		}
+
+		@Override
+		public void execute(Runnable commandIn)
+		{
+			jobs.add(commandIn);
+		}
+
+		@Override
+		public void shutdown()
+		{
+		}
+
+		@Override
+		public List<Runnable> shutdownNow()
+		{
+			return List.of();
+		}
+
+		@Override
+		public boolean isShutdown()
+		{
+			return false;
+		}
+
+		@Override
+		public boolean isTerminated()
+		{
+			return false;
+		}
+
+		@Override
+		public boolean awaitTermination(long timeoutIn, TimeUnit unitIn)
+		{
+			return true;
+		}
+	}
+}
@@ -32,6 +32,12 @@
 
 package fr.onsiea.ludani.tests;
 
+import fr.onsiea.ludani.gl.OpenGL;
+import fr.onsiea.ludani.input.GLFWInputSource;
+import fr.onsiea.ludani.input.InputRing;
+import fr.onsiea.ludani.input.InputState;
+import fr.onsiea.ludani.profiling.FramePhase;
+import fr.onsiea.ludani.profiling.FrameProfiler;
 import fr.onsiea.ludart.client.render.IRenderImplementation;
 import fr.onsiea.ludart.client.render.ModuleRender;
 import fr.onsiea.ludart.client.render.opengl.OpenGLRender;
@@ -45,9 +51,13 @@ import fr.onsiea.ludart.common.Framework;
 import fr.onsiea.ludart.common.modules.settings.ModuleSettings;
 import fr.onsiea.ludart.modules.manager.ModulesManager;
 import fr.onsiea.tools.logger.Loggers;
+import org.joml.Vector3f;
 import org.lwjgl.opengl.GL32;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class LudaniTests
@@ -57,6 +67,16 @@ public class LudaniTests
 	private final static ModuleSettings SETTINGS = ModuleSettings.defaults(); // Without modification, configured on DEFAULTS SETTINGS from ModuleSettingsClient
 	public final static  Loggers        LOGGERS  = LudaniTests.SETTINGS.loggers();
 
+	// Frame profile logged every PROFILE_FRAMES frames and written in PROFILE_DIRECTORY at exit
+	private final static int   PROFILE_FRAMES    = 600;
+	private final static Path  PROFILE_DIRECTORY = Path.of("profiles");
+	// Camera updates per second, independent of the frame rate
+	private final static int   UPDATE_RATE       = 60;
+	private final static long  UPDATE_NANOS      = 1_000_000_000L / LudaniTests.UPDATE_RATE;
+	private final static float UPDATE_SECONDS    = 1.0f / LudaniTests.UPDATE_RATE;
+	// Updates run at most by frame, the others are skipped after a long stall
+	private final static int   MAX_UPDATES       = 5;
+
 	/**
 	 * @author Seynax
 	 */
@@ -89,6 +109,8 @@ public class LudaniTests
 			framework.initialize();
 		}
 
+		final var profiler = new FrameProfiler();
+
 		// Settings phase
 		{
 			AtomicReference<IWindowSystem>   window         = new AtomicReference<>();
@@ -113,25 +135,55 @@ public class LudaniTests
 
 			((ModulesManager) framework.modulesManager()).module(ModuleRender.class).define(() -> new OpenGLRender(), () -> new IRenderImplementation()
 			{
+				// Filled by the window callbacks while the window module polls its events
+				private final InputRing       inputRing  = new InputRing();
+				private final InputState      inputState = new InputState();
+				// Camera position before its update, the terrain then pushes it back
+				private final Vector3f        cameraFrom = new Vector3f();
+				private       GLFWInputSource inputSource;
+				private       long            nextUpdate;
+				// End of the previous draw, 0 before the first one
+				private       long            drawEnd;
+
 				@Override
 				public void initialization()
 				{
-					render.set(new Render());
-					camera.set(new Camera(0.1D, 0.4D, windowSettings.get()));
-					GL32.glEnable(GL32.GL_DEPTH_TEST);
+					var gl = new OpenGL();
+					render.set(new Render(gl, profiler));
+					camera.set(new Camera(6.0D, 0.4D));
+					gl.glEnable(GL32.GL_DEPTH_TEST);
+					inputSource = new GLFWInputSource(window.get().handle(), inputRing);
+					nextUpdate  = System.nanoTime();
 				}
 
 				@Override
 				public void draw()
 				{
-					camera.get().input(window.get().handle());
+					// Other modules, buffer swap and event polling run between two draws
+					var time    = drawEnd != 0L ? profiler.record(FramePhase.SWAP, drawEnd) : System.nanoTime();
+					var updates = 0;
+					while (time - nextUpdate >= 0L && updates++ < LudaniTests.MAX_UPDATES)
+					{
+						// The first update of the frame takes every event received since the previous one
+						cameraFrom.set(camera.get().cameraPosition());
+						camera.get().update(inputState.update(inputRing), LudaniTests.UPDATE_SECONDS);
+						render.get().collide(cameraFrom, camera.get());
+						nextUpdate += LudaniTests.UPDATE_NANOS;
+					}
+					if (time - nextUpdate >= 0L)
+					{
+						nextUpdate = time + LudaniTests.UPDATE_NANOS;
+					}
+					profiler.record(FramePhase.INPUT, time);
 
 					render.get().draw(camera.get());
+					drawEnd = System.nanoTime();
 				}
 
 				@Override
 				public void cleanup()
 				{
+					inputSource.close();
 					render.get().cleanup();
 				}
 			});
@@ -141,11 +193,32 @@ public class LudaniTests
 		framework.startAll(); // Initialize all modules
 		// Modules runtime phase
 		{
+			var time   = System.nanoTime();
+			var frames = 0L;
 			while (framework.isWorking()) // As long as the client module is running, the loop continues. The client module can stop, for example, if the user requests the window to stop from the window module
 			{
 				framework.iterateAll(); // Iterate all modules
+				time = profiler.record(FramePhase.FRAME, time);
+				if (++frames % LudaniTests.PROFILE_FRAMES == 0)
+				{
+					LudaniTests.LOGGERS.logLn("Last " + LudaniTests.PROFILE_FRAMES + " frames :\n" + profiler.interval());
+				}
 			}
 		}
 		framework.stopAll(); // Stop all modules
+
+		profiler.cleanup();
+		var profile = profiler.snapshot();
+		LudaniTests.LOGGERS.logLn("Frame profile :\n" + profile);
+		try
+		{
+			Files.createDirectories(LudaniTests.PROFILE_DIRECTORY);
+			Files.writeString(LudaniTests.PROFILE_DIRECTORY.resolve("frame-profile.csv"), profile.csv());
+			Files.writeString(LudaniTests.PROFILE_DIRECTORY.resolve("frame-profile.json"), profile.json());
+		}
+		catch (IOException eIn)
+		{
+			throw new RuntimeException(eIn);
+		}
 	}
 }
\ No newline at end of file
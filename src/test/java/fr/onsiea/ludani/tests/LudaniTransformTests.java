@@ -0,0 +1,389 @@
+/*
+ * Copyright 2021-2023 Onsiea Studio some rights reserved.
+ *
+ * This file is part of Ludart Game Framework project developed by Onsiea Studio.
+ * (https://github.com/OnsieaStudio/Ludart)
+ *
+ * Ludart is [licensed]
+ * (https://github.com/OnsieaStudio/Ludart/blob/main/LICENSE) under the terms of
+ * the "GNU General Public License v3.0" (GPL-3.0).
+ * https://github.com/OnsieaStudio/Ludart/wiki/License#license-and-copyright
+ *
+ * Ludart is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * Ludart is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Ludart. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Any reproduction or alteration of this project may reference it and utilize its name and derivatives, provided it clearly states its modification status and includes a link to the original repository. Usage of all names belonging to authors, developers, and contributors remains subject to copyright.
+ * in other cases prior written authorization is required for using names such as "Onsiea," "Ludart," or any names derived from authors, developers, or contributors for product endorsements or promotional purposes.
+ *
+ *
+ * @Author : Seynax (https://github.com/seynax)
+ * @Organization : Onsiea Studio (https://github.com/OnsieaStudio)
+ */
+
+package fr.onsiea.ludani.tests;
+
+import fr.onsiea.ludani.entity.TransformStore;
+import fr.onsiea.ludani.entity.TransformSystem;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks the world matrices of a {@link TransformStore} against JOML objects, one per entity, through moves, hierarchy
+ * changes and destructions. Then it times both for a scene of ROOTS * (1 + CHILDREN) entities where every entity moves,
+ * where only the roots move, and where nothing moves.
+ */
+public class LudaniTransformTests
+{
+	private final static int   ROOTS     = 10_000;
+	private final static int   CHILDREN  = 9;
+	private final static int   WARM_UP   = 100;
+	private final static int   FRAMES    = 200;
+	private final static float TOLERANCE = 1.0E-4f;
+
+	public static void main(final String[] args)
+	{
+		System.out.println(Runtime.getRuntime().availableProcessors() + " processors");
+
+		checkRotation();
+		checkHierarchy();
+		System.out.println("Matrices match JOML");
+
+		for (var moving : Moving.values())
+		{
+			time(moving);
+		}
+	}
+
+	/**
+	 * rotationXYZ must give the matrix of rotateX, rotateY then rotateZ
+	 */
+	private static void checkRotation()
+	{
+		var store  = new TransformStore(1);
+		var entity = store.create();
+		store.rotationXYZ(entity, 0.3f, -1.2f, 2.5f);
+		new TransformSystem().update(store);
+
+		var expected = new Matrix4f().rotateX(0.3f).rotateY(-1.2f).rotateZ(2.5f);
+		compare("rotationXYZ", store.world(entity, new Matrix4f()), expected);
+	}
+
+	private static void checkHierarchy()
+	{
+		var random = new SplittableRandom(42L);
+		var store  = new TransformStore(4);
+		var system = new TransformSystem(ForkJoinPool.commonPool(), 64);
+		var nodes  = new ArrayList<Node>();
+
+		// Deep enough to need several levels, large enough to split levels in batches
+		for (var i = 0; i < 2_000; i++)
+		{
+			var parent = i < 50 || random.nextInt(4) == 0 ? null : nodes.get(random.nextInt(nodes.size()));
+			nodes.add(create(store, parent, random));
+		}
+		check(store, system, nodes, "creation");
+
+		for (var round = 0; round < 5; round++)
+		{
+			for (var i = 0; i < 200; i++)
+			{
+				move(store, nodes.get(random.nextInt(nodes.size())), random);
+			}
+			check(store, system, nodes, "moves " + round);
+		}
+
+		// Unchanged values do not mark the entity
+		var node = nodes.get(0);
+		store.position(node.entity, node.position.x, node.position.y, node.position.z);
+		if (store.dirtyCount() != 0 || system.update(store) != 0)
+		{
+			throw new IllegalStateException("Setting the same position marked the entity");
+		}
+
+		// A cycle is refused
+		var root  = nodes.stream().filter(nodeIn -> nodeIn.parent == null && nodes.stream().anyMatch(childIn -> childIn.parent == nodeIn)).findFirst().orElseThrow();
+		var child = nodes.stream().filter(nodeIn -> nodeIn.parent == root).findFirst().orElseThrow();
+		try
+		{
+			store.parent(root.entity, child.entity);
+			throw new IllegalStateException("Parenting a root to its child was accepted");
+		}
+		catch (IllegalArgumentException eIn)
+		{
+			// expected
+		}
+
+		for (var i = 0; i < 100; i++)
+		{
+			var moved  = nodes.get(random.nextInt(nodes.size()));
+			var parent = random.nextInt(5) == 0 ? null : nodes.get(random.nextInt(nodes.size()));
+			if (parent != null && parent.descendantOf(moved))
+			{
+				continue;
+			}
+			store.parent(moved.entity, parent == null ? TransformStore.NONE : parent.entity);
+			moved.parent = parent;
+		}
+		check(store, system, nodes, "reparenting");
+
+		// Destroying takes the descendants, the freed entities are reused and their matrices zeroed until then
+		store.clearChanged();
+		var destroyed = nodes.get(random.nextInt(nodes.size()));
+		var removed   = nodes.stream().filter(nodeIn -> nodeIn.descendantOf(destroyed)).toList();
+		if (store.destroy(destroyed.entity) != removed.size())
+		{
+			throw new IllegalStateException("Expected " + removed.size() + " destroyed entities");
+		}
+		nodes.removeAll(removed);
+		for (var removedNode : removed)
+		{
+			if (store.alive(removedNode.entity) || store.matrices().getFloat(removedNode.entity * TransformStore.MATRIX_BYTES + 15 * Float.BYTES) != 0.0f)
+			{
+				throw new IllegalStateException("Entity " + removedNode.entity + " was not destroyed");
+			}
+			if (removedNode.entity < store.changedStart() || removedNode.entity >= store.changedEnd())
+			{
+				throw new IllegalStateException("Destroyed entity " + removedNode.entity + " is outside of the changed range");
+			}
+		}
+		var end = store.end();
+		for (var i = 0; i < removed.size(); i++)
+		{
+			nodes.add(create(store, random.nextBoolean() ? null : nodes.get(random.nextInt(nodes.size())), random));
+		}
+		if (store.end() != end || store.count() != nodes.size())
+		{
+			throw new IllegalStateException("Destroyed entities were not reused");
+		}
+		check(store, system, nodes, "destruction");
+	}
+
+	private static Node create(TransformStore storeIn, Node parentIn, SplittableRandom randomIn)
+	{
+		var node = new Node(storeIn.create(parentIn == null ? TransformStore.NONE : parentIn.entity), parentIn);
+		move(storeIn, node, randomIn);
+
+		return node;
+	}
+
+	private static void move(TransformStore storeIn, Node nodeIn, SplittableRandom randomIn)
+	{
+		nodeIn.position.set((float) randomIn.nextDouble(-50.0D, 50.0D), (float) randomIn.nextDouble(-50.0D, 50.0D), (float) randomIn.nextDouble(-50.0D, 50.0D));
+		nodeIn.rotation.rotationXYZ((float) randomIn.nextDouble(-3.0D, 3.0D), (float) randomIn.nextDouble(-3.0D, 3.0D), (float) randomIn.nextDouble(-3.0D, 3.0D));
+		nodeIn.scale.set((float) randomIn.nextDouble(0.5D, 2.0D), (float) randomIn.nextDouble(0.5D, 2.0D), (float) randomIn.nextDouble(0.5D, 2.0D));
+		storeIn.position(nodeIn.entity, nodeIn.position.x, nodeIn.position.y, nodeIn.position.z);
+		storeIn.rotation(nodeIn.entity, nodeIn.rotation.x, nodeIn.rotation.y, nodeIn.rotation.z, nodeIn.rotation.w);
+		storeIn.scale(nodeIn.entity, nodeIn.scale.x, nodeIn.scale.y, nodeIn.scale.z);
+	}
+
+	private static void check(TransformStore storeIn, TransformSystem systemIn, List<Node> nodesIn, String nameIn)
+	{
+		systemIn.update(storeIn);
+		if (storeIn.dirtyCount() != 0)
+		{
+			throw new IllegalStateException(nameIn + " : entities still dirty after the update");
+		}
+
+		var world = new Matrix4f();
+		for (var node : nodesIn)
+		{
+			compare(nameIn + ", entity " + node.entity, storeIn.world(node.entity, world), node.world(new Matrix4f()));
+		}
+	}
+
+	private static void compare(String nameIn, Matrix4f actualIn, Matrix4f expectedIn)
+	{
+		var actual   = actualIn.get(new float[16]);
+		var expected = expectedIn.get(new float[16]);
+		for (var i = 0; i < 16; i++)
+		{
+			if (Math.abs(actual[i] - expected[i]) > TOLERANCE * Math.max(1.0f, Math.abs(expected[i])))
+			{
+				throw new IllegalStateException(nameIn + " : expected " + expectedIn + " got " + actualIn);
+			}
+		}
+	}
+
+	private static void time(Moving movingIn)
+	{
+		// One JOML object per entity, every matrix rebuilt each frame in parent first order then copied for the upload
+		var nodes  = new ArrayList<Node>();
+		var upload = ByteBuffer.allocateDirect(ROOTS * (1 + CHILDREN) * TransformStore.MATRIX_BYTES).order(ByteOrder.nativeOrder());
+		for (var root = 0; root < ROOTS; root++)
+		{
+			var rootNode = new Node(nodes.size(), null);
+			nodes.add(rootNode);
+			for (var child = 0; child < CHILDREN; child++)
+			{
+				nodes.add(new Node(nodes.size(), rootNode));
+			}
+		}
+		var objectMatrixNanos = new long[1];
+		var objects = time(frameIn ->
+		{
+			for (var node : nodes)
+			{
+				if (movingIn.moves(node.parent == null))
+				{
+					node.position.set(node.entity * 0.01f, frameIn * 0.01f, 1.0f);
+					node.rotation.rotationXYZ(0.0f, frameIn * 0.01f + node.entity, 0.0f);
+				}
+			}
+			var start = System.nanoTime();
+			for (var node : nodes)
+			{
+				node.local.translationRotateScale(node.position, node.rotation, node.scale);
+				if (node.parent == null)
+				{
+					node.cached.set(node.local);
+				}
+				else
+				{
+					node.parent.cached.mul(node.local, node.cached);
+				}
+				node.cached.get(node.entity * TransformStore.MATRIX_BYTES, upload);
+			}
+			objectMatrixNanos[0] += System.nanoTime() - start;
+		}) / 1.0E6D;
+		var objectMatrices = objectMatrixNanos[0] / 1.0E6D / (WARM_UP + FRAMES);
+		System.out.printf("%-8s objects          %7.3f ms per frame, matrices %7.3f ms%n", movingIn.name().toLowerCase(), objects, objectMatrices);
+
+		for (var parallelism : new int[]{1, ForkJoinPool.getCommonPoolParallelism()})
+		{
+			var pool   = new ForkJoinPool(parallelism);
+			var system = new TransformSystem(pool, TransformSystem.DEFAULT_BATCH_SIZE);
+			var store  = new TransformStore(ROOTS * (1 + CHILDREN));
+			for (var root = 0; root < ROOTS; root++)
+			{
+				var rootEntity = store.create();
+				for (var child = 0; child < CHILDREN; child++)
+				{
+					store.create(rootEntity);
+				}
+			}
+			var written     = new long[1];
+			var matrixNanos = new long[1];
+			var soa = time(frameIn ->
+			{
+				for (var entity = 0; entity < store.end(); entity++)
+				{
+					if (movingIn.moves(store.parent(entity) == TransformStore.NONE))
+					{
+						store.position(entity, entity * 0.01f, frameIn * 0.01f, 1.0f);
+						store.rotationXYZ(entity, 0.0f, frameIn * 0.01f + entity, 0.0f);
+					}
+				}
+				written[0] += system.update(store);
+				matrixNanos[0] += system.lastUpdateNanos();
+				store.clearChanged();
+			}) / 1.0E6D;
+			pool.shutdown();
+			var matrices = matrixNanos[0] / 1.0E6D / (WARM_UP + FRAMES);
+			System.out.printf("%-8s store %2d threads  %7.3f ms per frame, matrices %7.3f ms, speed up %6.2f, %d matrices per frame%n", movingIn.name().toLowerCase(), parallelism, soa, matrices, objectMatrices / matrices, written[0] / (WARM_UP + FRAMES));
+		}
+	}
+
+	/**
+	 * @return mean nanoseconds per frame after the warm up
+	 */
+	private static double time(IFrame frameIn)
+	{
+		for (var frame = 0; frame < WARM_UP; frame++)
+		{
+			frameIn.run(frame);
+		}
+		var start = System.nanoTime();
+		for (var frame = WARM_UP; frame < WARM_UP + FRAMES; frame++)
+		{
+			frameIn.run(frame);
+		}
+
+		return (double) (System.nanoTime() - start) / FRAMES;
+	}
+
+	private enum Moving
+	{
+		ALL,
+		ROOTS,
+		NONE;
+
+		private boolean moves(boolean rootIn)
+		{
+			return this == Moving.ALL || this == Moving.ROOTS && rootIn;
+		}
+	}
+
+	@FunctionalInterface
+	private interface IFrame
+	{
+		void run(int frameIn);
+	}
+
+	/**
+	 * An entity as objects, the way transforms were kept before the store
+	 */
+	private final static class Node
+	{
+		private final int         entity;
+		private final Vector3f    position;
+		private final Quaternionf rotation;
+		private final Vector3f    scale;
+		private final Matrix4f    local;
+		// World matrix of the timed scene
+		private final Matrix4f    cached;
+		private       Node        parent;
+
+		private Node(int entityIn, Node parentIn)
+		{
+			entity   = entityIn;
+			parent   = parentIn;
+			position = new Vector3f();
+			rotation = new Quaternionf();
+			scale    = new Vector3f(1.0f);
+			local    = new Matrix4f();
+			cached   = new Matrix4f();
+		}
+
+		private boolean descendantOf(Node ancestorIn)
+		{
+			for (var node = this; node != null; node = node.parent)
+			{
+				if (node == ancestorIn)
+				{
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		private Matrix4f world(Matrix4f worldOut)
+		{
+			var local = new Matrix4f().translationRotateScale(position, rotation, scale);
+			if (parent == null)
+			{
+				return worldOut.set(local);
+			}
+
+			return parent.world(worldOut).mul(local);
+		}
+	}
+}
@@ -32,169 +32,217 @@
 
 package fr.onsiea.ludani.tests;
 
+import fr.onsiea.ludani.asset.AssetLoader;
+import fr.onsiea.ludani.asset.IAssetSource;
+import fr.onsiea.ludani.culling.ChunkGrid;
+import fr.onsiea.ludani.culling.Frustum;
+import fr.onsiea.ludani.gl.GLFences;
+import fr.onsiea.ludani.gl.GLState;
+import fr.onsiea.ludani.gl.IGL;
+import fr.onsiea.ludani.mesh.IndexType;
+import fr.onsiea.ludani.mesh.VertexFormat;
+import fr.onsiea.ludani.profiling.FramePhase;
+import fr.onsiea.ludani.profiling.FrameProfiler;
+import fr.onsiea.ludani.render.IRenderBatch;
+import fr.onsiea.ludani.render.InstanceBatch;
+import fr.onsiea.ludani.render.MeshArena;
+import fr.onsiea.ludani.render.RenderQueue;
+import fr.onsiea.ludani.render.StreamBuffer;
+import fr.onsiea.ludani.shader.ProgramBinaryCache;
+import fr.onsiea.ludani.shader.ShaderPipeline;
+import fr.onsiea.ludani.terrain.VoxelChunk;
+import fr.onsiea.ludani.terrain.VoxelWorld;
+import fr.onsiea.ludani.terrain.lod.LodSelector;
+import fr.onsiea.ludani.terrain.lod.TerrainLod;
+import fr.onsiea.ludani.terrain.noise.FractalNoiseGenerator;
+import fr.onsiea.ludani.terrain.query.CollisionBox;
+import fr.onsiea.ludani.terrain.query.TerrainQuery;
+import fr.onsiea.ludani.terrain.storage.PersistentTerrainGenerator;
+import fr.onsiea.ludani.terrain.storage.RegionStore;
+import fr.onsiea.ludani.terrain.streaming.ChunkStreamer;
+import fr.onsiea.ludani.terrain.streaming.HeightmapTerrainGenerator;
+import fr.onsiea.ludani.terrain.streaming.IChunkStreamListener;
+import fr.onsiea.ludani.terrain.streaming.StreamedColumn;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
-import org.lwjgl.BufferUtils;
+import org.joml.Vector3fc;
 import org.lwjgl.opengl.GL32;
 
-import java.nio.FloatBuffer;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
-public class Render
+public class Render implements IChunkStreamListener
 {
-	private static final Random random = new Random(new Random().nextLong());
-
-	private final int      vao;
-	private final int      vbo;
-	private final int      vertexCount;
-	private final Shader   shader;
-	private final Vector3f offsets               = new Vector3f(0.0f, 0.0f, 0.0f);
-	private final Vector3f rotations             = new Vector3f(0.0f, 0.0f, 0.0f);
-	private final float    scale                 = 1.0f;
-	private final Matrix4f transformationsMatrix = new Matrix4f();
-
-	public Render()
+	// Each column was a cube centered on y = 0 and scaled by its height, voxels are half a unit high so that it keeps the same surface
+	private final static Vector3f VOXEL_SCALE       = new Vector3f(1.0f, 0.5f, 1.0f);
+	private final static Vector3f VOXEL_OFFSET      = new Vector3f(-0.5f, 0.0f, -0.5f);
+	// Coarser levels of detail keep the triangle count low with a large streaming radius
+	private final static int      STREAMING_RADIUS  = 16;
+	private final static int      LOD_COUNT         = 4;
+	private final static float    LOD_HYSTERESIS    = 0.15f;
+	private final static float[]  LOD_DISTANCES     = {96.0f, 192.0f, 320.0f};
+	// Bounds the time spent uploading meshes in a frame
+	private final static int      UPLOADS_PER_FRAME = 4;
+	private final static Path     WORLD_DIRECTORY   = Path.of("worlds", "default");
+	// Program binaries of the last run, kept with the world
+	private final static String   SHADER_CACHE      = "shaders";
+	// Bounds the programs linked in a frame, the others wait for the next ones
+	private final static int      LINKS_PER_FRAME   = 1;
+	// Initial arena sizes, about a streaming radius of full resolution columns, they grow when needed
+	private final static int      ARENA_VERTICES    = 1 << 21;
+	private final static int      ARENA_INDICES     = 1 << 22;
+	// Vertices and indices moved per frame to pack the arenas
+	private final static int      DEFRAGMENT_UNITS  = 1 << 14;
+	// Arenas are only packed when most of their free space is split in small holes
+	private final static float    DEFRAGMENT_ABOVE  = 0.25f;
+	// Draw commands and origins written per frame, enough for about seven thousand visible meshes
+	private final static int      STREAM_BYTES      = 1 << 18;
+	private final static int      STREAM_FRAMES     = 3;
+	// Floating cubes above the spawn, one instanced draw, every cube moves each frame
+	private final static int      CUBE_FIELD_SIZE   = 32;
+	private final static float    CUBE_FIELD_Y      = 100.0f;
+	// Camera collision box around the eye, in world units
+	private final static float    CAMERA_HALF_WIDTH = 0.3f;
+	private final static float    CAMERA_BELOW      = 1.5f;
+	private final static float    CAMERA_ABOVE      = 0.2f;
+	// Corners of the faces of a unit cube in Face order, counter clockwise seen from outside
+	private final static int[]    CUBE_FACES        = {
+			0, 0, 0, 0, 0, 1, 0, 1, 1, 0, 1, 0,
+			1, 0, 0, 1, 1, 0, 1, 1, 1, 1, 0, 1,
+			0, 0, 0, 1, 0, 0, 1, 0, 1, 0, 0, 1,
+			0, 1, 0, 0, 1, 1, 1, 1, 1, 1, 1, 0,
+			0, 0, 0, 0, 1, 0, 1, 1, 0, 1, 0, 0,
+			0, 0, 1, 1, 0, 1, 1, 1, 1, 0, 1, 1};
+
+	private final GLState                      state;
+	private final FrameProfiler                profiler;
+	private final StreamBuffer                 stream;
+	private final RegionStore                  store;
+	private final ChunkStreamer                streamer;
+	private final TerrainLod                   terrainLod;
+	private final Map<Long, ColumnMeshes>      columnMeshes;
+	private final ChunkGrid<ChunkMesh>         chunkGrid;
+	private final List<ChunkMesh>              visibleChunkMeshes;
+	private final Frustum                      frustum;
+	private final Matrix4f                     projections;
+	private final AssetLoader                  assets;
+	private final ShaderPipeline               shaders;
+	private final Shader                       shader;
+	private final Map<VertexFormat, MeshArena> arenas;
+	// Multi draw of each arena, queued every frame
+	private final Map<MeshArena, IRenderBatch> arenaBatches;
+	private final InstanceBatch                cubeField;
+	private final IRenderBatch                 cubeFieldBatch;
+	// Sorts the batches of the frame by program and vertex array
+	private final RenderQueue                  queue;
+	// Loaded chunks, queried for the camera collisions
+	private final VoxelWorld                   terrain;
+	private final TerrainQuery                 terrainQuery;
+	private final CollisionBox                 cameraBox;
+	// Voxel to world, shared by every chunk mesh, drawn at their voxel origin
+	private final Matrix4f                     voxelTransformations;
+	// Camera view projection times voxelTransformations, rebuilt when the camera revision changes
+	private final Matrix4f                     voxelModelViewProjection;
+	private       long                         cameraRevision;
+	private       float                        cameraVoxelX;
+	private       float                        cameraVoxelZ;
+	private       int                          drawCount;
+	private       int                          instancedDrawCount;
+	private       long                         frameCount;
+
+	public Render(IGL glIn, FrameProfiler profilerIn)
 	{
-		var         size       = 32;
-		FloatBuffer cubeVertex = BufferUtils.createFloatBuffer((size * 2) * (size * 2) * (36 * 3));
-
-		float[][] noises = generatePerlinNoise(generateWhiteNoise(size * 2, size * 2), 6, 0.75f, 0.024f);
-
-		final var cubeVertexArray = new float[]{
-				-1.0f, -1.0f, -1.0f, // triangle 1 : begin
-				-1.0f, -1.0f, 1.0f,
-				-1.0f, 1.0f, 1.0f, // triangle 1 : end
-				1.0f, 1.0f, -1.0f, // triangle 2 : begin
-				-1.0f, -1.0f, -1.0f,
-				-1.0f, 1.0f, -1.0f, // triangle 2 : end
-				1.0f, -1.0f, 1.0f,
-				-1.0f, -1.0f, -1.0f,
-				1.0f, -1.0f, -1.0f,
-				1.0f, 1.0f, -1.0f,
-				1.0f, -1.0f, -1.0f,
-				-1.0f, -1.0f, -1.0f,
-				-1.0f, -1.0f, -1.0f,
-				-1.0f, 1.0f, 1.0f,
-				-1.0f, 1.0f, -1.0f,
-				1.0f, -1.0f, 1.0f,
-				-1.0f, -1.0f, 1.0f,
-				-1.0f, -1.0f, -1.0f,
-				-1.0f, 1.0f, 1.0f,
-				-1.0f, -1.0f, 1.0f,
-				1.0f, -1.0f, 1.0f,
-				1.0f, 1.0f, 1.0f,
-				1.0f, -1.0f, -1.0f,
-				1.0f, 1.0f, -1.0f,
-				1.0f, -1.0f, -1.0f,
-				1.0f, 1.0f, 1.0f,
-				1.0f, -1.0f, 1.0f,
-				1.0f, 1.0f, 1.0f,
-				1.0f, 1.0f, -1.0f,
-				-1.0f, 1.0f, -1.0f,
-				1.0f, 1.0f, 1.0f,
-				-1.0f, 1.0f, -1.0f,
-				-1.0f, 1.0f, 1.0f,
-				1.0f, 1.0f, 1.0f,
-				-1.0f, 1.0f, 1.0f,
-				1.0f, -1.0f, 1.0f
-		};
-
-		for (int x = 0; x < size; x++)
-		{
-			for (int z = 0; z < size; z++)
-			{
-				var y = noises[x][z];
-
-				for (int i = 0; i < cubeVertexArray.length; i += 3)
-				{
-					cubeVertex
-							.put(cubeVertexArray[i] / 2 + x)
-							.put(cubeVertexArray[i + 1] / 2 * y)
-							.put(cubeVertexArray[i + 2] / 2 + z);
-				}
-			}
-		}
-		cubeVertex.flip();
-		vertexCount = cubeVertex.capacity() / 3;
-
-		vao = GL32.glGenVertexArrays();
-		GL32.glBindVertexArray(vao);
-		GL32.glEnableVertexAttribArray(0);
-		vbo = GL32.glGenBuffers();
-		GL32.glBindBuffer(GL32.GL_ARRAY_BUFFER, vbo);
-		GL32.glVertexAttribPointer(0, 3, GL32.GL_FLOAT, false, 0, 0L);
-		GL32.glBufferData(GL32.GL_ARRAY_BUFFER, cubeVertex, GL32.GL_DYNAMIC_DRAW);
-		GL32.glBindBuffer(GL32.GL_ARRAY_BUFFER, 0);
-		GL32.glBindVertexArray(0);
-		shader = new Shader();
-		shader.use();
-		Shader.uniform(shader.projectionsUniformId(), projections(90.0f, 0.1f, 1000.0f, 1920, 1080, new Matrix4f()));
-		Shader.unbind();
+		this(glIn, WORLD_DIRECTORY, profilerIn);
 	}
 
-	private static float[][] generatePerlinNoise(float[][] baseNoise,
-	                                             int octaveCount, float persistanceIn, float amplitudeIn)
+	/**
+	 * @param worldDirectoryIn directory of the region files, created if needed
+	 * @param profilerIn       times the update, culling and submission phases of each draw
+	 */
+	public Render(IGL glIn, Path worldDirectoryIn, FrameProfiler profilerIn)
 	{
-		int width  = baseNoise.length;
-		int height = baseNoise[0].length;
-
-		float[][][] smoothNoise = new float[octaveCount][][]; // an array of 2D
-		// arrays
-		// containing
-
-		float persistance = persistanceIn;
-
-		// generate smooth noise
-		for (int i = 0; i < octaveCount; i++)
-		{
-			smoothNoise[i] = generateSmoothNoise(baseNoise, i);
-		}
+		state    = new GLState(glIn);
+		profiler = profilerIn;
+		stream   = new StreamBuffer(state, new GLFences(glIn), GL32.GL_ARRAY_BUFFER, STREAM_BYTES, STREAM_FRAMES);
 
-		float[][] perlinNoise    = new float[width][height];
-		float     amplitude      = amplitudeIn; // the bigger, the more big mountains
-		float     totalAmplitude = 0.0f;
+		// Shader sources from the resources, read on the loader threads while the world opens
+		assets = new AssetLoader(IAssetSource.classpath(Render.class.getClassLoader()));
 
-		// blend noise together
-		for (int octave = octaveCount - 1; octave >= 0; octave--)
+		// Generated columns are saved in region files, the seed is kept with them so that a restart reads them back
+		try
 		{
-			amplitude *= persistance;
-			totalAmplitude += amplitude;
-
-			for (int i = 0; i < width; i++)
+			shaders = new ShaderPipeline(state, assets, new ProgramBinaryCache(worldDirectoryIn.resolve(SHADER_CACHE)));
+			shaders.load(Shader.VARIANT);
+			store = new RegionStore(worldDirectoryIn);
+			var seedPath = worldDirectoryIn.resolve("seed");
+			if (!Files.exists(seedPath))
 			{
-				for (int j = 0; j < height; j++)
-				{
-					perlinNoise[i][j] += smoothNoise[octave][i][j] * amplitude;
-					System.out.println("> " + smoothNoise[octave][i][j] + " * " + amplitude);
-				}
+				Files.writeString(seedPath, Long.toString(new Random().nextLong()));
 			}
+			var seed      = Long.parseLong(Files.readString(seedPath).trim());
+			var generator = new HeightmapTerrainGenerator(new FractalNoiseGenerator(6, 0.75f, 0.024f), seed, 25);
+			streamer = new ChunkStreamer(new PersistentTerrainGenerator(store, generator), VertexFormat.BYTE_POSITIONS_NORMALS, LOD_COUNT, STREAMING_RADIUS, 4 * STREAMING_RADIUS * STREAMING_RADIUS);
+		}
+		catch (IOException eIn)
+		{
+			throw new RuntimeException(eIn);
 		}
 
-		for (int i = 0; i < width; i++)
+		terrainLod         = new TerrainLod(new LodSelector(LOD_HYSTERESIS, LOD_DISTANCES));
+		columnMeshes       = new HashMap<>();
+		chunkGrid          = new ChunkGrid<>(VoxelChunk.SIZE * 4);
+		visibleChunkMeshes = new ArrayList<>();
+		frustum            = new Frustum();
+		projections        = projections(90.0f, 0.1f, 1000.0f, 1920, 1080, new Matrix4f());
+
+		shader                   = new Shader(state, shaders);
+		arenas                   = new HashMap<>();
+		arenaBatches             = new HashMap<>();
+		queue                    = new RenderQueue(16);
+		voxelTransformations     = new Matrix4f().translate(VOXEL_OFFSET).scale(VOXEL_SCALE);
+		voxelModelViewProjection = new Matrix4f();
+		cameraRevision           = -1L;
+
+		terrain      = new VoxelWorld();
+		terrainQuery = new TerrainQuery(terrain);
+		cameraBox    = new CollisionBox(0.0f, 0.0f, 0.0f, 0.0f, 0.0f, 0.0f);
+
+		var cubeVertices = cubeVertices();
+		cubeField = new InstanceBatch(state, VertexFormat.BYTE_POSITIONS_NORMALS, cubeVertices, cubeVertices.remaining() / VertexFormat.BYTE_POSITIONS_NORMALS.bytesPerVertex(), CUBE_FIELD_SIZE * CUBE_FIELD_SIZE);
+		for (var x = 0; x < CUBE_FIELD_SIZE; x++)
 		{
-			for (int j = 0; j < height; j++)
+			for (var z = 0; z < CUBE_FIELD_SIZE; z++)
 			{
-				perlinNoise[i][j] /= totalAmplitude;
-				perlinNoise[i][j] = (float) (Math.floor(perlinNoise[i][j] * 25));
+				cubeField.add((x - CUBE_FIELD_SIZE / 2) * 3.0f, CUBE_FIELD_Y, (z - CUBE_FIELD_SIZE / 2) * 3.0f, 1.0f + (x + z) % 3 * 0.5f);
 			}
 		}
-
-		return perlinNoise;
+		cubeFieldBatch = () -> instancedDrawCount = cubeField.draw(GL32.GL_TRIANGLES);
 	}
 
-	private static float[][] generateWhiteNoise(int width, int height)
+	/**
+	 * @return the 36 vertices of a unit cube in {@link VertexFormat#BYTE_POSITIONS_NORMALS}, two triangles per face
+	 */
+	private static ByteBuffer cubeVertices()
 	{
-		float[][] noise = new float[width][height];
-
-		for (int i = 0; i < width; i++)
+		var vertices = ByteBuffer.allocateDirect(6 * 6 * VertexFormat.BYTE_POSITIONS_NORMALS.bytesPerVertex()).order(ByteOrder.nativeOrder());
+		for (var face = 0; face < 6; face++)
 		{
-			for (int j = 0; j < height; j++)
+			for (var corner : new int[]{0, 1, 2, 0, 2, 3})
 			{
-				noise[i][j] = (float) random.nextDouble() % 1;
+				var offset = (face * 4 + corner) * 3;
+				vertices.put((byte) CUBE_FACES[offset]).put((byte) CUBE_FACES[offset + 1]).put((byte) CUBE_FACES[offset + 2]).put((byte) face);
 			}
 		}
 
-		return noise;
+		return vertices.flip();
 	}
 
 	public static Matrix4f projections(float fovIn, float zNearIn, float zFarIn, int widthInIn, int heightIn, Matrix4f projectionMatrixIn)
@@ -207,61 +255,176 @@ public class Render
 		return projectionMatrixIn;
 	}
 
-	private static float[][] generateSmoothNoise(float[][] baseNoise, int octave)
+	private MeshArena arena(VertexFormat formatIn)
+	{
+		return arenas.computeIfAbsent(formatIn, formatKeyIn ->
+		{
+			var arena = new MeshArena(state, stream, formatKeyIn, IndexType.UNSIGNED_INT, ARENA_VERTICES, ARENA_INDICES);
+			arenaBatches.put(arena, () -> arena.submit(GL32.GL_TRIANGLES));
+
+			return arena;
+		});
+	}
+
+	@Override
+	public void load(StreamedColumn columnIn)
+	{
+		var meshes = new ColumnMeshes(this::arena, columnIn, LOD_COUNT, VOXEL_SCALE, VOXEL_OFFSET);
+		columnMeshes.put(columnIn.key(), meshes);
+		meshes.show(terrainLod.add(columnIn.key(), columnIn.x(), columnIn.z(), meshes.triangles(), cameraVoxelX, cameraVoxelZ), chunkGrid);
+		for (var chunk : columnIn.chunks())
+		{
+			terrain.add(chunk);
+		}
+	}
+
+	@Override
+	public void unload(StreamedColumn columnIn)
+	{
+		var meshes = columnMeshes.remove(columnIn.key());
+		if (meshes == null)
+		{
+			return;
+		}
+
+		terrainLod.remove(columnIn.key());
+		meshes.cleanup(chunkGrid);
+		for (var chunk : columnIn.chunks())
+		{
+			terrain.remove(chunk.x(), chunk.y(), chunk.z());
+		}
+	}
+
+	/**
+	 * Replay the last move of the camera from fromIn against the loaded terrain, it stops on the blocked axes and slides
+	 * along the others
+	 */
+	public void collide(Vector3fc fromIn, Camera cameraIn)
+	{
+		var to = cameraIn.cameraPosition();
+		var x  = (fromIn.x() - VOXEL_OFFSET.x) / VOXEL_SCALE.x;
+		var y  = (fromIn.y() - VOXEL_OFFSET.y) / VOXEL_SCALE.y;
+		var z  = (fromIn.z() - VOXEL_OFFSET.z) / VOXEL_SCALE.z;
+		var dx = (to.x() - fromIn.x()) / VOXEL_SCALE.x;
+		var dy = (to.y() - fromIn.y()) / VOXEL_SCALE.y;
+		var dz = (to.z() - fromIn.z()) / VOXEL_SCALE.z;
+		cameraBox.set(x - CAMERA_HALF_WIDTH / VOXEL_SCALE.x, y - CAMERA_BELOW / VOXEL_SCALE.y, z - CAMERA_HALF_WIDTH / VOXEL_SCALE.z, x + CAMERA_HALF_WIDTH / VOXEL_SCALE.x, y + CAMERA_ABOVE / VOXEL_SCALE.y, z + CAMERA_HALF_WIDTH / VOXEL_SCALE.z);
+		if (terrainQuery.move(cameraBox, dx, dy, dz) == 0)
+		{
+			return;
+		}
+
+		var voxelX = (cameraBox.minX() + cameraBox.maxX()) * 0.5f;
+		var voxelY = cameraBox.minY() + CAMERA_BELOW / VOXEL_SCALE.y;
+		var voxelZ = (cameraBox.minZ() + cameraBox.maxZ()) * 0.5f;
+		cameraIn.position(voxelX * VOXEL_SCALE.x + VOXEL_OFFSET.x, voxelY * VOXEL_SCALE.y + VOXEL_OFFSET.y, voxelZ * VOXEL_SCALE.z + VOXEL_OFFSET.z);
+	}
+
+	/**
+	 * @return triangles of the terrain currently drawn at lodIn, before frustum culling
+	 */
+	public long triangleCount(int lodIn)
 	{
-		int width  = baseNoise.length;
-		int height = baseNoise[0].length;
+		return terrainLod.triangleCount(lodIn);
+	}
 
-		float[][] smoothNoise = new float[width][height];
+	/**
+	 * @return chunk meshes drawn by the last frame
+	 */
+	public int visibleCount()
+	{
+		return visibleChunkMeshes.size();
+	}
 
-		int   samplePeriod    = 1 << octave; // calculates 2 ^ k
-		float sampleFrequency = 1.0f / samplePeriod;
+	public void draw(Camera cameraIn)
+	{
+		// Noise and meshing run on the streamer threads, only the uploads happen here
+		var time     = System.nanoTime();
+		var position = cameraIn.cameraPosition();
+		cameraVoxelX = (position.x() - VOXEL_OFFSET.x) / VOXEL_SCALE.x;
+		cameraVoxelZ = (position.z() - VOXEL_OFFSET.z) / VOXEL_SCALE.z;
+		streamer.update(cameraVoxelX, cameraVoxelZ);
+		streamer.drain(this, UPLOADS_PER_FRAME);
+		shaders.drain(LINKS_PER_FRAME);
+		terrainLod.update(cameraVoxelX, cameraVoxelZ, (keyIn, previousLodIn, lodIn) -> columnMeshes.get(keyIn).show(lodIn, chunkGrid));
+		time = profiler.record(FramePhase.UPDATE, time);
+
+		// Planes and matrices only change with the camera
+		if (cameraIn.projection(projections).revision() != cameraRevision)
+		{
+			frustum.update(cameraIn.viewProjection());
+			cameraIn.modelViewProjection(voxelTransformations, voxelModelViewProjection);
+			cameraRevision = cameraIn.revision();
+		}
+		visibleChunkMeshes.clear();
+		chunkGrid.visible(frustum, visibleChunkMeshes);
+		time = profiler.record(FramePhase.CULLING, time);
+
+		for (var chunkMesh : visibleChunkMeshes)
+		{
+			chunkMesh.draw();
+		}
+
+		// Terrain and cubes share the voxel transformations, one matrix for both, not sent again while the camera stands still
+		var program = shader.programId();
+		var uniform = shader.modelViewProjectionUniformId();
+		// One multi draw per vertex format
+		for (var arena : arenas.values())
+		{
+			queue.add(program, arena.vertexArray(), uniform, voxelModelViewProjection, 0.0f, arenaBatches.get(arena));
+		}
 
-		for (int i = 0; i < width; i++)
+		// Only the instances are sent, the cube itself never changes
+		var phase = frameCount++ * 0.05f;
+		for (var instance = 0; instance < cubeField.count(); instance++)
 		{
-			// calculate the horizontal sampling indices
-			int   sample_i0        = (i / samplePeriod) * samplePeriod;
-			int   sample_i1        = (sample_i0 + samplePeriod) % width; // wrap around
-			float horizontal_blend = (i - sample_i0) * sampleFrequency;
+			var x = cubeField.x(instance);
+			var z = cubeField.z(instance);
+			cubeField.set(instance, x, CUBE_FIELD_Y + 4.0f * (float) Math.sin(phase + (x + z) * 0.1f), z, cubeField.scale(instance));
+		}
+		queue.add(program, cubeField.vertexArray(), uniform, voxelModelViewProjection, position.distance(0.0f, CUBE_FIELD_Y, 0.0f), cubeFieldBatch);
+		drawCount = queue.submit(state);
 
-			for (int j = 0; j < height; j++)
+		for (var arena : arenas.values())
+		{
+			if (arena.fragmentation() > DEFRAGMENT_ABOVE)
 			{
-				// calculate the vertical sampling indices
-				int sample_j0 = (j / samplePeriod) * samplePeriod;
-				int sample_j1 = (sample_j0 + samplePeriod) % height; // wrap
-				// around
-				float vertical_blend = (j - sample_j0) * sampleFrequency;
-
-				// blend the top two corners
-				float top = interpolate(baseNoise[sample_i0][sample_j0],
-						baseNoise[sample_i1][sample_j0], horizontal_blend);
-
-				// blend the bottom two corners
-				float bottom = interpolate(baseNoise[sample_i0][sample_j1],
-						baseNoise[sample_i1][sample_j1], horizontal_blend);
-
-				// final blend
-				smoothNoise[i][j] = interpolate(top, bottom, vertical_blend);
+				arena.defragment(DEFRAGMENT_UNITS);
 			}
 		}
+		stream.endFrame();
+		profiler.record(FramePhase.SUBMISSION, time);
+	}
 
-		return smoothNoise;
+	public int arenaCount()
+	{
+		return arenas.size();
 	}
 
-	private static float interpolate(float x0, float x1, float alpha)
+	public StreamBuffer stream()
 	{
-		return x0 * (1 - alpha) + alpha * x1;
+		return stream;
 	}
 
-	public void draw(Camera cameraIn)
+	/**
+	 * @return instanced draw calls of the last frame, included in {@link #drawCount()}
+	 */
+	public int instancedDrawCount()
 	{
-		GL32.glBindVertexArray(vao);
-		shader.use();
-		Shader.uniform(shader.transformationsUniformId(), transformations(offsets, rotations, scale, transformationsMatrix));
-		Shader.uniform(shader.viewUniformId(), cameraIn.view());
-		GL32.glDrawArrays(GL32.GL_TRIANGLES, 0, vertexCount);
-		GL32.glBindVertexArray(0);
-		Shader.unbind();
+		return instancedDrawCount;
+	}
+
+	public InstanceBatch cubeField()
+	{
+		return cubeField;
+	}
+
+	/**
+	 * @return draw calls of the last frame
+	 */
+	public int drawCount()
+	{
+		return drawCount;
 	}
 
 	public static Matrix4f transformations(Vector3f offsetIn, Vector3f rotationIn, float scaleIn, Matrix4f transformationsMatrixIn)
@@ -277,11 +440,25 @@ public class Render
 
 	public void cleanup()
 	{
-		GL32.glBindVertexArray(0);
-		GL32.glDeleteBuffers(vbo);
-		GL32.glBindVertexArray(0);
-		GL32.glDeleteVertexArrays(vao);
+		streamer.unloadAll(this);
+		streamer.close();
+		try
+		{
+			store.close();
+		}
+		catch (IOException eIn)
+		{
+			throw new RuntimeException(eIn);
+		}
 
+		for (var arena : arenas.values())
+		{
+			arena.cleanup();
+		}
+		cubeField.cleanup();
+		stream.cleanup();
 		shader.cleanup();
+		shaders.close();
+		assets.close();
 	}
 }
\ No newline at end of file
@@ -32,142 +32,64 @@
 
 package fr.onsiea.ludani.tests;
 
+import fr.onsiea.ludani.gl.GLState;
+import fr.onsiea.ludani.shader.ShaderPipeline;
+import fr.onsiea.ludani.shader.ShaderProgram;
+import fr.onsiea.ludani.shader.ShaderVariant;
 import lombok.Getter;
-import org.joml.Matrix4f;
-import org.lwjgl.opengl.GL32;
-import org.lwjgl.system.MemoryStack;
-
-import java.nio.FloatBuffer;
-import java.util.concurrent.atomic.AtomicReference;
-
-import static org.lwjgl.opengl.GL20.glCreateProgram;
+import org.joml.Matrix4fc;
 
+/**
+ * Voxel program, sources in the shaders resources, loaded and deleted by a {@link ShaderPipeline}
+ */
 public class Shader
 {
-	private final         int programId;
-	private final @Getter int projectionsUniformId;
-	private final @Getter int transformationsUniformId;
-	private final @Getter int viewUniformId;
-
-	public Shader()
-	{
-		AtomicReference<Integer> shaderVertexId   = new AtomicReference<>();
-		AtomicReference<Integer> shaderFragmentId = new AtomicReference<>();
-
-		programId = glCreateProgram();
-		if (programId == 0)
-		{
-			System.err.println("Could not create Shader");
-
-			System.exit(-1);
-		}
-
-		String vertexCode = """
-				#version 400
-
-				layout(location = 0) in vec3 vertex;
-
-				uniform mat4 projections;
-				uniform mat4 transformations;
-				uniform mat4 view;
-
-				out vec3 pass_FragmentColor;
-
-				void main()
-				{
-					gl_Position = projections * transformations * view * vec4(vertex.x, vertex.y, vertex.z, 1.0);
-
-				    pass_FragmentColor = vec3(round(vertex.x/5)/32 * 0.85f, 0.25f * round(vertex.y*2)/16, round(vertex.z/2)/32 * 0.75f);
-				}
-				""";
-		shaderVertexId.set(createShader(programId, vertexCode, GL32.GL_VERTEX_SHADER, 2048));
-		String fragmentCode = """
-				#version 400
-
-				in vec3 pass_FragmentColor;
-
-				void main()
-				{
-				    gl_FragColor = vec4(pass_FragmentColor.x, pass_FragmentColor.y, pass_FragmentColor.z, 1.0);
-				}
-				""";
-		shaderFragmentId.set(createShader(programId, fragmentCode, GL32.GL_FRAGMENT_SHADER, 2048));
-
-		GL32.glLinkProgram(programId);
-		if (GL32.glGetProgrami(programId, GL32.GL_LINK_STATUS) == 0)
-		{
-			throw new RuntimeException("Error linking Shader code: " + GL32.glGetProgramInfoLog(programId, 1024));
-		}
+	public final static ShaderVariant VARIANT = new ShaderVariant("shaders/voxel.vert", "shaders/voxel.frag");
 
-		if (shaderVertexId.get() != 0)
-		{
-			GL32.glDetachShader(programId, shaderVertexId.get());
-		}
-		if (shaderFragmentId.get() != 0)
-		{
-			GL32.glDetachShader(programId, shaderFragmentId.get());
-		}
-
-		GL32.glValidateProgram(programId);
-		if (GL32.glGetProgrami(programId, GL32.GL_VALIDATE_STATUS) == 0)
-		{
-			System.err.println("Warning validating Shader code: " + GL32.glGetProgramInfoLog(programId, 2048));
-		}
+	private final         GLState       state;
+	private final @Getter ShaderProgram program;
+	private final @Getter int           programId;
+	private final @Getter int           modelViewProjectionUniformId;
 
-		GL32.glUseProgram(programId);
-		projectionsUniformId     = GL32.glGetUniformLocation(programId, "projections");
-		transformationsUniformId = GL32.glGetUniformLocation(programId, "transformations");
-		viewUniformId            = GL32.glGetUniformLocation(programId, "view");
-		GL32.glUseProgram(0);
-	}
-
-	public static int createShader(int shaderProgramIdIn, String shaderCodeIn, int shaderTypeIn, int logSizeIn)
+	/**
+	 * Wait for the program, needed by the first frame
+	 */
+	public Shader(GLState stateIn, ShaderPipeline pipelineIn)
 	{
-		int shaderId = GL32.glCreateShader(shaderTypeIn);
-		if (shaderId == 0)
-		{
-			throw new RuntimeException("Error creating shader. Type: " + shaderTypeIn);
-		}
-
-		GL32.glShaderSource(shaderId, shaderCodeIn);
-		GL32.glCompileShader(shaderId);
-
-		if (GL32.glGetShaderi(shaderId, GL32.GL_COMPILE_STATUS) == 0)
-		{
-			throw new RuntimeException("Error compiling Shader code: " + GL32.glGetShaderInfoLog(shaderId, logSizeIn));
-		}
-
-		GL32.glAttachShader(shaderProgramIdIn, shaderId);
-
-		return shaderId;
+		state                        = stateIn;
+		program                      = pipelineIn.await(pipelineIn.load(VARIANT));
+		programId                    = program.programId();
+		modelViewProjectionUniformId = program.uniformLocation("modelViewProjection");
 	}
 
-	public static void unbind()
+	public void unbind()
 	{
-		GL32.glUseProgram(0);
+		state.useProgram(0);
 	}
 
-	public static void uniform(int uniformLocationIn, Matrix4f valueIn)
+	/**
+	 * Upload the value unless the uniform already holds it, the program must be in use
+	 */
+	public void uniform(int uniformLocationIn, Matrix4fc valueIn)
 	{
-		try (MemoryStack stack = MemoryStack.stackPush())
+		if (state.program() != programId)
 		{
-			FloatBuffer fb = stack.mallocFloat(16);
-			valueIn.get(fb);
-			GL32.glUniformMatrix4fv(uniformLocationIn, false, fb);
+			throw new IllegalStateException("Shader must be in use to set its uniforms");
 		}
+
+		state.uniforms(programId).matrix4(uniformLocationIn, valueIn);
 	}
 
 	public void use()
 	{
-		GL32.glUseProgram(programId);
+		state.useProgram(programId);
 	}
 
+	/**
+	 * The program itself is deleted with its pipeline
+	 */
 	public void cleanup()
 	{
-		GL32.glUseProgram(0);
-		if (programId != 0)
-		{
-			GL32.glDeleteProgram(programId);
-		}
+		state.useProgram(0);
 	}
 }
@@ -0,0 +1,8 @@
+#version 400
+
+in vec3 pass_FragmentColor;
+
+void main()
+{
+	gl_FragColor = vec4(pass_FragmentColor.x, pass_FragmentColor.y, pass_FragmentColor.z, 1.0);
+}
@@ -0,0 +1,5 @@
+// World position bands, voxels are 1 x 0.5 x 1 units shifted by half a voxel on x and z
+vec3 bandColor(vec3 voxelPosition)
+{
+	return vec3(round((voxelPosition.x - 0.5f)/5)/32 * 0.85f, 0.25f * round(voxelPosition.y)/16, round((voxelPosition.z - 0.5f)/2)/32 * 0.75f);
+}
@@ -0,0 +1,18 @@
+#version 400
+
+#include "voxel.glsl"
+
+layout(location = 0) in vec4 vertex; // chunk relative position, face index in w
+layout(location = 2) in vec4 origin; // voxel position of the mesh in xyz and its scale in w, one per draw or instance
+
+// projections * view * transformations, combined once per object on the CPU
+uniform mat4 modelViewProjection;
+
+out vec3 pass_FragmentColor;
+
+void main()
+{
+	vec3 voxelPosition = vertex.xyz * origin.w + origin.xyz;
+	gl_Position = modelViewProjection * vec4(voxelPosition, 1.0);
+	pass_FragmentColor = bandColor(voxelPosition);
+}